@@ -0,0 +1,101 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Contention benchmark for thread-safe maps ({@link FastMap#shared}, {@link FastMap#atomic},
+ * {@link FastMap#concurrent} and {@link ConcurrentHashMap}). Use {@code -t} (JMH option) to change the number of
+ * threads of the read-only benchmark, e.g. {@code -Djmh.args="-f 1 -t 32 ConcurrentMapBenchmark.get"}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx4g" })
+@State(Scope.Benchmark)
+public class ConcurrentMapBenchmark {
+
+    @Param({ "1000", "1000000" })
+    int size;
+
+    @Param({ "FastMap.shared", "FastMap.atomic", "FastMap.concurrent", "ConcurrentHashMap" })
+    String impl;
+
+    Map<Integer, Integer> map;
+    Integer[] keys;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        FastMap<Integer, Integer> fastMap = new FastMap<Integer, Integer>();
+        if (impl.equals("FastMap.shared")) map = fastMap.shared();
+        else if (impl.equals("FastMap.atomic")) map = fastMap.atomic();
+        else if (impl.equals("FastMap.concurrent")) map = fastMap.concurrent();
+        else if (impl.equals("ConcurrentHashMap")) map = new ConcurrentHashMap<Integer, Integer>();
+        else throw new IllegalArgumentException(impl);
+        keys = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = i;
+            map.put(i, i);
+        }
+    }
+
+    private Integer randomKey() {
+        return keys[ThreadLocalRandom.current().nextInt(keys.length)];
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Integer get() {
+        return map.get(randomKey());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Integer put() {
+        Integer key = randomKey();
+        return map.put(key, key);
+    }
+
+    @Benchmark
+    @Group("readMostly")
+    @GroupThreads(7)
+    public Integer readMostlyGet() {
+        return map.get(randomKey());
+    }
+
+    @Benchmark
+    @Group("readMostly")
+    @GroupThreads(1)
+    public Integer readMostlyPut() {
+        Integer key = randomKey();
+        return map.put(key, key);
+    }
+
+}
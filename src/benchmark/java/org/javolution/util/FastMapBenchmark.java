@@ -0,0 +1,112 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.javolution.util.function.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Map operations benchmark ({@link FastMap} and its views against {@link HashMap}, {@link TreeMap} and
+ * {@link ConcurrentHashMap}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx4g" })
+@State(Scope.Thread)
+public class FastMapBenchmark {
+
+    @Param({ "10", "1000", "100000", "10000000" })
+    int size;
+
+    @Param({ "FastMap", "FastMap.sorted", "FastMap.shared", "FastMap.atomic", "HashMap", "TreeMap",
+            "ConcurrentHashMap" })
+    String impl;
+
+    Map<Integer, Integer> map;
+    final Integer[] hits = new Integer[1024]; // Keys present (precomputed to avoid boxing during measurement).
+    final Integer[] misses = new Integer[1024]; // Keys absent.
+    int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        map = newMap(impl);
+        for (int i = 0; i < size; i++) map.put(i * 2, i);
+        Random random = new Random(0);
+        for (int i = 0; i < hits.length; i++) {
+            int n = random.nextInt(size);
+            hits[i] = n * 2;
+            misses[i] = n * 2 + 1;
+        }
+    }
+
+    static Map<Integer, Integer> newMap(String impl) {
+        if (impl.equals("FastMap")) return new FastMap<Integer, Integer>();
+        if (impl.equals("FastMap.sorted")) return new FastMap<Integer, Integer>(SIGNED_ORDER);
+        if (impl.equals("FastMap.shared")) return new FastMap<Integer, Integer>().shared();
+        if (impl.equals("FastMap.atomic")) return new FastMap<Integer, Integer>().atomic();
+        if (impl.equals("HashMap")) return new HashMap<Integer, Integer>();
+        if (impl.equals("TreeMap")) return new TreeMap<Integer, Integer>();
+        if (impl.equals("ConcurrentHashMap")) return new ConcurrentHashMap<Integer, Integer>();
+        throw new IllegalArgumentException(impl);
+    }
+
+    /** Sorted order for integers (sign bit flipped so that unsigned index order is the signed order). */
+    static final Order<Integer> SIGNED_ORDER = Order.valueOf(i -> i.longValue() ^ Long.MIN_VALUE);
+
+    @Benchmark
+    public Integer getHit() {
+        return map.get(hits[cursor++ & (hits.length - 1)]);
+    }
+
+    @Benchmark
+    public Integer getMiss() {
+        return map.get(misses[cursor++ & (misses.length - 1)]);
+    }
+
+    @Benchmark
+    public Integer putExisting() {
+        Integer key = hits[cursor++ & (hits.length - 1)];
+        return map.put(key, key);
+    }
+
+    @Benchmark
+    public Integer putRemove() { // Keeps the size constant.
+        Integer key = misses[cursor++ & (misses.length - 1)];
+        map.put(key, key);
+        return map.remove(key);
+    }
+
+    @Benchmark
+    public long iterate() {
+        long sum = 0;
+        for (Map.Entry<Integer, Integer> entry : map.entrySet()) sum += entry.getValue();
+        return sum;
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.javolution.util.function.Predicate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Set operations benchmark ({@link FastSet} and its views against {@link HashSet} and {@link TreeSet}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx4g" })
+@State(Scope.Thread)
+public class FastSetBenchmark {
+
+    @Param({ "10", "1000", "100000", "10000000" })
+    int size;
+
+    @Param({ "FastSet", "FastSet.sorted", "FastSet.shared", "FastSet.atomic", "HashSet", "TreeSet" })
+    String impl;
+
+    Set<Integer> set;
+    final Integer[] hits = new Integer[1024];
+    final Integer[] misses = new Integer[1024];
+    int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        set = newSet(impl);
+        for (int i = 0; i < size; i++) set.add(i * 2);
+        Random random = new Random(0);
+        for (int i = 0; i < hits.length; i++) {
+            int n = random.nextInt(size);
+            hits[i] = n * 2;
+            misses[i] = n * 2 + 1;
+        }
+    }
+
+    static Set<Integer> newSet(String impl) {
+        if (impl.equals("FastSet")) return new FastSet<Integer>();
+        if (impl.equals("FastSet.sorted")) return new FastSet<Integer>(FastMapBenchmark.SIGNED_ORDER);
+        if (impl.equals("FastSet.shared")) return new FastSet<Integer>().shared();
+        if (impl.equals("FastSet.atomic")) return new FastSet<Integer>().atomic();
+        if (impl.equals("HashSet")) return new HashSet<Integer>();
+        if (impl.equals("TreeSet")) return new TreeSet<Integer>();
+        throw new IllegalArgumentException(impl);
+    }
+
+    @Benchmark
+    public boolean containsHit() {
+        return set.contains(hits[cursor++ & (hits.length - 1)]);
+    }
+
+    @Benchmark
+    public boolean containsMiss() {
+        return set.contains(misses[cursor++ & (misses.length - 1)]);
+    }
+
+    @Benchmark
+    public boolean addRemove() { // Keeps the size constant.
+        Integer element = misses[cursor++ & (misses.length - 1)];
+        set.add(element);
+        return set.remove(element);
+    }
+
+    @Benchmark
+    public long iterate() {
+        long sum = 0;
+        for (Integer i : set) sum += i;
+        return sum;
+    }
+
+    /** Holds a fresh copy of the set for each invocation (destructive benchmarks). */
+    @State(Scope.Thread)
+    public static class Copy {
+        Set<Integer> set;
+
+        @Setup(Level.Invocation)
+        public void setup(FastSetBenchmark benchmark) {
+            set = newSet(benchmark.impl);
+            set.addAll(benchmark.set);
+        }
+    }
+
+    @Benchmark
+    public boolean removeIf(Copy copy) {
+        if (copy.set instanceof AbstractCollection)
+            return ((AbstractCollection<Integer>) copy.set).removeIf(new Predicate<Integer>() {
+                @Override
+                public boolean test(Integer param) {
+                    return (param & 2) == 0; // Removes half.
+                }
+            });
+        return copy.set.removeIf(i -> (i & 2) == 0);
+    }
+
+}
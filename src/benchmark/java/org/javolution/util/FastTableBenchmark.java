@@ -0,0 +1,137 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.javolution.util.function.Predicate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Table operations benchmark ({@link FastTable} and its views against {@link ArrayList}).
+ *
+ * The {@code size} parameter spans several orders of magnitude so that the evolution of the average time
+ * per operation can be checked against the {@link org.javolution.annotations.Realtime Realtime} limits
+ * documented (e.g. {@code CONSTANT} for {@link FastTable#get}, {@code LOG_N} for {@link FastTable#add(int, Object)}).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx4g" })
+@State(Scope.Thread)
+public class FastTableBenchmark {
+
+    @Param({ "10", "1000", "100000", "10000000" })
+    int size;
+
+    @Param({ "FastTable", "FastTable.shared", "FastTable.atomic", "ArrayList" })
+    String impl;
+
+    List<Integer> table;
+    final int[] positions = new int[1024]; // Random positions (precomputed).
+    int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        table = newTable(impl);
+        for (int i = 0; i < size; i++) table.add(i);
+        Random random = new Random(0);
+        for (int i = 0; i < positions.length; i++) positions[i] = random.nextInt(size);
+    }
+
+    static List<Integer> newTable(String impl) {
+        if (impl.equals("FastTable")) return new FastTable<Integer>();
+        if (impl.equals("FastTable.shared")) return new FastTable<Integer>().shared();
+        if (impl.equals("FastTable.atomic")) return new FastTable<Integer>().atomic();
+        if (impl.equals("ArrayList")) return new ArrayList<Integer>();
+        throw new IllegalArgumentException(impl);
+    }
+
+    private int nextPosition() {
+        return positions[cursor++ & (positions.length - 1)];
+    }
+
+    @Benchmark
+    public Integer randomGet() {
+        return table.get(nextPosition());
+    }
+
+    @Benchmark
+    public long sequentialGet() {
+        long sum = 0;
+        for (int i = 0, n = table.size(); i < n; i++) sum += table.get(i);
+        return sum;
+    }
+
+    @Benchmark
+    public Integer set() {
+        int i = nextPosition();
+        return table.set(i, i);
+    }
+
+    @Benchmark
+    public Integer insertDelete() { // Keeps the size constant.
+        int i = nextPosition();
+        table.add(i, i);
+        return table.remove(i);
+    }
+
+    @Benchmark
+    public Integer addRemoveLast() {
+        table.add(size);
+        return table.remove(size);
+    }
+
+    @Benchmark
+    public long iterate() {
+        long sum = 0;
+        for (Integer i : table) sum += i;
+        return sum;
+    }
+
+    /** Holds a fresh copy of the table for each invocation (destructive benchmarks). */
+    @State(Scope.Thread)
+    public static class Copy {
+        List<Integer> table;
+
+        @Setup(Level.Invocation)
+        public void setup(FastTableBenchmark benchmark) {
+            table = newTable(benchmark.impl);
+            table.addAll(benchmark.table);
+        }
+    }
+
+    @Benchmark
+    public boolean removeIf(Copy copy) {
+        if (copy.table instanceof AbstractCollection)
+            return ((AbstractCollection<Integer>) copy.table).removeIf(new Predicate<Integer>() {
+                @Override
+                public boolean test(Integer param) {
+                    return (param & 1) == 0; // Removes half.
+                }
+            });
+        return copy.table.removeIf(i -> (i & 1) == 0);
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Core {@link FractalArray} operations benchmark for dense and sparse arrays.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx4g" })
+@State(Scope.Thread)
+public class FractalArrayBenchmark {
+
+    @Param({ "10", "1000", "100000", "10000000" })
+    int size;
+
+    @Param({ "1", "1000003" }) // Dense or sparse (prime stride).
+    long stride;
+
+    FractalArray<Integer> array;
+    final long[] indices = new long[1024];
+    int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        array = FractalArray.empty();
+        for (int i = 0; i < size; i++) array = array.set(i * stride, i);
+        Random random = new Random(0);
+        for (int i = 0; i < indices.length; i++) indices[i] = random.nextInt(size) * stride;
+    }
+
+    @Benchmark
+    public Integer get() {
+        return array.get(indices[cursor++ & (indices.length - 1)]);
+    }
+
+    @Benchmark
+    public FractalArray<Integer> set() {
+        long index = indices[cursor++ & (indices.length - 1)];
+        return array = array.set(index, (int) index);
+    }
+
+    @Benchmark
+    public FractalArray<Integer> insertDelete() { // Keeps the size constant.
+        long index = indices[cursor++ & (indices.length - 1)];
+        array = array.insert(index, 0);
+        return array = array.delete(index);
+    }
+
+    @Benchmark
+    public long iterate() {
+        long sum = 0;
+        for (FractalArray.Iterator<Integer> itr = array.iterator(); itr.hasNext();) sum += itr.next();
+        return sum;
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.javolution.util.function.BinaryOperator;
+import org.javolution.util.function.Consumer;
+import org.javolution.util.function.Predicate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Closures benchmark, sequential versus {@link AbstractCollection#parallel() parallel} views
+ * (with {@link ArrayList#parallelStream()} as reference).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx4g" })
+@State(Scope.Benchmark)
+public class ParallelBenchmark {
+
+    @Param({ "1000", "100000", "10000000" })
+    int size;
+
+    @Param({ "FastTable", "FastSet" })
+    String impl;
+
+    AbstractCollection<Integer> collection;
+    ArrayList<Integer> reference;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        collection = impl.equals("FastTable") ? new FastTable<Integer>() : new FastSet<Integer>();
+        reference = new ArrayList<Integer>(size);
+        for (int i = 0; i < size; i++) {
+            collection.add(i);
+            reference.add(i);
+        }
+    }
+
+    private static final BinaryOperator<Integer> MAX = new BinaryOperator<Integer>() {
+        @Override
+        public Integer apply(Integer first, Integer second) {
+            return first >= second ? first : second;
+        }
+    };
+
+    private static final Predicate<Integer> NONE = new Predicate<Integer>() {
+        @Override
+        public boolean test(Integer param) {
+            return param < 0; // Full scan.
+        }
+    };
+
+    @Benchmark
+    public Integer reduceSequential() {
+        return collection.reduce(MAX);
+    }
+
+    @Benchmark
+    public Integer reduceParallel() {
+        return collection.parallel().reduce(MAX);
+    }
+
+    @Benchmark
+    public Integer reduceStream() {
+        return reference.parallelStream().reduce(MAX).get();
+    }
+
+    @Benchmark
+    public boolean anyMatchSequential() {
+        return collection.anyMatch(NONE);
+    }
+
+    @Benchmark
+    public boolean anyMatchParallel() {
+        return collection.parallel().anyMatch(NONE);
+    }
+
+    @Benchmark
+    public long forEachParallel() {
+        final LongAdder sum = new LongAdder();
+        collection.parallel().forEach(new Consumer<Integer>() {
+            @Override
+            public void accept(Integer param) {
+                sum.add(param);
+            }
+        });
+        return sum.sum();
+    }
+
+}
@@ -153,9 +153,14 @@ public abstract class ConcurrentContext extends AbstractContext {
     /**
      * Holds the maximum concurrency (default: `Runtime.getRuntime().availableProcessors() - 1`).
      * The maximum concurrency is configurable. 
-     * For example, the JVM option `-Djavolution.context.ConcurrentContext#CONCURRENCY=0` disables concurrency. 
+     * For example, the JVM option `-Dorg.javolution.context.ConcurrentContext#CONCURRENCY=0` disables concurrency. 
      */
     public static final Configurable<Integer> CONCURRENCY = new Configurable<Integer>() {
+        @Override
+        public String getName() { // Required since there are multiple configurables in this class.
+            return ConcurrentContext.class.getName() + "#CONCURRENCY";
+        }
+
         @Override
         protected Integer getDefault() {
             return Runtime.getRuntime().availableProcessors() - 1;
@@ -173,6 +178,55 @@ public abstract class ConcurrentContext extends AbstractContext {
         }
     };
 
+    /**
+     * The execution modes of the default concurrent context implementation.
+     */
+    public enum Mode {
+        /** Fixed set of concurrent threads; logics are executed by the current thread if no thread is idle. */
+        THREADS,
+        /** 
+         * Work-stealing pool ({@link java.util.concurrent.ForkJoinPool}); logics are forked and executed by idle 
+         * workers, nested concurrent contexts help completing each others tasks while waiting.
+         */
+        WORK_STEALING,
+        /** 
+         * Each logic is executed by a new virtual thread (suitable for blocking I/O fan-out); requires a JVM 
+         * supporting virtual threads, the {@link #THREADS} mode is used otherwise.  
+         */
+        VIRTUAL_THREADS
+    }
+
+    /**
+     * Holds the execution mode of the default implementation (default: `THREADS`). The concurrency 
+     * is given by {@link #CONCURRENCY} (e.g. parallelism of the work-stealing pool) except for virtual threads
+     * whose number is not limited (setting the context concurrency to zero still disables concurrency).
+     * For example, the JVM option `-Dorg.javolution.context.ConcurrentContext#MODE=WORK_STEALING` selects the 
+     * work-stealing implementation. This configurable has no effect if a {@link ConcurrentContext} OSGi service
+     * is published (the service implementation is then used).
+     */
+    public static final Configurable<Mode> MODE = new Configurable<Mode>() {
+        @Override
+        public String getName() { // Required since there are multiple configurables in this class.
+            return ConcurrentContext.class.getName() + "#MODE";
+        }
+
+        @Override
+        protected Mode getDefault() {
+            return Mode.THREADS;
+        }
+
+        @Override
+        protected Mode parse(String str) {
+            return Mode.valueOf(str);
+        }
+
+        @Override
+        protected Mode reconfigured(Mode oldMode, Mode newMode) {
+            throw new UnsupportedOperationException(
+                    "Mode reconfiguration not supported.");
+        }
+    };
+
     /**
      * Default constructor.
      */
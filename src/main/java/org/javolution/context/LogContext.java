@@ -9,6 +9,7 @@
 package org.javolution.context;
 
 import org.javolution.lang.Configurable;
+import org.javolution.lang.MathLib;
 import org.javolution.osgi.internal.OSGiServices;
 
 /**
@@ -87,11 +88,77 @@ public abstract class LogContext extends AbstractContext {
         DEBUG, INFO, WARNING, ERROR, FATAL
     }
 
+    /**
+     * Defines the behavior of the default backend when its events buffer is full.
+     */
+    public enum Backpressure {
+        /** The calling thread waits for free space in the buffer (no event lost). */
+        BLOCK, 
+        /** The event is dropped (the number of events dropped is logged as a warning). */
+        DROP, 
+        /** The event is delivered synchronously by the calling thread. */
+        CALLER_RUNS
+    }
+
+    /**
+     * Holds the number of log events the default backend can buffer (default <code>1024</code>, rounded up to 
+     * a power of two). The events buffer is preallocated and its capacity cannot be reconfigured.
+     */
+    public static final Configurable<Integer> BUFFER_SIZE = new Configurable<Integer>() {
+        @Override
+        public String getName() { // Required since there are multiple configurables in this class.
+            return LogContext.class.getName() + "#BUFFER_SIZE";
+        }
+
+        @Override
+        protected Integer getDefault() {
+            return 1024;
+        }
+
+        @Override
+        protected Integer initialized(Integer value) {
+            return Integer.highestOneBit(MathLib.min(MathLib.max(value, 2), 1 << 20) * 2 - 1);
+        }
+
+        @Override
+        protected Integer reconfigured(Integer oldSize, Integer newSize) {
+            throw new UnsupportedOperationException(
+                    "Buffer size reconfiguration not supported.");
+        }
+    };
+
+    /**
+     * Holds the policy of the default backend when its events buffer is full (default <code>BLOCK</code>).
+     * For example, running with the option `-Dorg.javolution.context.LogContext#BACKPRESSURE=DROP` ensures 
+     * that logging never blocks.
+     */
+    public static final Configurable<Backpressure> BACKPRESSURE = new Configurable<Backpressure>() {
+        @Override
+        public String getName() { // Required since there are multiple configurables in this class.
+            return LogContext.class.getName() + "#BACKPRESSURE";
+        }
+
+        @Override
+        protected Backpressure getDefault() {
+            return Backpressure.BLOCK;
+        }
+
+        @Override
+        protected Backpressure parse(String str) {
+            return Backpressure.valueOf(str);
+        }
+    };
+
     /**
      * Holds the default logging level (<code>INFO</code>). This level is configurable. For example, running with 
-     * the option `-Djavolution.context.LogContext#DEFAULT_LEVEL=WARNING` causes the debug/info not to be logged. 
+     * the option `-Dorg.javolution.context.LogContext#DEFAULT_LEVEL=WARNING` causes the debug/info not to be logged. 
      */
     public static final Configurable<Level> DEFAULT_LEVEL = new Configurable<Level>() {
+        @Override
+        public String getName() { // Required since there are multiple configurables in this class.
+            return LogContext.class.getName() + "#DEFAULT_LEVEL";
+        }
+
         @Override
         protected Level getDefault() {
             return Level.INFO;
@@ -101,6 +168,15 @@ public abstract class LogContext extends AbstractContext {
             return Level.valueOf(str);
         }
     };
+
+    /**
+     * Indicates if the configurables above are initialized (they may log before, e.g. when superseded by
+     * system properties).
+     */
+    private static final boolean CONFIGURED;
+    static {
+        CONFIGURED = true; // Static initializers are executed in textual order.
+    }
     
     /**
      * Default constructor.
@@ -224,6 +300,16 @@ public abstract class LogContext extends AbstractContext {
      */
     protected abstract void log(Level level, Throwable error, Object... message);
 
+    /**
+     * Indicates if the logging configurables ({@link #DEFAULT_LEVEL}, {@link #BUFFER_SIZE}, {@link #BACKPRESSURE})
+     * can be accessed; returns {@code false} when logging occurs during the initialization of this class.
+     * 
+     * @return {@code true} if this class configurables are initialized; {@code false} otherwise.
+     */
+    protected static boolean isConfigured() {
+        return CONFIGURED;
+    }
+
     /** Returns the current LogContext. */
     private static LogContext currentLogContext() {
         LogContext ctx = current(LogContext.class);
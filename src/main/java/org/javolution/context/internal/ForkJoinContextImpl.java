@@ -0,0 +1,145 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ * 
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.context.internal;
+
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+import org.javolution.context.AbstractContext;
+import org.javolution.context.ConcurrentContext;
+import org.javolution.lang.MathLib;
+
+/**
+ * Work-stealing implementation of ConcurrentContext based on {@link ForkJoinPool}. 
+ * Logics executed from a pool worker are forked (pushed to the worker queue from which idle workers steal), 
+ * waiting upon exit helps executing pending tasks (including the tasks of nested contexts).
+ */
+public final class ForkJoinContextImpl extends ConcurrentContext {
+
+    private final ForkJoinPool pool;
+    private final ArrayList<TaskImpl> tasks = new ArrayList<TaskImpl>(); // Tasks forked from this context.
+    private final ForkJoinContextImpl parent;
+    private int concurrency;
+    private volatile Throwable error; // Any error raised.
+
+    /**
+     * Default constructor (root).
+     */
+    public ForkJoinContextImpl() {
+        this.parent = null;
+        this.concurrency = ConcurrentContext.CONCURRENCY.get();
+        this.pool = new ForkJoinPool(MathLib.max(concurrency, 1), new ForkJoinPool.ForkJoinWorkerThreadFactory() {
+            private int count;
+
+            @Override
+            public synchronized ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("ConcurrentWorker-" + ++count);
+                thread.setDaemon(true);
+                return thread;
+            }
+        }, null, false);
+    }
+
+    /**
+     * Inner implementation.
+     */
+    public ForkJoinContextImpl(ForkJoinContextImpl parent) {
+        this.parent = parent;
+        this.pool = parent.pool; // Shared by all contexts.
+        this.concurrency = parent.concurrency;
+    }
+
+    @Override
+    public void execute(Runnable logic) {
+        if (concurrency == 0) { // Concurrency disabled, lets do it ourself.
+            try {
+                logic.run();
+            } catch (Throwable e) {
+                error = e;
+            }
+            return;
+        }
+        TaskImpl task = new TaskImpl(logic, this);
+        tasks.add(task);
+        Thread current = Thread.currentThread();
+        if ((current instanceof ForkJoinWorkerThread) && (((ForkJoinWorkerThread) current).getPool() == pool)) {
+            task.fork(); // Local queue (can be stolen).
+        } else {
+            pool.execute(task); // External submission.
+        }
+    }
+
+    @Override
+    public void exit() {
+        for (int i = tasks.size(); --i >= 0;) { // Last forked first (local queue is LIFO).
+            TaskImpl task = tasks.get(i);
+            if (task.tryUnfork()) { // Not stolen, executes it ourself.
+                task.invoke();
+            } else {
+                task.quietlyJoin(); // Helps other tasks while waiting (if worker thread).
+            }
+        }
+        tasks.clear();
+        super.exit();
+        Throwable err = error;
+        if (err == null)
+            return; // Everything fine.
+        if (err instanceof RuntimeException)
+            throw (RuntimeException) err;
+        if (err instanceof Error)
+            throw (Error) err;
+        throw new RuntimeException(err);
+    }
+
+    @Override
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    @Override
+    public void setConcurrency(int concurrency) {
+        // The setting of the concurrency can only reduce the concurrency (zero disables concurrency).
+        this.concurrency = MathLib.max(0, MathLib.min(parent.concurrency, concurrency));
+    }
+
+    @Override
+    protected ConcurrentContext inner() {
+        return new ForkJoinContextImpl(this);
+    }
+
+    /** A logic executing within the context stack of the calling thread. */
+    private static final class TaskImpl extends RecursiveAction {
+        private static final long serialVersionUID = 0x700L; // Version.
+        private final Runnable logic;
+        private final ForkJoinContextImpl context;
+
+        private TaskImpl(Runnable logic, ForkJoinContextImpl context) {
+            this.logic = logic;
+            this.context = context;
+        }
+
+        @Override
+        protected void compute() {
+            AbstractContext previous = AbstractContext.current(); // Workers may run tasks while joining.
+            AbstractContext.inherit(context);
+            try {
+                logic.run();
+            } catch (Throwable error) {
+                context.error = error;
+            } finally {
+                AbstractContext.inherit(previous);
+            }
+        }
+    }
+
+}
@@ -16,18 +16,19 @@ import org.javolution.text.TextBuilder;
  */
 public final class LogContextImpl extends LogContext {
 
-    private static final LoggingThread LOGGING_THREAD = new LoggingThread();        
-    private Level actualLevel = DEFAULT_LEVEL.get(); 
+    private Level actualLevel; // Null if not set (default level).
     private String actualPrefix = "";
     private String actualSuffix = "";
 
-    public LogContextImpl() {
-        if (!LOGGING_THREAD.isAlive()) LOGGING_THREAD.start();        
+    /** Holds the logging thread (created on first logging, once the LogContext configurables are initialized). */
+    private static final class Logging {
+        private static final LoggingThread THREAD = new LoggingThread();
     }
     
     @Override
     public Level level() {
-        return actualLevel;
+        if (actualLevel != null) return actualLevel;
+        return isConfigured() ? DEFAULT_LEVEL.get() : Level.INFO;
     }
 
     @Override
@@ -73,9 +74,12 @@ public final class LogContextImpl extends LogContext {
     }
 
     protected void log(Level level, Throwable error, Object... messages) {
-        if (level.compareTo(actualLevel) < 0)
+        if (level.compareTo(level()) < 0)
             return;
-        LOGGING_THREAD.queueEvent(level, actualPrefix, actualSuffix, messages, error);
+        if (isConfigured())
+            Logging.THREAD.queueEvent(level, actualPrefix, actualSuffix, messages, error);
+        else // LogContext initialization (the logging thread cannot be configured yet).
+            LoggingThread.deliverNow(level, actualPrefix, actualSuffix, messages, error);
     }
     
     @Override
@@ -8,36 +8,59 @@
  */
 package org.javolution.context.internal;
 
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.javolution.context.LogContext;
+import org.javolution.context.LogContext.Backpressure;
 import org.javolution.context.LogContext.Level;
 import org.javolution.osgi.internal.OSGiServices;
 import org.javolution.text.TextBuilder;
-import org.javolution.util.FastTable;
 import org.osgi.service.log.LogService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /** 
  * Thread providing asynchronous processing of the log events.
+ * 
+ * Events are formatted by the logging threads into the reusable slots of a preallocated ring buffer 
+ * (multiple producers, single consumer); no allocation or lock is required to queue an event.
+ * When the buffer is full, the {@link LogContext#BACKPRESSURE} policy applies (blocked producers are parked
+ * until the consumer releases slots).
  */
 class LoggingThread extends Thread {
     private static final Logger LOG = LoggerFactory.getLogger(LoggingThread.class);
-    private final FastTable<Event> eventQueue = new FastTable<Event>();
+    private static final int MAX_BATCH = 64; // Maximum number of events delivered before releasing slots.
+    private final Event[] slots;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong(); // Next sequence number to be claimed by producers.
+    private final AtomicLong dropped = new AtomicLong(); // Number of events dropped (total).
+    private volatile long consumed; // Sequence number of the next event to be delivered.
+    private volatile boolean sleeping; // Indicates if the consumer is (or is about to be) parked.
+    private final ConcurrentLinkedQueue<Thread> blocked = new ConcurrentLinkedQueue<Thread>(); // Parked producers.
+    private static final TextBuilder TMP = new TextBuilder(); // Direct delivery formatting (synchronized).
+    private long droppedReported;
 
     /** Default Constructor.*/
     public LoggingThread() {
+        this(LogContext.BUFFER_SIZE.get());
+    }
+
+    /** Creates a logging thread having the specified buffer size (a power of two). */
+    LoggingThread(int size) {
         super("LoggingThread");
+        slots = new Event[size];
+        for (int i = 0; i < size; i++) 
+            slots[i] = new Event(i - size); // Not published.
+        mask = size - 1;
         setDaemon(true);
         this.start();
         Thread hook = new Thread(new Runnable() {
             @Override
-            public void run() { // Maintains the VM alive until the event queue is flushed 
-                synchronized (eventQueue) {
-                    try {
-                        while (!eventQueue.isEmpty())
-                            eventQueue.wait();
-                    } catch (InterruptedException e) {
-                    }
-                }
+            public void run() { // Maintains the VM alive until the events buffer is flushed 
+                while ((consumed < claimed.get()) && isAlive())
+                    LockSupport.parkNanos(1000000);
             }
         });
         Runtime.getRuntime().addShutdownHook(hook);
@@ -46,44 +69,121 @@ class LoggingThread extends Thread {
     @Override
     public void run() {
         while (true) {
-            try {
-                Event event;
-                synchronized (eventQueue) {
-                    while (eventQueue.isEmpty())
-                        eventQueue.wait();
-                    event = eventQueue.pollLast();
-                    eventQueue.notify();
-                }
-               TextBuilder tmp = new TextBuilder(event.prefix);
-               for (Object obj : event.messages) 
-                   tmp.append(obj);
-               tmp.append(event.suffix);
-               String message = tmp.toString();
-               Object[] logServices = OSGiServices.getLogServices();
-               for (Object obj : logServices) {
-                   log((LogService)obj, event.level, message, event.error);
-               }
-               logSLF4J(event.level, message, event.error);    
-            } catch (InterruptedException error) {
-                LOG.error("An Error Occurred While Logging", error);
+            long next = consumed;
+            Event event = slots[(int) next & mask];
+            if (event.sequence != next) { // Nothing to deliver.
+                reportDropped();
+                sleeping = true;
+                if (event.sequence != next) LockSupport.park(this);
+                sleeping = false;
+                continue;
             }
+            Object[] logServices = OSGiServices.getLogServices(); // Once per batch.
+            int count = 0;
+            do {
+                try {
+                    deliver(logServices, event.level, event.text, event.error);
+                } catch (Throwable error) { // Keeps delivering.
+                    LOG.error("An Error Occurred While Logging", error);
+                }
+                event.error = null; // No retention.
+                event = slots[(int) ++next & mask];
+            } while ((event.sequence == next) && (++count < MAX_BATCH));
+            consumed = next; // Releases slots.
+            if (!blocked.isEmpty())
+                for (Thread producer : blocked)
+                    LockSupport.unpark(producer);
         }
     }
 
+    /** Queues the specified event (or delivers it directly, or drops it if the buffer is full). */
     public void queueEvent(Level level, String prefix, String suffix, Object[] messages, Throwable error) {
-        Event event = new Event();
+        long seq;
+        while (true) {
+            seq = claimed.get();
+            if (seq - consumed >= slots.length) { // Full.
+                Backpressure backpressure = backpressure();
+                if (backpressure == Backpressure.DROP) {
+                    dropped.incrementAndGet();
+                    return;
+                }
+                if ((backpressure == Backpressure.CALLER_RUNS) || (Thread.currentThread() == this)) {
+                    deliverDirect(level, prefix, suffix, messages, error);
+                    return;
+                }
+                Thread producer = Thread.currentThread();
+                blocked.add(producer);
+                LockSupport.unpark(this);
+                if (seq - consumed >= slots.length) LockSupport.park(this); // Blocks until slots are released.
+                blocked.remove(producer);
+                continue;
+            }
+            if (claimed.compareAndSet(seq, seq + 1)) break;
+        }
+        Event event = slots[(int) seq & mask];
         event.level = level;
-        event.prefix = prefix;
-        event.suffix = suffix;
-        event.messages = messages;
         event.error = error;
-        synchronized (eventQueue) {
-              eventQueue.addFirst(event);
-              eventQueue.notify();
+        try {
+            format(event.text, prefix, suffix, messages);
+        } finally {
+            event.sequence = seq; // Publishes (the slot is claimed).
+        }
+        if (sleeping) LockSupport.unpark(this);
+    }
+
+    /** Delivers the specified event synchronously (e.g. during LogContext initialization). */
+    public static void deliverNow(Level level, String prefix, String suffix, Object[] messages, 
+            Throwable error) {
+        synchronized (TMP) {
+            format(TMP, prefix, suffix, messages);
+            deliverTo(OSGiServices.getLogServices(), level, TMP, error);
+        }
+    }
+
+    /** Returns the policy when the events buffer is full. */
+    Backpressure backpressure() {
+        return LogContext.BACKPRESSURE.get();
+    }
+
+    /** Delivers the specified event to the log services (or SLF4J). */
+    void deliver(Object[] logServices, Level level, TextBuilder text, Throwable error) {
+        deliverTo(logServices, level, text, error);
+    }
+
+    private void deliverDirect(Level level, String prefix, String suffix, Object[] messages, Throwable error) {
+        synchronized (TMP) {
+            format(TMP, prefix, suffix, messages);
+            deliver(OSGiServices.getLogServices(), level, TMP, error);
         }
     }
+
+    private void reportDropped() {
+        long count = dropped.get();
+        if (count == droppedReported) return;
+        LOG.warn((count - droppedReported) + " log events dropped (buffer full)");
+        droppedReported = count;
+    }
+
+    private static void format(TextBuilder text, String prefix, String suffix, Object[] messages) {
+        text.clear();
+        text.append(prefix);
+        for (Object obj : messages) 
+            text.append(obj);
+        text.append(suffix);
+    }
     
-    private void log(LogService logService, Level level, String message, Throwable error) {
+    private static void deliverTo(Object[] logServices, Level level, TextBuilder text, Throwable error) {
+        String message = null; // Created only if required.
+        if (logServices != null) {
+            message = text.toString();
+            for (Object obj : logServices) 
+                log((LogService) obj, level, message, error);
+        }
+        if (isSLF4JEnabled(level)) 
+            logSLF4J(level, (message != null) ? message : text.toString(), error);
+    }
+
+    private static void log(LogService logService, Level level, String message, Throwable error) {
         switch (level) {
         case DEBUG:
             if (error == null) logService.log(LogService.LOG_DEBUG, message);
@@ -108,7 +208,20 @@ class LoggingThread extends Thread {
         }
     }
 
-    private void logSLF4J(Level level, String message, Throwable error) {
+    private static boolean isSLF4JEnabled(Level level) {
+        switch (level) {
+        case DEBUG:
+            return LOG.isDebugEnabled();
+        case INFO:
+            return LOG.isInfoEnabled();
+        case WARNING:
+            return LOG.isWarnEnabled();
+        default:
+            return LOG.isErrorEnabled();
+        }
+    }
+
+    private static void logSLF4J(Level level, String message, Throwable error) {
         switch (level) {
         case DEBUG:
             if (error == null)  LOG.debug(message);
@@ -133,13 +246,16 @@ class LoggingThread extends Thread {
         }
     }     
    
-    /** Log event. */
-    private static class Event {
+    /** Log event slot (reused). */
+    private static final class Event {
+        volatile long sequence; // Sequence number of the event when published.
+        final TextBuilder text = new TextBuilder(); // Formatted message.
         Level level;
-        String prefix;
-        String suffix;
-        Object[] messages;
         Throwable error;
+
+        Event(long sequence) {
+            this.sequence = sequence;
+        }
     }
 
 }
@@ -0,0 +1,142 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ * 
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.context.internal;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.javolution.context.AbstractContext;
+import org.javolution.context.ConcurrentContext;
+import org.javolution.lang.MathLib;
+
+/**
+ * Implementation of ConcurrentContext executing each logic in a new virtual thread (if supported by the JVM).
+ * Virtual threads are created reflectively to keep compatibility with JVM not supporting them.
+ */
+public final class VirtualThreadContextImpl extends ConcurrentContext {
+
+    private static final ExecutorService EXECUTOR = newVirtualThreadPerTaskExecutor(); // Null if not supported.
+
+    private int completedCount; // Nbr of concurrent task completed.
+    private Throwable error; // Any error raised.
+    private int initiatedCount; // Nbr of concurrent task initiated.
+    private final VirtualThreadContextImpl parent;
+    private int concurrency; // Reported concurrency (the number of virtual threads is not limited).
+    private boolean disabled; // Set when the concurrency is explicitly set to zero.
+
+    /**
+     * Default constructor (root).
+     * 
+     * @throws UnsupportedOperationException if virtual threads are not supported.
+     */
+    public VirtualThreadContextImpl() {
+        if (!isSupported()) throw new UnsupportedOperationException("Virtual threads not supported");
+        this.parent = null;
+        this.concurrency = ConcurrentContext.CONCURRENCY.get();
+    }
+
+    /**
+     * Inner implementation.
+     */
+    public VirtualThreadContextImpl(VirtualThreadContextImpl parent) {
+        this.parent = parent;
+        this.concurrency = parent.concurrency;
+        this.disabled = parent.disabled;
+    }
+
+    /** Indicates if the current JVM supports virtual threads. */
+    public static boolean isSupported() {
+        return EXECUTOR != null;
+    }
+
+    // Informs this context of the completion of a task (with possible error).
+    private synchronized void completed(Throwable error) {
+        if (error != null) {
+            this.error = error;
+        }
+        completedCount++;
+        this.notify();
+    }
+
+    @Override
+    public void execute(final Runnable logic) {
+        if (!disabled) {
+            synchronized (this) {
+                initiatedCount++;
+            }
+            EXECUTOR.execute(new Runnable() {
+                @Override
+                public void run() {
+                    AbstractContext.inherit(VirtualThreadContextImpl.this);
+                    try {
+                        logic.run();
+                        completed(null);
+                    } catch (Throwable e) {
+                        completed(e);
+                    }
+                }
+            });
+            return;
+        }
+        // Concurrency disabled, lets do it ourself.
+        try {
+            logic.run();
+        } catch (Throwable e) {
+            error = e;
+        }
+    }
+
+    @Override
+    public void exit() {
+        synchronized (this) {
+            try {
+                while (initiatedCount != completedCount) {
+                    this.wait();
+                }
+            } catch (InterruptedException ex) {
+                this.error = ex;
+            }
+        }
+        super.exit();
+        if (error == null)
+            return; // Everything fine.
+        if (error instanceof RuntimeException)
+            throw (RuntimeException) error;
+        if (error instanceof Error)
+            throw (Error) error;
+        throw new RuntimeException(error);
+    }
+
+    @Override
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    @Override
+    public void setConcurrency(int concurrency) {
+        // The setting of the concurrency can only reduce the concurrency (zero disables concurrency).
+        this.concurrency = MathLib.max(0, MathLib.min(parent.concurrency, concurrency));
+        this.disabled |= concurrency <= 0;
+    }
+
+    @Override
+    protected ConcurrentContext inner() {
+        return new VirtualThreadContextImpl(this);
+    }
+
+    /** Returns {@code Executors.newVirtualThreadPerTaskExecutor()} or {@code null} if not supported. */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (Throwable error) { // Not supported (e.g. JDK < 21 or preview features not enabled).
+            return null;
+        }
+    }
+
+}
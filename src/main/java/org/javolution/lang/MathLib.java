@@ -242,6 +242,130 @@ public final class MathLib {
         return n;
     }
 
+    /**
+     * Interleaves the bits of the two specified unsigned 32-bits values (64-bits Morton code).
+     * 
+     * @param x the first unsigned 32-bits value.
+     * @param y the second unsigned 32-bits value.
+     * @return the corresponding morton code.
+     * @see <a href="http://en.wikipedia.org/wiki/Z-order_curve">
+     *       Wikipedia: Z-order curve</a>
+     * @see  #deinterleave2D(long)
+     * @throws IllegalArgumentException if any of the arguments is negative 
+     *         or greater than 4294967295.
+     */
+    public static long interleave(long x, long y) {
+        if (((x | y) & 0xFFFFFFFF00000000L) != 0)
+            throw new IllegalArgumentException("Overflow");
+        return part1by1(x) | (part1by1(y) << 1);
+    }
+
+    /**
+     * Deinterleaves the specified 64-bits integer value (binary result).
+     * 
+     * @param interleaved the interleaved 64-bits integer value.
+     * @return the original binary values having the specified interleaved value.
+     * @see   #interleave(long,long)
+     */
+    public static Binary<Long, Long> deinterleave2D(final long interleaved) {
+        return new Binary<Long, Long>() {
+
+            @Override
+            public Long first() {
+                return unpart1by1(interleaved);
+            }
+
+            @Override
+            public Long second() {
+                return unpart1by1(interleaved >>> 1);
+            }};
+    }
+
+    private static long part1by1(long n) {
+        n &= 0x00000000FFFFFFFFL;
+        n = (n | (n << 16)) & 0x0000FFFF0000FFFFL;
+        n = (n | (n << 8)) & 0x00FF00FF00FF00FFL;
+        n = (n | (n << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        n = (n | (n << 2)) & 0x3333333333333333L;
+        n = (n | (n << 1)) & 0x5555555555555555L;
+        return n;
+    }
+
+    private static long unpart1by1(long n) {
+        n &= 0x5555555555555555L;
+        n = (n ^ (n >>> 1)) & 0x3333333333333333L;
+        n = (n ^ (n >>> 2)) & 0x0F0F0F0F0F0F0F0FL;
+        n = (n ^ (n >>> 4)) & 0x00FF00FF00FF00FFL;
+        n = (n ^ (n >>> 8)) & 0x0000FFFF0000FFFFL;
+        n = (n ^ (n >>> 16)) & 0x00000000FFFFFFFFL;
+        return n;
+    }
+
+    /**
+     * Interleaves the bits of the three specified unsigned 21-bits values (64-bits Morton code).
+     * 
+     * @param x the first unsigned 21-bits value.
+     * @param y the second unsigned 21-bits value.
+     * @param z the third unsigned 21-bits value.
+     * @return the corresponding morton code.
+     * @see <a href="http://en.wikipedia.org/wiki/Z-order_curve">
+     *       Wikipedia: Z-order curve</a>
+     * @see  #deinterleave3D(long)
+     * @throws IllegalArgumentException if any of the arguments is negative 
+     *         or greater than 2097151.
+     */
+    public static long interleave(long x, long y, long z) {
+        if (((x | y | z) & 0xFFFFFFFFFFE00000L) != 0)
+            throw new IllegalArgumentException("Overflow");
+        return part1by2(x) | (part1by2(y) << 1) | (part1by2(z) << 2);
+    }
+
+    /**
+     * Deinterleaves the specified 64-bits integer value (ternary result).
+     * 
+     * @param interleaved the interleaved 64-bits integer value.
+     * @return the original ternary values having the specified interleaved value.
+     * @see     #interleave(long,long,long)
+     */
+    public static Ternary<Long, Long, Long> deinterleave3D(final long interleaved) {
+        return new Ternary<Long, Long, Long>() {
+
+            @Override
+            public Long first() {
+                return unpart1by2(interleaved);
+            }
+
+            @Override
+            public Long second() {
+                return unpart1by2(interleaved >>> 1);
+            }
+
+            @Override
+            public Long third() {
+                return unpart1by2(interleaved >>> 2);
+            }};
+    }
+
+    private static long part1by2(long n) {
+        n &= 0x00000000001FFFFFL;
+        n = (n | (n << 32)) & 0x001F00000000FFFFL;
+        n = (n | (n << 16)) & 0x001F0000FF0000FFL;
+        n = (n | (n << 8)) & 0x100F00F00F00F00FL;
+        n = (n | (n << 4)) & 0x10C30C30C30C30C3L;
+        n = (n | (n << 2)) & 0x1249249249249249L;
+        return n;
+    }
+
+    private static long unpart1by2(long n) {
+        n &= 0x1249249249249249L;
+        n = (n ^ (n >>> 2)) & 0x10C30C30C30C30C3L;
+        n = (n ^ (n >>> 4)) & 0x100F00F00F00F00FL;
+        n = (n ^ (n >>> 8)) & 0x001F0000FF0000FFL;
+        n = (n ^ (n >>> 16)) & 0x001F00000000FFFFL;
+        n = (n ^ (n >>> 32)) & 0x00000000001FFFFFL;
+        return n;
+    }
+
     /**
      * Returns the number of bits in the minimal two's-complement representation of the specified <code>int</code>, 
      * excluding a sign bit. For positive <code>int</code>, this is equivalent to the number of bits
@@ -16,10 +16,12 @@ import org.javolution.context.SecurityContext;
 import org.javolution.context.StorageContext;
 import org.javolution.context.internal.ComputeContextImpl;
 import org.javolution.context.internal.ConcurrentContextImpl;
+import org.javolution.context.internal.ForkJoinContextImpl;
 import org.javolution.context.internal.LocalContextImpl;
 import org.javolution.context.internal.LogContextImpl;
 import org.javolution.context.internal.SecurityContextImpl;
 import org.javolution.context.internal.StorageContextImpl;
+import org.javolution.context.internal.VirtualThreadContextImpl;
 import org.javolution.io.Struct;
 import org.javolution.lang.Configurable;
 import org.javolution.lang.Index;
@@ -52,7 +54,7 @@ import org.osgi.service.log.LogService;
 public class OSGiServices {
 
     final static ServiceTrackerImpl<ConcurrentContext> CONCURRENT_CONTEXT_TRACKER = new ServiceTrackerImpl<ConcurrentContext>(
-            ConcurrentContext.class, ConcurrentContextImpl.class);
+            ConcurrentContext.class, null); // Default implementation depends on ConcurrentContext.MODE
     final static ServiceTrackerImpl<Configurable.Listener> CONFIGURABLE_LISTENER_TRACKER = new ServiceTrackerImpl<Configurable.Listener>(
             Configurable.Listener.class, ConfigurableListenerImpl.class);
     final static ServiceTrackerImpl<LocalContext> LOCAL_CONTEXT_TRACKER = new ServiceTrackerImpl<LocalContext>(
@@ -80,7 +82,25 @@ public class OSGiServices {
 
     /** Returns concurrent context services. */
     public static ConcurrentContext getConcurrentContext() {
-        return (ConcurrentContext) CONCURRENT_CONTEXT_TRACKER.getServices()[0];
+        Object[] services = CONCURRENT_CONTEXT_TRACKER.getServices();
+        return (services != null) ? (ConcurrentContext) services[0] : DefaultConcurrentContext.INSTANCE;
+    }
+
+    /** Holds the default concurrent context (created on first use according to the configured mode). */
+    private static final class DefaultConcurrentContext {
+        static final ConcurrentContext INSTANCE = newInstance(ConcurrentContext.MODE.get());
+
+        private static ConcurrentContext newInstance(ConcurrentContext.Mode mode) {
+            switch (mode) {
+            case WORK_STEALING:
+                return new ForkJoinContextImpl();
+            case VIRTUAL_THREADS:
+                if (VirtualThreadContextImpl.isSupported()) return new VirtualThreadContextImpl();
+                return new ConcurrentContextImpl(); // Falls back to the concurrent threads.
+            default:
+                return new ConcurrentContextImpl();
+            }
+        }
     }
 
     /** Returns configurable listener services. */
@@ -11,9 +11,10 @@ package org.javolution.text;
 import java.io.PrintStream;
 
 import org.javolution.annotations.Realtime;
+import org.javolution.lang.Configurable;
 import org.javolution.lang.MathLib;
 import org.javolution.lang.Immutable;
-import org.javolution.util.FastMap;
+import org.javolution.text.internal.TextInternPoolImpl;
 import org.javolution.util.function.Order;
 import org.javolution.xml.XMLSerializable;
 
@@ -77,9 +78,82 @@ public final class Text implements CharSequence, Comparable<CharSequence>,
 	private static final int BLOCK_MASK = ~(BLOCK_SIZE - 1);
 
 	/**
-	 * Holds the texts interned in immortal memory.
+	 * The retention of the {@link #intern interned} texts.
 	 */
-	private static final FastMap<Text, Text> INTERN = new FastMap<Text, Text>(Order.lexical());
+	public enum Retention {
+		/** Interned texts are never reclaimed. */
+		STRONG,
+		/** Interned texts are reclaimed in response to memory demand. */
+		SOFT,
+		/** Interned texts are reclaimed when they are no more referenced. */
+		WEAK
+	}
+
+	/**
+	 * Holds the retention of the interned texts (default <code>STRONG</code>).
+	 * For example, the JVM option 
+	 * {@code -Dorg.javolution.text.Text#INTERN_RETENTION=WEAK} allows for 
+	 * unused interned texts to be garbage collected (an interned text
+	 * is unique as long as it is referenced).
+	 */
+	public static final Configurable<Retention> INTERN_RETENTION = new Configurable<Retention>() {
+		@Override
+		public String getName() { // Required since there are multiple configurables in this class.
+			return Text.class.getName() + "#INTERN_RETENTION";
+		}
+
+		@Override
+		protected Retention getDefault() {
+			return Retention.STRONG;
+		}
+
+		@Override
+		protected Retention parse(String str) {
+			return Retention.valueOf(str);
+		}
+
+		@Override
+		protected Retention reconfigured(Retention oldRetention, Retention newRetention) {
+			throw new UnsupportedOperationException(
+					"Intern retention reconfiguration not supported.");
+		}
+	};
+
+	/**
+	 * Holds the maximum number of interned texts (default unbounded). 
+	 * When the maximum is reached, {@link #intern(CharSequence)} returns 
+	 * texts which are not pooled (hence not unique).
+	 */
+	public static final Configurable<Integer> INTERN_MAXIMUM = new Configurable<Integer>() {
+		@Override
+		public String getName() { // Required since there are multiple configurables in this class.
+			return Text.class.getName() + "#INTERN_MAXIMUM";
+		}
+
+		@Override
+		protected Integer getDefault() {
+			return Integer.MAX_VALUE;
+		}
+
+		@Override
+		protected Integer initialized(Integer value) {
+			if (value < 0)
+				throw new IllegalArgumentException();
+			return value;
+		}
+
+		@Override
+		protected Integer reconfigured(Integer oldMaximum, Integer newMaximum) {
+			throw new UnsupportedOperationException(
+					"Intern maximum reconfiguration not supported.");
+		}
+	};
+
+	/**
+	 * Holds the interned texts (concurrent pool, lock-free lookups).
+	 */
+	private static final TextInternPoolImpl INTERN = new TextInternPoolImpl(
+			INTERN_RETENTION.get(), INTERN_MAXIMUM.get());
 
 	/**
 	 * Holds an empty character sequence.
@@ -738,23 +812,22 @@ public final class Text implements CharSequence, Comparable<CharSequence>,
 	 * @deprecated Use {@link Text#intern(CharSequence)} instead.
 	 */
 	public Text intern() {
-		Text txt = INTERN.putIfAbsent(this, this);
-		return txt == null ? this : txt;
+		return INTERN.intern(this);
 	}
 
 	/**
 	 * Returns the text corresponding to the specified character sequence
-	 * from a pool of unique text instances.  
+	 * from a pool of unique text instances. This method is thread-safe,
+	 * the lookup of an already interned text is lock-free and does not 
+	 * allocate (e.g. {@link CharArray} symbols from XML parsing).
 	 * 
 	 * @param csq Character Sequence
-	 * @return an unique text instance allocated in permanent memory.
+	 * @return an unique text instance (see {@link #INTERN_RETENTION} and 
+	 *         {@link #INTERN_MAXIMUM}).
 	 */
 	public static Text intern(CharSequence csq) {
-		Text txt = INTERN.get(csq);
-		if (txt != null) return txt;
-		txt = Text.valueOf(csq);
-		Text previous = INTERN.putIfAbsent(txt, txt);
-		return previous == null ? txt : previous;
+		Text txt = INTERN.get(csq); // No allocation.
+		return (txt != null) ? txt : INTERN.intern(Text.valueOf(csq));
 	}
 
 	/**
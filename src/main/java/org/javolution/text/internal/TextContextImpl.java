@@ -30,7 +30,7 @@ public final class TextContextImpl extends TextContext {
 
     // Holds class->format mapping. 
     private final Map<Class<?>, TextFormat<?>> classToFormat 
-        = new FastMap<Class<?>, TextFormat<?>>().shared();
+        = new FastMap<Class<?>, TextFormat<?>>().concurrent();
 
     // Holds parent (null if root).
     private final TextContextImpl parent;
@@ -0,0 +1,200 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.text.internal;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.javolution.lang.MathLib;
+import org.javolution.text.Text;
+
+/**
+ * The pool of unique text instances (see {@link Text#intern(CharSequence)}).
+ *
+ * The pool is split into independently locked stripes (hash tables with immutable chains), lookups are lock-free
+ * and do not allocate (the content hash of any character sequence is the {@link String#hashCode string hash}).
+ * The pooled texts are either strongly, softly or weakly referenced; cleared references are removed when
+ * the stripe is next updated.
+ */
+public final class TextInternPoolImpl {
+
+    private static final int MIN_STRIPE_MAXIMUM = 16;
+    private final Stripe[] stripes;
+    private final int mask;
+
+    /**
+     * Creates a pool holding at most the specified number of texts.
+     *
+     * @param retention the retention of the pooled texts.
+     * @param maximum the maximum number of texts pooled.
+     */
+    public TextInternPoolImpl(Text.Retention retention, int maximum) {
+        int n = Integer.highestOneBit(Math.min(4 * Runtime.getRuntime().availableProcessors(), 64));
+        while ((n > 1) && (maximum / n < MIN_STRIPE_MAXIMUM)) n >>= 1;
+        this.stripes = new Stripe[n];
+        this.mask = n - 1;
+        for (int i = 0; i < n; i++) // Total of the stripes maxima is the pool maximum.
+            stripes[i] = new Stripe(retention, (maximum / n) + ((i < maximum % n) ? 1 : 0));
+    }
+
+    /** Returns the pooled text having the same content as the specified character sequence or {@code null}. */
+    public Text get(CharSequence csq) {
+        int hash = hashOf(csq);
+        return stripes[MathLib.hash(hash) & mask].get(hash, csq);
+    }
+
+    /**
+     * Returns the pooled text having the same content as the specified text, adding the specified text to
+     * the pool if none (the specified text is returned not pooled if the pool is full).
+     */
+    public Text intern(Text text) {
+        int hash = hashOf(text);
+        return stripes[MathLib.hash(hash) & mask].intern(hash, text);
+    }
+
+    /** Returns the number of texts in this pool (including texts cleared but not yet removed). */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes)
+            size += stripe.count;
+        return size;
+    }
+
+    /** Returns the same hash code as {@link String#hashCode} (no allocation). */
+    private static int hashOf(CharSequence csq) {
+        int h = 0;
+        for (int i = 0, n = csq.length(); i < n; i++)
+            h = 31 * h + csq.charAt(i);
+        return h;
+    }
+
+    /** A hash table whose chains are immutable (replaced on removal) for lock-free reads. */
+    private static final class Stripe {
+        private final Text.Retention retention;
+        private final int maximum;
+        private final ReferenceQueue<Text> queue = new ReferenceQueue<Text>();
+        private volatile AtomicReferenceArray<Node> table = new AtomicReferenceArray<Node>(16);
+        private volatile int count;
+
+        private Stripe(Text.Retention retention, int maximum) {
+            this.retention = retention;
+            this.maximum = maximum;
+        }
+
+        private Text get(int hash, CharSequence csq) {
+            AtomicReferenceArray<Node> tab = table;
+            for (Node node = tab.get(hash & (tab.length() - 1)); node != null; node = node.next) {
+                if (node.hash != hash) continue;
+                Text text = node.text();
+                if ((text != null) && text.contentEquals(csq)) return text;
+            }
+            return null;
+        }
+
+        private synchronized Text intern(int hash, Text text) {
+            expunge();
+            Text pooled = get(hash, text);
+            if (pooled != null) return pooled;
+            if (count >= maximum) return text; // Full.
+            AtomicReferenceArray<Node> tab = table;
+            if (count >= tab.length() - (tab.length() >>> 2)) tab = resize(tab); // Load factor 0.75
+            int i = hash & (tab.length() - 1);
+            tab.set(i, new Node(hash, referenceOf(hash, text), tab.get(i)));
+            count++;
+            return text;
+        }
+
+        private Object referenceOf(int hash, Text text) {
+            switch (retention) {
+            case WEAK:
+                return new WeakKey(text, queue, hash);
+            case SOFT:
+                return new SoftKey(text, queue, hash);
+            default:
+                return text;
+            }
+        }
+
+        /** Removes the entries whose references have been cleared. */
+        private void expunge() {
+            for (Reference<? extends Text> ref; (ref = queue.poll()) != null;) {
+                int hash = (ref instanceof WeakKey) ? ((WeakKey) ref).hash : ((SoftKey) ref).hash;
+                AtomicReferenceArray<Node> tab = table;
+                int i = hash & (tab.length() - 1);
+                Node first = tab.get(i);
+                for (Node node = first; node != null; node = node.next) {
+                    if (node.value != ref) continue;
+                    Node chain = node.next;
+                    for (Node n = first; n != node; n = n.next) // Copies the nodes before the one removed.
+                        chain = new Node(n.hash, n.value, chain);
+                    tab.set(i, chain);
+                    count--;
+                    break;
+                }
+            }
+        }
+
+        /** Doubles the table capacity (live entries only). */
+        private AtomicReferenceArray<Node> resize(AtomicReferenceArray<Node> tab) {
+            AtomicReferenceArray<Node> newTab = new AtomicReferenceArray<Node>(tab.length() << 1);
+            int live = 0;
+            for (int i = 0; i < tab.length(); i++) {
+                for (Node node = tab.get(i); node != null; node = node.next) {
+                    if (node.text() == null) continue; // Cleared.
+                    int j = node.hash & (newTab.length() - 1);
+                    newTab.set(j, new Node(node.hash, node.value, newTab.get(j)));
+                    live++;
+                }
+            }
+            count = live;
+            table = newTab;
+            return newTab;
+        }
+    }
+
+    /** An immutable chain node holding a text or a reference to a text. */
+    private static final class Node {
+        private final int hash;
+        private final Object value;
+        private final Node next;
+
+        private Node(int hash, Object value, Node next) {
+            this.hash = hash;
+            this.value = value;
+            this.next = next;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Text text() {
+            return (value instanceof Reference) ? ((Reference<Text>) value).get() : (Text) value;
+        }
+    }
+
+    private static final class WeakKey extends WeakReference<Text> {
+        private final int hash;
+
+        private WeakKey(Text text, ReferenceQueue<Text> queue, int hash) {
+            super(text, queue);
+            this.hash = hash;
+        }
+    }
+
+    private static final class SoftKey extends SoftReference<Text> {
+        private final int hash;
+
+        private SoftKey(Text text, ReferenceQueue<Text> queue, int hash) {
+            super(text, queue);
+            this.hash = hash;
+        }
+    }
+
+}
@@ -16,8 +16,12 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.DoubleSummaryStatistics;
 import java.util.Iterator;
+import java.util.Spliterator;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
 
 import org.javolution.annotations.Parallel;
 import org.javolution.annotations.Realtime;
@@ -26,23 +30,29 @@ import org.javolution.text.Cursor;
 import org.javolution.text.DefaultTextFormat;
 import org.javolution.text.TextContext;
 import org.javolution.text.TextFormat;
+import org.javolution.util.function.Accumulator;
 import org.javolution.util.function.BinaryOperator;
 import org.javolution.util.function.Consumer;
 import org.javolution.util.function.Equality;
 import org.javolution.util.function.Function;
 import org.javolution.util.function.Predicate;
+import org.javolution.util.function.Supplier;
 import org.javolution.util.internal.collection.AtomicCollectionImpl;
+import org.javolution.util.internal.collection.CollectionSpliteratorImpl;
 import org.javolution.util.internal.collection.ConcatCollectionImpl;
 import org.javolution.util.internal.collection.CustomEqualityCollectionImpl;
 import org.javolution.util.internal.collection.DistinctCollectionImpl;
-import org.javolution.util.internal.collection.FilteredCollectionImpl;
 import org.javolution.util.internal.collection.LinkedCollectionImpl;
-import org.javolution.util.internal.collection.MappedCollectionImpl;
 import org.javolution.util.internal.collection.ParallelCollectionImpl;
+import org.javolution.util.internal.collection.PipelineCollectionImpl;
 import org.javolution.util.internal.collection.ReversedCollectionImpl;
 import org.javolution.util.internal.collection.SharedCollectionImpl;
 import org.javolution.util.internal.collection.SortedCollectionImpl;
 import org.javolution.util.internal.collection.UnmodifiableCollectionImpl;
+import org.javolution.util.internal.function.DoubleSumImpl;
+import org.javolution.util.internal.function.HistogramImpl;
+import org.javolution.util.internal.function.LongSumImpl;
+import org.javolution.util.internal.function.StatisticsImpl;
 
 /**
  * High-performance collection with {@link Realtime strict timing constraints}.
@@ -50,6 +60,14 @@ import org.javolution.util.internal.collection.UnmodifiableCollectionImpl;
  * This class implements most of the {@link java.util.stream.Stream} functions and can be used directly 
  * to perform sequential or parallel aggregate operations.
  * 
+ * ```java
+ * Person oldest = persons.filter(p -> p.isMarried()).map(p -> p.spouse()).parallel().max(byAge);
+ * ``` 
+ * 
+ * Chained {@link #filter} / {@link #map} views are fused into a single view applying all the stages in one pass
+ * per split; {@link #distinct} and {@link #sorted} views are barriers (elements are held) whose parallel 
+ * processing is performed on partitions (distinct) or on ordered ranges (sorted).
+ * 
  * Instance of this class may use custom element comparators instead of the default object equality 
  * when comparing elements. This affects the behavior of the contains, remove, containsAll, equals, and 
  * hashCode methods. The {@link java.util.Collection} contract is guaranteed to hold only for collections
@@ -131,7 +149,7 @@ public abstract class AbstractCollection<E> implements Collection<E>, Serializab
      * ensures that this collection has only elements satisfying the specified filter predicate.
      */
     public AbstractCollection<E> filter(Predicate<? super E> filter) {
-        return new FilteredCollectionImpl<E>(this, filter);
+        return new PipelineCollectionImpl<E, E>(this, filter);
     }
 
     /**
@@ -139,7 +157,7 @@ public abstract class AbstractCollection<E> implements Collection<E>, Serializab
      * The returned view does not allow new elements to be added.
      */
     public <R> AbstractCollection<R> map(Function<? super E, ? extends R> function) {
-        return new MappedCollectionImpl<E, R>(this, function);
+        return new PipelineCollectionImpl<E, R>(this, function);
     }
 
     /**
@@ -343,6 +361,110 @@ public abstract class AbstractCollection<E> implements Collection<E>, Serializab
         return collection;
     }
 
+    /**
+     * Performs a mutable reduction of this collection elements into accumulators provided by the specified
+     * supplier. Parallel views accumulate each sub-view into its own accumulator and combine the accumulators
+     * once the concurrent processing is complete.
+     *
+     * @param supplier the supplier of new (empty) accumulators.
+     * @return the accumulator holding the reduction of all the elements.
+     */
+    @Parallel
+    @Realtime(limit = LINEAR)
+    public <A extends Accumulator<? super E, A>> A accumulate(Supplier<A> supplier) {
+        final A accumulator = supplier.get();
+        iterator().hasNext(new Predicate<E>() {
+            @Override
+            public boolean test(E param) {
+                accumulator.accept(param);
+                return false;
+            }
+        });
+        return accumulator;
+    }
+
+    /**
+     * Returns the number of elements matching the specified predicate (convenience method).
+     *
+     * @return {@code sumLong(e -> predicate.test(e) ? 1 : 0)}
+     */
+    @Parallel
+    public final long count(final Predicate<? super E> predicate) {
+        return sumLong(new ToLongFunction<E>() {
+            @Override
+            public long applyAsLong(E param) {
+                return predicate.test(param) ? 1 : 0;
+            }
+        });
+    }
+
+    /**
+     * Returns the sum of the specified function values over this collection elements (convenience method,
+     * no boxing).
+     */
+    @Parallel
+    public final long sumLong(final ToLongFunction<? super E> function) {
+        return accumulate(new Supplier<LongSumImpl<E>>() {
+            @Override
+            public LongSumImpl<E> get() {
+                return new LongSumImpl<E>(function);
+            }
+        }).sum();
+    }
+
+    /**
+     * Returns the sum of the specified function values over this collection elements (convenience method,
+     * no boxing, compensated summation).
+     */
+    @Parallel
+    public final double sumDouble(final ToDoubleFunction<? super E> function) {
+        return accumulate(new Supplier<DoubleSumImpl<E>>() {
+            @Override
+            public DoubleSumImpl<E> get() {
+                return new DoubleSumImpl<E>(function);
+            }
+        }).sum();
+    }
+
+    /**
+     * Returns the count, sum, minimum, maximum and average of the specified function values over this
+     * collection elements (convenience method, no boxing).
+     */
+    @Parallel
+    public final DoubleSummaryStatistics summaryStatistics(final ToDoubleFunction<? super E> function) {
+        return accumulate(new Supplier<StatisticsImpl<E>>() {
+            @Override
+            public StatisticsImpl<E> get() {
+                return new StatisticsImpl<E>(function);
+            }
+        });
+    }
+
+    /**
+     * Returns the histogram of the specified function values over this collection elements (convenience
+     * method, no boxing). The range {@code [low, high)} is divided into bins of equal width; values out of
+     * range (or NaN) are not counted.
+     *
+     * @param function the function whose values are counted.
+     * @param low the lower bound of the first bin (inclusive).
+     * @param high the upper bound of the last bin (exclusive).
+     * @param bins the number of bins.
+     * @return the number of values in each bin.
+     * @throws IllegalArgumentException if {@code (bins <= 0) || !(low < high)}
+     */
+    @Parallel
+    public final long[] histogram(final ToDoubleFunction<? super E> function, final double low, final double high,
+            final int bins) {
+        if ((bins <= 0) || !(low < high))
+            throw new IllegalArgumentException("bins: " + bins + ", low: " + low + ", high: " + high);
+        return accumulate(new Supplier<HistogramImpl<E>>() {
+            @Override
+            public HistogramImpl<E> get() {
+                return new HistogramImpl<E>(function, low, high, bins);
+            }
+        }).counts();
+    }
+
     // //////////////////////////////////////////////////////////////////////////
     // Collection operations.
     //
@@ -366,6 +488,18 @@ public abstract class AbstractCollection<E> implements Collection<E>, Serializab
     @Realtime(limit = LINEAR, comment = "FastCollection.clone() method may be called (e.g. shared views)")
     public abstract FastIterator<E> descendingIterator();
 
+    /**
+     * Returns a spliterator over this collection elements splitting along {@link #trySplit trySplit(2)}
+     * (for {@link java.util.stream.Stream} support). Sub-classes able to split exactly (e.g. by index or rank
+     * ranges) should override this method to report the {@link Spliterator#SIZED SIZED} and
+     * {@link Spliterator#SUBSIZED SUBSIZED} characteristics.
+     */
+    @Realtime(limit = CONSTANT)
+    @Override
+    public Spliterator<E> spliterator() {
+        return new CollectionSpliteratorImpl<E>(this, 0);
+    }
+
     /** Adds the specified element to this collection. */
     @Override
     @Realtime(limit = CONSTANT)
@@ -303,6 +303,28 @@ public abstract class AbstractMap<K, V> implements ConcurrentMap<K, V>, SortedMa
         return entrySet().last().getKey();
     }
 
+    /** 
+     * Returns the number of entries whose keys are strictly lower than the specified key (order statistics, 
+     * e.g. position in a leaderboard).
+     * 
+     * @see AbstractSet#rank(Object, boolean)
+     */
+    @Realtime(limit = LINEAR, comment="Maps based on fractal arrays have logarithmic time rank")
+    public int rank(K key) {
+        return entries().rank(new Entry<K,V>(key, null), false);
+    }
+
+    /** 
+     * Returns the entry at the specified rank (the entry having exactly {@code rank} entries before it).
+     * 
+     * @throws IndexOutOfBoundsException if {@code (rank < 0) || (rank >= size())}
+     * @see AbstractSet#select(int)
+     */
+    @Realtime(limit = LINEAR, comment="Maps based on fractal arrays have logarithmic time selection")
+    public Entry<K, V> select(int rank) {
+        return entries().select(rank);
+    }
+
     ////////////////////////////////////////////////////////////////////////////
     // Misc.
     //
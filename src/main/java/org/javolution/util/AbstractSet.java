@@ -220,21 +220,24 @@ public abstract class AbstractSet<E> extends AbstractCollection<E> implements So
     }
     
     /**  
-     * Splits into filtered sets with filter based on the system identity hash code of the set element
-     * (to ensure balanced distribution).
+     * Splits into filtered sets with filter based on the hashed {@link Order#indexOf index} of the set elements
+     * (to ensure balanced distribution). Equal elements belong to the same sub-set, even if the set iterator 
+     * returns new instances at each iteration (e.g. {@link FastBitSet}).
      */
     @Override
     @SuppressWarnings("unchecked")
     @Realtime(limit = CONSTANT)
     public AbstractSet<E>[] trySplit(final int n) {
         AbstractSet<E>[] split = new AbstractSet[n];        
+        final Order<? super E> order = order();
         for (int i=0; i < n; i++) {
             final int m = i;
             split[i] = this.filter(new Predicate<E>() {
                 @Override
                 public boolean test(E param) {
-                    int hash = MathLib.hash(System.identityHashCode(param));
-                    return Math.abs(hash) % n == m;
+                    long index = order.indexOf(param);
+                    int hash = MathLib.hash((int) (index ^ (index >>> 32)));
+                    return Math.abs(hash % n) == m;
                 }}).unmodifiable();
         }
         return split;
@@ -305,6 +308,55 @@ public abstract class AbstractSet<E> extends AbstractCollection<E> implements So
         return descendingIterator(null); 
     }
          
+    /**
+     * Returns the number of elements of this set strictly lower than the specified element (order statistics).
+     * 
+     * @param element the element whose rank is returned (not necessarily in this set).
+     * @return {@code rank(element, false)}
+     */
+    @Realtime(limit = LINEAR, comment="Sets based on fractal arrays have logarithmic time rank")
+    public int rank(E element) {
+        return rank(element, false);
+    }
+
+    /**
+     * Returns the number of elements of this set lower than (or equal to if inclusive) the specified element 
+     * according to this set {@link #order order}. The default implementation counts the elements 
+     * iterated (ascending order) up to the specified element.
+     * 
+     * @param element the element whose rank is returned (not necessarily in this set).
+     * @param inclusive indicates if the elements comparing equal to the specified element are counted.
+     */
+    @Realtime(limit = LINEAR, comment="Sets based on fractal arrays have logarithmic time rank")
+    public int rank(E element, boolean inclusive) {
+        Order<? super E> order = order();
+        int count = 0;
+        for (FastIterator<E> itr = iterator(); itr.hasNext(); count++) {
+            int cmp = order.compare(itr.next(), element);
+            if ((cmp > 0) || ((cmp == 0) && !inclusive)) break;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the element of this set at the specified rank (the element having exactly {@code rank} elements 
+     * before it). The default implementation iterates up to the specified rank.
+     * 
+     * @param rank the number of elements before the element returned.
+     * @throws IndexOutOfBoundsException if {@code (rank < 0) || (rank >= size())}
+     */
+    @Realtime(limit = LINEAR, comment="Sets based on fractal arrays have logarithmic time selection")
+    public E select(int rank) {
+        if (rank >= 0) {
+            FastIterator<E> itr = iterator();
+            for (int i = 0; itr.hasNext(); i++) {
+                E element = itr.next();
+                if (i == rank) return element;
+            }
+        }
+        throw new IndexOutOfBoundsException("rank: " + rank);
+    }
+
     @Override
     @Realtime(limit = LINEAR)
 	public AbstractSet<E> clone() {
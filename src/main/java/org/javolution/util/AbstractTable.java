@@ -12,7 +12,6 @@ import static org.javolution.annotations.Realtime.Limit.CONSTANT;
 import static org.javolution.annotations.Realtime.Limit.LINEAR;
 import static org.javolution.annotations.Realtime.Limit.LOG_N;
 import static org.javolution.annotations.Realtime.Limit.N_LOG_N;
-import static org.javolution.annotations.Realtime.Limit.N_SQUARE;
 
 import java.util.Collection;
 import java.util.Comparator;
@@ -21,6 +20,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.RandomAccess;
+import java.util.Spliterator;
 
 import org.javolution.annotations.Nullable;
 import org.javolution.annotations.Parallel;
@@ -33,9 +33,11 @@ import org.javolution.util.function.Predicate;
 import org.javolution.util.internal.table.AtomicTableImpl;
 import org.javolution.util.internal.table.CustomEqualityTableImpl;
 import org.javolution.util.internal.table.MappedTableImpl;
-import org.javolution.util.internal.table.QuickSortImpl;
+import org.javolution.util.internal.table.MergeSortImpl;
+import org.javolution.util.internal.table.ParallelTableImpl;
 import org.javolution.util.internal.table.SharedTableImpl;
 import org.javolution.util.internal.table.SubTableImpl;
+import org.javolution.util.internal.table.TableSpliteratorImpl;
 import org.javolution.util.internal.table.UnmodifiableTableImpl;
 
 /**
@@ -105,6 +107,12 @@ public abstract class AbstractTable<E> extends AbstractCollection<E> implements
         return new MappedTableImpl<E, R>(this, function);
     }
 
+    @Override
+    @Realtime(limit = CONSTANT)
+    public AbstractTable<E> parallel() {
+        return new ParallelTableImpl<E>(this);
+    }
+
     @Override
     @Realtime(limit = CONSTANT)
     public AbstractTable<E> shared() {
@@ -168,6 +176,24 @@ public abstract class AbstractTable<E> extends AbstractCollection<E> implements
     @Realtime(limit = LOG_N)
     public abstract @Nullable E remove(int index);
 
+    /**
+     * Removes the elements in the specified range, the following elements are shifted once (the default
+     * implementation moves the following elements then removes the last ones).
+     *
+     * @param fromIndex low index (inclusive)
+     * @param toIndex high index (exclusive)
+     * @throws IndexOutOfBoundsException if {@code (fromIndex < 0) || (toIndex > size) || (fromIndex > toIndex)}
+     */
+    @Realtime(limit = LINEAR)
+    public void removeRange(int fromIndex, int toIndex) {
+        int n = size();
+        if ((fromIndex < 0) || (toIndex > n) || (fromIndex > toIndex)) throw new IndexOutOfBoundsException();
+        for (int i = toIndex; i < n; i++)
+            set(i - toIndex + fromIndex, get(i));
+        for (int i = fromIndex; i < toIndex; i++)
+            removeLast();
+    }
+
     @Override
     @Realtime(limit = CONSTANT)
     public abstract @Nullable E get(int index);
@@ -224,6 +250,13 @@ public abstract class AbstractTable<E> extends AbstractCollection<E> implements
         return listIterator(0);
     }
 
+    /** Returns a spliterator over this table splitting along index ranges (ordered and sized). */
+    @Override
+    @Realtime(limit = CONSTANT)
+    public Spliterator<E> spliterator() {
+        return new TableSpliteratorImpl<E>(this);
+    }
+
     @Override
     @Realtime(limit = LINEAR, comment="A copy/clone of this table may have to be performed (e.g. shared() views)")
     public abstract FastListIterator<E> listIterator(int index);
@@ -448,12 +481,12 @@ public abstract class AbstractTable<E> extends AbstractCollection<E> implements
     }
 
     /**
-     * Sorts this table in place (quick sort).
+     * Sorts this table in place (stable merge sort). The elements are copied to a flat array, sorted then
+     * written back. For {@link #parallel parallel} views the sort is performed concurrently.
      */
-    @Realtime(limit = N_SQUARE)
+    @Realtime(limit = N_LOG_N)
     public void sort(Comparator<? super E> cmp) {
-        QuickSortImpl<E> qs = new QuickSortImpl<E>(this, cmp);
-        qs.sort();
+        new MergeSortImpl<E>(this, cmp).sort();
     }
 
     @Override
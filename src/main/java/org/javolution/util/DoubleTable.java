@@ -0,0 +1,305 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util;
+
+import static org.javolution.annotations.Realtime.Limit.CONSTANT;
+import static org.javolution.annotations.Realtime.Limit.LINEAR;
+import static org.javolution.annotations.Realtime.Limit.N_LOG_N;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+import org.javolution.annotations.Realtime;
+import org.javolution.util.function.Equality;
+import org.javolution.util.function.Predicate;
+import org.javolution.util.internal.DoubleFractalImpl;
+
+/**
+ * A table of {@code double} values stored unboxed in rotating blocks of primitive arrays.
+ *
+ * Elements are accessed by index in constant time; insertions and deletions at any position are performed
+ * in <i>O(sqrt(n))</i>. The primitive methods ({@link #getDouble}, {@link #addDouble},
+ * {@link #doubleIterator}, {@link #sum}...) never allocate; the {@link AbstractTable} methods (inherited views,
+ * closures) box/unbox the elements ({@code null} elements are not supported).
+ *
+ * ```java
+ * DoubleTable prices = new DoubleTable();
+ * for (Trade trade : trades) prices.addDouble(trade.price()); // No boxing.
+ * double average = prices.sum() / prices.size(); // Compensated summation.
+ * prices.sort(); // Primitive sort.
+ * ```
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 7.0, September 13, 2015
+ */
+public class DoubleTable extends AbstractTable<Double> {
+
+    private static final long serialVersionUID = 0x700L; // Version.
+    private DoubleFractalImpl array;
+
+    /** Creates an empty table. */
+    public DoubleTable() {
+        array = new DoubleFractalImpl();
+    }
+
+    /** Creates a table holding the specified values. */
+    public DoubleTable(double[] values) {
+        this();
+        for (double value : values) array.add(value);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Primitive methods.
+    //
+
+    /** Returns the value at the specified index. */
+    @Realtime(limit = CONSTANT)
+    public final double getDouble(int index) {
+        if (index < 0 || index >= array.size()) throw new IndexOutOfBoundsException();
+        return array.get(index);
+    }
+
+    /** Replaces the value at the specified index and returns the previous value. */
+    @Realtime(limit = CONSTANT)
+    public final double setDouble(int index, double value) {
+        if (index < 0 || index >= array.size()) throw new IndexOutOfBoundsException();
+        return array.set(index, value);
+    }
+
+    /** Appends the specified value. */
+    @Realtime(limit = CONSTANT)
+    public final boolean addDouble(double value) {
+        array.add(value);
+        return true;
+    }
+
+    /** Inserts the specified value at the specified position. */
+    @Realtime(limit = LINEAR)
+    public final void addDouble(int index, double value) {
+        if (index < 0 || index > array.size()) throw new IndexOutOfBoundsException();
+        array.insert(index, value);
+    }
+
+    /** Removes the value at the specified index and returns it. */
+    @Realtime(limit = LINEAR)
+    public final double removeDouble(int index) {
+        if (index < 0 || index >= array.size()) throw new IndexOutOfBoundsException();
+        return array.delete(index);
+    }
+
+    /** Returns an iterator over the values of this table (no boxing). */
+    @Realtime(limit = CONSTANT)
+    public final PrimitiveIterator.OfDouble doubleIterator() {
+        return new DoubleIteratorImpl(array);
+    }
+
+    /** Returns the values of this table. */
+    @Realtime(limit = LINEAR)
+    public final double[] toDoubleArray() {
+        double[] values = new double[array.size()];
+        array.getElements(0, values.length, values, 0);
+        return values;
+    }
+
+    /** Sorts this table in ascending order (primitive sort). */
+    @Realtime(limit = N_LOG_N)
+    public void sort() {
+        array.sort();
+    }
+
+    /** Returns the sum of the values of this table using compensated summation ({@code 0.0} if empty). */
+    @Realtime(limit = LINEAR)
+    public final double sum() {
+        return array.sum(0, array.size());
+    }
+
+    /**
+     * Returns the smallest value of this table ({@code NaN} if any value is {@code NaN}).
+     *
+     * @throws NoSuchElementException if this table is empty.
+     */
+    @Realtime(limit = LINEAR)
+    public final double min() {
+        if (array.size() == 0) throw new NoSuchElementException();
+        return array.min(0, array.size());
+    }
+
+    /**
+     * Returns the largest value of this table ({@code NaN} if any value is {@code NaN}).
+     *
+     * @throws NoSuchElementException if this table is empty.
+     */
+    @Realtime(limit = LINEAR)
+    public final double max() {
+        if (array.size() == 0) throw new NoSuchElementException();
+        return array.max(0, array.size());
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Boxed methods.
+    //
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public final boolean add(Double element) {
+        return addDouble(element);
+    }
+
+    @Override
+    @Realtime(limit = LINEAR)
+    public final void add(int index, Double element) {
+        addDouble(index, element);
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public void clear() {
+        array.clear();
+    }
+
+    @Override
+    @Realtime(limit = LINEAR)
+    public DoubleTable clone() {
+        DoubleTable copy = (DoubleTable) super.clone();
+        copy.array = array.clone();
+        return copy;
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public final Equality<? super Double> equality() {
+        return Equality.standard();
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public final Double get(int index) {
+        return getDouble(index);
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public final FastListIterator<Double> listIterator(int index) {
+        return new IteratorImpl(array, index);
+    }
+
+    @Override
+    @Realtime(limit = LINEAR)
+    public final Double remove(int index) {
+        return removeDouble(index);
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public final Double set(int index, Double element) {
+        return setDouble(index, element);
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public final int size() {
+        return array.size();
+    }
+
+    /** Primitive Iterator Implementation. */
+    private static final class DoubleIteratorImpl implements PrimitiveIterator.OfDouble {
+        private final DoubleFractalImpl array;
+        private int nextIndex;
+
+        public DoubleIteratorImpl(DoubleFractalImpl array) {
+            this.array = array;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < array.size();
+        }
+
+        @Override
+        public double nextDouble() {
+            if (nextIndex >= array.size()) throw new NoSuchElementException();
+            return array.get(nextIndex++);
+        }
+
+    }
+
+    /** List Iterator Implementation (boxing). */
+    private static final class IteratorImpl implements FastListIterator<Double> {
+        private final DoubleFractalImpl array;
+        private int nextIndex;
+
+        public IteratorImpl(DoubleFractalImpl array, int nextIndex) {
+            this.array = array;
+            this.nextIndex = nextIndex;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < array.size();
+        }
+
+        @Override
+        public boolean hasNext(Predicate<? super Double> matching) {
+            for (int n = array.size(); nextIndex < n; nextIndex++)
+                if (matching.test(array.get(nextIndex))) return true;
+            return false;
+        }
+
+        @Override
+        public Double next() {
+            if (nextIndex >= array.size()) throw new NoSuchElementException();
+            return array.get(nextIndex++);
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return nextIndex > 0;
+        }
+
+        @Override
+        public boolean hasPrevious(Predicate<? super Double> matching) {
+            for (; nextIndex > 0; nextIndex--)
+                if (matching.test(array.get(nextIndex - 1))) return true;
+            return false;
+        }
+
+        @Override
+        public Double previous() {
+            if (nextIndex <= 0) throw new NoSuchElementException();
+            return array.get(--nextIndex);
+        }
+
+        @Override
+        public int nextIndex() {
+            return nextIndex;
+        }
+
+        @Override
+        public int previousIndex() {
+            return nextIndex - 1;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void add(Double element) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void set(Double element) {
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
+}
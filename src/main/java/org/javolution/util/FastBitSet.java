@@ -8,22 +8,50 @@
  */
 package org.javolution.util;
 
+import static org.javolution.annotations.Realtime.Limit.CONSTANT;
 import static org.javolution.annotations.Realtime.Limit.LINEAR;
+import static org.javolution.annotations.Realtime.Limit.LOG_N;
 
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
 
 import org.javolution.annotations.Nullable;
 import org.javolution.annotations.Realtime;
 import org.javolution.lang.Index;
-import org.javolution.lang.MathLib;
+import org.javolution.util.function.Function;
 import org.javolution.util.function.Order;
 import org.javolution.util.function.Predicate;
+import org.javolution.util.internal.BitSetContainerImpl;
+import org.javolution.util.internal.collection.MappedSpliteratorImpl;
 
 /**
  * A high-performance bit-set integrated with the collection framework as a set of {@link Index indices} 
  * and obeying the collection semantic for methods such as {@link #size} (cardinality) or {@link #equals}
  * (same set of indices).</p>
+ * 
+ * The bits are held by chunks of 2^16 bits (compressed [Roaring] layout): only the chunks having bits set are 
+ * allocated and each chunk is stored as a sorted array (sparse), a bitmap (dense) or a sequence of runs 
+ * (ranges of bits set). Setting a single bit near {@code 2^31} allocates a few bytes and logical operations
+ * ({@link #and}, {@link #or}, {@link #xor}, {@link #andNot}) are performed chunk by chunk. 
+ *   
+ * Iterations without allocation (no {@link Index} instances) are performed using {@link #intIterator} or
+ * {@link #forEachSetBit}; positional queries ({@link #rank(int)}, {@link #selectInt}) use a directory of the number of bits
+ * set per chunk, built on first use and discarded when the bit set is modified.
+ * 
+ * ```java
+ * FastBitSet hits = ...; // Query result.
+ * int first = hits.selectInt(page * PAGE_SIZE); // Position of the first hit of the page.
+ * for (PrimitiveIterator.OfInt itr = hits.intIterator(first); itr.hasNext() && (n++ < PAGE_SIZE);) {
+ *     int row = itr.nextInt();
+ *     ...
+ * }
+ * ```
+ *   
+ * [Roaring]: http://roaringbitmap.org/
  *   
  * @author  <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
  * @version 7.0, September 13, 2015
@@ -31,16 +59,29 @@ import org.javolution.util.function.Predicate;
 public class FastBitSet extends AbstractSet<Index> {
 
     private static final long serialVersionUID = 0x700L; // Version.
-    private static final long[] ALL_CLEARED = new long[0];
+    private static final char[] NO_KEYS = new char[0];
+    private static final BitSetContainerImpl[] NO_CONTAINERS = new BitSetContainerImpl[0];
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_MASK = BitSetContainerImpl.BITS - 1;
     
-    /** Holds the bits (64 bits per long). */
-    private long[] bits;
+    /** Holds the high bits of the chunks (ascending order). */
+    private char[] keys;
+    
+    /** Holds the chunk containers (never empty). */
+    private BitSetContainerImpl[] containers;
+    
+    /** Holds the number of chunks. */
+    private int chunks;
+    
+    /** Holds the number of bits set before each chunk (rank directory, {@code null} until needed). */
+    private transient int[] ranks;
     
     /** 
      * Creates a new bit-set (all bits cleared).
      */
     public FastBitSet() {
-        bits = ALL_CLEARED;
+        keys = NO_KEYS;
+        containers = NO_CONTAINERS;
     }
 
       ////////////////////////////////////////////////////////////////////////////
@@ -49,7 +90,7 @@ public class FastBitSet extends AbstractSet<Index> {
 
     @Override
      public final boolean add(Index index, boolean allowDuplicate) {
-         return add(index); // allowDuplicate flag ignored.
+         return !getAndSet(index.intValue(), true); // allowDuplicate flag ignored.
      }
 
      /**
@@ -61,14 +102,22 @@ public class FastBitSet extends AbstractSet<Index> {
      */
     @Realtime(limit = LINEAR)
     public final void and(FastBitSet that) {
-        long[] thatBits = that.toLongArray();
-        int n = MathLib.min(this.bits.length, thatBits.length);
-        for (int i = 0; i < n; i++) {
-            this.bits[i] &= thatBits[i];
-        }
-        for (int i = n; i < bits.length; i++) {
-            this.bits[i] = 0L;
+        char[] newKeys = new char[Math.min(chunks, that.chunks)];
+        BitSetContainerImpl[] newContainers = new BitSetContainerImpl[newKeys.length];
+        int n = 0;
+        for (int i = 0, j = 0; (i < chunks) && (j < that.chunks);) {
+            if (keys[i] < that.keys[j]) { 
+                i++;
+            } else if (keys[i] > that.keys[j]) { 
+                j++;
+            } else {
+                BitSetContainerImpl container = containers[i++].and(that.containers[j++]);
+                if (container.cardinality() == 0) continue;
+                newKeys[n] = keys[i - 1];
+                newContainers[n++] = container;
+            }
         }
+        setChunks(newKeys, newContainers, n);
     }
 
  	/**
@@ -81,11 +130,18 @@ public class FastBitSet extends AbstractSet<Index> {
      */
     @Realtime(limit = LINEAR)
     public final void andNot(FastBitSet that) {
-        long[] thatBits = that.toLongArray();
-        int n = MathLib.min(this.bits.length, thatBits.length);
-        for (int i = 0; i < n; i++) {
-            this.bits[i] &= ~thatBits[i];
+        char[] newKeys = new char[chunks];
+        BitSetContainerImpl[] newContainers = new BitSetContainerImpl[chunks];
+        int n = 0;
+        for (int i = 0, j = 0; i < chunks; i++) {
+            while ((j < that.chunks) && (that.keys[j] < keys[i])) j++;
+            BitSetContainerImpl container = ((j < that.chunks) && (that.keys[j] == keys[i])) ? 
+                    containers[i].andNot(that.containers[j]) : containers[i];
+            if (container.cardinality() == 0) continue;
+            newKeys[n] = keys[i];
+            newContainers[n++] = container;
         }
+        setChunks(newKeys, newContainers, n);
     }
 
      /**
@@ -95,16 +151,18 @@ public class FastBitSet extends AbstractSet<Index> {
      * @return the number of bits being set.
      */
     public final int cardinality() {
+        int[] directory = ranks;
+        if (directory != null) return directory[chunks];
         int sum = 0;
-        for (int i = 0; i < bits.length; i++) {
-            sum += MathLib.bitCount(bits[i]);
+        for (int i = 0; i < chunks; i++) {
+            sum += containers[i].cardinality();
         }
         return sum;
     }
 
      @Override
      public final void clear() {
-         bits = ALL_CLEARED;
+         setChunks(NO_KEYS, NO_CONTAINERS, 0);
      }
 
      /**
@@ -115,10 +173,7 @@ public class FastBitSet extends AbstractSet<Index> {
      * @throws IndexOutOfBoundsException if {@code index < 0}
      */
     public final void clear(int bitIndex) {
-        int longIndex = bitIndex >> 6;
-        if (longIndex >= bits.length)
-            return;
-        bits[longIndex] &= ~(1L << bitIndex);
+        getAndSet(bitIndex, false);
     }
 
  	/**
@@ -132,29 +187,16 @@ public class FastBitSet extends AbstractSet<Index> {
      */
     @Realtime(limit = LINEAR)
     public final void clear(int fromIndex, int toIndex) {
-        if ((fromIndex < 0) || (toIndex < fromIndex))
-            throw new IndexOutOfBoundsException();
-        int i = fromIndex >>> 6;
-        if (i >= bits.length)
-            return; // Ensures that i < _length
-        int j = toIndex >>> 6;
-        if (i == j) {
-            bits[i] &= ((1L << fromIndex) - 1) | (-1L << toIndex);
-            return;
-        }
-        bits[i] &= (1L << fromIndex) - 1;
-        if (j < bits.length) {
-            bits[j] &= -1L << toIndex;
-        }
-        for (int k = i + 1; (k < j) && (k < bits.length); k++) {
-            bits[k] = 0;
-        }
+        update(fromIndex, toIndex, CLEAR);
     }
 
 	@Override
  	public final FastBitSet clone() {
- 	    FastBitSet copy = new FastBitSet();
- 	    copy.bits = this.bits.clone();
+ 	    FastBitSet copy = (FastBitSet) super.clone();
+ 	    copy.keys = keys.clone();
+ 	    copy.containers = containers.clone();
+ 	    for (int i = 0; i < chunks; i++) 
+ 	        copy.containers[i] = containers[i].clone();
  	    return copy;
  	}
 	
@@ -175,9 +217,7 @@ public class FastBitSet extends AbstractSet<Index> {
      * @throws IndexOutOfBoundsException if {@code bitIndex < 0}
      */
     public final void flip(int bitIndex) {
-        int i = bitIndex >> 6;
-        ensureCapacity(i + 1);
-        bits[i] ^= 1L << bitIndex;
+        getAndSet(bitIndex, !get(bitIndex));
     }
 
     /**
@@ -190,20 +230,7 @@ public class FastBitSet extends AbstractSet<Index> {
      */
     @Realtime(limit = LINEAR)
     public final void flip(int fromIndex, int toIndex) {
-        if ((fromIndex < 0) || (toIndex < fromIndex))
-            throw new IndexOutOfBoundsException();
-        int i = fromIndex >>> 6;
-        int j = toIndex >>> 6;
-        ensureCapacity(j + 1);
-        if (i == j) {
-            bits[i] ^= (-1L << fromIndex) & ((1L << toIndex) - 1);
-            return;
-        }
-        bits[i] ^= -1L << fromIndex;
-        bits[j] ^= (1L << toIndex) - 1;
-        for (int k = i + 1; k < j; k++) {
-            bits[k] ^= -1;
-        }
+        update(fromIndex, toIndex, FLIP);
     }
 
     /**
@@ -214,9 +241,11 @@ public class FastBitSet extends AbstractSet<Index> {
      * @return the value of the bit at the specified index.
      * @throws IndexOutOfBoundsException if {@code bitIndex < 0}
      */
+    @Realtime(limit = LOG_N)
     public final boolean get(int bitIndex) {
-        int i = bitIndex >> 6;
-        return (i >= bits.length) ? false : (bits[i] & (1L << bitIndex)) != 0;
+        if (bitIndex < 0) throw new IndexOutOfBoundsException();
+        int i = indexOf(bitIndex >>> CHUNK_BITS);
+        return (i >= 0) && containers[i].get(bitIndex & CHUNK_MASK);
     }
 
     /**
@@ -233,26 +262,38 @@ public class FastBitSet extends AbstractSet<Index> {
         if (fromIndex < 0 || fromIndex > toIndex)
             throw new IndexOutOfBoundsException();
         FastBitSet bitSet = new FastBitSet();
-        int length = MathLib.min(bits.length, (toIndex >>> 6) + 1);
-        bitSet.bits = new long[length];
-        System.arraycopy(bits, 0, bitSet.bits, 0, length);
+        int start = lowerBound(fromIndex >>> CHUNK_BITS);
+        int end = (toIndex == 0) ? start : lowerBound(((toIndex - 1) >>> CHUNK_BITS) + 1);
+        bitSet.keys = Arrays.copyOfRange(keys, start, end);
+        bitSet.containers = Arrays.copyOfRange(containers, start, end);
+        bitSet.chunks = end - start;
+        for (int i = 0; i < bitSet.chunks; i++) 
+            bitSet.containers[i] = bitSet.containers[i].clone();
         bitSet.clear(0, fromIndex);
-        bitSet.clear(toIndex, length << 6);
+        bitSet.clear(toIndex, Integer.MAX_VALUE);
         return bitSet;
     }
 
     /** 
      * Sets the specified bit, returns <code>true</code>
      * if previously set. */
+    @Realtime(limit = LOG_N)
     public final boolean getAndSet(int bitIndex, boolean value) {
-        int i = bitIndex >> 6;
-        ensureCapacity(i + 1);
-        boolean previous = (bits[i] & (1L << bitIndex)) != 0;
-        if (value) { 
-            bits[i] |= 1L << bitIndex;
-        } else {
-            bits[i] &= ~(1L << bitIndex);
-        }
+        if (bitIndex < 0) throw new IndexOutOfBoundsException();
+        char key = (char) (bitIndex >>> CHUNK_BITS);
+        int i = indexOf(key);
+        if (i < 0) {
+            if (!value) return false;
+            i = -i - 1;
+            insert(i, key, BitSetContainerImpl.empty());
+        } 
+        BitSetContainerImpl container = containers[i];
+        boolean previous = container.get(bitIndex & CHUNK_MASK);
+        if (previous == value) return previous;
+        ranks = null;
+        container = value ? container.set(bitIndex & CHUNK_MASK) : container.clear(bitIndex & CHUNK_MASK);
+        if (container.cardinality() == 0) remove(i);
+        else containers[i] = container;
         return previous;
     }
    
@@ -270,17 +311,21 @@ public class FastBitSet extends AbstractSet<Index> {
      */
     @Realtime(limit = LINEAR)
     public final boolean intersects(FastBitSet that) {
-        long[] thatBits = that.toLongArray();
-        int i = MathLib.min(this.bits.length, thatBits.length);
-        while (--i >= 0) {
-            if ((bits[i] & thatBits[i]) != 0) return true; 
+        for (int i = 0, j = 0; (i < chunks) && (j < that.chunks);) {
+            if (keys[i] < that.keys[j]) { 
+                i++;
+            } else if (keys[i] > that.keys[j]) { 
+                j++;
+            } else if (containers[i++].intersects(that.containers[j++])) {
+                return true;
+            }
         }
         return false;
     }
 
     @Override
 	public final boolean isEmpty() {
-		return size() == 0;
+		return chunks == 0;
 	}
 
     @Override
@@ -289,6 +334,118 @@ public class FastBitSet extends AbstractSet<Index> {
         return new IteratorImpl(this, start, false);
     }
     
+    /**
+     * Returns an iterator over the indices of the bits set (ascending order) starting from the specified index 
+     * (no allocation per bit).
+     * 
+     * @param fromIndex the start location (inclusive).
+     * @throws IndexOutOfBoundsException if {@code fromIndex < 0} 
+     */
+    @Realtime(limit = LOG_N)
+    public final PrimitiveIterator.OfInt intIterator(int fromIndex) {
+        if (fromIndex < 0) throw new IndexOutOfBoundsException();
+        return new IntIteratorImpl(this, fromIndex);
+    }
+
+    /** 
+     * Returns an iterator over the indices of the bits set (ascending order).
+     * 
+     * @return {@code intIterator(0)}
+     */
+    @Realtime(limit = CONSTANT)
+    public final PrimitiveIterator.OfInt intIterator() {
+        return intIterator(0);
+    }
+
+    /**
+     * Calls the specified consumer with the index of each bit set (ascending order, no allocation per bit).
+     * 
+     * @param consumer the consumer of the bits indices.
+     */
+    @Realtime(limit = LINEAR)
+    public final void forEachSetBit(IntConsumer consumer) {
+        for (int i = 0; i < chunks; i++) 
+            containers[i].forEach(consumer, keys[i] << CHUNK_BITS);
+    }
+
+    /**
+     * Returns a spliterator over the indices of the bits set (ascending order, no allocation per bit). 
+     * The bit set is split along chunks boundaries (then words boundaries within a chunk) and the size of 
+     * each split is exact (rank directory).
+     * 
+     * ```java
+     * int sum = StreamSupport.intStream(bits.intSpliterator(), true).sum(); // Parallel.
+     * ```
+     */
+    @Realtime(limit = CONSTANT)
+    public final Spliterator.OfInt intSpliterator() {
+        return new SpliteratorImpl(this, 0, SpliteratorImpl.END);
+    }
+
+    /** Returns a spliterator over the indices of the bits set (see {@link #intSpliterator}). */
+    @Override
+    @Realtime(limit = CONSTANT)
+    public final Spliterator<Index> spliterator() {
+        return new MappedSpliteratorImpl<Integer, Index>(intSpliterator(), new Function<Integer, Index>() {
+            @Override
+            public Index apply(Integer param) {
+                return Index.of(param.intValue());
+            }
+        }, ~0, null);
+    }
+
+    /**
+     * Returns the number of bits set before the specified index (exclusive).
+     * 
+     * @param bitIndex the index (exclusive).
+     * @return the number of bits set in the range {@code [0, bitIndex)}.
+     * @throws IndexOutOfBoundsException if {@code bitIndex < 0} 
+     */
+    @Realtime(limit = LOG_N, comment = "Linear the first time after a modification (rank directory built)")
+    public final int rank(int bitIndex) {
+        if (bitIndex < 0) throw new IndexOutOfBoundsException();
+        int[] directory = ranks();
+        int key = bitIndex >>> CHUNK_BITS;
+        int i = lowerBound(key);
+        if ((i < chunks) && (keys[i] == key)) return directory[i] + containers[i].rank(bitIndex & CHUNK_MASK);
+        return directory[i];
+    }
+
+    /**
+     * Returns the index of the k-th bit set (the first bit set has rank {@code 0}).
+     * 
+     * @param k the rank of the bit searched for.
+     * @return the index {@code i} such as {@code get(i) && (rank(i) == k)}. 
+     * @throws IndexOutOfBoundsException if {@code (k < 0) || (k >= cardinality())} 
+     */
+    @Realtime(limit = LOG_N, comment = "Linear the first time after a modification (rank directory built)")
+    public final int selectInt(int k) {
+        int[] directory = ranks();
+        if ((k < 0) || (k >= directory[chunks])) throw new IndexOutOfBoundsException();
+        int low = 0, high = chunks - 1; // Searches the last chunk starting at or before k.
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (directory[mid] <= k) low = mid;
+            else high = mid - 1;
+        }
+        return (keys[low] << CHUNK_BITS) + containers[low].select(k - directory[low]);
+    }
+
+    @Override
+    @Realtime(limit = LOG_N, comment = "Linear the first time after a modification (rank directory built)")
+    public final int rank(Index index, boolean inclusive) {
+        long bitIndex = index.longValue();
+        if ((bitIndex < 0) || (bitIndex > Integer.MAX_VALUE)) return cardinality(); // Unsigned index. 
+        int i = (int) bitIndex;
+        return rank(i) + ((inclusive && get(i)) ? 1 : 0);
+    }
+
+    @Override
+    @Realtime(limit = LOG_N, comment = "Linear the first time after a modification (rank directory built)")
+    public final Index select(int rank) {
+        return Index.of(selectInt(rank));
+    }
+
     /**
      * Returns the logical number of bits actually used by this bit
      * set.  It returns the index of the highest set bit plus one.
@@ -299,9 +456,8 @@ public class FastBitSet extends AbstractSet<Index> {
      * @return the index of the highest set bit plus one.
      */
     public final int length() {
-        trim();
-        if (bits.length == 0) return 0;
-        return (bits.length << 6) - MathLib.numberOfLeadingZeros(bits[bits.length -1]);
+        if (chunks == 0) return 0;
+        return (keys[chunks - 1] << CHUNK_BITS) + containers[chunks - 1].last() + 1;
     }
 
     /**
@@ -312,20 +468,18 @@ public class FastBitSet extends AbstractSet<Index> {
      * @return the first {@code false} bit.
      * @throws IndexOutOfBoundsException if {@code fromIndex < 0} 
      */
+    @Realtime(limit = LOG_N)
     public final int nextClearBit(int fromIndex) {
-        int offset = fromIndex >> 6;
-        long mask = 1L << fromIndex;
-        while (offset < bits.length) {
-            long h = bits[offset];
-            do {
-                if ((h & mask) == 0) { return fromIndex; }
-                mask <<= 1;
-                fromIndex++;
-            } while (mask != 0);
-            mask = 1;
-            offset++;
+        if (fromIndex < 0) throw new IndexOutOfBoundsException();
+        int key = fromIndex >>> CHUNK_BITS;
+        int i = indexOf(key);
+        if (i < 0) return fromIndex;
+        for (int bit = fromIndex & CHUNK_MASK;; bit = 0) {
+            bit = containers[i].nextClearBit(bit);
+            if (bit < BitSetContainerImpl.BITS) return (key << CHUNK_BITS) + bit;
+            ++key;
+            if ((++i >= chunks) || (keys[i] != key)) return key << CHUNK_BITS; // Next chunk is empty.
         }
-        return fromIndex;
     }
 
     /**
@@ -340,21 +494,17 @@ public class FastBitSet extends AbstractSet<Index> {
      * @return the first {@code false} bit.
      * @throws IndexOutOfBoundsException if {@code fromIndex < 0} 
      */
+    @Realtime(limit = LOG_N)
     public final int nextSetBit(int fromIndex) {
-        int offset = fromIndex >> 6;
-        long mask = 1L << fromIndex;
-        while (offset < bits.length) {
-            long h = bits[offset];
-            do {
-                if ((h & mask) != 0)
-                    return fromIndex;
-                mask <<= 1;
-                fromIndex++;
-            } while (mask != 0);
-            mask = 1;
-            offset++;
+        if (fromIndex < 0) throw new IndexOutOfBoundsException();
+        int key = fromIndex >>> CHUNK_BITS;
+        int i = lowerBound(key);
+        if ((i < chunks) && (keys[i] == key)) {
+            int bit = containers[i].nextSetBit(fromIndex & CHUNK_MASK);
+            if (bit >= 0) return (key << CHUNK_BITS) + bit;
+            i++;
         }
-        return -1;
+        return (i < chunks) ? (keys[i] << CHUNK_BITS) + containers[i].nextSetBit(0) : -1;
     }
 
     /**
@@ -366,12 +516,7 @@ public class FastBitSet extends AbstractSet<Index> {
      */
     @Realtime(limit = LINEAR)
     public final void or(FastBitSet that) {
-        long[] thatBits = (that instanceof FastBitSet) ? ((FastBitSet) that).bits
-                : that.toLongArray();
-        ensureCapacity(thatBits.length);
-        for (int i = thatBits.length; --i >= 0;) {
-            bits[i] |= thatBits[i];
-        }
+        merge(that, false);
     }
 
     @Override
@@ -387,21 +532,19 @@ public class FastBitSet extends AbstractSet<Index> {
      * @return the first {@code false} bit.
      * @throws IndexOutOfBoundsException if {@code fromIndex < -1} 
      */
+    @Realtime(limit = LOG_N)
     public final int previousClearBit(int fromIndex) {
-        int offset = fromIndex >> 6;
-        long mask = 1L << fromIndex;
-        while (offset >= 0) {
-            long h = bits[offset];
-            do {
-                if ((h & mask) == 0)
-                    return fromIndex;
-                mask >>= 1;
-                fromIndex--;
-            } while (mask != 0);
-            mask = 1L << 63;
-            offset--;
+        if (fromIndex < -1) throw new IndexOutOfBoundsException();
+        if (fromIndex == -1) return -1;
+        int key = fromIndex >>> CHUNK_BITS;
+        int i = indexOf(key);
+        if (i < 0) return fromIndex;
+        for (int bit = fromIndex & CHUNK_MASK;; bit = CHUNK_MASK) {
+            bit = containers[i].previousClearBit(bit);
+            if (bit >= 0) return (key << CHUNK_BITS) + bit;
+            if (key == 0) return -1;
+            if ((--i < 0) || (keys[i] != --key)) return (key << CHUNK_BITS) + CHUNK_MASK; // Previous chunk is empty.
         }
-        return -1;
     }
 
     /**
@@ -416,21 +559,17 @@ public class FastBitSet extends AbstractSet<Index> {
      * @return the first {@code false} bit.
      * @throws IndexOutOfBoundsException if {@code fromIndex < -1} 
      */
+    @Realtime(limit = LOG_N)
     public final int previousSetBit(int fromIndex) {
-        int offset = fromIndex >> 6;
-        long mask = 1L << fromIndex;
-        while (offset >= 0) {
-            long h = bits[offset];
-            do {
-                if ((h & mask) != 0)
-                    return fromIndex;
-                mask >>= 1;
-                fromIndex--;
-            } while (mask != 0);
-            mask = 1L << 63;
-            offset--;
+        if (fromIndex < -1) throw new IndexOutOfBoundsException();
+        if (fromIndex == -1) return -1;
+        int key = fromIndex >>> CHUNK_BITS;
+        int i = lowerBound(key);
+        if ((i < chunks) && (keys[i] == key)) {
+            int bit = containers[i].previousSetBit(fromIndex & CHUNK_MASK);
+            if (bit >= 0) return (key << CHUNK_BITS) + bit;
         }
-        return -1;
+        return (--i >= 0) ? (keys[i] << CHUNK_BITS) + containers[i].last() : -1;
     }
 
     @Override
@@ -457,9 +596,7 @@ public class FastBitSet extends AbstractSet<Index> {
      * @throws IndexOutOfBoundsException if {@code bitIndex < 0}
      */
     public final void set(int bitIndex) {
-        int i = bitIndex >> 6;
-        ensureCapacity(i + 1);
-        bits[i] |= 1L << bitIndex;
+        getAndSet(bitIndex, true);
     }
 
 	/**
@@ -470,11 +607,7 @@ public class FastBitSet extends AbstractSet<Index> {
      * @throws IndexOutOfBoundsException if {@code bitIndex < 0}
      */
     public final void set(int bitIndex, boolean value) {
-        if (value) {
-            set(bitIndex);
-        } else {
-            clear(bitIndex);
-        }
+        getAndSet(bitIndex, value);
     }
 
     /**
@@ -488,20 +621,7 @@ public class FastBitSet extends AbstractSet<Index> {
      */
     @Realtime(limit = LINEAR)
     public final void set(int fromIndex, int toIndex) {
-        if ((fromIndex < 0) || (toIndex < fromIndex))
-        	throw new IndexOutOfBoundsException();
-        int i = fromIndex >>> 6;
-        int j = toIndex >>> 6;
-        ensureCapacity(j + 1);
-        if (i == j) {
-            bits[i] |= (-1L << fromIndex) & ((1L << toIndex) - 1);
-            return;
-        }
-        bits[i] |= -1L << fromIndex;
-        bits[j] |= (1L << toIndex) - 1;
-        for (int k = i + 1; k < j; k++) {
-            bits[k] = -1;
-        }
+        update(fromIndex, toIndex, SET);
     }
 
     /**
@@ -527,13 +647,16 @@ public class FastBitSet extends AbstractSet<Index> {
         return cardinality();
  	}
 
-    /** Returns the minimal length <code>long[]</code> representation of this bitset.
+    /** Returns the minimal length <code>long[]</code> representation of this bitset (a new array).
      * 
      * @return Array of longs representing this bitset 
      */
+    @Realtime(limit = LINEAR)
     public final long[] toLongArray() {
-        trim();
-        return bits;
+        long[] words = new long[(length() + 63) >>> 6];
+        for (int i = 0; i < chunks; i++) 
+            containers[i].orInto(words, keys[i] << (CHUNK_BITS - 6));
+        return words;
     }
 
     /**
@@ -546,28 +669,243 @@ public class FastBitSet extends AbstractSet<Index> {
      */
     @Realtime(limit = LINEAR)
     public final void xor(FastBitSet that) {
-        long[] thatBits = (that instanceof FastBitSet) ? ((FastBitSet) that).bits
-                : that.toLongArray();
-        ensureCapacity(thatBits.length);
-        for (int i = thatBits.length; --i >= 0;) {
-            bits[i] ^= thatBits[i];
+        merge(that, true);
+    }
+
+    private static final int SET = 0;
+    private static final int CLEAR = 1;
+    private static final int FLIP = 2;
+
+    /** Sets, clears or flips the specified range of bits (chunks in the range are processed once). */
+    private void update(int fromIndex, int toIndex, int operation) {
+        if ((fromIndex < 0) || (toIndex < fromIndex))
+            throw new IndexOutOfBoundsException();
+        if (fromIndex == toIndex) return;
+        int firstKey = fromIndex >>> CHUNK_BITS;
+        int lastKey = (toIndex - 1) >>> CHUNK_BITS;
+        int start = lowerBound(firstKey);
+        int end = lowerBound(lastKey + 1);
+        int span = (operation == CLEAR) ? end - start : lastKey - firstKey + 1;
+        char[] newKeys = new char[span];
+        BitSetContainerImpl[] newContainers = new BitSetContainerImpl[span];
+        int n = 0;
+        for (int key = firstKey, i = start; key <= lastKey; key++) {
+            boolean present = (i < end) && (keys[i] == key);
+            if (!present && (operation == CLEAR)) { // Skips empty chunks.
+                if (i >= end) break; 
+                key = keys[i] - 1;
+                continue;
+            }
+            int from = (key == firstKey) ? fromIndex & CHUNK_MASK : 0;
+            int to = (key == lastKey) ? ((toIndex - 1) & CHUNK_MASK) + 1 : BitSetContainerImpl.BITS;
+            BitSetContainerImpl container;
+            if (present) {
+                BitSetContainerImpl c = containers[i++];
+                container = (operation == SET) ? c.set(from, to) : (operation == CLEAR) ? c.clear(from, to) 
+                        : c.flip(from, to);
+            } else {
+                container = BitSetContainerImpl.of(from, to);
+            }
+            if (container.cardinality() == 0) continue;
+            newKeys[n] = (char) key;
+            newContainers[n++] = container;
+        }
+        splice(start, end, newKeys, newContainers, n);
+    }
+
+    /** Performs the union ({@code xor == false}) or symmetric difference with the specified bit set. */
+    private void merge(FastBitSet that, boolean xor) {
+        char[] newKeys = new char[chunks + that.chunks];
+        BitSetContainerImpl[] newContainers = new BitSetContainerImpl[newKeys.length];
+        int n = 0;
+        for (int i = 0, j = 0; (i < chunks) || (j < that.chunks);) {
+            BitSetContainerImpl container;
+            char key;
+            if ((j >= that.chunks) || ((i < chunks) && (keys[i] < that.keys[j]))) {
+                key = keys[i];
+                container = containers[i++];
+            } else if ((i >= chunks) || (keys[i] > that.keys[j])) {
+                key = that.keys[j];
+                container = that.containers[j++].clone();
+            } else {
+                key = keys[i];
+                container = xor ? containers[i++].xor(that.containers[j++]) 
+                        : containers[i++].or(that.containers[j++]);
+                if (container.cardinality() == 0) continue;
+            }
+            newKeys[n] = key;
+            newContainers[n++] = container;
+        }
+        setChunks(newKeys, newContainers, n);
+    }
+
+    /** Replaces the chunks at positions [start, end) with the specified chunks. */
+    private void splice(int start, int end, char[] newKeys, BitSetContainerImpl[] newContainers, int n) {
+        int length = chunks - (end - start) + n;
+        char[] k = new char[length];
+        BitSetContainerImpl[] c = new BitSetContainerImpl[length];
+        System.arraycopy(keys, 0, k, 0, start);
+        System.arraycopy(containers, 0, c, 0, start);
+        System.arraycopy(newKeys, 0, k, start, n);
+        System.arraycopy(newContainers, 0, c, start, n);
+        System.arraycopy(keys, end, k, start + n, chunks - end);
+        System.arraycopy(containers, end, c, start + n, chunks - end);
+        setChunks(k, c, length);
+    }
+
+    private void setChunks(char[] newKeys, BitSetContainerImpl[] newContainers, int n) {
+        keys = newKeys;
+        containers = newContainers;
+        chunks = n;
+        ranks = null;
+    }
+
+    private void insert(int i, char key, BitSetContainerImpl container) {
+        if (chunks >= keys.length) {
+            int capacity = Math.max(4, chunks * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
         }
+        System.arraycopy(keys, i, keys, i + 1, chunks - i);
+        System.arraycopy(containers, i, containers, i + 1, chunks - i);
+        keys[i] = key;
+        containers[i] = container;
+        chunks++;
+    }
+
+    private void remove(int i) {
+        System.arraycopy(keys, i + 1, keys, i, chunks - i - 1);
+        System.arraycopy(containers, i + 1, containers, i, chunks - i - 1);
+        containers[--chunks] = null;
+    }
+
+    /** Returns the rank directory (built if necessary). */
+    private int[] ranks() {
+        int[] directory = ranks;
+        if (directory != null) return directory;
+        directory = new int[chunks + 1];
+        for (int i = 0; i < chunks; i++) 
+            directory[i + 1] = directory[i] + containers[i].cardinality();
+        return ranks = directory;
+    }
+
+    /** Returns the position of the chunk with the specified key or {@code -(insertion point) - 1} if none. */
+    private int indexOf(int key) {
+        return Arrays.binarySearch(keys, 0, chunks, (char) key);
     }
 
-    // Checks capacity.
-    private void ensureCapacity(int capacity) {
-        if (bits.length < capacity) {
-            bits = Arrays.copyOf(bits, MathLib.max(bits.length * 2, capacity));
+    /** Returns the position of the first chunk whose key is greater or equal to the specified key. */
+    private int lowerBound(int key) {
+        if (key > Character.MAX_VALUE) return chunks;
+        int i = indexOf(key);
+        return (i >= 0) ? i : -i - 1;
+    }
+
+    /** Spliterator over the bits set within a range of indices. */
+    private static final class SpliteratorImpl implements Spliterator.OfInt {
+        private static final long END = 1L << 31; // Exclusive end of the whole range of indices.
+        private final FastBitSet that;
+        private int from; // Inclusive.
+        private final long to; // Exclusive.
+        private IntIteratorImpl itr; // Null until traversal started (no split afterward).
+        private int next; // Look-ahead index (-1 if none).
+
+        SpliteratorImpl(FastBitSet that, int from, long to) {
+            this.that = that;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if (itr == null) {
+                itr = new IntIteratorImpl(that, from);
+                next = itr.hasNext() ? itr.nextInt() : -1;
+            }
+            if ((next < 0) || (next >= to)) return false;
+            action.accept(next);
+            next = itr.hasNext() ? itr.nextInt() : -1;
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            while (tryAdvance(action));
+        }
+
+        @Override
+        public OfInt trySplit() {
+            if (itr != null) return null;
+            int first = that.lowerBound(from >>> CHUNK_BITS); // First chunk in range.
+            int end = that.lowerBound((int) ((to - 1) >>> CHUNK_BITS) + 1); // Chunk after the last in range.
+            if (first >= end) return null; // No bit set in range.
+            long mid;
+            if (end - first >= 2) { // Splits on a chunk boundary.
+                mid = that.keys[(first + end) >>> 1] << CHUNK_BITS;
+            } else { // Splits on a word boundary.
+                long low = Math.max(from, that.keys[first] << CHUNK_BITS);
+                long high = Math.min(to, (that.keys[first] + 1L) << CHUNK_BITS);
+                mid = ((low + high) >>> 1) & ~63L;
+                if (mid <= low) return null;
+            }
+            SpliteratorImpl prefix = new SpliteratorImpl(that, from, mid);
+            from = (int) mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() { // Exact.
+            if (itr == null) return rank(to) - that.rank(from);
+            return ((next < 0) || (next >= to)) ? 0 : rank(to) - that.rank(next);
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | DISTINCT | SORTED | SIZED | SUBSIZED | NONNULL;
+        }
+
+        @Override
+        public Comparator<? super Integer> getComparator() {
+            return null; // Natural order.
+        }
+
+        private long rank(long index) {
+            return (index > Integer.MAX_VALUE) ? that.cardinality() : that.rank((int) index);
         }
     }
 
-    // Removes trailing zeros.
-    private void trim() {
-        int n = bits.length;
-        while ((--n >= 0) && (bits[n] == 0L)) {}
-        if (++n != bits.length) { // Trim.
-            bits = Arrays.copyOf(bits, n);
-        }        
+    /** Primitive iterator implementation (chunk by chunk). */
+    private static final class IntIteratorImpl implements PrimitiveIterator.OfInt {
+        private final FastBitSet that;
+        private int chunk; // Position of the current chunk.
+        private int next; // Next bit in the current chunk or -1 if none.
+
+        IntIteratorImpl(FastBitSet that, int from) {
+            this.that = that;
+            int key = from >>> CHUNK_BITS;
+            chunk = that.lowerBound(key);
+            next = (chunk < that.chunks) ? 
+                    that.containers[chunk].nextSetBit((that.keys[chunk] == key) ? from & CHUNK_MASK : 0) : -1;
+            if (next < 0) nextChunk();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next >= 0;
+        }
+
+        @Override
+        public int nextInt() {
+            if (next < 0) throw new NoSuchElementException();
+            int index = (that.keys[chunk] << CHUNK_BITS) + next;
+            next = (next < CHUNK_MASK) ? that.containers[chunk].nextSetBit(next + 1) : -1;
+            if (next < 0) nextChunk();
+            return index;
+        }
+
+        private void nextChunk() { // Containers are never empty.
+            next = (++chunk < that.chunks) ? that.containers[chunk].nextSetBit(0) : -1;
+        }
     }
 
     /** BitSet iterator implementation. */
@@ -601,7 +939,8 @@ public class FastBitSet extends AbstractSet<Index> {
             if (nextIndex < 0)
                 throw new NoSuchElementException();
             currentIndex = nextIndex;
-            nextIndex = reversed ? that.previousSetBit(nextIndex - 1) : that.nextSetBit(nextIndex + 1);
+            nextIndex = reversed ? that.previousSetBit(nextIndex - 1) : 
+                (nextIndex == Integer.MAX_VALUE) ? -1 : that.nextSetBit(nextIndex + 1);
             return Index.of(currentIndex);
         }
 
@@ -0,0 +1,414 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util;
+
+import static org.javolution.annotations.Realtime.Limit.CONSTANT;
+import static org.javolution.annotations.Realtime.Limit.LINEAR;
+
+import java.util.concurrent.TimeUnit;
+
+import org.javolution.annotations.Nullable;
+import org.javolution.annotations.Realtime;
+import org.javolution.lang.MathLib;
+import org.javolution.util.function.Equality;
+import org.javolution.util.function.Indexer;
+import org.javolution.util.function.Order;
+import org.javolution.util.function.UnaryOperator;
+import org.javolution.util.internal.map.CacheSegmentImpl;
+
+/**
+ * A thread-safe bounded map whose least valuable entries are automatically evicted when the maximum size
+ * (or the maximum total weight) is exceeded, entries may also expire after a fixed duration.
+ *
+ * The map is split into independently locked segments (selected from the key {@link Order#indexOf index}),
+ * reads and updates of different segments are not blocking each other. Weighted caches (see {@link #weigher})
+ * have a single segment, their maximum total weight is then enforced globally (any entry not heavier than the
+ * maximum can be cached). Two eviction policies are supported:
+ * <ul>
+ *    <li>{@link Policy#LRU} - The least recently used entries are evicted first.</li>
+ *    <li>{@link Policy#TINY_LFU} - Window TinyLFU (default), the entries are admitted in the main space only if
+ *        their estimated frequency of use is greater than the frequency of the entry they would replace
+ *        (near-optimal hit ratio, resistant to scans).</li>
+ * </ul>
+ *
+ * ```java
+ * FastCache<String, Image> images = new FastCache<String, Image>(Order.lexical(), 64 * 1024 * 1024, Policy.TINY_LFU)
+ *     .weigher(image -> image.byteSize()) // Maximum of 64 MB.
+ *     .expireAfterAccess(10, TimeUnit.MINUTES);
+ * ...
+ * Image image = images.get(url);
+ * if (image == null) images.put(url, image = load(url));
+ * ...
+ * System.out.println("Hit count: " + images.hitCount() + ", miss count: " + images.missCount());
+ * ```
+ *
+ * The {@link #entries() entries} of a cache are an unmodifiable snapshot of the non-expired entries (ordered
+ * according to the key order).
+ *
+ * @param <K> the type of keys ({@code null} values are not supported)
+ * @param <V> the type of values
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle </a>
+ * @version 7.0, September 13, 2015
+ */
+@Realtime
+public class FastCache<K, V> extends AbstractMap<K, V> {
+
+    private static final long serialVersionUID = 0x700L; // Version.
+    private static final long MIN_SEGMENT_MAXIMUM = 128;
+
+    /** The eviction policy of a cache. */
+    public enum Policy {
+
+        /** Least recently used entries are evicted first. */
+        LRU,
+
+        /** Window TinyLFU admission and eviction policy (frequency and recency based). */
+        TINY_LFU
+    }
+
+    private final Order<? super K> keyOrder;
+    private final long maximum;
+    private final Policy policy;
+    private CacheSegmentImpl<K, V>[] segments;
+    private int mask;
+    private @Nullable Indexer<? super V> weigher;
+    private long expireAfterWrite, expireAfterAccess; // Nanoseconds.
+
+    /** Creates a {@link Policy#TINY_LFU TinyLFU} cache holding at most the specified number of entries
+     *  (arbitrary order). */
+    public FastCache(long maximumSize) {
+        this(Order.standard(), maximumSize, Policy.TINY_LFU);
+    }
+
+    /**
+     * Creates a cache using the specified key order, maximum number of entries (or maximum weight if a
+     * {@link #weigher} is set) and eviction policy.
+     *
+     * @throws IllegalArgumentException if {@code maximum <= 0}
+     */
+    public FastCache(Order<? super K> keyOrder, long maximum, Policy policy) {
+        if (maximum <= 0) throw new IllegalArgumentException("Maximum should be positive");
+        this.keyOrder = keyOrder;
+        this.maximum = maximum;
+        this.policy = policy;
+        int n = Integer.highestOneBit(Math.min(4 * Runtime.getRuntime().availableProcessors(), 64));
+        while ((n > 1) && (maximum / n < MIN_SEGMENT_MAXIMUM)) n >>= 1;
+        createSegments(n);
+    }
+
+    /**
+     * Sets the function returning the weight (non-negative) of the cached values; the cache maximum is then
+     * the maximum total weight of its entries. The cache is then made of a single segment (the weight of an
+     * entry is not bounded by a segment share of the maximum). This method should be called before the cache
+     * is used.
+     */
+    public FastCache<K, V> weigher(Indexer<? super V> weigher) {
+        AbstractSet<Entry<K, V>> current = entries(); // Usually empty.
+        this.weigher = weigher;
+        createSegments(1);
+        updateExpiration();
+        for (Entry<K, V> entry : current)
+            put(entry.getKey(), entry.getValue());
+        return this;
+    }
+
+    /**
+     * Sets the duration after which the entries expire once created or last updated.
+     * This method should be called before the cache is used.
+     */
+    public FastCache<K, V> expireAfterWrite(long duration, TimeUnit unit) {
+        expireAfterWrite = unit.toNanos(duration);
+        updateExpiration();
+        return this;
+    }
+
+    /**
+     * Sets the duration after which the entries expire once last read or updated.
+     * This method should be called before the cache is used.
+     */
+    public FastCache<K, V> expireAfterAccess(long duration, TimeUnit unit) {
+        expireAfterAccess = unit.toNanos(duration);
+        updateExpiration();
+        return this;
+    }
+
+    /** Returns the number of successful lookups (hits) of this cache. */
+    @Realtime(limit = CONSTANT)
+    public long hitCount() {
+        long count = 0;
+        for (CacheSegmentImpl<K, V> segment : segments)
+            synchronized (segment) {
+                count += segment.hits();
+            }
+        return count;
+    }
+
+    /** Returns the number of unsuccessful lookups (misses) of this cache. */
+    @Realtime(limit = CONSTANT)
+    public long missCount() {
+        long count = 0;
+        for (CacheSegmentImpl<K, V> segment : segments)
+            synchronized (segment) {
+                count += segment.misses();
+            }
+        return count;
+    }
+
+    /** Returns the number of entries evicted due to size or expiration. */
+    @Realtime(limit = CONSTANT)
+    public long evictionCount() {
+        long count = 0;
+        for (CacheSegmentImpl<K, V> segment : segments)
+            synchronized (segment) {
+                count += segment.evictions();
+            }
+        return count;
+    }
+
+    /** Returns the total weight of the entries of this cache (the number of entries if no weigher is set). */
+    @Realtime(limit = CONSTANT)
+    public long weightedSize() {
+        long weight = 0;
+        for (CacheSegmentImpl<K, V> segment : segments)
+            synchronized (segment) {
+                weight += segment.weight();
+            }
+        return weight;
+    }
+
+    /** Removes the expired entries (expired entries are otherwise removed lazily when accessed). */
+    @Realtime(limit = LINEAR)
+    public void cleanUp() {
+        long now = System.nanoTime();
+        for (CacheSegmentImpl<K, V> segment : segments)
+            synchronized (segment) {
+                segment.removeExpired(now);
+            }
+    }
+
+    /** Returns the entry for the specified key (this is recorded as a cache hit or miss). */
+    @Override
+    public @Nullable Entry<K, V> getEntry(K key) {
+        CacheSegmentImpl<K, V> segment = segmentOf(key);
+        synchronized (segment) {
+            return segment.get(key, System.nanoTime());
+        }
+    }
+
+    /** Indicates if this cache holds the specified key (neither a cache hit or miss, not considered an access). */
+    @SuppressWarnings("unchecked")
+    @Override
+    public boolean containsKey(Object key) {
+        CacheSegmentImpl<K, V> segment = segmentOf((K) key);
+        synchronized (segment) {
+            return segment.peek((K) key, System.nanoTime()) != null;
+        }
+    }
+
+    /** Adds the specified entry, replacing any previous entry with the same key (caches have unique keys). */
+    @Override
+    public Entry<K, V> addEntry(K key, V value) {
+        long weight = weightOf(value);
+        CacheSegmentImpl<K, V> segment = segmentOf(key);
+        synchronized (segment) {
+            long now = System.nanoTime();
+            segment.put(key, value, weight, now);
+            return segment.peek(key, now); // Null if immediately evicted.
+        }
+    }
+
+    @Override
+    public @Nullable Entry<K, V> removeEntry(K key) {
+        CacheSegmentImpl<K, V> segment = segmentOf(key);
+        synchronized (segment) {
+            return segment.remove(key, System.nanoTime());
+        }
+    }
+
+    @Override
+    public @Nullable V put(K key, @Nullable V value) {
+        long weight = weightOf(value);
+        CacheSegmentImpl<K, V> segment = segmentOf(key);
+        synchronized (segment) {
+            return valueOf(segment.put(key, value, weight, System.nanoTime()));
+        }
+    }
+
+    @Override
+    public @Nullable V put(K key, UnaryOperator<V> update) {
+        CacheSegmentImpl<K, V> segment = segmentOf(key);
+        synchronized (segment) {
+            long now = System.nanoTime();
+            V previous = valueOf(segment.peek(key, now));
+            V value = update.apply(previous);
+            segment.put(key, value, weightOf(value), now);
+            return previous;
+        }
+    }
+
+    @Override
+    public @Nullable V putIfAbsent(K key, @Nullable V value) {
+        long weight = weightOf(value);
+        CacheSegmentImpl<K, V> segment = segmentOf(key);
+        synchronized (segment) {
+            long now = System.nanoTime();
+            Entry<K, V> entry = segment.peek(key, now);
+            if (entry != null) return entry.getValue();
+            segment.put(key, value, weight, now);
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public boolean remove(Object key, @Nullable Object value) {
+        CacheSegmentImpl<K, V> segment = segmentOf((K) key);
+        synchronized (segment) {
+            long now = System.nanoTime();
+            Entry<K, V> entry = segment.peek((K) key, now);
+            if ((entry == null) || !Equality.standard().areEqual(entry.getValue(), value)) return false;
+            segment.remove((K) key, now);
+            return true;
+        }
+    }
+
+    @Override
+    public boolean replace(K key, @Nullable V oldValue, @Nullable V newValue) {
+        long weight = weightOf(newValue);
+        CacheSegmentImpl<K, V> segment = segmentOf(key);
+        synchronized (segment) {
+            long now = System.nanoTime();
+            Entry<K, V> entry = segment.peek(key, now);
+            if ((entry == null) || !Equality.standard().areEqual(entry.getValue(), oldValue)) return false;
+            segment.put(key, newValue, weight, now);
+            return true;
+        }
+    }
+
+    @Override
+    public @Nullable V replace(K key, @Nullable V value) {
+        long weight = weightOf(value);
+        CacheSegmentImpl<K, V> segment = segmentOf(key);
+        synchronized (segment) {
+            long now = System.nanoTime();
+            if (segment.peek(key, now) == null) return null;
+            return valueOf(segment.put(key, value, weight, now));
+        }
+    }
+
+    /** Returns the number of entries in this cache (may include expired entries not yet {@link #cleanUp removed}). */
+    @Override
+    @Realtime(limit = CONSTANT)
+    public int size() {
+        int size = 0;
+        for (CacheSegmentImpl<K, V> segment : segments)
+            synchronized (segment) {
+                size += segment.size();
+            }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public void clear() {
+        for (CacheSegmentImpl<K, V> segment : segments)
+            synchronized (segment) {
+                segment.clear();
+            }
+    }
+
+    /** Returns an unmodifiable snapshot of the (non-expired) entries of this cache. */
+    @Override
+    @Realtime(limit = LINEAR)
+    public AbstractSet<Entry<K, V>> entries() {
+        FastMap<K, V> snapshot = new FastMap<K, V>(keyOrder);
+        long now = System.nanoTime();
+        for (CacheSegmentImpl<K, V> segment : segments)
+            synchronized (segment) {
+                segment.copyTo(snapshot, now);
+            }
+        return snapshot.entries().unmodifiable();
+    }
+
+    /** Returns a new cache having the same configuration and holding the (non-expired) entries of this cache. */
+    @Override
+    @Realtime(limit = LINEAR)
+    public FastCache<K, V> clone() {
+        FastCache<K, V> copy = new FastCache<K, V>(keyOrder, maximum, policy);
+        if (weigher != null) copy.weigher(weigher);
+        copy.expireAfterWrite = expireAfterWrite;
+        copy.expireAfterAccess = expireAfterAccess;
+        copy.updateExpiration();
+        for (Entry<K, V> entry : entries())
+            copy.put(entry.getKey(), entry.getValue());
+        return copy;
+    }
+
+    /** Returns this cache (already thread-safe). */
+    @Override
+    public FastCache<K, V> shared() {
+        return this;
+    }
+
+    @Override
+    public Order<? super K> keyOrder() {
+        return keyOrder;
+    }
+
+    @Override
+    public Equality<? super V> valuesEquality() {
+        return Equality.standard();
+    }
+
+    @Override
+    protected V updateValue(Entry<K, V> entry, V newValue) {
+        return put(entry.getKey(), newValue);
+    }
+
+    /** Creates the specified number of segments (power of two), the total of the segments maxima is the maximum. */
+    private void createSegments(int n) {
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        CacheSegmentImpl<K, V>[] newSegments = new CacheSegmentImpl[n];
+        for (int i = 0; i < n; i++)
+            newSegments[i] = new CacheSegmentImpl<K, V>(keyOrder, maximum / n + ((i < maximum % n) ? 1 : 0),
+                    policy == Policy.TINY_LFU);
+        segments = newSegments;
+        mask = n - 1;
+    }
+
+    /** Returns the segment for the specified key. */
+    private CacheSegmentImpl<K, V> segmentOf(K key) {
+        long index = keyOrder.indexOf(key);
+        return segments[MathLib.hash((int) index ^ (int) (index >>> 32)) & mask];
+    }
+
+    private long weightOf(V value) {
+        if (weigher == null) return 1;
+        long weight = weigher.indexOf(value);
+        if (weight < 0) throw new IllegalArgumentException("Negative weight");
+        return weight;
+    }
+
+    private void updateExpiration() {
+        for (CacheSegmentImpl<K, V> segment : segments)
+            synchronized (segment) {
+                segment.setExpiration(expireAfterWrite, expireAfterAccess);
+            }
+    }
+
+    private static <K, V> V valueOf(@Nullable Entry<K, V> entry) {
+        return (entry != null) ? entry.getValue() : null;
+    }
+
+}
@@ -14,6 +14,8 @@ import org.javolution.annotations.Realtime;
 import org.javolution.util.function.Equality;
 import org.javolution.util.function.Indexer;
 import org.javolution.util.function.Order;
+import org.javolution.util.internal.function.MortonOrderImpl;
+import org.javolution.util.internal.map.ConcurrentMapImpl;
 
 /**
  * High-performance ordered map / multimap based upon fast-access {@link FractalArray}. 
@@ -38,8 +40,8 @@ import org.javolution.util.function.Order;
  * AbstractMap<Foo, Bar> multimap = new FastMap<Foo, Bar>().multi(); // More than one value per key.
  * AbstractMap<Foo, Bar> linkedHashMap = new FastMap<Foo, Bar>().linked(); // Insertion order (in place of key order).
  * AbstractMap<Foo, Bar> linkedIdentityMap = new FastMap<Foo, Bar>(IDENTITY).linked();
- * AbstractMap<Foo, Bar> concurrentHashMap = new FastMap<Foo, Bar>().shared();  // Thread-safe.
- * AbstractMap<String, Bar> concurrentSkipListMap = new FastMap<Foo, Bar>(LEXICAL).shared(); // Thread-safe.
+ * AbstractMap<Foo, Bar> concurrentHashMap = new FastMap<Foo, Bar>().concurrent();  // Thread-safe (striped).
+ * AbstractMap<String, Bar> concurrentSkipListMap = new FastMap<Foo, Bar>(LEXICAL).concurrent(); // Thread-safe.
  * AbstractMap<Foo, Bar> linkedMultimap = new FastMap<Foo, Bar>().linked().multi(); 
  * ...
  * AbstractMap<Foo, Bar> identityLinkedAtomicMap = new FastMap<Foo, Bar>(IDENTITY).linked().atomic(); // Thread-safe.
@@ -65,6 +67,9 @@ import org.javolution.util.function.Order;
  *    <li>{@link #valuesEquality} - View using the specified equality comparator for the map's values.</li>
  * </ul>      
  * 
+ * For highly concurrent accesses the {@link #concurrent} method returns a map split into independently locked 
+ * stripes (mutex-free reads), iterations over that map still follow the key order.
+ * 
  * The entry/key/value views over a map are instances of {@link AbstractCollection} which supports parallel processing.
  * 
  * ```java
@@ -130,6 +135,14 @@ public class FastMap<K, V> extends AbstractMap<K, V> {
     private final Order<? super K> keyOrder; 
     private final Equality<? super V> valuesEquality; 
     private final FastSet<Entry<K,V>> entries; 
+    private final Equality<Entry<K,V>> keyEquality = new Equality<Entry<K,V>>() { // Entries lookup by key.
+        private static final long serialVersionUID = FastMap.serialVersionUID;
+
+        @Override
+        public boolean areEqual(Entry<K, V> left, Entry<K, V> right) {
+            return keyOrder.areEqual(left.getKey(), right.getKey());
+        }
+    };
     
     /** Creates a {@link Equality#STANDARD standard} map arbitrarily ordered. */
     public FastMap() {
@@ -156,7 +169,7 @@ public class FastMap<K, V> extends AbstractMap<K, V> {
             private static final long serialVersionUID = FastMap.serialVersionUID;
 
             @Override
-            public boolean areEqual(Entry<K, V> left, Entry<K, V> right) {
+            public boolean areEqual(Entry<K, V> left, Entry<K, V> right) { // Map.Entry contract (see getEntry).
             	if (left == right) return true;
             	if ((left == null) || (right == null)) return false;
                 return FastMap.this.keyOrder.areEqual(left.getKey(), right.getKey()) && 
@@ -218,14 +231,75 @@ public class FastMap<K, V> extends AbstractMap<K, V> {
         return new FastMap<K,V>(keyOrder, valuesEquality, entries.clone());
     }
 
+    /** 
+     * Returns an atomic view over this map. The map storage is switched to {@link FractalArray#persistent 
+     * persistent} fractal arrays and entries are no more updated in place (replaced instead), the view snapshots 
+     * (returned to readers) are then created in constant time (no index collision) and updates are performed in 
+     * {@link Realtime.Limit#LOG_N O(Log(n))}.
+     */
+    @Override
+    @Realtime(limit = LINEAR)
+    public AbstractMap<K, V> atomic() {
+        entries.persist();
+        return super.atomic();
+    }
+
+    /** 
+     * Returns a concurrent map holding the entries of this map (this is not a view, this map is unaffected by 
+     * the updates of the map returned). The concurrent map is split into stripes selected from the key 
+     * {@link Order#indexOf index}; reads are mutex-free and updates only lock the stripe of the key being updated
+     * (e.g. concurrent updates of different keys are usually not blocking each other). 
+     * Iterations are performed in key order (merge of the stripes snapshots).
+     * 
+     * @return a new concurrent map ordered as this map.
+     */
+    @Realtime(limit = LINEAR)
+    public AbstractMap<K, V> concurrent() {
+        ConcurrentMapImpl<K, V> map = new ConcurrentMapImpl<K, V>(keyOrder, valuesEquality);
+        for (Entry<K, V> entry : entries) 
+            map.addEntry(entry.getKey(), entry.getValue());
+        return map;
+    }
+
+    @Override
+    protected V updateValue(Entry<K, V> entry, V newValue) {
+        if (!entries.singles.isPersistent()) return super.updateValue(entry, newValue);
+        // Entries may be shared with snapshots (persistent storage), they are replaced.
+        entries.replace(entry, new Entry<K,V>(entry.getKey(), newValue));
+        return entry.getValue();
+    }
+
+    /**
+     * Returns an unmodifiable view over the entries of this map whose keys are located within the box 
+     * (bounding box) having the specified opposite corners. This map should be ordered using a 
+     * {@link Order#quadtree quadtree} or an {@link Order#octree octree} key order.
+     * 
+     * ```java
+     * FastMap<Position, Vehicle> vehicles = new FastMap<Position, Vehicle>(Order.quadtree(p -> p.x, p -> p.y));
+     * ...
+     * for (Entry<Position, Vehicle> entry : vehicles.within(southWest, northEast)) { ... }
+     * ``` 
+     * 
+     * @param corner a corner of the box.
+     * @param oppositeCorner the opposite corner of the box.
+     * @throws UnsupportedOperationException if the key order of this map is not a spatial order.
+     * @see FastSet#within
+     */
+    @Realtime(limit = LINEAR)
+    public final AbstractSet<Entry<K, V>> within(K corner, K oppositeCorner) {
+        if (!(keyOrder instanceof MortonOrderImpl)) throw new UnsupportedOperationException("Spatial order required");
+        return entries.within((MortonOrderImpl<?>) keyOrder, keyOrder.indexOf(corner), 
+                keyOrder.indexOf(oppositeCorner));
+    }
+
     @Override
     public final Entry<K, V> getEntry(K key) {
-        return entries.getAny(new Entry<K,V>(key, null)); 
+        return entries.getAny(new Entry<K,V>(key, null), keyEquality); 
     }
    
     @Override
     public final Entry<K, V> removeEntry(K key) {
-        return entries.removeAny(new Entry<K,V>(key, null));
+        return entries.removeAny(new Entry<K,V>(key, null), keyEquality);
     }
 
     @Override
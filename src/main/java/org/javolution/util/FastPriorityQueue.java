@@ -0,0 +1,460 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util;
+
+import static org.javolution.annotations.Realtime.Limit.CONSTANT;
+import static org.javolution.annotations.Realtime.Limit.LINEAR;
+import static org.javolution.annotations.Realtime.Limit.LOG_N;
+
+import java.io.Serializable;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+
+import org.javolution.annotations.Nullable;
+import org.javolution.annotations.Realtime;
+import org.javolution.util.function.Equality;
+import org.javolution.util.function.Order;
+import org.javolution.util.function.Predicate;
+
+/**
+ * A priority queue (indexed binary heap) with {@link Realtime strict timing constraints}.
+ *
+ * The head of the queue is the smallest element according to the queue comparator (e.g. the earliest deadline).
+ * Elements are inserted through {@link Handle handles} which allow for their priority to be changed or for their
+ * removal in {@link Realtime.Limit#LOG_N O(Log(n))} without searching the queue or allocating new objects.
+ *
+ * ```java
+ * FastPriorityQueue<Timer> timers = new FastPriorityQueue<Timer>(Timer::compareDeadlines);
+ * Handle<Timer> handle = timers.insert(timer);
+ * ...
+ * timer.deadline += delay;
+ * timers.update(handle); // Re-orders the modified timer.
+ * ...
+ * while (timers.peek().deadline <= now) // O(1) peek.
+ *     timers.poll().fire();
+ * ```
+ *
+ * The heap is stored in a {@link FractalArray}. Iterations and closures are performed in no particular order
+ * (heap order); iterators do not support removal, elements can be removed using {@link #removeIf removeIf}.
+ * {@code null} elements are not allowed.
+ *
+ * @param <E> the type of queue elements ({@code null} values are not supported)
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle </a>
+ * @version 7.0, September 13, 2015
+ */
+@Realtime
+public class FastPriorityQueue<E> extends AbstractCollection<E> implements Queue<E> {
+
+    private static final long serialVersionUID = 0x700L; // Version.
+
+    /**
+     * A reference to an element of a priority queue.
+     *
+     * @param <E> the type of the element referenced.
+     */
+    public static final class Handle<E> implements Serializable {
+        private static final long serialVersionUID = 0x700L; // Version.
+        private E element;
+        private int index = -1; // Position in the heap, -1 if removed.
+
+        private Handle(E element) {
+            this.element = element;
+        }
+
+        /** Returns the element referenced by this handle. */
+        public E get() {
+            return element;
+        }
+
+        /** Indicates if the element referenced is still queued (not polled or removed). */
+        public boolean isQueued() {
+            return index >= 0;
+        }
+    }
+
+    private static final Comparator<Object> NATURAL = new NaturalOrder();
+    private final Comparator<? super E> comparator;
+    private FractalArray<Handle<E>> heap = FractalArray.empty();
+    private int length;
+
+    /**
+     * Creates a priority queue ordered according to the elements natural ordering (the elements should implement
+     * the {@link Comparable} interface).
+     */
+    @SuppressWarnings("unchecked")
+    public FastPriorityQueue() {
+        this((Comparator<? super E>) NATURAL);
+    }
+
+    /**
+     * Creates a priority queue ordered using the specified comparator (e.g. an {@link Order}).
+     *
+     * @param comparator the comparator, the head of the queue is the smallest element.
+     */
+    public FastPriorityQueue(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+    }
+
+    @Override
+    public FastPriorityQueue<E> with(@SuppressWarnings("unchecked") E... elements) {
+        addAll(elements);
+        return this;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Handle operations.
+    //
+
+    /**
+     * Inserts the specified element and returns its handle.
+     *
+     * @param element the element to insert.
+     * @return the handle to the element inserted.
+     * @throws NullPointerException if the specified element is {@code null}
+     */
+    @Realtime(limit = LOG_N)
+    public Handle<E> insert(E element) {
+        if (element == null) throw new NullPointerException();
+        Handle<E> handle = new Handle<E>(element);
+        siftUp(handle, length++);
+        return handle;
+    }
+
+    /**
+     * Replaces the element referenced by the specified handle and moves it according to its new priority
+     * (decrease or increase key).
+     *
+     * @param handle the handle of a queued element.
+     * @param element the new element.
+     * @throws IllegalArgumentException if the specified handle does not reference an element of this queue.
+     * @throws NullPointerException if the specified element is {@code null}
+     */
+    @Realtime(limit = LOG_N)
+    public void update(Handle<E> handle, E element) {
+        if (element == null) throw new NullPointerException();
+        checkQueued(handle);
+        handle.element = element;
+        reorder(handle);
+    }
+
+    /**
+     * Moves the element referenced by the specified handle after a change of its priority (element modified
+     * in place).
+     *
+     * @param handle the handle of a queued element.
+     * @throws IllegalArgumentException if the specified handle does not reference an element of this queue.
+     */
+    @Realtime(limit = LOG_N)
+    public void update(Handle<E> handle) {
+        checkQueued(handle);
+        reorder(handle);
+    }
+
+    /**
+     * Removes the element referenced by the specified handle.
+     *
+     * @param handle the handle of an element.
+     * @return {@code true} if the element was removed; {@code false} if the element is not queued.
+     */
+    @Realtime(limit = LOG_N)
+    public boolean remove(Handle<E> handle) {
+        if (!handle.isQueued() || (heap.get(handle.index) != handle)) return false;
+        removeAt(handle.index);
+        return true;
+    }
+
+    /** Returns the handle of the head of this queue or {@code null} if this queue is empty. */
+    @Realtime(limit = CONSTANT)
+    public @Nullable Handle<E> peekHandle() {
+        return heap.get(0);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Queue operations.
+    //
+
+    /**
+     * Inserts the specified element.
+     *
+     * @return {@code true}
+     * @throws NullPointerException if the specified element is {@code null}
+     */
+    @Override
+    @Realtime(limit = LOG_N)
+    public boolean offer(E element) {
+        insert(element);
+        return true;
+    }
+
+    /**
+     * Inserts the specified element.
+     *
+     * @return {@code true}
+     * @throws NullPointerException if the specified element is {@code null}
+     */
+    @Override
+    @Realtime(limit = LOG_N)
+    public boolean add(E element) {
+        insert(element);
+        return true;
+    }
+
+    /** Removes and returns the smallest element of this queue or {@code null} if this queue is empty. */
+    @Override
+    @Realtime(limit = LOG_N)
+    public @Nullable E poll() {
+        return (length != 0) ? removeAt(0) : null;
+    }
+
+    /**
+     * Removes and returns the smallest element of this queue.
+     *
+     * @throws NoSuchElementException if this queue is empty.
+     */
+    @Override
+    @Realtime(limit = LOG_N)
+    public E remove() {
+        if (length == 0) throw new NoSuchElementException();
+        return removeAt(0);
+    }
+
+    /** Returns the smallest element of this queue (not removed) or {@code null} if this queue is empty. */
+    @Override
+    @Realtime(limit = CONSTANT)
+    public @Nullable E peek() {
+        Handle<E> head = heap.get(0);
+        return (head != null) ? head.element : null;
+    }
+
+    /**
+     * Returns the smallest element of this queue (not removed).
+     *
+     * @throws NoSuchElementException if this queue is empty.
+     */
+    @Override
+    @Realtime(limit = CONSTANT)
+    public E element() {
+        if (length == 0) throw new NoSuchElementException();
+        return heap.get(0).element;
+    }
+
+    /** Returns the comparator ordering this queue. */
+    @Realtime(limit = CONSTANT)
+    public Comparator<? super E> comparator() {
+        return comparator;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Collection operations.
+    //
+
+    /** Removes all the elements of this queue (their handles are no more queued). */
+    @Override
+    @Realtime(limit = LINEAR)
+    public void clear() {
+        for (int i = 0; i < length; i++)
+            heap.get(i).index = -1;
+        heap = FractalArray.empty();
+        length = 0;
+    }
+
+    /** Returns a copy of this queue (the handles of this queue do not reference the elements of the copy). */
+    @Override
+    @Realtime(limit = LINEAR)
+    public FastPriorityQueue<E> clone() {
+        FastPriorityQueue<E> copy = new FastPriorityQueue<E>(comparator);
+        for (int i = 0; i < length; i++)
+            copy.place(new Handle<E>(heap.get(i).element), i); // Same heap order.
+        copy.length = length;
+        return copy;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    @Realtime(limit = CONSTANT)
+    public Equality<? super E> equality() {
+        return (comparator instanceof Equality) ? (Equality<? super E>) comparator : Equality.standard();
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public boolean isEmpty() {
+        return length == 0;
+    }
+
+    /** Returns an iterator over the elements of this queue in heap order (no removal). */
+    @Override
+    @Realtime(limit = LINEAR)
+    public FastIterator<E> iterator() {
+        return new IteratorImpl<E>(heap, 0, length, 1);
+    }
+
+    /** Returns an iterator over the elements of this queue in reverse heap order (no removal). */
+    @Override
+    @Realtime(limit = LINEAR)
+    public FastIterator<E> descendingIterator() {
+        return new IteratorImpl<E>(heap, length - 1, -1, -1);
+    }
+
+    /** Removes the elements matching the specified filter then restores the heap (bottom-up). */
+    @Override
+    @Realtime(limit = LINEAR)
+    public boolean removeIf(Predicate<? super E> filter) {
+        int newLength = 0;
+        for (int i = 0; i < length; i++) {
+            Handle<E> handle = heap.get(i);
+            if (filter.test(handle.element)) {
+                handle.index = -1;
+            } else {
+                place(handle, newLength++);
+            }
+        }
+        if (newLength == length) return false;
+        for (int i = newLength; i < length; i++)
+            heap = heap.clear(i);
+        length = newLength;
+        for (int i = (length >>> 1) - 1; i >= 0; i--)
+            siftDown(heap.get(i), i);
+        return true;
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public int size() {
+        return length;
+    }
+
+    /** Splits a copy of the elements of this queue (heap order). */
+    @Override
+    @Realtime(limit = LINEAR)
+    public AbstractCollection<E>[] trySplit(int n) {
+        FastTable<E> elements = new FastTable<E>();
+        for (int i = 0; i < length; i++)
+            elements.addLast(heap.get(i).element);
+        return elements.unmodifiable().trySplit(n);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Heap operations.
+    //
+
+    private void checkQueued(Handle<E> handle) {
+        if (!handle.isQueued() || (heap.get(handle.index) != handle))
+            throw new IllegalArgumentException("Handle not queued");
+    }
+
+    private void reorder(Handle<E> handle) {
+        int index = handle.index;
+        siftUp(handle, index);
+        if (handle.index == index) siftDown(handle, index);
+    }
+
+    private E removeAt(int index) {
+        Handle<E> removed = heap.get(index);
+        int last = --length;
+        Handle<E> moved = heap.get(last);
+        heap = heap.clear(last);
+        removed.index = -1;
+        if (index != last) {
+            siftDown(moved, index);
+            if (moved.index == index) siftUp(moved, index);
+        }
+        return removed.element;
+    }
+
+    private void siftUp(Handle<E> handle, int index) {
+        while (index > 0) {
+            int parentIndex = (index - 1) >>> 1;
+            Handle<E> parent = heap.get(parentIndex);
+            if (comparator.compare(handle.element, parent.element) >= 0) break;
+            place(parent, index);
+            index = parentIndex;
+        }
+        place(handle, index);
+    }
+
+    private void siftDown(Handle<E> handle, int index) {
+        int half = length >>> 1; // Index of the first leaf.
+        while (index < half) {
+            int childIndex = (index << 1) + 1;
+            Handle<E> child = heap.get(childIndex);
+            int rightIndex = childIndex + 1;
+            if (rightIndex < length) {
+                Handle<E> right = heap.get(rightIndex);
+                if (comparator.compare(right.element, child.element) < 0) {
+                    childIndex = rightIndex;
+                    child = right;
+                }
+            }
+            if (comparator.compare(handle.element, child.element) <= 0) break;
+            place(child, index);
+            index = childIndex;
+        }
+        place(handle, index);
+    }
+
+    private void place(Handle<E> handle, int index) {
+        heap = heap.set(index, handle);
+        handle.index = index;
+    }
+
+    /** Natural ordering (serializable). */
+    private static final class NaturalOrder implements Comparator<Object>, Serializable {
+        private static final long serialVersionUID = 0x700L; // Version.
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        @Override
+        public int compare(Object left, Object right) {
+            return ((Comparable) left).compareTo(right);
+        }
+    }
+
+    /** Iterator over the heap positions. */
+    private static final class IteratorImpl<E> implements FastIterator<E> {
+        private final FractalArray<Handle<E>> heap;
+        private int next;
+        private final int end;
+        private final int step;
+
+        public IteratorImpl(FractalArray<Handle<E>> heap, int from, int end, int step) {
+            this.heap = heap;
+            this.next = from;
+            this.end = end;
+            this.step = step;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != end;
+        }
+
+        @Override
+        public boolean hasNext(Predicate<? super E> matching) {
+            for (; next != end; next += step)
+                if (matching.test(heap.get(next).element)) return true;
+            return false;
+        }
+
+        @Override
+        public E next() {
+            if (next == end) throw new NoSuchElementException();
+            E element = heap.get(next).element;
+            next += step;
+            return element;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException("Removal not supported (use removeIf)");
+        }
+    }
+
+}
@@ -0,0 +1,416 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util;
+
+import static org.javolution.annotations.Realtime.Limit.CONSTANT;
+import static org.javolution.annotations.Realtime.Limit.LINEAR;
+
+import java.util.Collection;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.javolution.annotations.Nullable;
+import org.javolution.annotations.Realtime;
+import org.javolution.lang.MathLib;
+import org.javolution.util.function.Equality;
+import org.javolution.util.function.Predicate;
+import org.javolution.util.internal.collection.RingBufferImpl;
+
+/**
+ * A bounded lock-free queue (ring buffer) with {@link Realtime strict timing constraints}.
+ *
+ * The concurrency {@link Mode mode} states how many threads may concurrently offer (producers) or poll
+ * (consumers) elements; no compare-and-set is performed on the single side(s) of the queue. The blocking
+ * operations ({@link #put put}, {@link #take take} and their timed variants) wait according to the specified
+ * {@link WaitStrategy wait strategy}.
+ *
+ * ```java
+ * FastQueue<Order> orders = new FastQueue<Order>(1024, Mode.MPSC, WaitStrategy.PARKING);
+ * ...
+ * orders.put(order); // Any thread.
+ * ...
+ * FastTable<Order> batch = new FastTable<Order>();
+ * while (true) { // Single consumer thread.
+ *     batch.add(orders.take());
+ *     orders.drainTo(batch, 63);
+ *     process(batch);
+ *     batch.clear();
+ * }
+ * ```
+ *
+ * Closures (e.g. {@link #forEach forEach}, {@link #reduce reduce}, {@link #parallel parallel} processing) and
+ * iterations are performed on a {@link #snapshot snapshot} of the queue. Elements can only be removed from the
+ * head of the queue ({@link #removeIf removeIf} is not supported) and {@code null} elements are not allowed.
+ *
+ * @param <E> the type of queue elements ({@code null} values are not supported)
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle </a>
+ * @version 7.0, September 13, 2015
+ */
+@Realtime
+public class FastQueue<E> extends AbstractCollection<E> implements BlockingQueue<E> {
+
+    private static final long serialVersionUID = 0x700L; // Version.
+    private static final long MAX_PARK_NANOS = 1000000; // Parking backoff limit (1 ms).
+
+    /** The number of threads which may concurrently offer or poll elements. */
+    public enum Mode {
+
+        /** Single producer, single consumer. */
+        SPSC,
+
+        /** Multiple producers, single consumer. */
+        MPSC,
+
+        /** Multiple producers, multiple consumers. */
+        MPMC
+    }
+
+    /** How threads wait for space available ({@link #put put}) or for elements ({@link #take take}). */
+    public enum WaitStrategy {
+
+        /** Busy spinning (lowest latency, the waiting thread keeps its processor busy). */
+        SPINNING,
+
+        /** Yields the processor between attempts. */
+        YIELDING,
+
+        /** Parks the waiting thread with an exponential backoff (up to 1 ms). */
+        PARKING,
+
+        /** Waits until signaled by the other side of the queue (slower offer/poll when threads are waiting). */
+        BLOCKING
+    }
+
+    private final Mode mode;
+    private final WaitStrategy waitStrategy;
+    private final RingBufferImpl<E> buffer;
+    private volatile int waiting; // Number of threads waiting (BLOCKING only), guarded by the buffer monitor.
+
+    /**
+     * Creates a multiple producers / multiple consumers queue whose blocking operations park the waiting threads.
+     *
+     * @param capacity the minimum capacity (rounded up to a power of two).
+     */
+    public FastQueue(int capacity) {
+        this(capacity, Mode.MPMC, WaitStrategy.PARKING);
+    }
+
+    /**
+     * Creates a queue having the specified concurrency mode and wait strategy.
+     *
+     * @param capacity the minimum capacity (rounded up to a power of two, at least 2).
+     * @param mode the concurrency mode.
+     * @param waitStrategy the wait strategy of blocking operations.
+     * @throws IllegalArgumentException if {@code (capacity <= 0) || (capacity > 2^30)}
+     */
+    public FastQueue(int capacity, Mode mode, WaitStrategy waitStrategy) {
+        if ((capacity <= 0) || (capacity > (1 << 30))) throw new IllegalArgumentException("capacity: " + capacity);
+        this.mode = mode;
+        this.waitStrategy = waitStrategy;
+        int size = Math.max(2, 1 << MathLib.bitLength(capacity - 1)); // Sequences require at least two slots.
+        this.buffer = new RingBufferImpl<E>(size, mode != Mode.SPSC,
+                mode == Mode.MPMC, waitStrategy == WaitStrategy.BLOCKING);
+    }
+
+    @Override
+    public FastQueue<E> with(@SuppressWarnings("unchecked") E... elements) {
+        addAll(elements);
+        return this;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Queue operations.
+    //
+
+    /**
+     * Adds the specified element at the tail of this queue if space is available.
+     *
+     * @return {@code true} if the element was added; {@code false} if this queue is full.
+     * @throws NullPointerException if the specified element is {@code null}
+     */
+    @Override
+    @Realtime(limit = CONSTANT)
+    public boolean offer(E element) {
+        if (element == null) throw new NullPointerException();
+        if (!buffer.offer(element)) return false;
+        signal();
+        return true;
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT, comment = "Blocking")
+    public boolean offer(E element, long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (int attempt = 0; !offer(element); attempt++)
+            if (!await(false, attempt, deadline)) return false;
+        return true;
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT, comment = "Blocking")
+    public void put(E element) throws InterruptedException {
+        for (int attempt = 0; !offer(element); attempt++)
+            await(false, attempt, Long.MAX_VALUE);
+    }
+
+    /**
+     * Adds the elements of the specified collection at the tail of this queue as long as space is available
+     * (batch operation, single producers update the tail position once).
+     *
+     * @return the number of elements added (the first ones of the specified collection).
+     * @throws NullPointerException if the specified collection contains {@code null} elements
+     */
+    @Realtime(limit = LINEAR)
+    public int offerAll(Collection<? extends E> elements) {
+        if (elements.contains(null)) throw new NullPointerException();
+        int count = buffer.offerAll(elements);
+        if (count > 0) signal();
+        return count;
+    }
+
+    /**
+     * Adds the specified element at the tail of this queue.
+     *
+     * @throws IllegalStateException if this queue is full.
+     * @throws NullPointerException if the specified element is {@code null}
+     */
+    @Override
+    @Realtime(limit = CONSTANT)
+    public boolean add(E element) {
+        if (offer(element)) return true;
+        throw new IllegalStateException("Queue full");
+    }
+
+    /** Removes and returns the head of this queue or {@code null} if this queue is empty. */
+    @Override
+    @Realtime(limit = CONSTANT)
+    public @Nullable E poll() {
+        E element = buffer.poll();
+        if (element != null) signal();
+        return element;
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT, comment = "Blocking")
+    public @Nullable E poll(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        E element;
+        for (int attempt = 0; (element = poll()) == null; attempt++)
+            if (!await(true, attempt, deadline)) return null;
+        return element;
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT, comment = "Blocking")
+    public E take() throws InterruptedException {
+        E element;
+        for (int attempt = 0; (element = poll()) == null; attempt++)
+            await(true, attempt, Long.MAX_VALUE);
+        return element;
+    }
+
+    /**
+     * Removes and returns the head of this queue.
+     *
+     * @throws NoSuchElementException if this queue is empty.
+     */
+    @Override
+    @Realtime(limit = CONSTANT)
+    public E remove() {
+        E element = poll();
+        if (element == null) throw new NoSuchElementException();
+        return element;
+    }
+
+    /** Returns the head of this queue (not removed) or {@code null} if this queue is empty. */
+    @Override
+    @Realtime(limit = CONSTANT)
+    public @Nullable E peek() {
+        return buffer.peek();
+    }
+
+    /**
+     * Returns the head of this queue (not removed).
+     *
+     * @throws NoSuchElementException if this queue is empty.
+     */
+    @Override
+    @Realtime(limit = CONSTANT)
+    public E element() {
+        E element = peek();
+        if (element == null) throw new NoSuchElementException();
+        return element;
+    }
+
+    @Override
+    @Realtime(limit = LINEAR)
+    public int drainTo(Collection<? super E> collection) {
+        return drainTo(collection, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Removes at most the specified number of elements and adds them to the specified collection (batch
+     * operation, single consumers update the head position once).
+     *
+     * @return the number of elements transferred.
+     * @throws IllegalArgumentException if the specified collection is this queue.
+     */
+    @Override
+    @Realtime(limit = LINEAR)
+    public int drainTo(Collection<? super E> collection, int maxElements) {
+        if (collection == this) throw new IllegalArgumentException();
+        int count = buffer.drainTo(collection, maxElements);
+        if (count > 0) signal();
+        return count;
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public int remainingCapacity() {
+        return buffer.capacity() - buffer.size();
+    }
+
+    /** Returns the maximum number of elements this queue can hold. */
+    @Realtime(limit = CONSTANT)
+    public int capacity() {
+        return buffer.capacity();
+    }
+
+    /** Returns the concurrency mode of this queue. */
+    @Realtime(limit = CONSTANT)
+    public Mode mode() {
+        return mode;
+    }
+
+    /** Returns the wait strategy of the blocking operations of this queue. */
+    @Realtime(limit = CONSTANT)
+    public WaitStrategy waitStrategy() {
+        return waitStrategy;
+    }
+
+    /** Returns a copy of the elements of this queue (from head to tail). */
+    @Realtime(limit = LINEAR)
+    public FastTable<E> snapshot() {
+        return buffer.snapshot();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Collection operations.
+    //
+
+    /** Removes all the elements of this queue (polled from the head). */
+    @Override
+    @Realtime(limit = LINEAR)
+    public void clear() {
+        while (poll() != null);
+    }
+
+    @Override
+    @Realtime(limit = LINEAR)
+    public FastQueue<E> clone() {
+        FastQueue<E> copy = new FastQueue<E>(buffer.capacity(), mode, waitStrategy);
+        copy.offerAll(snapshot());
+        return copy;
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public Equality<? super E> equality() {
+        return Equality.standard();
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public boolean isEmpty() {
+        return buffer.size() == 0;
+    }
+
+    /** Returns an iterator over a {@link #snapshot snapshot} of this queue. */
+    @Override
+    @Realtime(limit = LINEAR)
+    public FastIterator<E> iterator() {
+        return snapshot().unmodifiable().iterator();
+    }
+
+    /** Returns a descending iterator over a {@link #snapshot snapshot} of this queue. */
+    @Override
+    @Realtime(limit = LINEAR)
+    public FastIterator<E> descendingIterator() {
+        return snapshot().unmodifiable().descendingIterator();
+    }
+
+    /**
+     * Throws {@link UnsupportedOperationException} (elements can only be removed from the head of a queue).
+     */
+    @Override
+    public boolean removeIf(Predicate<? super E> filter) {
+        throw new UnsupportedOperationException("Elements can only be removed from the head of a queue");
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public int size() {
+        return buffer.size();
+    }
+
+    /** Splits a {@link #snapshot snapshot} of this queue. */
+    @Override
+    @Realtime(limit = LINEAR)
+    public AbstractCollection<E>[] trySplit(int n) {
+        return snapshot().unmodifiable().trySplit(n);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Wait strategies.
+    //
+
+    /**
+     * Waits for an element (poll) or for space available (offer), returns {@code false} if the deadline
+     * has been reached.
+     */
+    private boolean await(boolean forElement, int attempt, long deadline) throws InterruptedException {
+        if (Thread.interrupted()) throw new InterruptedException();
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) return false;
+        switch (waitStrategy) {
+        case SPINNING:
+            break;
+        case YIELDING:
+            Thread.yield();
+            break;
+        case PARKING:
+            LockSupport.parkNanos(Math.min(remaining, Math.min(MAX_PARK_NANOS, 1L << Math.min(attempt, 20))));
+            break;
+        case BLOCKING:
+            synchronized (buffer) {
+                waiting++;
+                try {
+                    if (forElement ? !buffer.canPoll() : !buffer.canOffer()) // Checked after waiting is set.
+                        TimeUnit.NANOSECONDS.timedWait(buffer, remaining);
+                } finally {
+                    waiting--;
+                }
+            }
+            break;
+        }
+        return true;
+    }
+
+    /** Wakes up the waiting threads (if any). */
+    private void signal() {
+        if ((waitStrategy != WaitStrategy.BLOCKING) || (waiting == 0)) return;
+        synchronized (buffer) {
+            buffer.notifyAll();
+        }
+    }
+
+}
@@ -10,9 +10,13 @@ package org.javolution.util;
 
 import static org.javolution.annotations.Realtime.Limit.CONSTANT;
 import static org.javolution.annotations.Realtime.Limit.LINEAR;
+import static org.javolution.annotations.Realtime.Limit.LOG_N;
+import static org.javolution.annotations.Realtime.Limit.N_LOG_N;
 import static org.javolution.lang.MathLib.unsignedLessThan;
 
+import java.util.Arrays;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
 
 import org.javolution.annotations.Nullable;
 import org.javolution.annotations.Parallel;
@@ -22,6 +26,8 @@ import org.javolution.util.function.Equality;
 import org.javolution.util.function.Indexer;
 import org.javolution.util.function.Order;
 import org.javolution.util.function.Predicate;
+import org.javolution.util.internal.function.MortonOrderImpl;
+import org.javolution.util.internal.set.RankSpliteratorImpl;
 import org.javolution.util.internal.set.SortedSetImpl;
 
 /**
@@ -106,6 +112,7 @@ public class FastSet<E> extends AbstractSet<E> {
     FractalArray<E> singles; // Hold instances for which there is no collisions.  
     FractalArray<AbstractSet<E>> multiples; // Holds instances for which there are collisions (same index value). 
     int size; // Keep tracks of the size since fractal arrays are unbounded.
+    private transient Collisions collisions; // Order statistics of the multiples (lazily computed, null if stale).
 
     /** Creates a {@link Equality#STANDARD standard} set arbitrarily ordered (hash order). */
     public FastSet() {
@@ -141,7 +148,7 @@ public class FastSet<E> extends AbstractSet<E> {
         singles = singles.unmodifiable();
         for (FractalArray.Iterator<AbstractSet<E>> itr = multiples.iterator(); itr.hasNext();) {
             long index = itr.nextIndex();
-            multiples.set(index, itr.next().unmodifiable()); // Replaces.
+            multiples = multiples.set(index, itr.next().unmodifiable()); // Replaces.
         }
         multiples = multiples.unmodifiable();
         return new Immutable<E>(order, singles, multiples, size);
@@ -166,6 +173,7 @@ public class FastSet<E> extends AbstractSet<E> {
         AbstractSet<E> multiple = multiples.get(index);
         if (multiple != null) {
             if (!multiple.add(element, allowDuplicate)) return false;            
+            collisions = null;
         } else {
             E single = singles.get(index);
             if (single != null) {
@@ -174,6 +182,9 @@ public class FastSet<E> extends AbstractSet<E> {
                 Order<? super E> subOrder = order.subOrder(element); 
                 multiple = (subOrder != null) ? new FastSet<E>(subOrder) : new SortedSetImpl<E>(order);
                 multiples = multiples.set(index, multiple);
+                multiple.add(single, true);
+                multiple.add(element, true);
+                collisions = null;
             } else { // Empty slot.
                 singles = singles.set(index, element);
             }
@@ -197,13 +208,78 @@ public class FastSet<E> extends AbstractSet<E> {
         }
     }
     
+    /** 
+     * Returns any element having the same index as the specified element and equal to it according to the 
+     * specified equality (package private, used by {@link FastMap} key lookups).
+     */
+    final E getAny(E element, Equality<? super E> equality) {
+        long index = order.indexOf(element);
+        AbstractSet<E> multiple = multiples.get(index);
+        if (multiple == null) {
+            E single = singles.get(index);
+            return ((single != null) && equality.areEqual(element, single)) ? single : null;
+        }
+        for (FastIterator<E> itr = multiple.iterator(); itr.hasNext();) { // Index collision.
+            E next = itr.next();
+            if (equality.areEqual(element, next)) return next;
+        }
+        return null;
+    }
+
+    /** 
+     * Removes and returns any element having the same index as the specified element and equal to it according 
+     * to the specified equality (package private, used by {@link FastMap} key lookups).
+     */
+    final E removeAny(E element, Equality<? super E> equality) {
+        E found = getAny(element, equality);
+        return (found != null) ? removeAny(found) : null;
+    }
+
     @Override
     public void clear() {
-        singles = FractalArray.empty();
-        multiples = FractalArray.empty();
+        singles = singles.isPersistent() ? FractalArray.<E>empty().persistent() : FractalArray.<E>empty();
+        multiples = multiples.isPersistent() ? FractalArray.<AbstractSet<E>>empty().persistent() 
+                : FractalArray.<AbstractSet<E>>empty();
+        collisions = null;
         size = 0;
     }
 
+    /** 
+     * Returns an atomic view over this set. The set storage is switched to {@link FractalArray#persistent 
+     * persistent} fractal arrays, the view snapshots (returned to readers) are then created in time proportional
+     * to the number of index collisions only (constant time for sets without collisions).
+     */
+    @Override
+    @Realtime(limit = LINEAR)
+    public AbstractSet<E> atomic() {
+        persist();
+        return super.atomic();
+    }
+
+    /** Switches this set storage to persistent fractal arrays (package private, used by {@link FastMap}). */
+    final void persist() {
+        singles = singles.persistent();
+        multiples = multiples.persistent();
+    }
+
+    /** Replaces the specified element (identity) by the specified replacement having the same index. */
+    final void replace(final E existing, E replacement) {
+        long index = order.indexOf(existing);
+        if (singles.get(index) == existing) {
+            singles = singles.set(index, replacement);
+        } else { // Collision, the multiple instance is never shared (see clone).
+            AbstractSet<E> multiple = multiples.get(index);
+            if ((multiple == null) || !multiple.removeIf(new Predicate<E>() {
+                @Override
+                public boolean test(E param) {
+                    return param == existing;
+                }
+            })) return;
+            multiple.add(replacement, true);
+        }
+    }
+
+    /** Returns a copy of this set (see {@link #atomic} for constant time copies). */
     @Override
     @Realtime(limit = LINEAR)
     public FastSet<E> clone() {
@@ -213,7 +289,7 @@ public class FastSet<E> extends AbstractSet<E> {
         for (FractalArray.Iterator<AbstractSet<E>> itr = multiples.iterator(); itr.hasNext();) {
             long index = itr.nextIndex();
             AbstractSet<E> multiple = itr.next();
-            copy.multiples.set(index, multiple.clone()); // Replaces.
+            copy.multiples = copy.multiples.set(index, multiple.clone()); // Replaces.
         }
         return copy;
     }
@@ -234,7 +310,7 @@ public class FastSet<E> extends AbstractSet<E> {
     @Realtime(limit = CONSTANT)
     @Override
     public final DescendingIteratorImpl descendingIterator(@Nullable E from) {
-        return new DescendingIteratorImpl(from);
+        return new DescendingIteratorImpl(from, 0, -1);
      }
 
     @Realtime(limit = CONSTANT)
@@ -246,13 +322,13 @@ public class FastSet<E> extends AbstractSet<E> {
     @Realtime(limit = CONSTANT)
     @Override
     public final AscendingIteratorImpl iterator() {
-        return new AscendingIteratorImpl(null);
+        return new AscendingIteratorImpl(null, 0, -1);
     }
     
     @Realtime(limit = CONSTANT)
     @Override
     public final AscendingIteratorImpl iterator(@Nullable E from) {
-        return new AscendingIteratorImpl(from);
+        return new AscendingIteratorImpl(from, 0, -1);
     }
         
     @Parallel(false)
@@ -265,6 +341,7 @@ public class FastSet<E> extends AbstractSet<E> {
         if (multiple != null) {
             removed = multiple.removeAny(element);
             if (removed == null) return null;
+            collisions = null;
             if (multiple.size() == 1) { // Go back to single.
                 singles = singles.set(index, multiple.findAny());
                 multiples = multiples.clear(index);
@@ -287,6 +364,7 @@ public class FastSet<E> extends AbstractSet<E> {
             int sizeBefore = multiple.size();
             multiple.removeIf(filter);
             int sizeAfter = multiple.size();
+            if (sizeAfter != sizeBefore) collisions = null;
             if (sizeAfter <= 1) multiples = multiples.clear(index);
             if (sizeAfter == 1) singles = singles.set(index, multiple.findAny());
             size += sizeAfter - sizeBefore;
@@ -312,6 +390,110 @@ public class FastSet<E> extends AbstractSet<E> {
         return null;
     }
 
+    /** 
+     * Returns the number of elements lower than (or equal to if inclusive) the specified element. The singles 
+     * are counted in logarithmic time (no iteration), the collisions (elements sharing the same index) before 
+     * the specified element are counted from the cumulative sizes of the multiples (binary search).
+     */
+    @Override
+    @Realtime(limit = LOG_N, comment="Linear in the number of collision indices after an update of the collisions")
+    public final int rank(E element, boolean inclusive) {
+        long index = order.indexOf(element);
+        long rank = countBelow(index);
+        E single = singles.get(index);
+        if (single != null) {
+            int cmp = order.compare(single, element);
+            if ((cmp < 0) || ((cmp == 0) && inclusive)) rank++;
+        }
+        AbstractSet<E> multiple = multiples.get(index);
+        if (multiple != null) rank += multiple.rank(element, inclusive);
+        return (int) rank;
+    }
+
+    /** Returns the number of elements whose indices are lower than the specified index (unsigned). */
+    private long countBelow(long index) {
+        Collisions c = collisions();
+        return singles.count(0, index) + c.collided[c.positionOf(index)];
+    }
+
+    /** 
+     * Returns the element at the specified rank. The singles are selected in logarithmic time (no iteration),
+     * the collision index holding the element (if any) is found through a binary search over the multiples, 
+     * each step counting the singles before a collision index (logarithmic time).
+     */
+    @Override
+    @Realtime(limit = LOG_N, comment="Log(n) squared if there are collisions, linear after an update of the collisions")
+    public final E select(int rank) {
+        if ((rank < 0) || (rank >= size)) throw new IndexOutOfBoundsException("rank: " + rank);
+        Collisions c = collisions();
+        int low = 0; 
+        int high = c.indices.length; // Number of collision indices starting at or before the rank.
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (singles.count(0, c.indices[mid]) + c.collided[mid] <= rank) low = mid + 1;
+            else high = mid;
+        }
+        if (low != 0) { // Could be held by the previous collision index. 
+            long index = c.indices[low - 1];
+            long before = singles.count(0, index) + c.collided[low - 1];
+            if (rank < before + c.collided[low] - c.collided[low - 1]) 
+                return multiples.get(index).select((int) (rank - before));
+        }
+        return singles.get(singles.select(rank - c.collided[low]));
+    }
+
+    /** Returns the order statistics of the multiples (computed once after each update of the collisions). */
+    private Collisions collisions() {
+        Collisions c = collisions;
+        if (c != null) return c;
+        long[] indices = new long[16];
+        long[] collided = new long[17];
+        int length = 0;
+        for (FractalArray.Iterator<AbstractSet<E>> itr = multiples.iterator(); itr.hasNext();) {
+            if (length == indices.length) {
+                indices = Arrays.copyOf(indices, length * 2);
+                collided = Arrays.copyOf(collided, length * 2 + 1);
+            }
+            indices[length] = itr.nextIndex();
+            collided[length + 1] = collided[length] + itr.next().size();
+            length++;
+        }
+        return collisions = new Collisions(Arrays.copyOf(indices, length), Arrays.copyOf(collided, length + 1));
+    }
+
+    /** The collision indices in ascending order with the number of elements they hold before each of them. */
+    private static final class Collisions {
+        final long[] indices; // The indices of the multiples (unsigned ascending order).
+        final long[] collided; // Number of elements in the multiples before each index (last is the total).
+
+        Collisions(long[] indices, long[] collided) {
+            this.indices = indices;
+            this.collided = collided;
+        }
+
+        /** Returns the number of collision indices lower than the specified index (unsigned). */
+        int positionOf(long index) {
+            int low = 0;
+            int high = indices.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (unsignedLessThan(indices[mid], index)) low = mid + 1;
+                else high = mid;
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Returns a spliterator over this set splitting along ranks ranges (ordered, sorted and sized); the traversal
+     * of each range starts with a {@link #select} call.
+     */
+    @Override
+    @Realtime(limit = CONSTANT)
+    public Spliterator<E> spliterator() {
+        return new RankSpliteratorImpl<E>(this);
+    }
+
     @Override
     @Realtime(limit = CONSTANT)
     public final E first() {
@@ -324,22 +506,364 @@ public class FastSet<E> extends AbstractSet<E> {
     	return descendingIterator().next();
     }
         
-    /** Ascending iterator implementation. */
+    /**
+     * Returns an unmodifiable view over the elements of this set located within the box (bounding box) whose 
+     * opposite corners are the specified elements. This set should be ordered using a 
+     * {@link Order#quadtree quadtree} or an {@link Order#octree octree} order.
+     * 
+     * ```java
+     * FastSet<Position> positions = new FastSet<Position>(Order.quadtree(p -> p.x, p -> p.y));
+     * ...
+     * for (Position p : positions.within(new Position(100, 200), new Position(300, 250))) { ... }
+     * ``` 
+     * 
+     * The box is decomposed into contiguous ranges of Z-order indices which are scanned in sequence, 
+     * the elements outside the box are skipped over (no filtering of the whole set).
+     * 
+     * @param corner a corner of the box.
+     * @param oppositeCorner the opposite corner of the box.
+     * @throws UnsupportedOperationException if this set order is not a spatial order.
+     */
+    @Realtime(limit = LINEAR)
+    public AbstractSet<E> within(E corner, E oppositeCorner) {
+        if (!(order instanceof MortonOrderImpl)) throw new UnsupportedOperationException("Spatial order required");
+        return within((MortonOrderImpl<?>) order, order.indexOf(corner), order.indexOf(oppositeCorner));
+    }
+
+    /** Returns the box view for the specified corners indices (package private, used by {@link FastMap}). */
+    final AbstractSet<E> within(MortonOrderImpl<?> spatial, long corner, long oppositeCorner) {
+        return new BoxImpl(spatial, spatial.lowerCorner(corner, oppositeCorner),
+                spatial.upperCorner(corner, oppositeCorner));
+    }
+
+    /** 
+     * Returns sub-views over disjoint ranges of indices holding about the same number of elements (the range
+     * bounds are the indices of the elements {@link #select selected} at evenly spaced ranks). Each sub-view 
+     * iterates only over its own range; elements sharing the same index always belong to the same sub-view.
+     */
+    @Override
+    @Realtime(limit = N_LOG_N, comment="One selection per sub-view")
+    public AbstractSet<E>[] trySplit(int n) {
+        return split(0, -1, n);
+    }
+
+    /** Splits the specified range of indices (unsigned, inclusive) into at most n balanced sub-ranges views. */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private AbstractSet<E>[] split(long first, long last, int n) {
+        if (n <= 0) throw new IllegalArgumentException("n: " + n + " (should be positive)");
+        long fromRank = countBelow(first);
+        long count = ((last == -1) ? size : countBelow(last + 1)) - fromRank;
+        if ((n == 1) || (count <= 1)) return new AbstractSet[] { new IndexRangeImpl(first, last) };
+        int views = (int) Math.min(n, count);
+        AbstractSet<E>[] split = new AbstractSet[views];
+        int length = 0;
+        long from = first;
+        for (int i = 1; i < views; i++) {
+            long index = order.indexOf(select((int) (fromRank + count * i / views)));
+            if (!unsignedLessThan(from, index)) continue; // Same index as the previous bound (collisions).
+            split[length++] = new IndexRangeImpl(from, index - 1);
+            from = index;
+        }
+        split[length++] = new IndexRangeImpl(from, last);
+        return (length == views) ? split : Arrays.copyOf(split, length);
+    }
+
+    /** Unmodifiable view over the elements of this set whose indices are in the specified range (split view).*/
+    private final class IndexRangeImpl extends AbstractSet<E> {
+        private static final long serialVersionUID = 0x700L; // Version.
+        private final long first; // Unsigned (inclusive).
+        private final long last; // Unsigned (inclusive).
+
+        private IndexRangeImpl(long first, long last) {
+            this.first = first;
+            this.last = last;
+        }
+
+        @Override
+        public boolean add(E element, boolean allowDuplicate) {
+            throw new UnsupportedOperationException("Split views are unmodifiable");
+        }
+
+        @Override
+        public void clear() {
+            throw new UnsupportedOperationException("Split views are unmodifiable");
+        }
+
+        @Override
+        public AbstractSet<E> clone() {
+            return FastSet.this.clone().new IndexRangeImpl(first, last);
+        }
+
+        @Override
+        public FastIterator<E> descendingIterator(@Nullable E from) {
+            return new DescendingIteratorImpl(from, first, last);
+        }
+
+        @Override
+        public E getAny(E element) {
+            return inRange(order.indexOf(element)) ? FastSet.this.getAny(element) : null;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return !iterator().hasNext();
+        }
+
+        @Override
+        public FastIterator<E> iterator(@Nullable E from) {
+            return new AscendingIteratorImpl(from, first, last);
+        }
+
+        @Override
+        public Order<? super E> order() {
+            return order;
+        }
+
+        @Override
+        public E removeAny(E element) {
+            throw new UnsupportedOperationException("Split views are unmodifiable");
+        }
+
+        @Override
+        public boolean removeIf(Predicate<? super E> filter) {
+            throw new UnsupportedOperationException("Split views are unmodifiable");
+        }
+
+        @Override
+        public int size() {
+            int count = 0;
+            for (FastIterator<E> itr = iterator(); itr.hasNext(); itr.next()) count++;
+            return count;
+        }
+
+        @Override
+        public AbstractSet<E>[] trySplit(int n) {
+            return split(first, last, n);
+        }
+
+        private boolean inRange(long index) {
+            return !unsignedLessThan(index, first) && !unsignedLessThan(last, index);
+        }
+    }
+
+    /** Unmodifiable view over the elements of this set within a box (spatial order). */
+    private final class BoxImpl extends AbstractSet<E> {
+        private static final long serialVersionUID = 0x700L; // Version.
+        private final MortonOrderImpl<?> spatial;
+        private final long min; // Index of the lower corner.
+        private final long max; // Index of the upper corner.
+
+        private BoxImpl(MortonOrderImpl<?> spatial, long min, long max) {
+            this.spatial = spatial;
+            this.min = min;
+            this.max = max;
+        }
+
+        @Override
+        public boolean add(E element, boolean allowDuplicate) {
+            throw new UnsupportedOperationException("Box views are unmodifiable");
+        }
+
+        @Override
+        public void clear() {
+            throw new UnsupportedOperationException("Box views are unmodifiable");
+        }
+
+        @Override
+        public AbstractSet<E> clone() {
+            return FastSet.this.clone().new BoxImpl(spatial, min, max);
+        }
+
+        @Override
+        public FastIterator<E> descendingIterator(@Nullable E from) {
+            return new BoxIteratorImpl(spatial, min, max, from, false);
+        }
+
+        @Override
+        public E getAny(E element) {
+            return spatial.inBox(order.indexOf(element), min, max) ? FastSet.this.getAny(element) : null;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return !iterator().hasNext();
+        }
+
+        @Override
+        public FastIterator<E> iterator(@Nullable E from) {
+            return new BoxIteratorImpl(spatial, min, max, from, true);
+        }
+
+        @Override
+        public Order<? super E> order() {
+            return order;
+        }
+
+        @Override
+        public E removeAny(E element) {
+            throw new UnsupportedOperationException("Box views are unmodifiable");
+        }
+
+        @Override
+        public boolean removeIf(Predicate<? super E> filter) {
+            throw new UnsupportedOperationException("Box views are unmodifiable");
+        }
+
+        @Override
+        public int size() {
+            int count = 0;
+            for (FastIterator<E> itr = iterator(); itr.hasNext(); itr.next()) count++;
+            return count;
+        }
+    }
+
+    /** 
+     * Iterator over the elements within a box; the indices in the box are scanned by contiguous ranges, 
+     * an index outside the box makes the iterator jump to the next (or previous) index in the box.
+     */
+    private final class BoxIteratorImpl implements FastIterator<E> {
+        private final MortonOrderImpl<?> spatial;
+        private final long min; // Index of the lower corner.
+        private final long max; // Index of the upper corner.
+        private final boolean ascending;
+        private long cursor; // Next index to be searched.
+        private boolean done; // No more index to search.
+        private FastIterator<E> subItr; // Takes precedence when subItr.hasNext()
+        private E next; // Look-ahead element (null when iteration complete). 
+
+        @SuppressWarnings("unchecked")
+        public BoxIteratorImpl(MortonOrderImpl<?> spatial, long min, long max, @Nullable E from, boolean ascending) {
+            this.spatial = spatial;
+            this.min = min;
+            this.max = max;
+            this.ascending = ascending;
+            cursor = ascending ? min : max;
+            subItr = (FastIterator<E>) EMPTY_ITERATOR; 
+            if (from != null) {
+                long i = order.indexOf(from);
+                if (ascending ? unsignedLessThan(max, i) : unsignedLessThan(i, min)) done = true;
+                else if (ascending ? unsignedLessThan(min, i) : unsignedLessThan(i, max)) {
+                    cursor = i;
+                    AbstractSet<E> multiple = multiples.get(i);
+                    if ((multiple != null) && spatial.inBox(i, min, max)) {
+                        subItr = ascending ? multiple.iterator(from) : multiple.descendingIterator(from);
+                        step(i);
+                    }
+                }
+            }
+            advance();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public E next() {
+            if (next == null) throw new NoSuchElementException();
+            E current = next;
+            advance();
+            return current;
+        }
+
+        @Override
+        public boolean hasNext(Predicate<? super E> matching) {
+            while ((next != null) && !matching.test(next)) advance();
+            return next != null;
+        }
+
+        private void advance() {
+            if (subItr.hasNext()) {
+                next = subItr.next();
+                return;
+            }
+            while (!done) {
+                long i = seek(cursor);
+                if (done) break;
+                if (spatial.inBox(i, min, max)) {
+                    step(i);
+                    AbstractSet<E> multiple = multiples.get(i);
+                    if (multiple == null) {
+                        next = singles.get(i);
+                        return;
+                    }
+                    subItr = ascending ? multiple.iterator() : multiple.descendingIterator();
+                    next = subItr.next();
+                    return;
+                }
+                long jump = ascending ? spatial.nextInBox(i, min, max) : spatial.previousInBox(i, min, max);
+                if (jump == i) done = true; // No more index in the box.
+                cursor = jump;
+            }
+            next = null;
+        }
+
+        /** Moves the cursor past the specified index. */
+        private void step(long i) {
+            if (i == (ascending ? max : min)) done = true;
+            cursor = ascending ? i + 1 : i - 1;
+        }
+
+        /** Returns the first index holding elements from the specified index (sets done if none in range). */
+        private long seek(long from) {
+            long single = ascending ? ceiling(singles, from) : floor(singles, from);
+            long multiple = ascending ? ceiling(multiples, from) : floor(multiples, from);
+            boolean hasSingle = (singles.get(single) != null) && !(ascending ? unsignedLessThan(single, from) : 
+                unsignedLessThan(from, single));
+            boolean hasMultiple = (multiples.get(multiple) != null) && !(ascending ? 
+                unsignedLessThan(multiple, from) : unsignedLessThan(from, multiple));
+            long i;
+            if (hasSingle && hasMultiple) i = ascending ? MathLib.unsignedMin(single, multiple) : 
+                MathLib.unsignedMax(single, multiple);
+            else if (hasSingle) i = single;
+            else if (hasMultiple) i = multiple;
+            else {
+                done = true;
+                return from;
+            }
+            if (ascending ? unsignedLessThan(max, i) : unsignedLessThan(i, min)) done = true;
+            return i;
+        }
+    }
+
+    /** Returns the specified index if it holds an element, or the next index holding an element (if any). */
+    private static long ceiling(FractalArray<?> array, long index) {
+        return (array.get(index) != null) ? index : array.next(index, null);
+    }
+
+    /** Returns the specified index if it holds an element, or the previous index holding an element (if any). */
+    private static long floor(FractalArray<?> array, long index) {
+        return (array.get(index) != null) ? index : array.previous(index, null);
+    }
+
+    /** Ascending iterator implementation over the elements whose indices are in the specified range. */
     private final class AscendingIteratorImpl implements FastIterator<E> {
-        private FractalArray.Iterator<E> singleItr;
-        private FractalArray.Iterator<AbstractSet<E>> multipleItr;
+        private final FractalArray.Iterator<E> singleItr;
+        private final FractalArray.Iterator<AbstractSet<E>> multipleItr;
+        private final long last; // Unsigned (inclusive).
         private FastIterator<E> subItr; // Takes precedence when subItr.hasNext()
+        private E next; // Look-ahead element (null when iteration complete). 
         
         @SuppressWarnings("unchecked")
-        public AscendingIteratorImpl(@Nullable E from) {
-            long i = (from != null) ? order.indexOf(from) : 0;
+        public AscendingIteratorImpl(@Nullable E from, long first, long last) {
+            long i = (from != null) ? order.indexOf(from) : first;
+            if (unsignedLessThan(i, first)) {
+                i = first;
+                from = null;
+            }
+            this.last = last;
             singleItr = singles.iterator(i);
-            multipleItr = multiples.iterator(i);            
-            if (multipleItr.hasNext() && !unsignedLessThan(singleItr.nextIndex(), multipleItr.nextIndex())) {
+            multipleItr = multiples.iterator(i);
+            subItr = (FastIterator<E>) EMPTY_ITERATOR; 
+            if ((from != null) && multipleFirst() && (multipleItr.nextIndex() == i)) 
                 subItr = multipleItr.next().iterator(from);
-            } else {
-                subItr = (FastIterator<E>) EMPTY_ITERATOR; 
-            }
+            advance();
         }
         
         @Override
@@ -349,50 +873,65 @@ public class FastSet<E> extends AbstractSet<E> {
 
         @Override
         public boolean hasNext() {
-            return subItr.hasNext() || singleItr.hasNext() || multipleItr.hasNext();
+            return next != null;
         }
 
         @Override
         public E next() {
-            if (subItr.hasNext()) return subItr.next();
-            if (multipleItr.hasNext() && !unsignedLessThan(singleItr.nextIndex(), multipleItr.nextIndex())) {
-                subItr = multipleItr.next().iterator();
-                return subItr.next();
-            }
-            return singleItr.next();            
+            if (next == null) throw new NoSuchElementException();
+            E current = next;
+            advance();
+            return current;
         }
    
         @Override
         public boolean hasNext(Predicate<? super E> matching) {
-            while (true) {
-                if (subItr.hasNext(matching)) return true;
-                if (multipleItr.hasNext() && !unsignedLessThan(singleItr.nextIndex(), multipleItr.nextIndex())) {
-                    subItr = multipleItr.next().iterator();
-                } else {
-                    if (!singleItr.hasNext()) return false;
-                    if (matching.test(singleItr.next())) return true;
-                }
-            }    
-       }
+            while ((next != null) && !matching.test(next)) advance();
+            return next != null;
+        }
+
+        private void advance() {
+            if (subItr.hasNext()) {
+                next = subItr.next();
+            } else if (multipleFirst()) {
+                subItr = multipleItr.next().iterator();
+                next = subItr.next();
+            } else {
+                next = (singleItr.hasNext() && !unsignedLessThan(last, singleItr.nextIndex())) ? 
+                        singleItr.next() : null;
+            }
+        }
+
+        /** Indicates if the next index (in range) is a multiple. */
+        private boolean multipleFirst() {
+            if (!multipleItr.hasNext() || unsignedLessThan(last, multipleItr.nextIndex())) return false;
+            return !singleItr.hasNext() || unsignedLessThan(multipleItr.nextIndex(), singleItr.nextIndex());
+        }
 
     }
 
-    /** Descending iterator implementation. */
+    /** Descending iterator implementation over the elements whose indices are in the specified range. */
     private final class DescendingIteratorImpl implements FastIterator<E> {
-        private FractalArray.Iterator<E> singleItr;
-        private FractalArray.Iterator<AbstractSet<E>> multipleItr;
+        private final FractalArray.Iterator<E> singleItr;
+        private final FractalArray.Iterator<AbstractSet<E>> multipleItr;
+        private final long first; // Unsigned (inclusive).
         private FastIterator<E> subItr; // Takes precedence when subItr.hasNext()
+        private E next; // Look-ahead element (null when iteration complete). 
         
         @SuppressWarnings("unchecked")
-        public DescendingIteratorImpl(@Nullable E from) {
-            long i = (from != null) ? order.indexOf(from) : -1;
+        public DescendingIteratorImpl(@Nullable E from, long first, long last) {
+            long i = (from != null) ? order.indexOf(from) : last;
+            if (unsignedLessThan(last, i)) {
+                i = last;
+                from = null;
+            }
+            this.first = first;
             singleItr = singles.descendingIterator(i);
-            multipleItr = multiples.descendingIterator(i);            
-            if (multipleItr.hasNext() && !unsignedLessThan(multipleItr.nextIndex(), singleItr.nextIndex())) {
+            multipleItr = multiples.descendingIterator(i);
+            subItr = (FastIterator<E>) EMPTY_ITERATOR; 
+            if ((from != null) && multipleFirst() && (multipleItr.nextIndex() == i)) 
                 subItr = multipleItr.next().descendingIterator(from);
-            } else {
-                subItr = (FastIterator<E>) EMPTY_ITERATOR; 
-            }
+            advance();
         }
         
         @Override
@@ -402,31 +941,40 @@ public class FastSet<E> extends AbstractSet<E> {
 
         @Override
         public boolean hasNext() {
-            return subItr.hasNext() || singleItr.hasNext() || multipleItr.hasNext();
+            return next != null;
         }
 
         @Override
         public E next() {
-            if (subItr.hasNext()) return subItr.next();
-            if (multipleItr.hasNext() && !unsignedLessThan(multipleItr.nextIndex(), singleItr.nextIndex())) {
-                subItr = multipleItr.next().descendingIterator();
-                return subItr.next();
-            }
-            return singleItr.next();            
+            if (next == null) throw new NoSuchElementException();
+            E current = next;
+            advance();
+            return current;
         }
    
         @Override
         public boolean hasNext(Predicate<? super E> matching) {
-            while (true) {
-                if (subItr.hasNext(matching)) return true;
-                if (multipleItr.hasNext() && !unsignedLessThan(multipleItr.nextIndex(), singleItr.nextIndex())) {
-                    subItr = multipleItr.next().descendingIterator();
-                } else {
-                    if (!singleItr.hasNext()) return false;
-                    if (matching.test(singleItr.next())) return true;
-                }
-            }    
-       }
+            while ((next != null) && !matching.test(next)) advance();
+            return next != null;
+        }
+
+        private void advance() {
+            if (subItr.hasNext()) {
+                next = subItr.next();
+            } else if (multipleFirst()) {
+                subItr = multipleItr.next().descendingIterator();
+                next = subItr.next();
+            } else {
+                next = (singleItr.hasNext() && !unsignedLessThan(singleItr.nextIndex(), first)) ? 
+                        singleItr.next() : null;
+            }
+        }
+
+        /** Indicates if the next index (in range) is a multiple. */
+        private boolean multipleFirst() {
+            if (!multipleItr.hasNext() || unsignedLessThan(multipleItr.nextIndex(), first)) return false;
+            return !singleItr.hasNext() || unsignedLessThan(singleItr.nextIndex(), multipleItr.nextIndex());
+        }
 
     }
     
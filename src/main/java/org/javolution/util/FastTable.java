@@ -12,6 +12,7 @@ import static org.javolution.annotations.Realtime.Limit.CONSTANT;
 import static org.javolution.annotations.Realtime.Limit.LINEAR;
 import static org.javolution.annotations.Realtime.Limit.LOG_N;
 
+import java.util.Collection;
 import java.util.NoSuchElementException;
 
 import org.javolution.annotations.Nullable;
@@ -122,13 +123,26 @@ public class FastTable<E> extends AbstractTable<E> {
         length++;
     }
 
+    /** 
+     * Returns an atomic view over this table. The table storage is switched to a {@link FractalArray#persistent 
+     * persistent} fractal array, the view snapshots (returned to readers) are then created in constant time and 
+     * updates are performed in {@link Realtime.Limit#LOG_N O(Log(n))}.
+     */
+    @Override
+    @Realtime(limit = LINEAR)
+    public AbstractTable<E> atomic() {
+        array = array.persistent();
+        return super.atomic();
+    }
+
     @Override
     @Realtime(limit = CONSTANT)
     public  void clear() {
-        array = FractalArray.empty();
+        array = array.isPersistent() ? FractalArray.<E>empty().persistent() : FractalArray.<E>empty();
         length = 0;
     }
 
+    /** Returns a copy of this table (constant time if the table storage is {@link #atomic persistent}). */
     @Override
     @Realtime(limit = LINEAR)
     public FastTable<E> clone() {
@@ -166,6 +180,91 @@ public class FastTable<E> extends AbstractTable<E> {
         return removed;
     }
 
+    /** 
+     * Inserts the specified elements at the specified position; the fractal array is spliced once whatever
+     * the number of elements inserted (bulk load).
+     * 
+     * @param index the position of the first element inserted.
+     * @param elements the elements to insert (not retained).
+     * @throws IndexOutOfBoundsException if {@code (index < 0) || (index > size())}
+     */
+    @Realtime(limit = LINEAR)
+    public final void insertAll(int index, E[] elements) {
+        if (index < 0 || index > length) throw new IndexOutOfBoundsException();
+        array = array.insertAll(index, elements);
+        length += elements.length;
+    }
+
+    /** 
+     * Replaces the elements starting at the specified position by the specified elements (bulk update).
+     * 
+     * @param from the position of the first element replaced.
+     * @param elements the new elements (not retained).
+     * @throws IndexOutOfBoundsException if {@code (from < 0) || (from + elements.length > size())}
+     */
+    @Realtime(limit = LINEAR)
+    public final void setAll(int from, E[] elements) {
+        if (from < 0 || from > length - elements.length) throw new IndexOutOfBoundsException();
+        array = array.setAll(from, elements);
+    }
+
+    @Override
+    @Realtime(limit = LINEAR)
+    public final void removeRange(int fromIndex, int toIndex) {
+        if ((fromIndex < 0) || (toIndex > length) || (fromIndex > toIndex)) throw new IndexOutOfBoundsException();
+        array = array.removeRange(fromIndex, toIndex);
+        length -= toIndex - fromIndex;
+    }
+
+    /** 
+     * Copies the elements in the specified range into the specified array (bulk read).
+     * 
+     * @param fromIndex low index (inclusive)
+     * @param toIndex high index (exclusive)
+     * @param dest the destination array holding at least {@code toIndex - fromIndex} elements.
+     * @return the specified destination array.
+     * @throws IndexOutOfBoundsException if {@code (fromIndex < 0) || (toIndex > size) || (fromIndex > toIndex)}
+     */
+    @Realtime(limit = LINEAR)
+    public final <T> T[] toArray(int fromIndex, int toIndex, T[] dest) {
+        if ((fromIndex < 0) || (toIndex > length) || (fromIndex > toIndex)) throw new IndexOutOfBoundsException();
+        return array.toArray(fromIndex, toIndex, dest);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    @Realtime(limit = LINEAR)
+    public <T> T[] toArray(T[] dest) {
+        T[] result = (length <= dest.length) ? dest
+                : (T[]) java.lang.reflect.Array.newInstance(dest.getClass().getComponentType(), length);
+        array.toArray(0, length, result);
+        if (result.length > length) result[length] = null; // As per Collection contract.
+        return result;
+    }
+
+    @Override
+    @Realtime(limit = LINEAR)
+    public boolean addAll(@SuppressWarnings("unchecked") E... elements) {
+        insertAll(length, elements);
+        return elements.length != 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    @Realtime(limit = LINEAR)
+    public boolean addAll(Collection<? extends E> that) {
+        return addAll((E[]) that.toArray());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    @Realtime(limit = LINEAR)
+    public boolean addAll(int index, Collection<? extends E> that) {
+        E[] elements = (E[]) that.toArray();
+        insertAll(index, elements);
+        return elements.length != 0;
+    }
+
     @Override
     @Realtime(limit = CONSTANT)
     public final @Nullable E set(int index, @Nullable E element) {
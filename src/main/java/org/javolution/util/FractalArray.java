@@ -11,8 +11,10 @@ package org.javolution.util;
 import static org.javolution.annotations.Realtime.Limit.CONSTANT;
 import static org.javolution.annotations.Realtime.Limit.LINEAR;
 import static org.javolution.annotations.Realtime.Limit.LOG_N;
+import static org.javolution.lang.MathLib.unsignedLessThan;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.NoSuchElementException;
 
 import org.javolution.annotations.Nullable;
@@ -37,6 +39,15 @@ import org.javolution.util.internal.FractalArrayImpl;
  * 
  * Fractal arrays index {@link #shift} operation is performed in {@link Realtime.Limit#LOG_N O(Log(n))}
  * where {@code n} is the number of elements held by the array, up to 2^64 !    
+ * 
+ * A {@link #persistent} version of any fractal array can be obtained; persistent arrays are never modified
+ * in place (structural sharing), they can be copied in constant time and are safe to read concurrently
+ * with updates (updates returning new instances). 
+ * 
+ * ```java
+ * FractalArray<String> snapshot = elements.persistent(); // O(n) the first time.
+ * FractalArray<String> updated = snapshot.set(123, "foo"); // O(Log(n)), snapshot is unchanged.
+ * ```
  *  
  * [fractal-based]: http://en.wikipedia.org/wiki/Fractal
  * 
@@ -66,11 +77,32 @@ public abstract class FractalArray<E> implements Cloneable, Serializable, Iterab
 
     /** 
      * Returns a copy of this fractal array; updates of the copy should not impact the original. 
+     * Persistent arrays return themselves (constant time).
      * 
      * @return a copy of this fractal array.
      */
     @Realtime(limit = LINEAR)
     public abstract FractalArray<E> clone();
+
+    /** 
+     * Returns a persistent version of this fractal array holding the same elements. Update operations on persistent
+     * arrays never modify the array in place but return new instances sharing most of their structure with the 
+     * original ({@link Realtime.Limit#LOG_N O(Log(n))} nodes copied per update); hence their {@link #clone} is 
+     * performed in constant time.
+     * 
+     * @return {@code this} if this array is already persistent; a persistent copy otherwise.
+     */
+    @Realtime(limit = LINEAR)
+    public abstract FractalArray<E> persistent();
+
+    /** 
+     * Indicates if this fractal array is persistent (never modified in place).
+     * 
+     * @return {@code true} if updates always return new instances; {@code false} otherwise.
+     * @see #persistent()
+     */
+    @Realtime(limit = CONSTANT)
+    public abstract boolean isPersistent();
     
     /** 
      * Indicates if this fractal has no element
@@ -142,7 +174,111 @@ public abstract class FractalArray<E> implements Cloneable, Serializable, Iterab
      */
     @Realtime(limit = LOG_N)
     public abstract FractalArray<E> delete(long index);
-    
+
+    /**
+     * Sets the specified elements starting at the specified index (bulk {@link #set}); {@code null} elements
+     * clear their position.
+     *
+     * @param from the unsigned 64-bits index of the first element to be set.
+     * @param elements the elements to be set.
+     * @return a new fractal array or {@code this}.
+     */
+    @Realtime(limit = LINEAR)
+    public FractalArray<E> setAll(long from, E[] elements) {
+        FractalArray<E> array = this;
+        for (int i = 0; i < elements.length; i++)
+            array = array.set(from + i, elements[i]);
+        return array;
+    }
+
+    /**
+     * Inserts the specified elements at the specified position (bulk {@link #insert}); the elements at or after
+     * the specified index are shifted once by {@code elements.length}.
+     *
+     * @param index the unsigned 64-bits index of the first element to be inserted.
+     * @param elements the elements being inserted.
+     * @return a new fractal array or {@code this}.
+     */
+    @Realtime(limit = LINEAR)
+    public FractalArray<E> insertAll(long index, E[] elements) {
+        FractalArray<E> array = this;
+        for (int i = 0; i < elements.length; i++)
+            array = array.insert(index + i, elements[i]);
+        return array;
+    }
+
+    /**
+     * Deletes the elements in the specified range (bulk {@link #delete}); the elements at or after the specified
+     * upper bound are shifted once by {@code to - from}.
+     *
+     * @param from the unsigned 64-bits index of the first element to be deleted (inclusive).
+     * @param to the unsigned 64-bits index of the last element to be deleted (exclusive).
+     * @return a new fractal array or {@code this}.
+     */
+    @Realtime(limit = LINEAR)
+    public FractalArray<E> removeRange(long from, long to) {
+        FractalArray<E> array = this;
+        for (long i = from; unsignedLessThan(i, to); i++)
+            array = array.delete(from);
+        return array;
+    }
+
+    /**
+     * Copies the elements in the specified range into the specified array ({@code dest[i - from]} holds
+     * the element at index {@code i}, {@code null} if none).
+     *
+     * @param from the unsigned 64-bits index of the first element to be copied (inclusive).
+     * @param to the unsigned 64-bits index of the last element to be copied (exclusive).
+     * @param dest the destination array (length greater or equal to {@code to - from}).
+     * @return the specified destination array.
+     * @throws ArrayStoreException if an element is not an instance of the destination component type.
+     */
+    @SuppressWarnings("unchecked")
+    @Realtime(limit = LINEAR)
+    public <T> T[] toArray(long from, long to, T[] dest) {
+        if (unsignedLessThan(dest.length, to - from)) throw new IndexOutOfBoundsException();
+        Arrays.fill(dest, 0, (int) (to - from), null);
+        for (Iterator<E> itr = iterator(from); itr.hasNext();) {
+            long index = itr.nextIndex();
+            if (!unsignedLessThan(index, to)) break;
+            dest[(int) (index - from)] = (T) itr.next();
+        }
+        return dest;
+    }
+
+    /**
+     * Returns the number of non-null elements in the specified range (order statistics).
+     *
+     * @param from the unsigned 64-bits index of the first position counted (inclusive).
+     * @param to the unsigned 64-bits index of the last position counted (exclusive).
+     * @return the number of non-null elements whose indices are in the specified range.
+     */
+    @Realtime(limit = LINEAR)
+    public long count(long from, long to) {
+        long count = 0;
+        for (Iterator<E> itr = iterator(from); itr.hasNext() && unsignedLessThan(itr.nextIndex(), to); itr.next())
+            count++;
+        return count;
+    }
+
+    /**
+     * Returns the index of the non-null element at the specified rank (the element having exactly {@code rank}
+     * non-null elements before it).
+     *
+     * @param rank the number of non-null elements before the element searched.
+     * @return the unsigned 64-bits index of the element at the specified rank.
+     * @throws IndexOutOfBoundsException if the rank is negative or greater or equal to the number of elements.
+     */
+    @Realtime(limit = LINEAR)
+    public long select(long rank) {
+        if (rank >= 0) {
+            Iterator<E> itr = iterator();
+            for (long i = 0; itr.hasNext(); i++, itr.next())
+                if (i == rank) return itr.nextIndex();
+        }
+        throw new IndexOutOfBoundsException("rank: " + rank);
+    }
+
     /**
      * Returns the index of the next non-null element after the specified position, matching the specified
      * predicate (if any). This method calls the specified predicate on the first non-null element found.
@@ -343,6 +479,16 @@ public abstract class FractalArray<E> implements Cloneable, Serializable, Iterab
             return target.clone().unmodifiable();
         }
 
+		@Override
+        public FractalArray<E> persistent() {
+            return target.persistent().unmodifiable();
+        }
+
+		@Override
+        public boolean isPersistent() {
+            return target.isPersistent();
+        }
+
         @Override
         public E get(long index) {
             return target.get(index);
@@ -368,6 +514,36 @@ public abstract class FractalArray<E> implements Cloneable, Serializable, Iterab
             throw new UnsupportedOperationException("Unmodifiable");
 		}
 
+		@Override
+		public FractalArray<E> setAll(long from, E[] elements) {
+            throw new UnsupportedOperationException("Unmodifiable");
+		}
+
+		@Override
+		public FractalArray<E> insertAll(long index, E[] elements) {
+            throw new UnsupportedOperationException("Unmodifiable");
+		}
+
+		@Override
+		public FractalArray<E> removeRange(long from, long to) {
+            throw new UnsupportedOperationException("Unmodifiable");
+		}
+
+		@Override
+		public <T> T[] toArray(long from, long to, T[] dest) {
+            return target.toArray(from, to, dest);
+		}
+
+		@Override
+		public long count(long from, long to) {
+            return target.count(from, to);
+		}
+
+		@Override
+		public long select(long rank) {
+            return target.select(rank);
+		}
+
 		@Override
 		public long next(long after, Predicate<? super E> matching) {
             return target.next(after, matching);
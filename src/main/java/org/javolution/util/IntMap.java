@@ -0,0 +1,815 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util;
+
+import static org.javolution.annotations.Realtime.Limit.CONSTANT;
+import static org.javolution.annotations.Realtime.Limit.LINEAR;
+import static org.javolution.lang.MathLib.unsignedLessThan;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+import org.javolution.annotations.Nullable;
+import org.javolution.annotations.Realtime;
+import org.javolution.util.function.Equality;
+import org.javolution.util.function.Order;
+import org.javolution.util.function.Predicate;
+import org.javolution.util.internal.ReadWriteLockImpl;
+
+/**
+ * A map whose keys are primitive {@code int} values used directly as {@link FractalArray} index
+ * (no key boxing, no hashing, no collision).
+ *
+ * Keys are iterated in ascending (signed) order. The primitive methods ({@link #get(int)},
+ * {@link #put(int, Object)}, {@link #containsKey(int)}, {@link #remove(int)}) do not allocate;
+ * this is also true for the primitive methods of its {@link #subMap(int, int) sub-map},
+ * {@link #shared() shared} and {@link #atomic() atomic} views.
+ *
+ * ```java
+ * IntMap<Session> sessions = new IntMap<Session>().shared();
+ * ...
+ * Session session = sessions.get(sessionId); // Allocation-free lookup.
+ * IntMap<Session> recent = sessions.subMap(lastId - 1000, lastId + 1); // View.
+ * ```
+ *
+ * @param <V> the type of map values ({@code null} values are supported).
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 7.0, September 13, 2015
+ */
+@Realtime
+public class IntMap<V> extends AbstractMap<Integer, V> {
+
+    private static final long serialVersionUID = 0x700L; // Version.
+
+    /** The order of int keys (signed numeric order). */
+    public static final Order<Integer> KEY_ORDER = new Order<Integer>() {
+        private static final long serialVersionUID = IntMap.serialVersionUID;
+
+        @Override
+        public boolean areEqual(Integer left, Integer right) {
+            return (left == right) || ((left != null) && left.equals(right));
+        }
+
+        @Override
+        public int compare(Integer left, Integer right) {
+            if (left == null) return (right == null) ? 0 : -1;
+            if (right == null) return 1;
+            return Integer.compare(left, right);
+        }
+
+        @Override
+        public long indexOf(Integer key) {
+            return (key != null) ? IntMap.indexOf(key) : 0;
+        }
+    };
+
+    /** Wraps null values (fractal arrays do not hold null elements). */
+    private enum Null {
+        VALUE
+    }
+
+    private static final long MAX_INDEX = 0xFFFFFFFFL; // Index of Integer.MAX_VALUE.
+    private FractalArray<Object> values; // Indexed by the keys with their sign bit flipped.
+    private int size;
+
+    /** Creates an empty map. */
+    public IntMap() {
+        values = FractalArray.empty();
+    }
+
+    @Override
+    public IntMap<V> with(Integer key, V value) {
+        put(key, value);
+        return this;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Primitive methods.
+    //
+
+    /** Returns the value for the specified key or {@code null} if none. */
+    @Realtime(limit = CONSTANT)
+    public final @Nullable V get(int key) {
+        return unwrap(getRaw(key));
+    }
+
+    /** Indicates if this map has a value for the specified key. */
+    @Realtime(limit = CONSTANT)
+    public final boolean containsKey(int key) {
+        return getRaw(key) != null;
+    }
+
+    /** Associates the specified value to the specified key and returns the previous value. */
+    @Realtime(limit = CONSTANT)
+    public final @Nullable V put(int key, @Nullable V value) {
+        return unwrap(putRaw(key, wrap(value), false));
+    }
+
+    /** Associates the specified value to the specified key if not already present; returns the current value. */
+    @Realtime(limit = CONSTANT)
+    public final @Nullable V putIfAbsent(int key, @Nullable V value) {
+        return unwrap(putRaw(key, wrap(value), true));
+    }
+
+    /** Removes the value for the specified key and returns it. */
+    @Realtime(limit = CONSTANT)
+    public final @Nullable V remove(int key) {
+        return unwrap(removeRaw(key));
+    }
+
+    /**
+     * Returns the smallest key of this map.
+     *
+     * @throws NoSuchElementException if this map is empty.
+     */
+    @Realtime(limit = LINEAR, comment = "Sub-maps may have to search")
+    public final int firstIntKey() {
+        return keyIterator().nextInt();
+    }
+
+    /**
+     * Returns the largest key of this map.
+     *
+     * @throws NoSuchElementException if this map is empty.
+     */
+    @Realtime(limit = LINEAR, comment = "Sub-maps may have to search")
+    public final int lastIntKey() {
+        return new KeyIterator(snapshot(), highIndex(), lowIndex(), true).nextInt();
+    }
+
+    /** Returns the keys of this map in ascending order (no boxing). */
+    @Realtime(limit = LINEAR, comment = "For shared maps a copy of this map may be performed")
+    public final PrimitiveIterator.OfInt keyIterator() {
+        return new KeyIterator(snapshot(), lowIndex(), highIndex(), false);
+    }
+
+    /**
+     * Returns a view of the portion of this map whose keys range from {@code fromKey} inclusive to {@code toKey}
+     * exclusive. Putting a key outside of this range through the view raises {@link IllegalArgumentException}.
+     */
+    @Realtime(limit = CONSTANT)
+    public IntMap<V> subMap(int fromKey, int toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    /** Returns a view of the portion of this map whose keys range from {@code fromKey} to {@code toKey}. */
+    @Realtime(limit = CONSTANT)
+    public IntMap<V> subMap(int fromKey, boolean fromInclusive, int toKey, boolean toInclusive) {
+        long low = indexOf(fromKey);
+        long high = indexOf(toKey);
+        boolean empty = (!fromInclusive && (low == MAX_INDEX)) || (!toInclusive && (high == 0));
+        if (!fromInclusive) low++;
+        if (!toInclusive) high--;
+        if (empty || unsignedLessThan(high, low)) { // Empty range.
+            low = -1;
+            high = 0;
+        }
+        return new SubMapImpl<V>(this, low, high);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Views.
+    //
+
+    /**
+     * Returns an atomic view over this map. The map storage is switched to a {@link FractalArray#persistent
+     * persistent} fractal array, the snapshots (used by readers) are then created in constant time.
+     */
+    @Override
+    @Realtime(limit = LINEAR)
+    public IntMap<V> atomic() {
+        values = values.persistent();
+        return new AtomicImpl<V>(this);
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public IntMap<V> shared() {
+        return new SharedImpl<V>(this);
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public IntMap<V> subMap(@Nullable Integer fromKey, boolean fromInclusive, @Nullable Integer toKey,
+            boolean toInclusive) {
+        return subMap((fromKey != null) ? fromKey : Integer.MIN_VALUE, (fromKey != null) ? fromInclusive : true,
+                (toKey != null) ? toKey : Integer.MAX_VALUE, (toKey != null) ? toInclusive : true);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Boxed methods.
+    //
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public final AbstractSet<Entry<Integer, V>> entries() {
+        return new EntriesImpl<V>(this);
+    }
+
+    @Override
+    public final Entry<Integer, V> getEntry(Integer key) {
+        Object raw = getRaw(key);
+        return (raw != null) ? new Entry<Integer, V>(key, unwrap(raw)) : null;
+    }
+
+    @Override
+    public final Entry<Integer, V> addEntry(Integer key, V value) {
+        putRaw(key, wrap(value), false); // Keys are unique.
+        return new Entry<Integer, V>(key, value);
+    }
+
+    @Override
+    public final Entry<Integer, V> removeEntry(Integer key) {
+        Object raw = removeRaw(key);
+        return (raw != null) ? new Entry<Integer, V>(key, unwrap(raw)) : null;
+    }
+
+    @Override
+    public final boolean containsKey(Object key) {
+        return (key instanceof Integer) && containsKey(((Integer) key).intValue());
+    }
+
+    @Override
+    public final V get(Object key) {
+        return (key instanceof Integer) ? get(((Integer) key).intValue()) : null;
+    }
+
+    @Override
+    public final V put(Integer key, V value) {
+        return put(key.intValue(), value);
+    }
+
+    @Override
+    public final V putIfAbsent(Integer key, V value) {
+        return putIfAbsent(key.intValue(), value);
+    }
+
+    @Override
+    public final V remove(Object key) {
+        return (key instanceof Integer) ? remove(((Integer) key).intValue()) : null;
+    }
+
+    @Override
+    public final Order<? super Integer> keyOrder() {
+        return KEY_ORDER;
+    }
+
+    @Override
+    public final Equality<? super V> valuesEquality() {
+        return Equality.standard();
+    }
+
+    @Override
+    protected V updateValue(Entry<Integer, V> entry, V newValue) { // Entries are detached.
+        return put(entry.getKey().intValue(), newValue);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Storage (overridden by views).
+    //
+
+    /** Returns the value (wrapped) at the specified key or {@code null} if none. */
+    Object getRaw(int key) {
+        return values.get(indexOf(key));
+    }
+
+    /** Puts the specified value (wrapped) and returns the previous one. */
+    Object putRaw(int key, Object value, boolean ifAbsent) {
+        long index = indexOf(key);
+        Object previous = values.get(index);
+        if (previous == null) size++;
+        else if (ifAbsent) return previous;
+        values = values.set(index, value);
+        return previous;
+    }
+
+    /** Removes and returns the value (wrapped) at the specified key. */
+    Object removeRaw(int key) {
+        long index = indexOf(key);
+        Object previous = values.get(index);
+        if (previous == null) return null;
+        values = values.clear(index);
+        size--;
+        return previous;
+    }
+
+    /** Returns the values to iterate (a copy for views requiring it). */
+    FractalArray<Object> snapshot() {
+        return values;
+    }
+
+    /** Returns the smallest index of this map range (unsigned). */
+    long lowIndex() {
+        return 0;
+    }
+
+    /** Returns the largest index of this map range (unsigned). */
+    long highIndex() {
+        return MAX_INDEX;
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public void clear() {
+        values = values.isPersistent() ? FractalArray.empty().persistent() : FractalArray.empty();
+        size = 0;
+    }
+
+    /** Returns a copy of this map (constant time if the map storage is {@link #atomic persistent}). */
+    @Override
+    @Realtime(limit = LINEAR)
+    public IntMap<V> clone() {
+        IntMap<V> copy = (IntMap<V>) super.clone();
+        copy.values = values.clone();
+        return copy;
+    }
+
+    /** Returns the fractal index for the specified key (preserves the signed order). */
+    static long indexOf(int key) {
+        return (key ^ Integer.MIN_VALUE) & MAX_INDEX;
+    }
+
+    /** Returns the key for the specified fractal index. */
+    static int keyOf(long index) {
+        return (int) index ^ Integer.MIN_VALUE;
+    }
+
+    private static Object wrap(Object value) {
+        return (value != null) ? value : Null.VALUE;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V unwrap(Object raw) {
+        return (raw != Null.VALUE) ? (V) raw : null;
+    }
+
+    /** Ascending or descending iterator over the keys in the specified index range. */
+    private static final class KeyIterator implements PrimitiveIterator.OfInt {
+        private final FractalArray.Iterator<Object> itr;
+        private final long last;
+        private final boolean descending;
+
+        KeyIterator(FractalArray<Object> values, long first, long last, boolean descending) {
+            this.itr = descending ? values.descendingIterator(first) : values.iterator(first);
+            this.last = last;
+            this.descending = descending;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!itr.hasNext()) return false;
+            long index = itr.nextIndex();
+            return descending ? !unsignedLessThan(index, last) : !unsignedLessThan(last, index);
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) throw new NoSuchElementException();
+            long index = itr.nextIndex();
+            itr.next();
+            return keyOf(index);
+        }
+    }
+
+    /** Iterator over entries (detached). */
+    private static final class EntryIterator<V> implements FastIterator<Entry<Integer, V>> {
+        private final FractalArray.Iterator<Object> itr;
+        private final long last;
+        private final boolean descending;
+        private Entry<Integer, V> next;
+
+        EntryIterator(FractalArray<Object> values, long first, long last, boolean descending) {
+            this.itr = descending ? values.descendingIterator(first) : values.iterator(first);
+            this.last = last;
+            this.descending = descending;
+            advance();
+        }
+
+        private void advance() {
+            next = null;
+            if (!itr.hasNext()) return;
+            long index = itr.nextIndex();
+            if (descending ? unsignedLessThan(index, last) : unsignedLessThan(last, index)) return;
+            next = new Entry<Integer, V>(keyOf(index), IntMap.<V>unwrap(itr.next()));
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public boolean hasNext(Predicate<? super Entry<Integer, V>> matching) {
+            while ((next != null) && !matching.test(next))
+                advance();
+            return next != null;
+        }
+
+        @Override
+        public Entry<Integer, V> next() {
+            if (next == null) throw new NoSuchElementException();
+            Entry<Integer, V> tmp = next;
+            advance();
+            return tmp;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /** The entries view (entries are detached, updates are performed through the map). */
+    private static final class EntriesImpl<V> extends AbstractSet<Entry<Integer, V>> {
+        private static final long serialVersionUID = IntMap.serialVersionUID;
+        private final IntMap<V> map;
+
+        EntriesImpl(IntMap<V> map) {
+            this.map = map;
+        }
+
+        @Override
+        public boolean add(Entry<Integer, V> entry, boolean allowDuplicate) { // Keys are unique (replaces).
+            return (map.putRaw(entry.getKey(), wrap(entry.getValue()), !allowDuplicate) == null) || allowDuplicate;
+        }
+
+        @Override
+        public void clear() {
+            map.clear();
+        }
+
+        @Override
+        public Entry<Integer, V> getAny(Entry<Integer, V> entry) {
+            return map.getEntry(entry.getKey());
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return map.isEmpty();
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public Order<? super Entry<Integer, V>> order() {
+            return (Order<? super Entry<Integer, V>>) (Object) ENTRY_ORDER;
+        }
+
+        @Override
+        public Entry<Integer, V> removeAny(Entry<Integer, V> entry) {
+            return map.removeEntry(entry.getKey());
+        }
+
+        @Override
+        public boolean removeIf(Predicate<? super Entry<Integer, V>> filter) {
+            IntTable removed = new IntTable();
+            for (FastIterator<Entry<Integer, V>> itr = iterator(); itr.hasNext(filter);)
+                removed.addInt(itr.next().getKey());
+            for (int i = 0, n = removed.size(); i < n; i++)
+                map.removeRaw(removed.getInt(i));
+            return !removed.isEmpty();
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public FastIterator<Entry<Integer, V>> iterator(Entry<Integer, V> low) {
+            long first = map.lowIndex();
+            if ((low != null) && unsignedLessThan(first, indexOf(low.getKey()))) first = indexOf(low.getKey());
+            return new EntryIterator<V>(map.snapshot(), first, map.highIndex(), false);
+        }
+
+        @Override
+        public FastIterator<Entry<Integer, V>> descendingIterator(Entry<Integer, V> high) {
+            long first = map.highIndex();
+            if ((high != null) && unsignedLessThan(indexOf(high.getKey()), first)) first = indexOf(high.getKey());
+            return new EntryIterator<V>(map.snapshot(), first, map.lowIndex(), true);
+        }
+
+        /** Splits the keys range. */
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        @Override
+        public AbstractSet<Entry<Integer, V>>[] trySplit(int n) {
+            long low = map.lowIndex();
+            long high = map.highIndex();
+            long step = Long.divideUnsigned(high - low, n);
+            if (unsignedLessThan(high, low) || (step == 0)) return new AbstractSet[] { this };
+            AbstractSet<Entry<Integer, V>>[] split = new AbstractSet[n];
+            for (int i = 0; i < n; i++) {
+                long first = low + i * step;
+                long last = (i == n - 1) ? high : first + step - 1;
+                split[i] = new EntriesImpl<V>(new SubMapImpl<V>(map, first, last)).unmodifiable();
+            }
+            return split;
+        }
+    }
+
+    /** The order of entries (by keys). */
+    private static final Order<Entry<Integer, ?>> ENTRY_ORDER = new Order<Entry<Integer, ?>>() {
+        private static final long serialVersionUID = IntMap.serialVersionUID;
+
+        @Override
+        public boolean areEqual(Entry<Integer, ?> left, Entry<Integer, ?> right) {
+            if (left == right) return true;
+            if ((left == null) || (right == null)) return false;
+            return left.getKey().intValue() == right.getKey().intValue();
+        }
+
+        @Override
+        public int compare(Entry<Integer, ?> left, Entry<Integer, ?> right) {
+            if (left == null) return (right == null) ? 0 : -1;
+            if (right == null) return 1;
+            return Integer.compare(left.getKey(), right.getKey());
+        }
+
+        @Override
+        public long indexOf(Entry<Integer, ?> entry) {
+            return (entry != null) ? IntMap.indexOf(entry.getKey()) : 0;
+        }
+    };
+
+    /** A sub-map view (keys in a range of indices). */
+    private static final class SubMapImpl<V> extends IntMap<V> {
+        private static final long serialVersionUID = IntMap.serialVersionUID;
+        private final IntMap<V> target;
+        private final long low, high; // Inclusive (empty if high < low).
+
+        SubMapImpl(IntMap<V> target, long low, long high) {
+            this.target = target;
+            this.low = unsignedLessThan(low, target.lowIndex()) ? target.lowIndex() : low;
+            this.high = unsignedLessThan(target.highIndex(), high) ? target.highIndex() : high;
+        }
+
+        private boolean inRange(int key) {
+            long index = indexOf(key);
+            return !unsignedLessThan(index, low) && !unsignedLessThan(high, index);
+        }
+
+        @Override
+        Object getRaw(int key) {
+            return inRange(key) ? target.getRaw(key) : null;
+        }
+
+        @Override
+        Object putRaw(int key, Object value, boolean ifAbsent) {
+            if (!inRange(key)) throw new IllegalArgumentException("Key out of range: " + key);
+            return target.putRaw(key, value, ifAbsent);
+        }
+
+        @Override
+        Object removeRaw(int key) {
+            return inRange(key) ? target.removeRaw(key) : null;
+        }
+
+        @Override
+        FractalArray<Object> snapshot() {
+            return target.snapshot();
+        }
+
+        @Override
+        long lowIndex() {
+            return low;
+        }
+
+        @Override
+        long highIndex() {
+            return high;
+        }
+
+        @Override
+        public int size() {
+            int count = 0;
+            for (PrimitiveIterator.OfInt itr = keyIterator(); itr.hasNext(); itr.nextInt())
+                count++;
+            return count;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return !keyIterator().hasNext();
+        }
+
+        @Override
+        public void clear() {
+            IntTable keys = new IntTable();
+            for (PrimitiveIterator.OfInt itr = keyIterator(); itr.hasNext();)
+                keys.addInt(itr.nextInt());
+            for (int i = 0, n = keys.size(); i < n; i++)
+                target.removeRaw(keys.getInt(i));
+        }
+
+        @Override
+        public IntMap<V> atomic() {
+            return new AtomicImpl<V>(this);
+        }
+
+        @Override
+        public IntMap<V> clone() {
+            IntMap<V> copy = new IntMap<V>();
+            for (FastIterator<Entry<Integer, V>> itr = entries().iterator(); itr.hasNext();) {
+                Entry<Integer, V> entry = itr.next();
+                copy.put(entry.getKey().intValue(), entry.getValue());
+            }
+            return copy;
+        }
+    }
+
+    /** A thread-safe view (readers-writers lock with optimistic reads). */
+    private static final class SharedImpl<V> extends IntMap<V> {
+        private static final long serialVersionUID = IntMap.serialVersionUID;
+        private final IntMap<V> target;
+        private final ReadWriteLockImpl lock = new ReadWriteLockImpl();
+
+        SharedImpl(IntMap<V> target) {
+            this.target = target;
+        }
+
+        @Override
+        Object getRaw(int key) {
+            long stamp = lock.tryOptimisticRead(); // Mutex-free attempt.
+            if (stamp != 0) {
+                try {
+                    Object result = target.getRaw(key);
+                    if (lock.validate(stamp)) return result;
+                } catch (RuntimeException | Error e) {
+                    if (lock.validate(stamp)) throw e; // Not caused by a concurrent write.
+                }
+            }
+            lock.readLock.lock();
+            try {
+                return target.getRaw(key);
+            } finally {
+                lock.readLock.unlock();
+            }
+        }
+
+        @Override
+        Object putRaw(int key, Object value, boolean ifAbsent) {
+            lock.writeLock.lock();
+            try {
+                return target.putRaw(key, value, ifAbsent);
+            } finally {
+                lock.writeLock.unlock();
+            }
+        }
+
+        @Override
+        Object removeRaw(int key) {
+            lock.writeLock.lock();
+            try {
+                return target.removeRaw(key);
+            } finally {
+                lock.writeLock.unlock();
+            }
+        }
+
+        @Override
+        FractalArray<Object> snapshot() {
+            lock.readLock.lock();
+            try {
+                return target.snapshot().clone();
+            } finally {
+                lock.readLock.unlock();
+            }
+        }
+
+        @Override
+        long lowIndex() {
+            return target.lowIndex();
+        }
+
+        @Override
+        long highIndex() {
+            return target.highIndex();
+        }
+
+        @Override
+        public int size() {
+            lock.readLock.lock();
+            try {
+                return target.size();
+            } finally {
+                lock.readLock.unlock();
+            }
+        }
+
+        @Override
+        public void clear() {
+            lock.writeLock.lock();
+            try {
+                target.clear();
+            } finally {
+                lock.writeLock.unlock();
+            }
+        }
+
+        @Override
+        public IntMap<V> atomic() {
+            return new AtomicImpl<V>(this);
+        }
+
+        @Override
+        public IntMap<V> shared() {
+            return this;
+        }
+
+        @Override
+        public IntMap<V> clone() {
+            lock.readLock.lock();
+            try {
+                return new SharedImpl<V>(target.clone());
+            } finally {
+                lock.readLock.unlock();
+            }
+        }
+    }
+
+    /** An atomic view (readers use a snapshot, writers are synchronized and update the snapshot). */
+    private static final class AtomicImpl<V> extends IntMap<V> {
+        private static final long serialVersionUID = IntMap.serialVersionUID;
+        private final IntMap<V> target;
+        private volatile IntMap<V> current; // The copy used by readers.
+
+        AtomicImpl(IntMap<V> target) {
+            this.target = target;
+            this.current = target.clone();
+        }
+
+        @Override
+        Object getRaw(int key) {
+            return current.getRaw(key);
+        }
+
+        @Override
+        synchronized Object putRaw(int key, Object value, boolean ifAbsent) {
+            Object previous = target.putRaw(key, value, ifAbsent);
+            if ((previous == null) || !ifAbsent) current = target.clone();
+            return previous;
+        }
+
+        @Override
+        synchronized Object removeRaw(int key) {
+            Object previous = target.removeRaw(key);
+            if (previous != null) current = target.clone();
+            return previous;
+        }
+
+        @Override
+        FractalArray<Object> snapshot() {
+            return current.snapshot();
+        }
+
+        @Override
+        long lowIndex() {
+            return current.lowIndex();
+        }
+
+        @Override
+        long highIndex() {
+            return current.highIndex();
+        }
+
+        @Override
+        public int size() {
+            return current.size();
+        }
+
+        @Override
+        public synchronized void clear() {
+            target.clear();
+            current = target.clone();
+        }
+
+        @Override
+        public IntMap<V> atomic() {
+            return this;
+        }
+
+        @Override
+        public IntMap<V> clone() {
+            return new AtomicImpl<V>(current.clone());
+        }
+    }
+
+}
@@ -0,0 +1,271 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util;
+
+import static org.javolution.annotations.Realtime.Limit.CONSTANT;
+import static org.javolution.annotations.Realtime.Limit.LINEAR;
+import static org.javolution.lang.MathLib.unsignedLessThan;
+
+import java.util.PrimitiveIterator;
+
+import org.javolution.annotations.Nullable;
+import org.javolution.annotations.Realtime;
+import org.javolution.util.AbstractMap.Entry;
+import org.javolution.util.function.Order;
+import org.javolution.util.function.Predicate;
+
+/**
+ * A set of primitive {@code int} values used directly as {@link FractalArray} index (no boxing, no hashing).
+ * The set elements are iterated in ascending (signed) order.
+ *
+ * ```java
+ * IntSet ids = new IntSet().atomic();
+ * ids.add(123456789); // No boxing.
+ * if (ids.contains(id)) ... // Mutex-free, allocation-free.
+ * ```
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 7.0, September 13, 2015
+ * @see IntMap
+ */
+@Realtime
+public class IntSet extends AbstractSet<Integer> {
+
+    private static final long serialVersionUID = 0x700L; // Version.
+    private final IntMap<Boolean> map;
+
+    /** Creates an empty set. */
+    public IntSet() {
+        this(new IntMap<Boolean>());
+    }
+
+    /** Base constructor (private). */
+    private IntSet(IntMap<Boolean> map) {
+        this.map = map;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Primitive methods.
+    //
+
+    /** Adds the specified value (if not already present). */
+    @Realtime(limit = CONSTANT)
+    public final boolean add(int value) {
+        return map.putIfAbsent(value, Boolean.TRUE) == null;
+    }
+
+    /** Indicates if this set contains the specified value. */
+    @Realtime(limit = CONSTANT)
+    public final boolean contains(int value) {
+        return map.containsKey(value);
+    }
+
+    /** Removes the specified value (if present). */
+    @Realtime(limit = CONSTANT)
+    public final boolean remove(int value) {
+        return map.remove(value) != null;
+    }
+
+    /**
+     * Returns the smallest value of this set.
+     *
+     * @throws java.util.NoSuchElementException if this set is empty.
+     */
+    @Realtime(limit = LINEAR, comment = "Sub-sets may have to search")
+    public final int firstInt() {
+        return map.firstIntKey();
+    }
+
+    /**
+     * Returns the largest value of this set.
+     *
+     * @throws java.util.NoSuchElementException if this set is empty.
+     */
+    @Realtime(limit = LINEAR, comment = "Sub-sets may have to search")
+    public final int lastInt() {
+        return map.lastIntKey();
+    }
+
+    /** Returns the values of this set in ascending order (no boxing). */
+    @Realtime(limit = LINEAR, comment = "For shared sets a copy of this set may be performed")
+    public final PrimitiveIterator.OfInt intIterator() {
+        return map.keyIterator();
+    }
+
+    /** Returns a view of the portion of this set whose values range from {@code from} inclusive to {@code to} exclusive. */
+    @Realtime(limit = CONSTANT)
+    public IntSet subSet(int from, int to) {
+        return new IntSet(map.subMap(from, to));
+    }
+
+    /** Returns a view of the portion of this set whose values range from {@code from} to {@code to}. */
+    @Realtime(limit = CONSTANT)
+    public IntSet subSet(int from, boolean fromInclusive, int to, boolean toInclusive) {
+        return new IntSet(map.subMap(from, fromInclusive, to, toInclusive));
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Views.
+    //
+
+    /**
+     * Returns an atomic view over this set. The set storage is switched to a {@link FractalArray#persistent
+     * persistent} fractal array, the snapshots (used by readers) are then created in constant time.
+     */
+    @Override
+    @Realtime(limit = LINEAR)
+    public IntSet atomic() {
+        return new IntSet(map.atomic());
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public IntSet shared() {
+        return new IntSet(map.shared());
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public IntSet subSet(@Nullable Integer from, boolean fromInclusive, @Nullable Integer to, boolean toInclusive) {
+        return new IntSet(map.subMap(from, fromInclusive, to, toInclusive));
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Boxed methods.
+    //
+
+    @Override
+    public final boolean add(Integer element, boolean allowDuplicate) { // Elements are unique.
+        return add(element.intValue()) || allowDuplicate;
+    }
+
+    @Override
+    public final boolean contains(Object element) {
+        return (element instanceof Integer) && contains(((Integer) element).intValue());
+    }
+
+    @Override
+    public final boolean remove(Object element) {
+        return (element instanceof Integer) && remove(((Integer) element).intValue());
+    }
+
+    @Override
+    public final Integer getAny(Integer element) {
+        return (element != null) && contains(element.intValue()) ? element : null;
+    }
+
+    @Override
+    public final Integer removeAny(Integer element) {
+        return (element != null) && remove(element.intValue()) ? element : null;
+    }
+
+    @Override
+    public final Order<? super Integer> order() {
+        return IntMap.KEY_ORDER;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super Integer> filter) {
+        IntTable removed = new IntTable();
+        for (PrimitiveIterator.OfInt itr = intIterator(); itr.hasNext();) {
+            int value = itr.nextInt();
+            if (filter.test(value)) removed.addInt(value);
+        }
+        for (int i = 0, n = removed.size(); i < n; i++)
+            map.remove(removed.getInt(i));
+        return !removed.isEmpty();
+    }
+
+    @Override
+    public FastIterator<Integer> iterator(@Nullable Integer low) {
+        return new IteratorImpl(map.entries().iterator((low != null) ? new Entry<Integer, Boolean>(low, null) : null));
+    }
+
+    @Override
+    public FastIterator<Integer> descendingIterator(@Nullable Integer high) {
+        return new IteratorImpl(
+                map.entries().descendingIterator((high != null) ? new Entry<Integer, Boolean>(high, null) : null));
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public void clear() {
+        map.clear();
+    }
+
+    /** Returns a copy of this set (constant time if the set storage is {@link #atomic persistent}). */
+    @Override
+    @Realtime(limit = LINEAR)
+    public IntSet clone() {
+        return new IntSet(map.clone());
+    }
+
+    /** Splits the values range. */
+    @Override
+    public IntSet[] trySplit(int n) {
+        long low = map.lowIndex();
+        long high = map.highIndex();
+        long step = Long.divideUnsigned(high - low, n);
+        if (unsignedLessThan(high, low) || (step == 0)) return new IntSet[] { this };
+        IntSet[] split = new IntSet[n];
+        for (int i = 0; i < n; i++) {
+            long first = low + i * step;
+            long last = (i == n - 1) ? high : first + step - 1;
+            split[i] = subSet(IntMap.keyOf(first), true, IntMap.keyOf(last), true);
+        }
+        return split;
+    }
+
+    /** Boxed iterator over the keys of the map entries. */
+    private static final class IteratorImpl implements FastIterator<Integer> {
+        private final FastIterator<Entry<Integer, Boolean>> entries;
+
+        IteratorImpl(FastIterator<Entry<Integer, Boolean>> entries) {
+            this.entries = entries;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return entries.hasNext();
+        }
+
+        @Override
+        public boolean hasNext(final Predicate<? super Integer> matching) {
+            return entries.hasNext(new Predicate<Entry<Integer, Boolean>>() {
+                @Override
+                public boolean test(Entry<Integer, Boolean> entry) {
+                    return matching.test(entry.getKey());
+                }
+            });
+        }
+
+        @Override
+        public Integer next() {
+            return entries.next().getKey();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+}
@@ -0,0 +1,306 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util;
+
+import static org.javolution.annotations.Realtime.Limit.CONSTANT;
+import static org.javolution.annotations.Realtime.Limit.LINEAR;
+import static org.javolution.annotations.Realtime.Limit.N_LOG_N;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+import org.javolution.annotations.Realtime;
+import org.javolution.util.function.Equality;
+import org.javolution.util.function.Predicate;
+import org.javolution.util.internal.IntFractalImpl;
+
+/**
+ * A table of {@code int} values stored unboxed in rotating blocks of primitive arrays.
+ *
+ * Elements are accessed by index in constant time; insertions and deletions at any position are performed
+ * in <i>O(sqrt(n))</i>. The primitive methods ({@link #getInt}, {@link #addInt},
+ * {@link #intIterator}, {@link #sum}...) never allocate; the {@link AbstractTable} methods (inherited views,
+ * closures) box/unbox the elements ({@code null} elements are not supported).
+ *
+ * ```java
+ * IntTable samples = new IntTable();
+ * for (int i = 0; i < 1000000; i++) samples.addInt(sensor.read()); // No boxing.
+ * long total = samples.sum();
+ * samples.sort(); // Primitive sort.
+ * int median = samples.getInt(samples.size() / 2);
+ * ```
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 7.0, September 13, 2015
+ */
+public class IntTable extends AbstractTable<Integer> {
+
+    private static final long serialVersionUID = 0x700L; // Version.
+    private IntFractalImpl array;
+
+    /** Creates an empty table. */
+    public IntTable() {
+        array = new IntFractalImpl();
+    }
+
+    /** Creates a table holding the specified values. */
+    public IntTable(int[] values) {
+        this();
+        for (int value : values) array.add(value);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Primitive methods.
+    //
+
+    /** Returns the value at the specified index. */
+    @Realtime(limit = CONSTANT)
+    public final int getInt(int index) {
+        if (index < 0 || index >= array.size()) throw new IndexOutOfBoundsException();
+        return array.get(index);
+    }
+
+    /** Replaces the value at the specified index and returns the previous value. */
+    @Realtime(limit = CONSTANT)
+    public final int setInt(int index, int value) {
+        if (index < 0 || index >= array.size()) throw new IndexOutOfBoundsException();
+        return array.set(index, value);
+    }
+
+    /** Appends the specified value. */
+    @Realtime(limit = CONSTANT)
+    public final boolean addInt(int value) {
+        array.add(value);
+        return true;
+    }
+
+    /** Inserts the specified value at the specified position. */
+    @Realtime(limit = LINEAR)
+    public final void addInt(int index, int value) {
+        if (index < 0 || index > array.size()) throw new IndexOutOfBoundsException();
+        array.insert(index, value);
+    }
+
+    /** Removes the value at the specified index and returns it. */
+    @Realtime(limit = LINEAR)
+    public final int removeInt(int index) {
+        if (index < 0 || index >= array.size()) throw new IndexOutOfBoundsException();
+        return array.delete(index);
+    }
+
+    /** Returns an iterator over the values of this table (no boxing). */
+    @Realtime(limit = CONSTANT)
+    public final PrimitiveIterator.OfInt intIterator() {
+        return new IntIteratorImpl(array);
+    }
+
+    /** Returns the values of this table. */
+    @Realtime(limit = LINEAR)
+    public final int[] toIntArray() {
+        int[] values = new int[array.size()];
+        array.getElements(0, values.length, values, 0);
+        return values;
+    }
+
+    /** Sorts this table in ascending order (primitive sort). */
+    @Realtime(limit = N_LOG_N)
+    public void sort() {
+        array.sort();
+    }
+
+    /** Returns the sum of the values of this table ({@code 0} if empty). */
+    @Realtime(limit = LINEAR)
+    public final long sum() {
+        return array.sum(0, array.size());
+    }
+
+    /**
+     * Returns the smallest value of this table.
+     *
+     * @throws NoSuchElementException if this table is empty.
+     */
+    @Realtime(limit = LINEAR)
+    public final int min() {
+        if (array.size() == 0) throw new NoSuchElementException();
+        return array.min(0, array.size());
+    }
+
+    /**
+     * Returns the largest value of this table.
+     *
+     * @throws NoSuchElementException if this table is empty.
+     */
+    @Realtime(limit = LINEAR)
+    public final int max() {
+        if (array.size() == 0) throw new NoSuchElementException();
+        return array.max(0, array.size());
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Boxed methods.
+    //
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public final boolean add(Integer element) {
+        return addInt(element);
+    }
+
+    @Override
+    @Realtime(limit = LINEAR)
+    public final void add(int index, Integer element) {
+        addInt(index, element);
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public void clear() {
+        array.clear();
+    }
+
+    @Override
+    @Realtime(limit = LINEAR)
+    public IntTable clone() {
+        IntTable copy = (IntTable) super.clone();
+        copy.array = array.clone();
+        return copy;
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public final Equality<? super Integer> equality() {
+        return Equality.standard();
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public final Integer get(int index) {
+        return getInt(index);
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public final FastListIterator<Integer> listIterator(int index) {
+        return new IteratorImpl(array, index);
+    }
+
+    @Override
+    @Realtime(limit = LINEAR)
+    public final Integer remove(int index) {
+        return removeInt(index);
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public final Integer set(int index, Integer element) {
+        return setInt(index, element);
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public final int size() {
+        return array.size();
+    }
+
+    /** Primitive Iterator Implementation. */
+    private static final class IntIteratorImpl implements PrimitiveIterator.OfInt {
+        private final IntFractalImpl array;
+        private int nextIndex;
+
+        public IntIteratorImpl(IntFractalImpl array) {
+            this.array = array;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < array.size();
+        }
+
+        @Override
+        public int nextInt() {
+            if (nextIndex >= array.size()) throw new NoSuchElementException();
+            return array.get(nextIndex++);
+        }
+
+    }
+
+    /** List Iterator Implementation (boxing). */
+    private static final class IteratorImpl implements FastListIterator<Integer> {
+        private final IntFractalImpl array;
+        private int nextIndex;
+
+        public IteratorImpl(IntFractalImpl array, int nextIndex) {
+            this.array = array;
+            this.nextIndex = nextIndex;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < array.size();
+        }
+
+        @Override
+        public boolean hasNext(Predicate<? super Integer> matching) {
+            for (int n = array.size(); nextIndex < n; nextIndex++)
+                if (matching.test(array.get(nextIndex))) return true;
+            return false;
+        }
+
+        @Override
+        public Integer next() {
+            if (nextIndex >= array.size()) throw new NoSuchElementException();
+            return array.get(nextIndex++);
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return nextIndex > 0;
+        }
+
+        @Override
+        public boolean hasPrevious(Predicate<? super Integer> matching) {
+            for (; nextIndex > 0; nextIndex--)
+                if (matching.test(array.get(nextIndex - 1))) return true;
+            return false;
+        }
+
+        @Override
+        public Integer previous() {
+            if (nextIndex <= 0) throw new NoSuchElementException();
+            return array.get(--nextIndex);
+        }
+
+        @Override
+        public int nextIndex() {
+            return nextIndex;
+        }
+
+        @Override
+        public int previousIndex() {
+            return nextIndex - 1;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void add(Integer element) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void set(Integer element) {
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
+}
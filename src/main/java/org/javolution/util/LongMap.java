@@ -0,0 +1,814 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util;
+
+import static org.javolution.annotations.Realtime.Limit.CONSTANT;
+import static org.javolution.annotations.Realtime.Limit.LINEAR;
+import static org.javolution.lang.MathLib.unsignedLessThan;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+import org.javolution.annotations.Nullable;
+import org.javolution.annotations.Realtime;
+import org.javolution.util.function.Equality;
+import org.javolution.util.function.Order;
+import org.javolution.util.function.Predicate;
+import org.javolution.util.internal.ReadWriteLockImpl;
+
+/**
+ * A map whose keys are primitive {@code long} values used directly as {@link FractalArray} index
+ * (no key boxing, no hashing, no collision).
+ *
+ * Keys are iterated in ascending (signed) order. The primitive methods ({@link #get(long)},
+ * {@link #put(long, Object)}, {@link #containsKey(long)}, {@link #remove(long)}) do not allocate;
+ * this is also true for the primitive methods of its {@link #subMap(long, long) sub-map},
+ * {@link #shared() shared} and {@link #atomic() atomic} views.
+ *
+ * ```java
+ * LongMap<Session> sessions = new LongMap<Session>().shared();
+ * ...
+ * Session session = sessions.get(sessionId); // Allocation-free lookup.
+ * LongMap<Session> recent = sessions.subMap(lastId - 1000, lastId + 1); // View.
+ * ```
+ *
+ * @param <V> the type of map values ({@code null} values are supported).
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 7.0, September 13, 2015
+ */
+@Realtime
+public class LongMap<V> extends AbstractMap<Long, V> {
+
+    private static final long serialVersionUID = 0x700L; // Version.
+
+    /** The order of long keys (signed numeric order). */
+    public static final Order<Long> KEY_ORDER = new Order<Long>() {
+        private static final long serialVersionUID = LongMap.serialVersionUID;
+
+        @Override
+        public boolean areEqual(Long left, Long right) {
+            return (left == right) || ((left != null) && left.equals(right));
+        }
+
+        @Override
+        public int compare(Long left, Long right) {
+            if (left == null) return (right == null) ? 0 : -1;
+            if (right == null) return 1;
+            return Long.compare(left, right);
+        }
+
+        @Override
+        public long indexOf(Long key) {
+            return (key != null) ? LongMap.indexOf(key) : 0;
+        }
+    };
+
+    /** Wraps null values (fractal arrays do not hold null elements). */
+    private enum Null {
+        VALUE
+    }
+
+    private FractalArray<Object> values; // Indexed by the keys with their sign bit flipped.
+    private int size;
+
+    /** Creates an empty map. */
+    public LongMap() {
+        values = FractalArray.empty();
+    }
+
+    @Override
+    public LongMap<V> with(Long key, V value) {
+        put(key, value);
+        return this;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Primitive methods.
+    //
+
+    /** Returns the value for the specified key or {@code null} if none. */
+    @Realtime(limit = CONSTANT)
+    public final @Nullable V get(long key) {
+        return unwrap(getRaw(key));
+    }
+
+    /** Indicates if this map has a value for the specified key. */
+    @Realtime(limit = CONSTANT)
+    public final boolean containsKey(long key) {
+        return getRaw(key) != null;
+    }
+
+    /** Associates the specified value to the specified key and returns the previous value. */
+    @Realtime(limit = CONSTANT)
+    public final @Nullable V put(long key, @Nullable V value) {
+        return unwrap(putRaw(key, wrap(value), false));
+    }
+
+    /** Associates the specified value to the specified key if not already present; returns the current value. */
+    @Realtime(limit = CONSTANT)
+    public final @Nullable V putIfAbsent(long key, @Nullable V value) {
+        return unwrap(putRaw(key, wrap(value), true));
+    }
+
+    /** Removes the value for the specified key and returns it. */
+    @Realtime(limit = CONSTANT)
+    public final @Nullable V remove(long key) {
+        return unwrap(removeRaw(key));
+    }
+
+    /**
+     * Returns the smallest key of this map.
+     *
+     * @throws NoSuchElementException if this map is empty.
+     */
+    @Realtime(limit = LINEAR, comment = "Sub-maps may have to search")
+    public final long firstLongKey() {
+        return keyIterator().nextLong();
+    }
+
+    /**
+     * Returns the largest key of this map.
+     *
+     * @throws NoSuchElementException if this map is empty.
+     */
+    @Realtime(limit = LINEAR, comment = "Sub-maps may have to search")
+    public final long lastLongKey() {
+        return new KeyIterator(snapshot(), highIndex(), lowIndex(), true).nextLong();
+    }
+
+    /** Returns the keys of this map in ascending order (no boxing). */
+    @Realtime(limit = LINEAR, comment = "For shared maps a copy of this map may be performed")
+    public final PrimitiveIterator.OfLong keyIterator() {
+        return new KeyIterator(snapshot(), lowIndex(), highIndex(), false);
+    }
+
+    /**
+     * Returns a view of the portion of this map whose keys range from {@code fromKey} inclusive to {@code toKey}
+     * exclusive. Putting a key outside of this range through the view raises {@link IllegalArgumentException}.
+     */
+    @Realtime(limit = CONSTANT)
+    public LongMap<V> subMap(long fromKey, long toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    /** Returns a view of the portion of this map whose keys range from {@code fromKey} to {@code toKey}. */
+    @Realtime(limit = CONSTANT)
+    public LongMap<V> subMap(long fromKey, boolean fromInclusive, long toKey, boolean toInclusive) {
+        long low = indexOf(fromKey);
+        long high = indexOf(toKey);
+        boolean empty = (!fromInclusive && (low == -1)) || (!toInclusive && (high == 0));
+        if (!fromInclusive) low++;
+        if (!toInclusive) high--;
+        if (empty || unsignedLessThan(high, low)) { // Empty range.
+            low = -1;
+            high = 0;
+        }
+        return new SubMapImpl<V>(this, low, high);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Views.
+    //
+
+    /**
+     * Returns an atomic view over this map. The map storage is switched to a {@link FractalArray#persistent
+     * persistent} fractal array, the snapshots (used by readers) are then created in constant time.
+     */
+    @Override
+    @Realtime(limit = LINEAR)
+    public LongMap<V> atomic() {
+        values = values.persistent();
+        return new AtomicImpl<V>(this);
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public LongMap<V> shared() {
+        return new SharedImpl<V>(this);
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public LongMap<V> subMap(@Nullable Long fromKey, boolean fromInclusive, @Nullable Long toKey,
+            boolean toInclusive) {
+        return subMap((fromKey != null) ? fromKey : Long.MIN_VALUE, (fromKey != null) ? fromInclusive : true,
+                (toKey != null) ? toKey : Long.MAX_VALUE, (toKey != null) ? toInclusive : true);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Boxed methods.
+    //
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public final AbstractSet<Entry<Long, V>> entries() {
+        return new EntriesImpl<V>(this);
+    }
+
+    @Override
+    public final Entry<Long, V> getEntry(Long key) {
+        Object raw = getRaw(key);
+        return (raw != null) ? new Entry<Long, V>(key, unwrap(raw)) : null;
+    }
+
+    @Override
+    public final Entry<Long, V> addEntry(Long key, V value) {
+        putRaw(key, wrap(value), false); // Keys are unique.
+        return new Entry<Long, V>(key, value);
+    }
+
+    @Override
+    public final Entry<Long, V> removeEntry(Long key) {
+        Object raw = removeRaw(key);
+        return (raw != null) ? new Entry<Long, V>(key, unwrap(raw)) : null;
+    }
+
+    @Override
+    public final boolean containsKey(Object key) {
+        return (key instanceof Long) && containsKey(((Long) key).longValue());
+    }
+
+    @Override
+    public final V get(Object key) {
+        return (key instanceof Long) ? get(((Long) key).longValue()) : null;
+    }
+
+    @Override
+    public final V put(Long key, V value) {
+        return put(key.longValue(), value);
+    }
+
+    @Override
+    public final V putIfAbsent(Long key, V value) {
+        return putIfAbsent(key.longValue(), value);
+    }
+
+    @Override
+    public final V remove(Object key) {
+        return (key instanceof Long) ? remove(((Long) key).longValue()) : null;
+    }
+
+    @Override
+    public final Order<? super Long> keyOrder() {
+        return KEY_ORDER;
+    }
+
+    @Override
+    public final Equality<? super V> valuesEquality() {
+        return Equality.standard();
+    }
+
+    @Override
+    protected V updateValue(Entry<Long, V> entry, V newValue) { // Entries are detached.
+        return put(entry.getKey().longValue(), newValue);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Storage (overridden by views).
+    //
+
+    /** Returns the value (wrapped) at the specified key or {@code null} if none. */
+    Object getRaw(long key) {
+        return values.get(indexOf(key));
+    }
+
+    /** Puts the specified value (wrapped) and returns the previous one. */
+    Object putRaw(long key, Object value, boolean ifAbsent) {
+        long index = indexOf(key);
+        Object previous = values.get(index);
+        if (previous == null) size++;
+        else if (ifAbsent) return previous;
+        values = values.set(index, value);
+        return previous;
+    }
+
+    /** Removes and returns the value (wrapped) at the specified key. */
+    Object removeRaw(long key) {
+        long index = indexOf(key);
+        Object previous = values.get(index);
+        if (previous == null) return null;
+        values = values.clear(index);
+        size--;
+        return previous;
+    }
+
+    /** Returns the values to iterate (a copy for views requiring it). */
+    FractalArray<Object> snapshot() {
+        return values;
+    }
+
+    /** Returns the smallest index of this map range (unsigned). */
+    long lowIndex() {
+        return 0;
+    }
+
+    /** Returns the largest index of this map range (unsigned). */
+    long highIndex() {
+        return -1;
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public void clear() {
+        values = values.isPersistent() ? FractalArray.empty().persistent() : FractalArray.empty();
+        size = 0;
+    }
+
+    /** Returns a copy of this map (constant time if the map storage is {@link #atomic persistent}). */
+    @Override
+    @Realtime(limit = LINEAR)
+    public LongMap<V> clone() {
+        LongMap<V> copy = (LongMap<V>) super.clone();
+        copy.values = values.clone();
+        return copy;
+    }
+
+    /** Returns the fractal index for the specified key (preserves the signed order). */
+    static long indexOf(long key) {
+        return key ^ Long.MIN_VALUE;
+    }
+
+    /** Returns the key for the specified fractal index. */
+    static long keyOf(long index) {
+        return index ^ Long.MIN_VALUE;
+    }
+
+    private static Object wrap(Object value) {
+        return (value != null) ? value : Null.VALUE;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V unwrap(Object raw) {
+        return (raw != Null.VALUE) ? (V) raw : null;
+    }
+
+    /** Ascending or descending iterator over the keys in the specified index range. */
+    private static final class KeyIterator implements PrimitiveIterator.OfLong {
+        private final FractalArray.Iterator<Object> itr;
+        private final long last;
+        private final boolean descending;
+
+        KeyIterator(FractalArray<Object> values, long first, long last, boolean descending) {
+            this.itr = descending ? values.descendingIterator(first) : values.iterator(first);
+            this.last = last;
+            this.descending = descending;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!itr.hasNext()) return false;
+            long index = itr.nextIndex();
+            return descending ? !unsignedLessThan(index, last) : !unsignedLessThan(last, index);
+        }
+
+        @Override
+        public long nextLong() {
+            if (!hasNext()) throw new NoSuchElementException();
+            long index = itr.nextIndex();
+            itr.next();
+            return keyOf(index);
+        }
+    }
+
+    /** Iterator over entries (detached). */
+    private static final class EntryIterator<V> implements FastIterator<Entry<Long, V>> {
+        private final FractalArray.Iterator<Object> itr;
+        private final long last;
+        private final boolean descending;
+        private Entry<Long, V> next;
+
+        EntryIterator(FractalArray<Object> values, long first, long last, boolean descending) {
+            this.itr = descending ? values.descendingIterator(first) : values.iterator(first);
+            this.last = last;
+            this.descending = descending;
+            advance();
+        }
+
+        private void advance() {
+            next = null;
+            if (!itr.hasNext()) return;
+            long index = itr.nextIndex();
+            if (descending ? unsignedLessThan(index, last) : unsignedLessThan(last, index)) return;
+            next = new Entry<Long, V>(keyOf(index), LongMap.<V>unwrap(itr.next()));
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public boolean hasNext(Predicate<? super Entry<Long, V>> matching) {
+            while ((next != null) && !matching.test(next))
+                advance();
+            return next != null;
+        }
+
+        @Override
+        public Entry<Long, V> next() {
+            if (next == null) throw new NoSuchElementException();
+            Entry<Long, V> tmp = next;
+            advance();
+            return tmp;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /** The entries view (entries are detached, updates are performed through the map). */
+    private static final class EntriesImpl<V> extends AbstractSet<Entry<Long, V>> {
+        private static final long serialVersionUID = LongMap.serialVersionUID;
+        private final LongMap<V> map;
+
+        EntriesImpl(LongMap<V> map) {
+            this.map = map;
+        }
+
+        @Override
+        public boolean add(Entry<Long, V> entry, boolean allowDuplicate) { // Keys are unique (replaces).
+            return (map.putRaw(entry.getKey(), wrap(entry.getValue()), !allowDuplicate) == null) || allowDuplicate;
+        }
+
+        @Override
+        public void clear() {
+            map.clear();
+        }
+
+        @Override
+        public Entry<Long, V> getAny(Entry<Long, V> entry) {
+            return map.getEntry(entry.getKey());
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return map.isEmpty();
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public Order<? super Entry<Long, V>> order() {
+            return (Order<? super Entry<Long, V>>) (Object) ENTRY_ORDER;
+        }
+
+        @Override
+        public Entry<Long, V> removeAny(Entry<Long, V> entry) {
+            return map.removeEntry(entry.getKey());
+        }
+
+        @Override
+        public boolean removeIf(Predicate<? super Entry<Long, V>> filter) {
+            LongTable removed = new LongTable();
+            for (FastIterator<Entry<Long, V>> itr = iterator(); itr.hasNext(filter);)
+                removed.addLong(itr.next().getKey());
+            for (int i = 0, n = removed.size(); i < n; i++)
+                map.removeRaw(removed.getLong(i));
+            return !removed.isEmpty();
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public FastIterator<Entry<Long, V>> iterator(Entry<Long, V> low) {
+            long first = map.lowIndex();
+            if ((low != null) && unsignedLessThan(first, indexOf(low.getKey()))) first = indexOf(low.getKey());
+            return new EntryIterator<V>(map.snapshot(), first, map.highIndex(), false);
+        }
+
+        @Override
+        public FastIterator<Entry<Long, V>> descendingIterator(Entry<Long, V> high) {
+            long first = map.highIndex();
+            if ((high != null) && unsignedLessThan(indexOf(high.getKey()), first)) first = indexOf(high.getKey());
+            return new EntryIterator<V>(map.snapshot(), first, map.lowIndex(), true);
+        }
+
+        /** Splits the keys range. */
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        @Override
+        public AbstractSet<Entry<Long, V>>[] trySplit(int n) {
+            long low = map.lowIndex();
+            long high = map.highIndex();
+            long step = Long.divideUnsigned(high - low, n);
+            if (unsignedLessThan(high, low) || (step == 0)) return new AbstractSet[] { this };
+            AbstractSet<Entry<Long, V>>[] split = new AbstractSet[n];
+            for (int i = 0; i < n; i++) {
+                long first = low + i * step;
+                long last = (i == n - 1) ? high : first + step - 1;
+                split[i] = new EntriesImpl<V>(new SubMapImpl<V>(map, first, last)).unmodifiable();
+            }
+            return split;
+        }
+    }
+
+    /** The order of entries (by keys). */
+    private static final Order<Entry<Long, ?>> ENTRY_ORDER = new Order<Entry<Long, ?>>() {
+        private static final long serialVersionUID = LongMap.serialVersionUID;
+
+        @Override
+        public boolean areEqual(Entry<Long, ?> left, Entry<Long, ?> right) {
+            if (left == right) return true;
+            if ((left == null) || (right == null)) return false;
+            return left.getKey().longValue() == right.getKey().longValue();
+        }
+
+        @Override
+        public int compare(Entry<Long, ?> left, Entry<Long, ?> right) {
+            if (left == null) return (right == null) ? 0 : -1;
+            if (right == null) return 1;
+            return Long.compare(left.getKey(), right.getKey());
+        }
+
+        @Override
+        public long indexOf(Entry<Long, ?> entry) {
+            return (entry != null) ? LongMap.indexOf(entry.getKey()) : 0;
+        }
+    };
+
+    /** A sub-map view (keys in a range of indices). */
+    private static final class SubMapImpl<V> extends LongMap<V> {
+        private static final long serialVersionUID = LongMap.serialVersionUID;
+        private final LongMap<V> target;
+        private final long low, high; // Inclusive (empty if high < low).
+
+        SubMapImpl(LongMap<V> target, long low, long high) {
+            this.target = target;
+            this.low = unsignedLessThan(low, target.lowIndex()) ? target.lowIndex() : low;
+            this.high = unsignedLessThan(target.highIndex(), high) ? target.highIndex() : high;
+        }
+
+        private boolean inRange(long key) {
+            long index = indexOf(key);
+            return !unsignedLessThan(index, low) && !unsignedLessThan(high, index);
+        }
+
+        @Override
+        Object getRaw(long key) {
+            return inRange(key) ? target.getRaw(key) : null;
+        }
+
+        @Override
+        Object putRaw(long key, Object value, boolean ifAbsent) {
+            if (!inRange(key)) throw new IllegalArgumentException("Key out of range: " + key);
+            return target.putRaw(key, value, ifAbsent);
+        }
+
+        @Override
+        Object removeRaw(long key) {
+            return inRange(key) ? target.removeRaw(key) : null;
+        }
+
+        @Override
+        FractalArray<Object> snapshot() {
+            return target.snapshot();
+        }
+
+        @Override
+        long lowIndex() {
+            return low;
+        }
+
+        @Override
+        long highIndex() {
+            return high;
+        }
+
+        @Override
+        public int size() {
+            int count = 0;
+            for (PrimitiveIterator.OfLong itr = keyIterator(); itr.hasNext(); itr.nextLong())
+                count++;
+            return count;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return !keyIterator().hasNext();
+        }
+
+        @Override
+        public void clear() {
+            LongTable keys = new LongTable();
+            for (PrimitiveIterator.OfLong itr = keyIterator(); itr.hasNext();)
+                keys.addLong(itr.nextLong());
+            for (int i = 0, n = keys.size(); i < n; i++)
+                target.removeRaw(keys.getLong(i));
+        }
+
+        @Override
+        public LongMap<V> atomic() {
+            return new AtomicImpl<V>(this);
+        }
+
+        @Override
+        public LongMap<V> clone() {
+            LongMap<V> copy = new LongMap<V>();
+            for (FastIterator<Entry<Long, V>> itr = entries().iterator(); itr.hasNext();) {
+                Entry<Long, V> entry = itr.next();
+                copy.put(entry.getKey().longValue(), entry.getValue());
+            }
+            return copy;
+        }
+    }
+
+    /** A thread-safe view (readers-writers lock with optimistic reads). */
+    private static final class SharedImpl<V> extends LongMap<V> {
+        private static final long serialVersionUID = LongMap.serialVersionUID;
+        private final LongMap<V> target;
+        private final ReadWriteLockImpl lock = new ReadWriteLockImpl();
+
+        SharedImpl(LongMap<V> target) {
+            this.target = target;
+        }
+
+        @Override
+        Object getRaw(long key) {
+            long stamp = lock.tryOptimisticRead(); // Mutex-free attempt.
+            if (stamp != 0) {
+                try {
+                    Object result = target.getRaw(key);
+                    if (lock.validate(stamp)) return result;
+                } catch (RuntimeException | Error e) {
+                    if (lock.validate(stamp)) throw e; // Not caused by a concurrent write.
+                }
+            }
+            lock.readLock.lock();
+            try {
+                return target.getRaw(key);
+            } finally {
+                lock.readLock.unlock();
+            }
+        }
+
+        @Override
+        Object putRaw(long key, Object value, boolean ifAbsent) {
+            lock.writeLock.lock();
+            try {
+                return target.putRaw(key, value, ifAbsent);
+            } finally {
+                lock.writeLock.unlock();
+            }
+        }
+
+        @Override
+        Object removeRaw(long key) {
+            lock.writeLock.lock();
+            try {
+                return target.removeRaw(key);
+            } finally {
+                lock.writeLock.unlock();
+            }
+        }
+
+        @Override
+        FractalArray<Object> snapshot() {
+            lock.readLock.lock();
+            try {
+                return target.snapshot().clone();
+            } finally {
+                lock.readLock.unlock();
+            }
+        }
+
+        @Override
+        long lowIndex() {
+            return target.lowIndex();
+        }
+
+        @Override
+        long highIndex() {
+            return target.highIndex();
+        }
+
+        @Override
+        public int size() {
+            lock.readLock.lock();
+            try {
+                return target.size();
+            } finally {
+                lock.readLock.unlock();
+            }
+        }
+
+        @Override
+        public void clear() {
+            lock.writeLock.lock();
+            try {
+                target.clear();
+            } finally {
+                lock.writeLock.unlock();
+            }
+        }
+
+        @Override
+        public LongMap<V> atomic() {
+            return new AtomicImpl<V>(this);
+        }
+
+        @Override
+        public LongMap<V> shared() {
+            return this;
+        }
+
+        @Override
+        public LongMap<V> clone() {
+            lock.readLock.lock();
+            try {
+                return new SharedImpl<V>(target.clone());
+            } finally {
+                lock.readLock.unlock();
+            }
+        }
+    }
+
+    /** An atomic view (readers use a snapshot, writers are synchronized and update the snapshot). */
+    private static final class AtomicImpl<V> extends LongMap<V> {
+        private static final long serialVersionUID = LongMap.serialVersionUID;
+        private final LongMap<V> target;
+        private volatile LongMap<V> current; // The copy used by readers.
+
+        AtomicImpl(LongMap<V> target) {
+            this.target = target;
+            this.current = target.clone();
+        }
+
+        @Override
+        Object getRaw(long key) {
+            return current.getRaw(key);
+        }
+
+        @Override
+        synchronized Object putRaw(long key, Object value, boolean ifAbsent) {
+            Object previous = target.putRaw(key, value, ifAbsent);
+            if ((previous == null) || !ifAbsent) current = target.clone();
+            return previous;
+        }
+
+        @Override
+        synchronized Object removeRaw(long key) {
+            Object previous = target.removeRaw(key);
+            if (previous != null) current = target.clone();
+            return previous;
+        }
+
+        @Override
+        FractalArray<Object> snapshot() {
+            return current.snapshot();
+        }
+
+        @Override
+        long lowIndex() {
+            return current.lowIndex();
+        }
+
+        @Override
+        long highIndex() {
+            return current.highIndex();
+        }
+
+        @Override
+        public int size() {
+            return current.size();
+        }
+
+        @Override
+        public synchronized void clear() {
+            target.clear();
+            current = target.clone();
+        }
+
+        @Override
+        public LongMap<V> atomic() {
+            return this;
+        }
+
+        @Override
+        public LongMap<V> clone() {
+            return new AtomicImpl<V>(current.clone());
+        }
+    }
+
+}
@@ -0,0 +1,271 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util;
+
+import static org.javolution.annotations.Realtime.Limit.CONSTANT;
+import static org.javolution.annotations.Realtime.Limit.LINEAR;
+import static org.javolution.lang.MathLib.unsignedLessThan;
+
+import java.util.PrimitiveIterator;
+
+import org.javolution.annotations.Nullable;
+import org.javolution.annotations.Realtime;
+import org.javolution.util.AbstractMap.Entry;
+import org.javolution.util.function.Order;
+import org.javolution.util.function.Predicate;
+
+/**
+ * A set of primitive {@code long} values used directly as {@link FractalArray} index (no boxing, no hashing).
+ * The set elements are iterated in ascending (signed) order.
+ *
+ * ```java
+ * LongSet ids = new LongSet().atomic();
+ * ids.add(123456789L); // No boxing.
+ * if (ids.contains(id)) ... // Mutex-free, allocation-free.
+ * ```
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 7.0, September 13, 2015
+ * @see LongMap
+ */
+@Realtime
+public class LongSet extends AbstractSet<Long> {
+
+    private static final long serialVersionUID = 0x700L; // Version.
+    private final LongMap<Boolean> map;
+
+    /** Creates an empty set. */
+    public LongSet() {
+        this(new LongMap<Boolean>());
+    }
+
+    /** Base constructor (private). */
+    private LongSet(LongMap<Boolean> map) {
+        this.map = map;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Primitive methods.
+    //
+
+    /** Adds the specified value (if not already present). */
+    @Realtime(limit = CONSTANT)
+    public final boolean add(long value) {
+        return map.putIfAbsent(value, Boolean.TRUE) == null;
+    }
+
+    /** Indicates if this set contains the specified value. */
+    @Realtime(limit = CONSTANT)
+    public final boolean contains(long value) {
+        return map.containsKey(value);
+    }
+
+    /** Removes the specified value (if present). */
+    @Realtime(limit = CONSTANT)
+    public final boolean remove(long value) {
+        return map.remove(value) != null;
+    }
+
+    /**
+     * Returns the smallest value of this set.
+     *
+     * @throws java.util.NoSuchElementException if this set is empty.
+     */
+    @Realtime(limit = LINEAR, comment = "Sub-sets may have to search")
+    public final long firstLong() {
+        return map.firstLongKey();
+    }
+
+    /**
+     * Returns the largest value of this set.
+     *
+     * @throws java.util.NoSuchElementException if this set is empty.
+     */
+    @Realtime(limit = LINEAR, comment = "Sub-sets may have to search")
+    public final long lastLong() {
+        return map.lastLongKey();
+    }
+
+    /** Returns the values of this set in ascending order (no boxing). */
+    @Realtime(limit = LINEAR, comment = "For shared sets a copy of this set may be performed")
+    public final PrimitiveIterator.OfLong longIterator() {
+        return map.keyIterator();
+    }
+
+    /** Returns a view of the portion of this set whose values range from {@code from} inclusive to {@code to} exclusive. */
+    @Realtime(limit = CONSTANT)
+    public LongSet subSet(long from, long to) {
+        return new LongSet(map.subMap(from, to));
+    }
+
+    /** Returns a view of the portion of this set whose values range from {@code from} to {@code to}. */
+    @Realtime(limit = CONSTANT)
+    public LongSet subSet(long from, boolean fromInclusive, long to, boolean toInclusive) {
+        return new LongSet(map.subMap(from, fromInclusive, to, toInclusive));
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Views.
+    //
+
+    /**
+     * Returns an atomic view over this set. The set storage is switched to a {@link FractalArray#persistent
+     * persistent} fractal array, the snapshots (used by readers) are then created in constant time.
+     */
+    @Override
+    @Realtime(limit = LINEAR)
+    public LongSet atomic() {
+        return new LongSet(map.atomic());
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public LongSet shared() {
+        return new LongSet(map.shared());
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public LongSet subSet(@Nullable Long from, boolean fromInclusive, @Nullable Long to, boolean toInclusive) {
+        return new LongSet(map.subMap(from, fromInclusive, to, toInclusive));
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Boxed methods.
+    //
+
+    @Override
+    public final boolean add(Long element, boolean allowDuplicate) { // Elements are unique.
+        return add(element.longValue()) || allowDuplicate;
+    }
+
+    @Override
+    public final boolean contains(Object element) {
+        return (element instanceof Long) && contains(((Long) element).longValue());
+    }
+
+    @Override
+    public final boolean remove(Object element) {
+        return (element instanceof Long) && remove(((Long) element).longValue());
+    }
+
+    @Override
+    public final Long getAny(Long element) {
+        return (element != null) && contains(element.longValue()) ? element : null;
+    }
+
+    @Override
+    public final Long removeAny(Long element) {
+        return (element != null) && remove(element.longValue()) ? element : null;
+    }
+
+    @Override
+    public final Order<? super Long> order() {
+        return LongMap.KEY_ORDER;
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super Long> filter) {
+        LongTable removed = new LongTable();
+        for (PrimitiveIterator.OfLong itr = longIterator(); itr.hasNext();) {
+            long value = itr.nextLong();
+            if (filter.test(value)) removed.addLong(value);
+        }
+        for (int i = 0, n = removed.size(); i < n; i++)
+            map.remove(removed.getLong(i));
+        return !removed.isEmpty();
+    }
+
+    @Override
+    public FastIterator<Long> iterator(@Nullable Long low) {
+        return new IteratorImpl(map.entries().iterator((low != null) ? new Entry<Long, Boolean>(low, null) : null));
+    }
+
+    @Override
+    public FastIterator<Long> descendingIterator(@Nullable Long high) {
+        return new IteratorImpl(
+                map.entries().descendingIterator((high != null) ? new Entry<Long, Boolean>(high, null) : null));
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public void clear() {
+        map.clear();
+    }
+
+    /** Returns a copy of this set (constant time if the set storage is {@link #atomic persistent}). */
+    @Override
+    @Realtime(limit = LINEAR)
+    public LongSet clone() {
+        return new LongSet(map.clone());
+    }
+
+    /** Splits the values range. */
+    @Override
+    public LongSet[] trySplit(int n) {
+        long low = map.lowIndex();
+        long high = map.highIndex();
+        long step = Long.divideUnsigned(high - low, n);
+        if (unsignedLessThan(high, low) || (step == 0)) return new LongSet[] { this };
+        LongSet[] split = new LongSet[n];
+        for (int i = 0; i < n; i++) {
+            long first = low + i * step;
+            long last = (i == n - 1) ? high : first + step - 1;
+            split[i] = subSet(LongMap.keyOf(first), true, LongMap.keyOf(last), true);
+        }
+        return split;
+    }
+
+    /** Boxed iterator over the keys of the map entries. */
+    private static final class IteratorImpl implements FastIterator<Long> {
+        private final FastIterator<Entry<Long, Boolean>> entries;
+
+        IteratorImpl(FastIterator<Entry<Long, Boolean>> entries) {
+            this.entries = entries;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return entries.hasNext();
+        }
+
+        @Override
+        public boolean hasNext(final Predicate<? super Long> matching) {
+            return entries.hasNext(new Predicate<Entry<Long, Boolean>>() {
+                @Override
+                public boolean test(Entry<Long, Boolean> entry) {
+                    return matching.test(entry.getKey());
+                }
+            });
+        }
+
+        @Override
+        public Long next() {
+            return entries.next().getKey();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+}
@@ -0,0 +1,305 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util;
+
+import static org.javolution.annotations.Realtime.Limit.CONSTANT;
+import static org.javolution.annotations.Realtime.Limit.LINEAR;
+import static org.javolution.annotations.Realtime.Limit.N_LOG_N;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+import org.javolution.annotations.Realtime;
+import org.javolution.util.function.Equality;
+import org.javolution.util.function.Predicate;
+import org.javolution.util.internal.LongFractalImpl;
+
+/**
+ * A table of {@code long} values stored unboxed in rotating blocks of primitive arrays.
+ *
+ * Elements are accessed by index in constant time; insertions and deletions at any position are performed
+ * in <i>O(sqrt(n))</i>. The primitive methods ({@link #getLong}, {@link #addLong},
+ * {@link #longIterator}, {@link #sum}...) never allocate; the {@link AbstractTable} methods (inherited views,
+ * closures) box/unbox the elements ({@code null} elements are not supported).
+ *
+ * ```java
+ * LongTable timestamps = new LongTable();
+ * timestamps.addLong(System.nanoTime()); // No boxing.
+ * ...
+ * long elapsed = timestamps.max() - timestamps.min();
+ * ```
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 7.0, September 13, 2015
+ */
+public class LongTable extends AbstractTable<Long> {
+
+    private static final long serialVersionUID = 0x700L; // Version.
+    private LongFractalImpl array;
+
+    /** Creates an empty table. */
+    public LongTable() {
+        array = new LongFractalImpl();
+    }
+
+    /** Creates a table holding the specified values. */
+    public LongTable(long[] values) {
+        this();
+        for (long value : values) array.add(value);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Primitive methods.
+    //
+
+    /** Returns the value at the specified index. */
+    @Realtime(limit = CONSTANT)
+    public final long getLong(int index) {
+        if (index < 0 || index >= array.size()) throw new IndexOutOfBoundsException();
+        return array.get(index);
+    }
+
+    /** Replaces the value at the specified index and returns the previous value. */
+    @Realtime(limit = CONSTANT)
+    public final long setLong(int index, long value) {
+        if (index < 0 || index >= array.size()) throw new IndexOutOfBoundsException();
+        return array.set(index, value);
+    }
+
+    /** Appends the specified value. */
+    @Realtime(limit = CONSTANT)
+    public final boolean addLong(long value) {
+        array.add(value);
+        return true;
+    }
+
+    /** Inserts the specified value at the specified position. */
+    @Realtime(limit = LINEAR)
+    public final void addLong(int index, long value) {
+        if (index < 0 || index > array.size()) throw new IndexOutOfBoundsException();
+        array.insert(index, value);
+    }
+
+    /** Removes the value at the specified index and returns it. */
+    @Realtime(limit = LINEAR)
+    public final long removeLong(int index) {
+        if (index < 0 || index >= array.size()) throw new IndexOutOfBoundsException();
+        return array.delete(index);
+    }
+
+    /** Returns an iterator over the values of this table (no boxing). */
+    @Realtime(limit = CONSTANT)
+    public final PrimitiveIterator.OfLong longIterator() {
+        return new LongIteratorImpl(array);
+    }
+
+    /** Returns the values of this table. */
+    @Realtime(limit = LINEAR)
+    public final long[] toLongArray() {
+        long[] values = new long[array.size()];
+        array.getElements(0, values.length, values, 0);
+        return values;
+    }
+
+    /** Sorts this table in ascending order (primitive sort). */
+    @Realtime(limit = N_LOG_N)
+    public void sort() {
+        array.sort();
+    }
+
+    /** Returns the sum of the values of this table ({@code 0} if empty). */
+    @Realtime(limit = LINEAR)
+    public final long sum() {
+        return array.sum(0, array.size());
+    }
+
+    /**
+     * Returns the smallest value of this table.
+     *
+     * @throws NoSuchElementException if this table is empty.
+     */
+    @Realtime(limit = LINEAR)
+    public final long min() {
+        if (array.size() == 0) throw new NoSuchElementException();
+        return array.min(0, array.size());
+    }
+
+    /**
+     * Returns the largest value of this table.
+     *
+     * @throws NoSuchElementException if this table is empty.
+     */
+    @Realtime(limit = LINEAR)
+    public final long max() {
+        if (array.size() == 0) throw new NoSuchElementException();
+        return array.max(0, array.size());
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Boxed methods.
+    //
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public final boolean add(Long element) {
+        return addLong(element);
+    }
+
+    @Override
+    @Realtime(limit = LINEAR)
+    public final void add(int index, Long element) {
+        addLong(index, element);
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public void clear() {
+        array.clear();
+    }
+
+    @Override
+    @Realtime(limit = LINEAR)
+    public LongTable clone() {
+        LongTable copy = (LongTable) super.clone();
+        copy.array = array.clone();
+        return copy;
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public final Equality<? super Long> equality() {
+        return Equality.standard();
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public final Long get(int index) {
+        return getLong(index);
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public final FastListIterator<Long> listIterator(int index) {
+        return new IteratorImpl(array, index);
+    }
+
+    @Override
+    @Realtime(limit = LINEAR)
+    public final Long remove(int index) {
+        return removeLong(index);
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public final Long set(int index, Long element) {
+        return setLong(index, element);
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public final int size() {
+        return array.size();
+    }
+
+    /** Primitive Iterator Implementation. */
+    private static final class LongIteratorImpl implements PrimitiveIterator.OfLong {
+        private final LongFractalImpl array;
+        private int nextIndex;
+
+        public LongIteratorImpl(LongFractalImpl array) {
+            this.array = array;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < array.size();
+        }
+
+        @Override
+        public long nextLong() {
+            if (nextIndex >= array.size()) throw new NoSuchElementException();
+            return array.get(nextIndex++);
+        }
+
+    }
+
+    /** List Iterator Implementation (boxing). */
+    private static final class IteratorImpl implements FastListIterator<Long> {
+        private final LongFractalImpl array;
+        private int nextIndex;
+
+        public IteratorImpl(LongFractalImpl array, int nextIndex) {
+            this.array = array;
+            this.nextIndex = nextIndex;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < array.size();
+        }
+
+        @Override
+        public boolean hasNext(Predicate<? super Long> matching) {
+            for (int n = array.size(); nextIndex < n; nextIndex++)
+                if (matching.test(array.get(nextIndex))) return true;
+            return false;
+        }
+
+        @Override
+        public Long next() {
+            if (nextIndex >= array.size()) throw new NoSuchElementException();
+            return array.get(nextIndex++);
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return nextIndex > 0;
+        }
+
+        @Override
+        public boolean hasPrevious(Predicate<? super Long> matching) {
+            for (; nextIndex > 0; nextIndex--)
+                if (matching.test(array.get(nextIndex - 1))) return true;
+            return false;
+        }
+
+        @Override
+        public Long previous() {
+            if (nextIndex <= 0) throw new NoSuchElementException();
+            return array.get(--nextIndex);
+        }
+
+        @Override
+        public int nextIndex() {
+            return nextIndex;
+        }
+
+        @Override
+        public int previousIndex() {
+            return nextIndex - 1;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void add(Long element) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void set(Long element) {
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
+}
@@ -0,0 +1,313 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util;
+
+import static org.javolution.annotations.Realtime.Limit.CONSTANT;
+import static org.javolution.annotations.Realtime.Limit.LINEAR;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.NoSuchElementException;
+
+import org.javolution.annotations.Nullable;
+import org.javolution.annotations.Realtime;
+import org.javolution.io.Struct;
+import org.javolution.util.function.Order;
+import org.javolution.util.function.Predicate;
+import org.javolution.util.function.Supplier;
+import org.javolution.util.internal.MappedFileImpl;
+import org.javolution.util.internal.StructArrayImpl;
+
+/**
+ * A persistent map of fixed-layout {@link Struct} values stored in a memory-mapped file.
+ *
+ * Keys are identified by their {@link Order#indexOf index} which is stored with the value (keys having the same
+ * index are considered equal, e.g. {@link LongMap#KEY_ORDER long keys}, {@link org.javolution.lang.Index Index}
+ * keys or any order whose index is unique per key). The file holds an open-addressing hash table of
+ * {@code (index, value)} slots: opening an existing file is performed in constant time (no rehash), lookups and
+ * updates are performed in place and reach the page cache directly; {@link #force()} makes them durable
+ * (checkpoint).
+ *
+ * ```java
+ * try (MappedMap<Long, Position> positions = new MappedMap<Long, Position>(new File("positions.dat"),
+ *         LongMap.KEY_ORDER, Position::new)) {
+ *     Position position = positions.getOrAdd(accountId); // View over the mapped record.
+ *     position.quantity.set(position.quantity.get() + 100);
+ *     ...
+ *     positions.force(); // Checkpoint.
+ * }
+ * ```
+ *
+ * Views over the records (and iterators) are valid until the next insertion or removal.
+ *
+ * @param <K> the type of the keys.
+ * @param <S> the type of the struct values.
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 7.0, September 13, 2015
+ * @see MappedTable
+ */
+@Realtime
+public class MappedMap<K, S extends Struct> implements Closeable, Iterable<S> {
+
+    private static final long MAGIC = 0x4A564C4D4D415031L; // "JVLMMAP1"
+    private static final int SIZE_FIELD = 0;
+    private static final int CAPACITY_FIELD = 1;
+    private static final int MIN_CAPACITY = 16;
+    private static final int VALUE_OFFSET = 16; // Slot: index (8 bytes), state (8 bytes), value.
+    private final Order<? super K> keyOrder;
+    private final Supplier<S> factory;
+    private final MappedFileImpl storage;
+    private final int slotSize;
+    private ByteBuffer scratch; // Value buffer (lazy).
+
+    /**
+     * Opens or creates a map backed by the specified file.
+     *
+     * @throws IOException if the file cannot be opened or holds values of a different size or byte order.
+     */
+    public MappedMap(File file, Order<? super K> keyOrder, Supplier<S> factory) throws IOException {
+        this.keyOrder = keyOrder;
+        this.factory = factory;
+        S prototype = factory.get();
+        slotSize = VALUE_OFFSET + ((prototype.size() + 7) & ~7);
+        storage = new MappedFileImpl(file, MAGIC, slotSize, prototype.byteOrder());
+        if (capacity() == 0) storage.setField(CAPACITY_FIELD, MIN_CAPACITY);
+        storage.ensureCapacity(capacity());
+    }
+
+    /**
+     * Positions the specified struct over the value for the specified key and returns it or returns {@code null}
+     * if none (no allocation).
+     */
+    @Realtime(limit = CONSTANT)
+    public final @Nullable S get(K key, S flyweight) {
+        long slot = find(keyOrder.indexOf(key));
+        return (slot >= 0) ? view(slot, flyweight) : null;
+    }
+
+    /** Returns a new view over the value for the specified key or {@code null} if none. */
+    @Realtime(limit = CONSTANT)
+    public final @Nullable S get(K key) {
+        return get(key, factory.get());
+    }
+
+    /** Indicates if this map holds a value for the specified key. */
+    @Realtime(limit = CONSTANT)
+    public final boolean containsKey(K key) {
+        return find(keyOrder.indexOf(key)) >= 0;
+    }
+
+    /** Returns a view over the value for the specified key; a zeroed value is added if none. */
+    @Realtime(limit = CONSTANT)
+    public final S getOrAdd(K key) {
+        return view(slotFor(keyOrder.indexOf(key)), factory.get());
+    }
+
+    /**
+     * Copies the specified value into this map for the specified key.
+     *
+     * @return {@code true} if the key was not already present; {@code false} if its value has been overwritten.
+     */
+    @Realtime(limit = CONSTANT)
+    public final boolean put(K key, S value) {
+        int n = size();
+        ByteBuffer tmp = scratch(); // The value may be a view over a slot moved by the insertion.
+        StructArrayImpl.copy(value.getByteBuffer(), value.getByteBufferPosition(), tmp, 0, value.size());
+        long slot = slotFor(keyOrder.indexOf(key));
+        StructArrayImpl.copy(tmp, 0, storage.segment(slot), storage.position(slot) + VALUE_OFFSET, value.size());
+        return size() != n;
+    }
+
+    /** Removes the value for the specified key; returns {@code true} if a value was removed. */
+    @Realtime(limit = CONSTANT)
+    public final boolean remove(K key) {
+        long slot = find(keyOrder.indexOf(key));
+        if (slot < 0) return false;
+        long mask = capacity() - 1;
+        for (long next = (slot + 1) & mask; isUsed(next); next = (next + 1) & mask) { // Backward shift.
+            long home = home(indexAt(next), mask);
+            boolean movable = (slot <= next) ? ((home <= slot) || (home > next)) : ((home <= slot) && (home > next));
+            if (!movable) continue;
+            storage.move(next, slot);
+            slot = next;
+        }
+        setUsed(slot, false);
+        storage.setField(SIZE_FIELD, size() - 1);
+        return true;
+    }
+
+    /** Returns the number of values in this map. */
+    @Realtime(limit = CONSTANT)
+    public final int size() {
+        return (int) storage.getField(SIZE_FIELD);
+    }
+
+    /** Indicates if this map is empty. */
+    @Realtime(limit = CONSTANT)
+    public final boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /** Removes all the values (the file is not truncated). */
+    @Realtime(limit = LINEAR)
+    public void clear() {
+        for (long slot = 0, n = capacity(); slot < n; slot++)
+            setUsed(slot, false);
+        storage.setField(SIZE_FIELD, 0);
+    }
+
+    /** Returns an iterator repositioning a single struct over the values of this map (unspecified order). */
+    @Override
+    @Realtime(limit = LINEAR)
+    public FastIterator<S> iterator() {
+        return new IteratorImpl();
+    }
+
+    /** Flushes the values to the storage device (checkpoint). */
+    @Realtime(limit = LINEAR)
+    public void force() {
+        storage.force();
+    }
+
+    /** Forces and closes this map (the map should not be used afterward). */
+    @Override
+    public void close() throws IOException {
+        storage.close();
+    }
+
+    private long capacity() {
+        return storage.getField(CAPACITY_FIELD);
+    }
+
+    /** Returns the slot holding the specified index or {@code -1} if none. */
+    private long find(long index) {
+        long mask = capacity() - 1;
+        for (long slot = home(index, mask);; slot = (slot + 1) & mask) {
+            if (!isUsed(slot)) return -1;
+            if (indexAt(slot) == index) return slot;
+        }
+    }
+
+    /** Returns the slot holding the specified index (a zeroed slot is added if none). */
+    private long slotFor(long index) {
+        long slot = find(index);
+        if (slot >= 0) return slot;
+        if (2L * (size() + 1) > capacity()) resize(capacity() * 2);
+        long mask = capacity() - 1;
+        for (slot = home(index, mask); isUsed(slot); slot = (slot + 1) & mask) {
+        }
+        ByteBuffer segment = storage.segment(slot);
+        int position = storage.position(slot);
+        for (int i = VALUE_OFFSET; i < slotSize; i += 8)
+            segment.putLong(position + i, 0L);
+        segment.putLong(position, index);
+        setUsed(slot, true);
+        storage.setField(SIZE_FIELD, size() + 1);
+        return slot;
+    }
+
+    /** Rehashes the slots into a larger table (the used slots are copied off-heap first). */
+    private void resize(long newCapacity) {
+        long n = capacity();
+        StructArrayImpl tmp = new StructArrayImpl(slotSize, storage.segment(0).order());
+        for (long slot = 0; slot < n; slot++) {
+            if (!isUsed(slot)) continue;
+            int i = tmp.add();
+            StructArrayImpl.copy(storage.segment(slot), storage.position(slot), tmp.page(i), tmp.position(i), slotSize);
+            setUsed(slot, false);
+        }
+        storage.ensureCapacity(newCapacity);
+        storage.setField(CAPACITY_FIELD, newCapacity);
+        long mask = newCapacity - 1;
+        for (int i = 0; i < tmp.size(); i++) {
+            long slot = home(tmp.page(i).getLong(tmp.position(i)), mask);
+            while (isUsed(slot))
+                slot = (slot + 1) & mask;
+            StructArrayImpl.copy(tmp.page(i), tmp.position(i), storage.segment(slot), storage.position(slot), slotSize);
+        }
+    }
+
+    private boolean isUsed(long slot) {
+        return storage.segment(slot).getLong(storage.position(slot) + 8) != 0;
+    }
+
+    private void setUsed(long slot, boolean used) {
+        storage.segment(slot).putLong(storage.position(slot) + 8, used ? 1 : 0);
+    }
+
+    private long indexAt(long slot) {
+        return storage.segment(slot).getLong(storage.position(slot));
+    }
+
+    private S view(long slot, S flyweight) {
+        flyweight.setByteBuffer(storage.segment(slot), storage.position(slot) + VALUE_OFFSET);
+        return flyweight;
+    }
+
+    private ByteBuffer scratch() {
+        if (scratch == null)
+            scratch = ByteBuffer.allocate(slotSize - VALUE_OFFSET).order(storage.segment(0).order());
+        return scratch;
+    }
+
+    /** Spreads the index bits (64-bit finalizer of MurmurHash3). */
+    private static long home(long index, long mask) {
+        index ^= index >>> 33;
+        index *= 0xff51afd7ed558ccdL;
+        index ^= index >>> 33;
+        index *= 0xc4ceb9fe1a85ec53L;
+        index ^= index >>> 33;
+        return index & mask;
+    }
+
+    /** Iterator over the used slots. */
+    private final class IteratorImpl implements FastIterator<S> {
+        private final S flyweight = factory.get();
+        private long nextSlot = -1;
+
+        IteratorImpl() {
+            advance();
+        }
+
+        private void advance() {
+            long n = capacity();
+            while ((++nextSlot < n) && !isUsed(nextSlot)) {
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextSlot < capacity();
+        }
+
+        @Override
+        public boolean hasNext(Predicate<? super S> matching) {
+            for (; hasNext(); advance())
+                if (matching.test(view(nextSlot, flyweight))) return true;
+            return false;
+        }
+
+        @Override
+        public S next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            view(nextSlot, flyweight);
+            advance();
+            return flyweight;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+}
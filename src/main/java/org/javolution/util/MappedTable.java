@@ -0,0 +1,335 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util;
+
+import static org.javolution.annotations.Realtime.Limit.CONSTANT;
+import static org.javolution.annotations.Realtime.Limit.LINEAR;
+import static org.javolution.annotations.Realtime.Limit.N_LOG_N;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+
+import org.javolution.annotations.Realtime;
+import org.javolution.io.Struct;
+import org.javolution.util.function.Equality;
+import org.javolution.util.function.Predicate;
+import org.javolution.util.function.Supplier;
+import org.javolution.util.internal.MappedFileImpl;
+import org.javolution.util.internal.StructArrayImpl;
+
+/**
+ * A persistent table of fixed-layout {@link Struct} records stored contiguously in a memory-mapped file.
+ *
+ * Opening an existing file is performed in constant time (no deserialization); the records are read and written
+ * in place through struct views, modifications reach the page cache directly and are made durable by
+ * {@link #force()} (checkpoint) or {@link #close()}.
+ *
+ * ```java
+ * try (MappedTable<Quote> quotes = new MappedTable<Quote>(new File("quotes.dat"), Quote::new)) {
+ *     Quote quote = quotes.addNew(); // View over the new (zeroed) record.
+ *     quote.price.set(99.5);
+ *     quotes.force(); // Checkpoint.
+ * }
+ * ```
+ *
+ * Views and iterators follow the {@link StructTable} conventions (flyweights, content equality). Appending or
+ * removing the last record is performed in constant time; insertions and deletions elsewhere move the
+ * following records.
+ *
+ * @param <S> the type of the struct elements.
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 7.0, September 13, 2015
+ * @see MappedMap
+ */
+@Realtime
+public class MappedTable<S extends Struct> extends AbstractTable<S> implements Closeable {
+
+    private static final long serialVersionUID = 0x700L; // Version.
+    private static final long MAGIC = 0x4A564C4D54424C31L; // "JVLMTBL1"
+    private static final int SIZE_FIELD = 0;
+    private final Supplier<S> factory;
+    private final transient MappedFileImpl storage;
+    private transient ByteBuffer scratch; // Record buffer (lazy).
+
+    /**
+     * Opens or creates a table backed by the specified file.
+     *
+     * @throws IOException if the file cannot be opened or holds records of a different size or byte order.
+     */
+    public MappedTable(File file, Supplier<S> factory) throws IOException {
+        this.factory = factory;
+        S prototype = factory.get();
+        storage = new MappedFileImpl(file, MAGIC, prototype.size(), prototype.byteOrder());
+        storage.ensureCapacity(size());
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Flyweight and persistence methods.
+    //
+
+    /** Positions the specified struct over the record at the specified index and returns it (no allocation). */
+    @Realtime(limit = CONSTANT)
+    public final S get(int index, S flyweight) {
+        if (index < 0 || index >= size()) throw new IndexOutOfBoundsException();
+        flyweight.setByteBuffer(storage.segment(index), storage.position(index));
+        return flyweight;
+    }
+
+    /** Appends a new zeroed record and returns a view over it. */
+    @Realtime(limit = CONSTANT)
+    public final S addNew() {
+        int index = size();
+        storage.ensureCapacity(index + 1);
+        fill(storage.segment(index), storage.position(index), storage.slotSize());
+        setSize(index + 1);
+        return get(index, factory.get());
+    }
+
+    /** Flushes the records to the storage device (checkpoint). */
+    @Realtime(limit = LINEAR)
+    public void force() {
+        storage.force();
+    }
+
+    /** Forces and closes this table (the table should not be used afterward). */
+    @Override
+    public void close() throws IOException {
+        storage.close();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Table methods.
+    //
+
+    /** Returns a new view (struct) over the record at the specified index. */
+    @Override
+    @Realtime(limit = CONSTANT)
+    public final S get(int index) {
+        return get(index, factory.get());
+    }
+
+    /** Overwrites the record at the specified index and returns a detached copy of the previous record. */
+    @Override
+    @Realtime(limit = CONSTANT)
+    public final S set(int index, S element) {
+        S previous = detached(get(index));
+        write(index, element);
+        return previous;
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public final boolean add(S element) {
+        int index = size();
+        storage.ensureCapacity(index + 1);
+        write(index, element);
+        setSize(index + 1);
+        return true;
+    }
+
+    @Override
+    @Realtime(limit = LINEAR)
+    public final void add(int index, S element) {
+        int n = size();
+        if (index < 0 || index > n) throw new IndexOutOfBoundsException();
+        ByteBuffer tmp = scratch(); // The element may be a view over a record moved by the insertion.
+        StructArrayImpl.copy(element.getByteBuffer(), element.getByteBufferPosition(), tmp, 0, storage.slotSize());
+        storage.ensureCapacity(n + 1);
+        for (int i = n; i > index; i--)
+            storage.move(i - 1, i);
+        StructArrayImpl.copy(tmp, 0, storage.segment(index), storage.position(index), storage.slotSize());
+        setSize(n + 1);
+    }
+
+    /** Removes the record at the specified index and returns a detached copy of it. */
+    @Override
+    @Realtime(limit = LINEAR)
+    public final S remove(int index) {
+        S removed = detached(get(index));
+        int n = size();
+        for (int i = index + 1; i < n; i++)
+            storage.move(i, i - 1);
+        setSize(n - 1);
+        return removed;
+    }
+
+    /** Removes all the records (the file is not truncated). */
+    @Override
+    @Realtime(limit = CONSTANT)
+    public void clear() {
+        setSize(0);
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public final int size() {
+        return (int) storage.getField(SIZE_FIELD);
+    }
+
+    /** Returns the content equality (records with the same bytes are equal). */
+    @Override
+    @Realtime(limit = CONSTANT)
+    public final Equality<? super S> equality() {
+        return StructTable.CONTENT_EQUALITY;
+    }
+
+    /** Returns an iterator repositioning a single struct (the elements returned are the same object). */
+    @Override
+    @Realtime(limit = CONSTANT)
+    public final FastListIterator<S> listIterator(int index) {
+        return new IteratorImpl<S>(this, factory.get(), index);
+    }
+
+    /** Removes the records matching the specified filter (compaction in place, single flyweight). */
+    @Override
+    @Realtime(limit = LINEAR)
+    public boolean removeIf(Predicate<? super S> filter) {
+        S flyweight = factory.get();
+        int n = size();
+        int j = 0;
+        for (int i = 0; i < n; i++) {
+            if (filter.test(get(i, flyweight))) continue;
+            if (i != j) storage.move(i, j);
+            j++;
+        }
+        setSize(j);
+        return j != n;
+    }
+
+    /** Sorts this table (the records are sorted off-heap then written back in place). */
+    @Override
+    @Realtime(limit = N_LOG_N)
+    public void sort(Comparator<? super S> cmp) {
+        StructTable<S> sorted = clone();
+        sorted.sort(cmp);
+        S flyweight = factory.get();
+        for (int i = 0, n = sorted.size(); i < n; i++)
+            write(i, sorted.get(i, flyweight));
+    }
+
+    /** Returns an off-heap (not mapped) copy of this table. */
+    @Override
+    @Realtime(limit = LINEAR)
+    public StructTable<S> clone() {
+        StructTable<S> copy = new StructTable<S>(factory);
+        S flyweight = factory.get();
+        for (int i = 0, n = size(); i < n; i++)
+            copy.add(get(i, flyweight));
+        return copy;
+    }
+
+    private void setSize(int size) {
+        storage.setField(SIZE_FIELD, size);
+    }
+
+    private void write(int index, S element) {
+        StructArrayImpl.copy(element.getByteBuffer(), element.getByteBufferPosition(), storage.segment(index),
+                storage.position(index), storage.slotSize());
+    }
+
+    private ByteBuffer scratch() {
+        if (scratch == null) scratch = ByteBuffer.allocate(storage.slotSize()).order(factory.get().byteOrder());
+        return scratch;
+    }
+
+    /** Returns a copy of the specified struct backed by its own heap buffer. */
+    private S detached(S struct) {
+        S copy = factory.get();
+        ByteBuffer buffer = ByteBuffer.allocate(storage.slotSize()).order(struct.byteOrder());
+        StructArrayImpl.copy(struct.getByteBuffer(), struct.getByteBufferPosition(), buffer, 0, storage.slotSize());
+        copy.setByteBuffer(buffer, 0);
+        return copy;
+    }
+
+    private static void fill(ByteBuffer buffer, int pos, int n) {
+        for (int i = 0; i < n; i++)
+            buffer.put(pos + i, (byte) 0);
+    }
+
+    /** List iterator repositioning a single flyweight. */
+    private static final class IteratorImpl<S extends Struct> implements FastListIterator<S> {
+        private final MappedTable<S> table;
+        private final S flyweight;
+        private int nextIndex;
+
+        public IteratorImpl(MappedTable<S> table, S flyweight, int nextIndex) {
+            this.table = table;
+            this.flyweight = flyweight;
+            this.nextIndex = nextIndex;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < table.size();
+        }
+
+        @Override
+        public boolean hasNext(Predicate<? super S> matching) {
+            for (int n = table.size(); nextIndex < n; nextIndex++)
+                if (matching.test(table.get(nextIndex, flyweight))) return true;
+            return false;
+        }
+
+        @Override
+        public S next() {
+            if (nextIndex >= table.size()) throw new NoSuchElementException();
+            return table.get(nextIndex++, flyweight);
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return nextIndex > 0;
+        }
+
+        @Override
+        public boolean hasPrevious(Predicate<? super S> matching) {
+            for (; nextIndex > 0; nextIndex--)
+                if (matching.test(table.get(nextIndex - 1, flyweight))) return true;
+            return false;
+        }
+
+        @Override
+        public S previous() {
+            if (nextIndex <= 0) throw new NoSuchElementException();
+            return table.get(--nextIndex, flyweight);
+        }
+
+        @Override
+        public int nextIndex() {
+            return nextIndex;
+        }
+
+        @Override
+        public int previousIndex() {
+            return nextIndex - 1;
+        }
+
+        @Override
+        public void remove() {
+            table.remove(--nextIndex);
+        }
+
+        @Override
+        public void add(S element) {
+            table.add(nextIndex++, element);
+        }
+
+        @Override
+        public void set(S element) {
+            table.set(nextIndex - 1, element);
+        }
+
+    }
+
+}
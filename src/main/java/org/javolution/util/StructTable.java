@@ -0,0 +1,339 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util;
+
+import static org.javolution.annotations.Realtime.Limit.CONSTANT;
+import static org.javolution.annotations.Realtime.Limit.LINEAR;
+import static org.javolution.annotations.Realtime.Limit.N_LOG_N;
+
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+
+import org.javolution.annotations.Realtime;
+import org.javolution.io.Struct;
+import org.javolution.util.function.Equality;
+import org.javolution.util.function.Predicate;
+import org.javolution.util.function.Supplier;
+import org.javolution.util.internal.StructArrayImpl;
+
+/**
+ * A table of fixed-layout {@link Struct} records stored off-heap in direct byte buffers.
+ *
+ * The records are held in rotating pages (insertions and deletions at any position are performed in
+ * <i>O(sqrt(n))</i>), the garbage collector only sees a few large page objects regardless of the number of
+ * records. Elements are {@link Struct} views (flyweights) over the pages: {@link #get(int, Struct)} and the
+ * iterators reposition a reusable struct (no allocation), {@link #get(int)} returns a new view.
+ * Adding or setting an element copies its bytes into the table; removed elements are detached copies.
+ *
+ * ```java
+ * class Quote extends Struct {
+ *     final Signed64 instrumentId = new Signed64();
+ *     final Float64 price = new Float64();
+ * }
+ * StructTable<Quote> quotes = new StructTable<Quote>(Quote::new);
+ * Quote quote = quotes.addNew(); // View over the new (zeroed) record.
+ * quote.instrumentId.set(1234);
+ * quote.price.set(99.5);
+ * ...
+ * Quote flyweight = new Quote();
+ * for (int i = 0, n = quotes.size(); i < n; i++) {
+ *     quotes.get(i, flyweight); // Repositions the flyweight (no allocation).
+ *     total += flyweight.price.get();
+ * }
+ * quotes.removeIf(q -> q.price.get() < 0); // Iterates with a single flyweight.
+ * ```
+ *
+ * Views over the table records are valid until the next insertion or deletion (records may then be moved).
+ * {@code null} elements are not supported.
+ *
+ * @param <S> the type of the struct elements.
+ *
+ * @author <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 7.0, September 13, 2015
+ */
+@Realtime
+public class StructTable<S extends Struct> extends AbstractTable<S> {
+
+    private static final long serialVersionUID = 0x700L; // Version.
+    private final Supplier<S> factory;
+    private StructArrayImpl array;
+    private transient ByteBuffer scratch; // Record buffer (lazy).
+
+    /**
+     * Creates an empty table of structs produced by the specified factory; new structs are created to serve as
+     * views (they should not allocate their own byte buffer at construction).
+     */
+    public StructTable(Supplier<S> factory) {
+        this.factory = factory;
+        S prototype = factory.get();
+        array = new StructArrayImpl(prototype.size(), prototype.byteOrder());
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Flyweight methods.
+    //
+
+    /**
+     * Positions the specified struct over the record at the specified index and returns it (no allocation).
+     *
+     * @throws UnsupportedOperationException if the specified struct is an inner struct.
+     */
+    @Realtime(limit = CONSTANT)
+    public final S get(int index, S flyweight) {
+        if (index < 0 || index >= array.size()) throw new IndexOutOfBoundsException();
+        flyweight.setByteBuffer(array.page(index), array.position(index));
+        return flyweight;
+    }
+
+    /** Appends a new zeroed record and returns a view over it. */
+    @Realtime(limit = CONSTANT)
+    public final S addNew() {
+        int index = array.add();
+        return get(index, factory.get());
+    }
+
+    /** Returns the size in bytes of the records of this table. */
+    @Realtime(limit = CONSTANT)
+    public final int recordSize() {
+        return array.stride();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////
+    // Table methods.
+    //
+
+    /** Returns a new view (struct) over the record at the specified index. */
+    @Override
+    @Realtime(limit = CONSTANT)
+    public final S get(int index) {
+        return get(index, factory.get());
+    }
+
+    /** Overwrites the record at the specified index and returns a detached copy of the previous record. */
+    @Override
+    @Realtime(limit = CONSTANT)
+    public final S set(int index, S element) {
+        S previous = detached(get(index));
+        array.write(index, element.getByteBuffer(), element.getByteBufferPosition());
+        return previous;
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public final boolean add(S element) {
+        int index = array.add();
+        array.write(index, element.getByteBuffer(), element.getByteBufferPosition());
+        return true;
+    }
+
+    @Override
+    @Realtime(limit = LINEAR)
+    public final void add(int index, S element) {
+        if (index < 0 || index > array.size()) throw new IndexOutOfBoundsException();
+        ByteBuffer tmp = scratch(); // The element may be a view over a record moved by the insertion.
+        StructArrayImpl.copy(element.getByteBuffer(), element.getByteBufferPosition(), tmp, 0, array.stride());
+        array.insert(index);
+        array.write(index, tmp, 0);
+    }
+
+    /** Removes the record at the specified index and returns a detached copy of it. */
+    @Override
+    @Realtime(limit = LINEAR)
+    public final S remove(int index) {
+        S removed = detached(get(index));
+        array.delete(index);
+        return removed;
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public void clear() {
+        array.clear();
+    }
+
+    @Override
+    @Realtime(limit = CONSTANT)
+    public final int size() {
+        return array.size();
+    }
+
+    /** Returns the content equality (records with the same bytes are equal). */
+    @Override
+    @Realtime(limit = CONSTANT)
+    public final Equality<? super S> equality() {
+        return CONTENT_EQUALITY;
+    }
+
+    /** Returns an iterator repositioning a single struct (the elements returned are the same object). */
+    @Override
+    @Realtime(limit = CONSTANT)
+    public final FastListIterator<S> listIterator(int index) {
+        return new IteratorImpl<S>(this, factory.get(), index);
+    }
+
+    /** Removes the records matching the specified filter (compaction in place, single flyweight). */
+    @Override
+    @Realtime(limit = LINEAR)
+    public boolean removeIf(Predicate<? super S> filter) {
+        S flyweight = factory.get();
+        int n = array.size();
+        int j = 0;
+        for (int i = 0; i < n; i++) {
+            if (filter.test(get(i, flyweight))) continue;
+            if (i != j) array.move(i, j);
+            j++;
+        }
+        for (int i = n; i > j; i--)
+            array.delete(i - 1);
+        return j != n;
+    }
+
+    /** Sorts this table (stable merge sort of the indices, the records are then moved once). */
+    @Override
+    @Realtime(limit = N_LOG_N)
+    public void sort(Comparator<? super S> cmp) {
+        int n = array.size();
+        int[] indices = new int[n];
+        for (int i = 0; i < n; i++)
+            indices[i] = i;
+        S left = factory.get();
+        S right = factory.get();
+        mergeSort(indices, new int[n], 0, n, cmp, left, right);
+        array = array.permute(indices, n);
+    }
+
+    @Override
+    @Realtime(limit = LINEAR)
+    public StructTable<S> clone() {
+        @SuppressWarnings("unchecked")
+        StructTable<S> copy = (StructTable<S>) super.clone();
+        copy.array = array.clone();
+        return copy;
+    }
+
+    /** Returns a copy of the specified struct backed by its own heap buffer. */
+    private S detached(S struct) {
+        S copy = factory.get();
+        ByteBuffer buffer = ByteBuffer.allocate(array.stride()).order(array.order());
+        StructArrayImpl.copy(struct.getByteBuffer(), struct.getByteBufferPosition(), buffer, 0, array.stride());
+        copy.setByteBuffer(buffer, 0);
+        return copy;
+    }
+
+    private ByteBuffer scratch() {
+        if (scratch == null) scratch = ByteBuffer.allocate(array.stride()).order(array.order());
+        return scratch;
+    }
+
+    private void mergeSort(int[] indices, int[] tmp, int from, int to, Comparator<? super S> cmp, S left, S right) {
+        if (to - from < 2) return;
+        int mid = (from + to) >>> 1;
+        mergeSort(indices, tmp, from, mid, cmp, left, right);
+        mergeSort(indices, tmp, mid, to, cmp, left, right);
+        if (cmp.compare(get(indices[mid - 1], left), get(indices[mid], right)) <= 0) return; // Already ordered.
+        System.arraycopy(indices, from, tmp, from, to - from);
+        for (int i = from, p = from, q = mid; i < to; i++) {
+            if ((q >= to) || ((p < mid) && (cmp.compare(get(tmp[p], left), get(tmp[q], right)) <= 0))) {
+                indices[i] = tmp[p++];
+            } else {
+                indices[i] = tmp[q++];
+            }
+        }
+    }
+
+    /** The equality of structs based on their content (bytes). */
+    static final Equality<Struct> CONTENT_EQUALITY = new Equality<Struct>() {
+        private static final long serialVersionUID = StructTable.serialVersionUID;
+
+        @Override
+        public boolean areEqual(Struct left, Struct right) {
+            if (left == right) return true;
+            if ((left == null) || (right == null) || (left.size() != right.size())) return false;
+            return StructArrayImpl.equals(left.getByteBuffer(), left.getByteBufferPosition(), right.getByteBuffer(),
+                    right.getByteBufferPosition(), left.size());
+        }
+    };
+
+    /** List iterator repositioning a single flyweight. */
+    private static final class IteratorImpl<S extends Struct> implements FastListIterator<S> {
+        private final StructTable<S> table;
+        private final S flyweight;
+        private int nextIndex;
+
+        public IteratorImpl(StructTable<S> table, S flyweight, int nextIndex) {
+            this.table = table;
+            this.flyweight = flyweight;
+            this.nextIndex = nextIndex;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextIndex < table.size();
+        }
+
+        @Override
+        public boolean hasNext(Predicate<? super S> matching) {
+            for (int n = table.size(); nextIndex < n; nextIndex++)
+                if (matching.test(table.get(nextIndex, flyweight))) return true;
+            return false;
+        }
+
+        @Override
+        public S next() {
+            if (nextIndex >= table.size()) throw new NoSuchElementException();
+            return table.get(nextIndex++, flyweight);
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return nextIndex > 0;
+        }
+
+        @Override
+        public boolean hasPrevious(Predicate<? super S> matching) {
+            for (; nextIndex > 0; nextIndex--)
+                if (matching.test(table.get(nextIndex - 1, flyweight))) return true;
+            return false;
+        }
+
+        @Override
+        public S previous() {
+            if (nextIndex <= 0) throw new NoSuchElementException();
+            return table.get(--nextIndex, flyweight);
+        }
+
+        @Override
+        public int nextIndex() {
+            return nextIndex;
+        }
+
+        @Override
+        public int previousIndex() {
+            return nextIndex - 1;
+        }
+
+        @Override
+        public void remove() {
+            table.remove(--nextIndex);
+        }
+
+        @Override
+        public void add(S element) {
+            table.add(nextIndex++, element);
+        }
+
+        @Override
+        public void set(S element) {
+            table.set(nextIndex - 1, element);
+        }
+
+    }
+
+}
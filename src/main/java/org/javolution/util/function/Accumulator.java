@@ -0,0 +1,47 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util.function;
+
+/**
+ * A mutable container accumulating elements (e.g. into primitive sums, statistics or histograms without boxing).
+ * For parallel reductions, each sub-view of a collection is accumulated into its own container (no
+ * synchronization) and the containers are combined once the concurrent processing is complete.
+ *
+ * ```java
+ * class Total implements Accumulator<Invoice, Total> {
+ *     long cents;
+ *     public void accept(Invoice invoice) { cents += invoice.cents(); }
+ *     public void combine(Total that) { cents += that.cents; }
+ * }
+ * long cents = invoices.parallel().accumulate(Total::new).cents;
+ * ```
+ *
+ * @param <T> The type of elements accumulated.
+ * @param <A> The type of the accumulator itself.
+ *
+ * @author  <a href="mailto:jean-marie@dautelle.com">Jean-Marie Dautelle</a>
+ * @version 7.0, March 31st, 2017
+ */
+public interface Accumulator<T, A> extends Consumer<T> {
+
+    /**
+     * Accumulates the specified element.
+     *
+     * @param param the element to accumulate.
+     */
+    void accept(T param);
+
+    /**
+     * Combines into this accumulator the specified accumulator (holding other elements).
+     *
+     * @param that the accumulator to combine with this one.
+     */
+    void combine(A that);
+
+}
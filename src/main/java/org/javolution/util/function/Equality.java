@@ -50,11 +50,12 @@ public interface Equality<T> extends Immutable, Serializable {
 	
     
     /**
-     * The standard object equality (based on {@link Object#equals}). 
+     * The standard object equality (based on {@link Object#equals}); this equality is the {@link Order#standard()
+     * standard order} (consistent with {@link Object#hashCode}).
      */
     @Realtime(limit = UNKNOWN)
     static <T> Equality<T> standard() {
-    	return (obj1, obj2) -> (obj1 == obj2) || (obj1 != null && obj1.equals(obj2));
+    	return Order.standard();
     }
     
     
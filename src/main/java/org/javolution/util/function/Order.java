@@ -20,6 +20,7 @@ import org.javolution.annotations.Realtime;
 import org.javolution.lang.MathLib;
 import org.javolution.util.internal.function.IdentityOrderImpl;
 import org.javolution.util.internal.function.LexicalOrderImpl;
+import org.javolution.util.internal.function.MortonOrderImpl;
 import org.javolution.util.internal.function.StandardOrderImpl;
 
 /**
@@ -79,25 +80,37 @@ public abstract class Order<T> implements Equality<T>, Comparator<T>, Indexer<T>
 //    }
 //    private static final Order<Number> NUMERIC = null; // TODO
 //    
-//    
-//     /**
-//     * A two-dimensional order (index-based) preserving space locality.
-//     * 
-//     * @see <a href="http://en.wikipedia.org/wiki/Quadtree">Wikipedia: Quadtree</a>
-//     * @see #INDEX
-//     */
-//    @Realtime(limit = LOG_N)
-//    public static Order<Binary<Index, Index>> QUADTREE = null; // TODO
-//    
-//    /**
-//     * A three-dimensional order (index-based) preserving space locality.
-//     * 
-//     * @see <a href="http://en.wikipedia.org/wiki/Octree">Wikipedia: Octree</a>
-//     * @see #NUMERIC
-//     */
-//    @Realtime(limit = LOG_N)
-//    public static Order<Ternary<Index, Index, Index>> OCTREE = null; // TODO   
-//    
+
+    /**
+     * Returns a two-dimensional order (Z-order curve) preserving space locality. The index of an object is the 
+     * Morton code of its coordinates (unsigned 32-bits values), objects close to each other in space are likely 
+     * to be close to each other in the order. Sets and maps using this order support bounding-box queries
+     * (see {@link org.javolution.util.FastSet#within FastSet.within}).
+     * 
+     * @param x the first coordinate of the objects (unsigned 32-bits).
+     * @param y the second coordinate of the objects (unsigned 32-bits).
+     * @see <a href="http://en.wikipedia.org/wiki/Quadtree">Wikipedia: Quadtree</a>
+     * @see MathLib#interleave(long, long)
+     */
+    @Realtime(limit = CONSTANT)
+    public static <T> Order<T> quadtree(Indexer<? super T> x, Indexer<? super T> y) {
+        return new MortonOrderImpl<T>(x, y);
+    }
+
+    /**
+     * Returns a three-dimensional order (Z-order curve) preserving space locality. The index of an object is the 
+     * Morton code of its coordinates (unsigned 21-bits values).
+     * 
+     * @param x the first coordinate of the objects (unsigned 21-bits).
+     * @param y the second coordinate of the objects (unsigned 21-bits).
+     * @param z the third coordinate of the objects (unsigned 21-bits).
+     * @see <a href="http://en.wikipedia.org/wiki/Octree">Wikipedia: Octree</a>
+     * @see MathLib#interleave(long, long, long)
+     */
+    @Realtime(limit = CONSTANT)
+    public static <T> Order<T> octree(Indexer<? super T> x, Indexer<? super T> y, Indexer<? super T> z) {
+        return new MortonOrderImpl<T>(x, y, z);
+    }
 
     /**
      * Returns the order from the specified indexer. 
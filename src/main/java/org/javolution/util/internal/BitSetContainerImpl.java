@@ -0,0 +1,657 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util.internal;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A container holding the bits of a 2^16 bits chunk (Roaring bitmaps layout). Sparse chunks are stored as sorted
+ * arrays, dense chunks as bitmaps and chunks made of long sequences of set bits as runs. Update operations return
+ * the container best suited to hold the result (possibly a different kind of container); binary operations
+ * return new containers (operands are not modified).
+ *
+ * @see <a href="http://roaringbitmap.org/">Roaring Bitmaps</a>
+ */
+public abstract class BitSetContainerImpl implements Cloneable, Serializable {
+
+    private static final long serialVersionUID = 0x700L; // Version.
+
+    /** The number of bits per container. */
+    public static final int BITS = 1 << 16;
+    private static final int WORDS = BITS >>> 6;
+    private static final int BITMAP_BYTES = WORDS * 8;
+    private static final int ARRAY_MAX_SIZE = BITMAP_BYTES / 2; // Beyond that, bitmaps are smaller.
+
+    /** Returns a new empty container. */
+    public static BitSetContainerImpl empty() {
+        return new ArrayContainer(new char[4], 0);
+    }
+
+    /** Returns a new container holding the bits in the specified range (non-empty). */
+    public static BitSetContainerImpl of(int from, int to) {
+        return new RunContainer(new char[] { (char) from, (char) (to - from - 1) }, 1, to - from);
+    }
+
+    /** Returns the number of bits set. */
+    public abstract int cardinality();
+
+    /** Returns the value of the specified bit. */
+    public abstract boolean get(int bit);
+
+    /** Sets the specified bit. */
+    public abstract BitSetContainerImpl set(int bit);
+
+    /** Clears the specified bit. */
+    public abstract BitSetContainerImpl clear(int bit);
+
+    /** Returns the next set bit from the specified bit (inclusive) or {@code -1} if none. */
+    public abstract int nextSetBit(int from);
+
+    /** Returns the previous set bit from the specified bit (inclusive) or {@code -1} if none. */
+    public abstract int previousSetBit(int from);
+
+    /** Returns the next clear bit from the specified bit (inclusive) or {@link #BITS} if none. */
+    public abstract int nextClearBit(int from);
+
+    /** Returns the previous clear bit from the specified bit (inclusive) or {@code -1} if none. */
+    public abstract int previousClearBit(int from);
+
+    /** Returns the number of bits set before the specified bit (exclusive). */
+    public abstract int rank(int bit);
+
+    /** Returns the position of the k-th bit set (starting at {@code 0}). */
+    public abstract int select(int k);
+
+    /** Calls the specified consumer with the position of each bit set plus the specified base (ascending order). */
+    public abstract void forEach(IntConsumer consumer, int base);
+
+    /** Sets the bits of this container in the specified words starting at the specified word offset. */
+    public abstract void orInto(long[] words, int offset);
+
+    @Override
+    public abstract BitSetContainerImpl clone();
+
+    /** Returns the highest bit set or {@code -1} if none. */
+    public final int last() {
+        return previousSetBit(BITS - 1);
+    }
+
+    /** Sets the bits in the specified range. */
+    public BitSetContainerImpl set(int from, int to) {
+        long[] words = toWords();
+        flipRange(words, from, to, true);
+        return valueOf(words);
+    }
+
+    /** Clears the bits in the specified range. */
+    public BitSetContainerImpl clear(int from, int to) {
+        long[] words = toWords();
+        long[] cleared = new long[WORDS];
+        flipRange(cleared, from, to, false);
+        for (int i = 0; i < WORDS; i++)
+            words[i] &= ~cleared[i];
+        return valueOf(words);
+    }
+
+    /** Flips the bits in the specified range. */
+    public BitSetContainerImpl flip(int from, int to) {
+        long[] words = toWords();
+        flipRange(words, from, to, false);
+        return valueOf(words);
+    }
+
+    /** Returns the intersection of this container with the one specified. */
+    public BitSetContainerImpl and(BitSetContainerImpl that) {
+        if (that instanceof ArrayContainer) return that.and(this);
+        long[] words = toWords();
+        long[] thatWords = that.toWords();
+        for (int i = 0; i < WORDS; i++)
+            words[i] &= thatWords[i];
+        return valueOf(words);
+    }
+
+    /** Returns the union of this container with the one specified. */
+    public BitSetContainerImpl or(BitSetContainerImpl that) {
+        long[] words = toWords();
+        that.orInto(words, 0);
+        return valueOf(words);
+    }
+
+    /** Returns the symmetric difference of this container with the one specified. */
+    public BitSetContainerImpl xor(BitSetContainerImpl that) {
+        long[] words = toWords();
+        long[] thatWords = that.toWords();
+        for (int i = 0; i < WORDS; i++)
+            words[i] ^= thatWords[i];
+        return valueOf(words);
+    }
+
+    /** Returns the bits of this container which are not set in the one specified. */
+    public BitSetContainerImpl andNot(BitSetContainerImpl that) {
+        long[] words = toWords();
+        long[] thatWords = that.toWords();
+        for (int i = 0; i < WORDS; i++)
+            words[i] &= ~thatWords[i];
+        return valueOf(words);
+    }
+
+    /** Indicates if this container and the one specified have at least one bit in common. */
+    public boolean intersects(BitSetContainerImpl that) {
+        if (that instanceof ArrayContainer) return that.intersects(this);
+        long[] words = toWords();
+        long[] thatWords = that.toWords();
+        for (int i = 0; i < WORDS; i++)
+            if ((words[i] & thatWords[i]) != 0) return true;
+        return false;
+    }
+
+    /** Returns the bits of this container as a bitmap. */
+    final long[] toWords() {
+        long[] words = new long[WORDS];
+        orInto(words, 0);
+        return words;
+    }
+
+    /** Returns the smallest container holding the specified bitmap. */
+    static BitSetContainerImpl valueOf(long[] words) {
+        int cardinality = 0;
+        int runs = 0;
+        long carry = 0; // Highest bit of the previous word.
+        for (long word : words) {
+            cardinality += Long.bitCount(word);
+            runs += Long.bitCount(word & ~((word << 1) | carry)); // Number of runs starting in this word.
+            carry = word >>> 63;
+        }
+        int arrayBytes = (cardinality <= ARRAY_MAX_SIZE) ? 2 * cardinality : Integer.MAX_VALUE;
+        int runBytes = 4 * runs;
+        if ((runBytes < arrayBytes) && (runBytes < BITMAP_BYTES)) return RunContainer.valueOf(words, runs, cardinality);
+        if (arrayBytes <= BITMAP_BYTES) return ArrayContainer.valueOf(words, cardinality);
+        return new BitmapContainer(words, cardinality);
+    }
+
+    /** Sets (or flips) the bits in the specified range of the specified bitmap ({@code to} may overflow). */
+    private static void flipRange(long[] words, int from, int to, boolean set) {
+        if (to - from <= 0) return;
+        int i = from >>> 6;
+        int j = (to - 1) >>> 6;
+        long first = -1L << from;
+        long last = -1L >>> -to;
+        if (i == j) {
+            words[i] = set ? words[i] | (first & last) : words[i] ^ (first & last);
+            return;
+        }
+        words[i] = set ? words[i] | first : words[i] ^ first;
+        for (int k = i + 1; k < j; k++)
+            words[k] = set ? -1L : ~words[k];
+        words[j] = set ? words[j] | last : words[j] ^ last;
+    }
+
+    /** Sorted array of the bits set (sparse chunks). */
+    private static final class ArrayContainer extends BitSetContainerImpl {
+        private static final long serialVersionUID = BitSetContainerImpl.serialVersionUID;
+        private char[] values;
+        private int size;
+
+        ArrayContainer(char[] values, int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        static ArrayContainer valueOf(long[] words, int cardinality) {
+            char[] values = new char[Math.max(4, cardinality)];
+            int n = 0;
+            for (int i = 0; i < WORDS; i++)
+                for (long word = words[i]; word != 0; word &= word - 1)
+                    values[n++] = (char) ((i << 6) + Long.numberOfTrailingZeros(word));
+            return new ArrayContainer(values, n);
+        }
+
+        @Override
+        public int cardinality() {
+            return size;
+        }
+
+        @Override
+        public boolean get(int bit) {
+            return Arrays.binarySearch(values, 0, size, (char) bit) >= 0;
+        }
+
+        @Override
+        public BitSetContainerImpl set(int bit) {
+            int i = Arrays.binarySearch(values, 0, size, (char) bit);
+            if (i >= 0) return this;
+            if (size >= ARRAY_MAX_SIZE) return toBitmap().set(bit);
+            i = -i - 1;
+            if (size >= values.length) values = Arrays.copyOf(values, Math.min(ARRAY_MAX_SIZE, size * 2));
+            System.arraycopy(values, i, values, i + 1, size - i);
+            values[i] = (char) bit;
+            size++;
+            return this;
+        }
+
+        @Override
+        public BitSetContainerImpl clear(int bit) {
+            int i = Arrays.binarySearch(values, 0, size, (char) bit);
+            if (i < 0) return this;
+            System.arraycopy(values, i + 1, values, i, --size - i);
+            return this;
+        }
+
+        @Override
+        public int nextSetBit(int from) {
+            int i = lowerBound(from);
+            return (i < size) ? values[i] : -1;
+        }
+
+        @Override
+        public int previousSetBit(int from) {
+            int i = lowerBound(from + 1) - 1;
+            return (i >= 0) ? values[i] : -1;
+        }
+
+        @Override
+        public int nextClearBit(int from) {
+            for (int i = lowerBound(from); (i < size) && (values[i] == from); i++)
+                from++;
+            return from;
+        }
+
+        @Override
+        public int previousClearBit(int from) {
+            for (int i = lowerBound(from + 1) - 1; (i >= 0) && (values[i] == from); i--)
+                from--;
+            return from;
+        }
+
+        @Override
+        public int rank(int bit) {
+            return lowerBound(bit);
+        }
+
+        @Override
+        public int select(int k) {
+            return values[k];
+        }
+
+        @Override
+        public void forEach(IntConsumer consumer, int base) {
+            for (int i = 0; i < size; i++)
+                consumer.accept(base + values[i]);
+        }
+
+        @Override
+        public void orInto(long[] words, int offset) {
+            for (int i = 0; i < size; i++)
+                words[offset + (values[i] >>> 6)] |= 1L << values[i];
+        }
+
+        @Override
+        public ArrayContainer clone() {
+            return new ArrayContainer(values.clone(), size);
+        }
+
+        @Override
+        public BitSetContainerImpl and(BitSetContainerImpl that) {
+            char[] result = new char[Math.max(4, size)];
+            int n = 0;
+            for (int i = 0; i < size; i++)
+                if (that.get(values[i])) result[n++] = values[i];
+            return new ArrayContainer(result, n);
+        }
+
+        @Override
+        public BitSetContainerImpl or(BitSetContainerImpl that) {
+            if (!(that instanceof ArrayContainer) || (size + that.cardinality() > ARRAY_MAX_SIZE))
+                return super.or(that);
+            ArrayContainer other = (ArrayContainer) that;
+            char[] result = new char[Math.max(4, size + other.size)];
+            int i = 0, j = 0, n = 0;
+            while ((i < size) && (j < other.size)) {
+                char a = values[i], b = other.values[j];
+                result[n++] = (a <= b) ? a : b;
+                if (a <= b) i++;
+                if (b <= a) j++;
+            }
+            while (i < size)
+                result[n++] = values[i++];
+            while (j < other.size)
+                result[n++] = other.values[j++];
+            return new ArrayContainer(result, n);
+        }
+
+        @Override
+        public BitSetContainerImpl andNot(BitSetContainerImpl that) {
+            char[] result = new char[Math.max(4, size)];
+            int n = 0;
+            for (int i = 0; i < size; i++)
+                if (!that.get(values[i])) result[n++] = values[i];
+            return new ArrayContainer(result, n);
+        }
+
+        @Override
+        public boolean intersects(BitSetContainerImpl that) {
+            for (int i = 0; i < size; i++)
+                if (that.get(values[i])) return true;
+            return false;
+        }
+
+        private int lowerBound(int bit) {
+            if (bit >= BITS) return size;
+            int i = Arrays.binarySearch(values, 0, size, (char) bit);
+            return (i >= 0) ? i : -i - 1;
+        }
+
+        private BitmapContainer toBitmap() {
+            long[] words = new long[WORDS];
+            orInto(words, 0);
+            return new BitmapContainer(words, size);
+        }
+    }
+
+    /** Plain bitmap (dense chunks). */
+    private static final class BitmapContainer extends BitSetContainerImpl {
+        private static final long serialVersionUID = BitSetContainerImpl.serialVersionUID;
+        private final long[] words;
+        private int cardinality;
+        private transient char[] blockRanks; // Number of bits set before each block of 8 words (lazy).
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public boolean get(int bit) {
+            return (words[bit >>> 6] & (1L << bit)) != 0;
+        }
+
+        @Override
+        public BitSetContainerImpl set(int bit) {
+            long word = words[bit >>> 6];
+            if ((word & (1L << bit)) != 0) return this;
+            words[bit >>> 6] = word | (1L << bit);
+            cardinality++;
+            blockRanks = null;
+            return this;
+        }
+
+        @Override
+        public BitSetContainerImpl clear(int bit) {
+            long word = words[bit >>> 6];
+            if ((word & (1L << bit)) == 0) return this;
+            words[bit >>> 6] = word & ~(1L << bit);
+            blockRanks = null;
+            return (--cardinality <= ARRAY_MAX_SIZE) ? ArrayContainer.valueOf(words, cardinality) : this;
+        }
+
+        @Override
+        public int nextSetBit(int from) {
+            int i = from >>> 6;
+            long word = words[i] & (-1L << from);
+            while (word == 0) {
+                if (++i == WORDS) return -1;
+                word = words[i];
+            }
+            return (i << 6) + Long.numberOfTrailingZeros(word);
+        }
+
+        @Override
+        public int previousSetBit(int from) {
+            int i = from >>> 6;
+            long word = words[i] & (-1L >>> (63 - (from & 63)));
+            while (word == 0) {
+                if (--i < 0) return -1;
+                word = words[i];
+            }
+            return (i << 6) + 63 - Long.numberOfLeadingZeros(word);
+        }
+
+        @Override
+        public int nextClearBit(int from) {
+            int i = from >>> 6;
+            long word = ~words[i] & (-1L << from);
+            while (word == 0) {
+                if (++i == WORDS) return BITS;
+                word = ~words[i];
+            }
+            return (i << 6) + Long.numberOfTrailingZeros(word);
+        }
+
+        @Override
+        public int previousClearBit(int from) {
+            int i = from >>> 6;
+            long word = ~words[i] & (-1L >>> (63 - (from & 63)));
+            while (word == 0) {
+                if (--i < 0) return -1;
+                word = ~words[i];
+            }
+            return (i << 6) + 63 - Long.numberOfLeadingZeros(word);
+        }
+
+        @Override
+        public int rank(int bit) {
+            if (bit >= BITS) return cardinality;
+            int w = bit >>> 6;
+            int rank = blockRanks()[w >>> 3];
+            for (int i = w & ~7; i < w; i++)
+                rank += Long.bitCount(words[i]);
+            return rank + Long.bitCount(words[w] & ((1L << bit) - 1));
+        }
+
+        @Override
+        public int select(int k) {
+            char[] ranks = blockRanks();
+            int low = 0, high = ranks.length - 1; // Searches the last block starting at or before k.
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (ranks[mid] <= k) low = mid;
+                else high = mid - 1;
+            }
+            k -= ranks[low];
+            for (int i = low << 3;; i++) {
+                long word = words[i];
+                int count = Long.bitCount(word);
+                if (k >= count) {
+                    k -= count;
+                    continue;
+                }
+                while (k-- > 0)
+                    word &= word - 1; // Clears lowest bit set.
+                return (i << 6) + Long.numberOfTrailingZeros(word);
+            }
+        }
+
+        @Override
+        public void forEach(IntConsumer consumer, int base) {
+            for (int i = 0; i < WORDS; i++)
+                for (long word = words[i]; word != 0; word &= word - 1)
+                    consumer.accept(base + (i << 6) + Long.numberOfTrailingZeros(word));
+        }
+
+        private char[] blockRanks() {
+            char[] ranks = blockRanks;
+            if (ranks != null) return ranks;
+            ranks = new char[WORDS >>> 3];
+            for (int b = 1, sum = 0; b < ranks.length; b++) {
+                for (int i = (b - 1) << 3; i < b << 3; i++)
+                    sum += Long.bitCount(words[i]);
+                ranks[b] = (char) sum;
+            }
+            return blockRanks = ranks;
+        }
+
+        @Override
+        public void orInto(long[] dest, int offset) {
+            for (int i = 0, n = Math.min(WORDS, dest.length - offset); i < n; i++)
+                dest[offset + i] |= words[i];
+        }
+
+        @Override
+        public BitmapContainer clone() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+    }
+
+    /** Sequence of runs (start, length - 1) of set bits (chunks with long sequences of set bits). */
+    private static final class RunContainer extends BitSetContainerImpl {
+        private static final long serialVersionUID = BitSetContainerImpl.serialVersionUID;
+        private final char[] runs;
+        private final int count;
+        private final int cardinality;
+        private transient int[] runRanks; // Number of bits set before each run (lazy).
+
+        RunContainer(char[] runs, int count, int cardinality) {
+            this.runs = runs;
+            this.count = count;
+            this.cardinality = cardinality;
+        }
+
+        static RunContainer valueOf(long[] words, int runs, int cardinality) {
+            char[] result = new char[2 * runs];
+            int n = 0;
+            for (int bit = nextSet(words, 0); bit >= 0;) {
+                int end = nextClear(words, bit);
+                result[n++] = (char) bit;
+                result[n++] = (char) (end - bit - 1);
+                bit = (end < BITS) ? nextSet(words, end) : -1;
+            }
+            return new RunContainer(result, runs, cardinality);
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public boolean get(int bit) {
+            int i = runAtOrBefore(bit);
+            return (i >= 0) && (bit <= end(i));
+        }
+
+        @Override
+        public BitSetContainerImpl set(int bit) { // Runs are immutable.
+            return get(bit) ? this : set(bit, bit + 1);
+        }
+
+        @Override
+        public BitSetContainerImpl clear(int bit) {
+            return get(bit) ? clear(bit, bit + 1) : this;
+        }
+
+        @Override
+        public int nextSetBit(int from) {
+            int i = runAtOrBefore(from);
+            if ((i >= 0) && (from <= end(i))) return from;
+            return (i + 1 < count) ? runs[2 * (i + 1)] : -1;
+        }
+
+        @Override
+        public int previousSetBit(int from) {
+            int i = runAtOrBefore(from);
+            return (i >= 0) ? Math.min(from, end(i)) : -1;
+        }
+
+        @Override
+        public int nextClearBit(int from) {
+            int i = runAtOrBefore(from);
+            return ((i >= 0) && (from <= end(i))) ? end(i) + 1 : from; // Runs are never adjacent.
+        }
+
+        @Override
+        public int previousClearBit(int from) {
+            int i = runAtOrBefore(from);
+            return ((i >= 0) && (from <= end(i))) ? runs[2 * i] - 1 : from;
+        }
+
+        @Override
+        public int rank(int bit) {
+            int i = runAtOrBefore(bit - 1);
+            return (i >= 0) ? runRanks()[i] + Math.min(bit - 1, end(i)) - runs[2 * i] + 1 : 0;
+        }
+
+        @Override
+        public int select(int k) {
+            int[] ranks = runRanks();
+            int low = 0, high = count - 1; // Searches the last run starting at or before k.
+            while (low < high) {
+                int mid = (low + high + 1) >>> 1;
+                if (ranks[mid] <= k) low = mid;
+                else high = mid - 1;
+            }
+            return runs[2 * low] + k - ranks[low];
+        }
+
+        @Override
+        public void forEach(IntConsumer consumer, int base) {
+            for (int i = 0; i < count; i++)
+                for (int bit = runs[2 * i], end = end(i); bit <= end; bit++)
+                    consumer.accept(base + bit);
+        }
+
+        private int[] runRanks() {
+            int[] ranks = runRanks;
+            if (ranks != null) return ranks;
+            ranks = new int[count];
+            for (int i = 1; i < count; i++)
+                ranks[i] = ranks[i - 1] + runs[2 * i - 1] + 1;
+            return runRanks = ranks;
+        }
+
+        @Override
+        public void orInto(long[] words, int offset) {
+            for (int i = 0; i < count; i++)
+                flipRange(words, (offset << 6) + runs[2 * i], (offset << 6) + end(i) + 1, true);
+        }
+
+        @Override
+        public RunContainer clone() {
+            return this; // Immutable.
+        }
+
+        private int end(int i) {
+            return runs[2 * i] + runs[2 * i + 1];
+        }
+
+        /** Returns the index of the last run starting at or before the specified bit or {@code -1} if none. */
+        private int runAtOrBefore(int bit) {
+            int low = 0, high = count - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (runs[2 * mid] <= bit) low = mid + 1;
+                else high = mid - 1;
+            }
+            return high;
+        }
+
+        private static int nextSet(long[] words, int from) {
+            for (int i = from >>> 6; i < WORDS; i++) {
+                long word = (i == from >>> 6) ? words[i] & (-1L << from) : words[i];
+                if (word != 0) return (i << 6) + Long.numberOfTrailingZeros(word);
+            }
+            return -1;
+        }
+
+        private static int nextClear(long[] words, int from) {
+            for (int i = from >>> 6; i < WORDS; i++) {
+                long word = (i == from >>> 6) ? ~words[i] & (-1L << from) : ~words[i];
+                if (word != 0) return (i << 6) + Long.numberOfTrailingZeros(word);
+            }
+            return BITS;
+        }
+    }
+
+}
@@ -10,6 +10,8 @@ package org.javolution.util.internal;
 
 import static org.javolution.lang.MathLib.unsignedLessThan;
 
+import java.util.Arrays;
+
 import org.javolution.annotations.Nullable;
 import org.javolution.lang.Immutable;
 import org.javolution.util.FractalArray;
@@ -33,10 +35,31 @@ public abstract class FractalArrayImpl<E> extends FractalArray<E> {
 	}
 
 	@Override
-	public final boolean isEmpty() {
+	public boolean isEmpty() {
 		return this == EMPTY;
 	}
 
+	@Override
+	public boolean isPersistent() {
+		return false;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public FractalArrayImpl<E> persistent() {
+		long[] indices = new long[16];
+		E[] elements = (E[]) new Object[16];
+		int length = 0;
+		for (Iterator<E> itr = iterator(); itr.hasNext(); length++) {
+			if (length >= indices.length) {
+				indices = Arrays.copyOf(indices, length * 2);
+				elements = Arrays.copyOf(elements, length * 2);
+			}
+			indices[length] = itr.nextIndex();
+			elements[length] = itr.next();
+		}
+		return Persistent.valueOf(indices, elements, length);
+	}
 
 	@Override
 	public abstract FractalArrayImpl<E> clone();
@@ -52,6 +75,21 @@ public abstract class FractalArrayImpl<E> extends FractalArray<E> {
 
 	@Override
 	public abstract FractalArrayImpl<E> delete(long index);
+
+	@Override
+	public FractalArrayImpl<E> setAll(long from, E[] elements) {
+		return Array.copyOf(this, elements.length).setAll(from, elements);
+	}
+
+	@Override
+	public FractalArrayImpl<E> insertAll(long index, E[] elements) {
+		return Array.copyOf(this, elements.length).insertAll(index, elements);
+	}
+
+	@Override
+	public FractalArrayImpl<E> removeRange(long from, long to) {
+		return Array.copyOf(this, 0).removeRange(from, to);
+	}
 	
 	/** Shifts all elements to the right **/
 	abstract FractalArrayImpl<E> shiftRight();
@@ -81,6 +119,11 @@ public abstract class FractalArrayImpl<E> extends FractalArray<E> {
 			return this; // Immutable.
 		}
 
+		@Override
+		public FractalArrayImpl<E> persistent() {
+			return Persistent.emptyPersistent();
+		}
+
 		@Override
 		public E get(long index) {
 			return null;
@@ -106,6 +149,16 @@ public abstract class FractalArrayImpl<E> extends FractalArray<E> {
 			return this;
 		}
 
+		@Override
+		public long count(long from, long to) {
+			return 0;
+		}
+
+		@Override
+		public long select(long rank) {
+			throw new IndexOutOfBoundsException("rank: " + rank);
+		}
+
 		@Override
 		public long next(long after, Predicate<? super E> matching) {
 			return 0;
@@ -177,15 +230,26 @@ public abstract class FractalArrayImpl<E> extends FractalArray<E> {
 			return clear(i);
 		}
 
+		@Override
+		public long count(long from, long to) {
+			return (!unsignedLessThan(index, from) && unsignedLessThan(index, to)) ? 1 : 0;
+		}
+
+		@Override
+		public long select(long rank) {
+			if (rank != 0) throw new IndexOutOfBoundsException("rank: " + rank);
+			return index;
+		}
+
 		@Override
 		public long next(long after, Predicate<? super E> matching) {
-			if (unsignedLessThan(after, index) && matching.test(element)) return index;
+			if (unsignedLessThan(after, index) && ((matching == null) || matching.test(element))) return index;
 			return 0;
 		}
 
 		@Override
 		public long previous(long before, Predicate<? super E> matching) {
-			if (unsignedLessThan(index, before) && matching.test(element)) return index;
+			if (unsignedLessThan(index, before) && ((matching == null) || matching.test(element))) return index;
 			return -1;
 		}
 
@@ -233,11 +297,33 @@ public abstract class FractalArrayImpl<E> extends FractalArray<E> {
 			elements = that.elements.clone();
 			length = that.length;
 		}
+
+		@SuppressWarnings("unchecked")
+		private Array(int capacity) {
+			indices = new long[capacity];
+			elements = (E[]) new Object[capacity];
+		}
+
+		/** Returns an array holding the elements of the specified fractal with room for more elements. */
+		static <E> Array<E> copyOf(FractalArrayImpl<E> that, int extra) {
+			Array<E> array = new Array<E>(Math.max(INITIAL_CAPACITY, extra + 1));
+			for (Iterator<E> itr = that.iterator(); itr.hasNext();) {
+				array.ensureCapacity(array.length + 1);
+				array.indices[array.length] = itr.nextIndex();
+				array.elements[array.length++] = itr.next();
+			}
+			return array;
+		}
 		
 		@Override
 		public FractalArrayImpl<E> clone() {
 			return new Array<E>(this);
 		}
+
+		@Override
+		public FractalArrayImpl<E> persistent() {
+			return Persistent.valueOf(indices, elements, length);
+		}
 		
 		@Override
 		public FractalArrayImpl<E> clear(long index) {
@@ -245,13 +331,15 @@ public abstract class FractalArrayImpl<E> extends FractalArray<E> {
 			if (i >= 0) { // Found it.
 				System.arraycopy(indices, i+1, indices, i, length - i - 1);
 				System.arraycopy(elements, i+1, elements, i, length - i - 1);
-				if (--length * 4 < indices.length) return downsize();
+				elements[--length] = null;
+				if (length * 4 < indices.length) return downsize();
 		    } 
 			return this;
 		}
 		
 		@Override
 		public FractalArrayImpl<E> set(long index, E element) {
+			if (element == null) return clear(index);
 			int i = positionOf(index, 0, length);
 			if (i >= 0) { // Replace element.
 				elements[i] = element;
@@ -260,6 +348,8 @@ public abstract class FractalArrayImpl<E> extends FractalArray<E> {
 				i = -i - 1; // The "should be" position.
 				System.arraycopy(indices, i, indices, i+1, length - i);
 				System.arraycopy(elements, i, elements, i+1, length - i);
+				indices[i] = index;
+				elements[i] = element;
 				length++;
 			}
 			return this;
@@ -271,10 +361,12 @@ public abstract class FractalArrayImpl<E> extends FractalArray<E> {
 			int i = positionOf(index, 0, length);
 			i = (i >= 0) ? i : -i - 1;
 			for (int j=i; j < length; ++j) indices[j]++;
+			if (inserted == null) return this; // Shift only.
 			System.arraycopy(indices, i, indices, i+1, length - i);
 			System.arraycopy(elements, i, elements, i+1, length - i);
 			indices[i] = index;
 			elements[i] = inserted;	
+			length++;
 			return this;
 		}
 
@@ -284,12 +376,12 @@ public abstract class FractalArrayImpl<E> extends FractalArray<E> {
 			if (i >= 0) { // Remove element.
 				System.arraycopy(indices, i+1, indices, i, length - i - 1);
 				System.arraycopy(elements, i+1, elements, i, length - i - 1);
-				if (--length * 4 < indices.length) downsize();				
+				elements[--length] = null;
 			} else {
 				i = -i - 1;					
 			}
 			for (int j=i; j < length; ++j) indices[j]--;
-			return this;
+			return (length * 4 < indices.length) ? downsize() : this;
 		}
 		
 		@Override
@@ -297,6 +389,51 @@ public abstract class FractalArrayImpl<E> extends FractalArray<E> {
 			int i = positionOf(index, 0, length);
 			return i >= 0 ? elements[i] : null;
 		}
+
+		@Override
+		public FractalArrayImpl<E> setAll(long from, E[] values) {
+			if (values.length == 0) return this;
+			long to = from + values.length;
+			int start = lowerBound(from);
+			int end = unsignedLessThan(from, to) ? lowerBound(to) : length; // Wraps around.
+			splice(start, end, countNonNull(values));
+			copy(values, from, start);
+			return trim();
+		}
+
+		@Override
+		public FractalArrayImpl<E> insertAll(long index, E[] inserted) {
+			int n = inserted.length;
+			if (n == 0) return this;
+			int start = lowerBound(index);
+			if ((start < length) && unsignedLessThan(-1L - indices[length - 1], n))
+				throw new ArithmeticException("Index Overflow");
+			for (int j = start; j < length; ++j) indices[j] += n;
+			splice(start, start, countNonNull(inserted));
+			copy(inserted, index, start);
+			return trim();
+		}
+
+		@Override
+		public FractalArrayImpl<E> removeRange(long from, long to) {
+			if (!unsignedLessThan(from, to)) return this;
+			int start = lowerBound(from);
+			int end = lowerBound(to);
+			long n = to - from;
+			for (int j = end; j < length; ++j) indices[j] -= n;
+			splice(start, end, 0);
+			return trim();
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public <T> T[] toArray(long from, long to, T[] dest) {
+			if (unsignedLessThan(dest.length, to - from)) throw new IndexOutOfBoundsException();
+			Arrays.fill(dest, 0, (int) (to - from), null);
+			for (int j = lowerBound(from); (j < length) && unsignedLessThan(indices[j], to); ++j)
+				dest[(int) (indices[j] - from)] = (T) elements[j];
+			return dest;
+		}
 	
 		@Override
 		FractalArrayImpl<E> shiftRight() {
@@ -314,12 +451,23 @@ public abstract class FractalArrayImpl<E> extends FractalArray<E> {
 			return this;
 		}
 	
+		@Override
+		public long count(long from, long to) {
+			return unsignedLessThan(from, to) ? lowerBound(to) - lowerBound(from) : 0;
+		}
+
+		@Override
+		public long select(long rank) {
+			if ((rank < 0) || (rank >= length)) throw new IndexOutOfBoundsException("rank: " + rank);
+			return indices[(int) rank];
+		}
+
 		@Override
 		public long next(long after, Predicate<? super E> matching) {
 			int i = positionOf(after, 0, length);
 			i = (i >= 0) ? i + 1 : -i - 1;
 			while (i < length) {
-				if (matching.test(elements[i])) return indices[i];
+				if ((matching == null) || matching.test(elements[i])) return indices[i];
 				i++;
 			}
 			return 0;
@@ -329,12 +477,62 @@ public abstract class FractalArrayImpl<E> extends FractalArray<E> {
 			int i = positionOf(before, 0, length);
 			i = (i >= 0) ? i - 1 : -i - 2;
 			while (i >= 0) {
-				if (matching.test(elements[i])) return indices[i];
+				if ((matching == null) || matching.test(elements[i])) return indices[i];
 				i--;
 			}
 			return -1;
 		}
 	    
+		/** Returns the position of the first element whose index is greater or equal to the specified index. */
+		private int lowerBound(long index) {
+			int i = positionOf(index, 0, length);
+			return (i >= 0) ? i : -i - 1;
+		}
+
+		/** Replaces the elements at positions [start, end) by {@code count} free positions (single move). */
+		private void splice(int start, int end, int count) {
+			int newLength = length - (end - start) + count;
+			ensureCapacity(newLength);
+			System.arraycopy(indices, end, indices, start + count, length - end);
+			System.arraycopy(elements, end, elements, start + count, length - end);
+			if (newLength < length) Arrays.fill(elements, newLength, length, null);
+			length = newLength;
+		}
+
+		/** Copies the non-null values (starting at the specified index) at the specified position. */
+		private void copy(E[] values, long index, int position) {
+			for (int i = 0; i < values.length; i++) {
+				if (values[i] == null) continue;
+				indices[position] = index + i;
+				elements[position++] = values[i];
+			}
+		}
+
+		private void ensureCapacity(int capacity) {
+			if (capacity <= indices.length) return;
+			int newCapacity = Math.max(capacity, indices.length * 2);
+			indices = Arrays.copyOf(indices, newCapacity);
+			elements = Arrays.copyOf(elements, newCapacity);
+		}
+
+		/** Returns the most compact representation after bulk updates. */
+		private FractalArrayImpl<E> trim() {
+			if (length == 0) return empty();
+			if (length == 1) return new Single<E>(indices[0], elements[0]);
+			if ((length * 4 >= indices.length) || (indices.length <= INITIAL_CAPACITY)) return this;
+			int newCapacity = Math.max(INITIAL_CAPACITY, length * 2);
+			indices = Arrays.copyOf(indices, newCapacity);
+			elements = Arrays.copyOf(elements, newCapacity);
+			return this;
+		}
+
+		private static int countNonNull(Object[] values) {
+			int count = 0;
+			for (Object value : values)
+				if (value != null) count++;
+			return count;
+		}
+
 		private int positionOf(long index, int start, int length) {
 			while (length != 0) {
 				int half = length >> 1;
@@ -376,6 +574,324 @@ public abstract class FractalArrayImpl<E> extends FractalArray<E> {
     	}
 
 	}
+
+	/** 
+	 * A persistent array (AVL tree with path copying), instances are never modified and updates return new 
+	 * instances sharing all but O(Log(n)) nodes with the original. Node indices are stored relative to their
+	 * parent node, shifting the indices of a whole sub-tree is done by updating its root only.
+	 */
+	private static final class Persistent<E> extends FractalArrayImpl<E> implements Immutable {
+		private static final long serialVersionUID = FractalArrayImpl.serialVersionUID;
+		private static final Persistent<Object> EMPTY = new Persistent<Object>(null); 
+		private final Node<E> root; // Offset is the absolute index.
+
+		private Persistent(Node<E> root) {
+			this.root = root;
+		}
+
+		private Persistent<E> with(Node<E> newRoot) {
+			if (newRoot == root) return this;
+			return (newRoot != null) ? new Persistent<E>(newRoot) : Persistent.<E>emptyPersistent();
+		}
+
+		@SuppressWarnings("unchecked")
+		static <E> Persistent<E> emptyPersistent() {
+			return (Persistent<E>) EMPTY;
+		}
+
+		/** Builds a balanced tree from the specified elements (indices in ascending unsigned order). */
+		static <E> Persistent<E> valueOf(long[] indices, E[] elements, int length) {
+			return Persistent.<E>emptyPersistent().with(build(indices, elements, 0, length, 0));
+		}
+
+		@Override
+		public Persistent<E> clone() {
+			return this; // Immutable.
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return root == null;
+		}
+
+		@Override
+		public boolean isPersistent() {
+			return true;
+		}
+
+		@Override
+		public Persistent<E> persistent() {
+			return this;
+		}
+
+		@Override
+		public E get(long index) {
+			long key = 0;
+			for (Node<E> node = root; node != null;) {
+				key += node.offset;
+				if (index == key) return node.element;
+				node = unsignedLessThan(index, key) ? node.left : node.right;
+			}
+			return null;
+		}
+
+		@Override
+		public Persistent<E> clear(long index) {
+			return with(remove(root, 0, index));
+		}
+
+		@Override
+		public Persistent<E> set(long index, E element) {
+			if (element == null) return clear(index);
+			return with(put(root, 0, index, element));
+		}
+
+		@Override
+		public Persistent<E> insert(long index, E inserted) {
+			Persistent<E> shifted = with(shift(root, 0, index, 1));
+			return shifted.set(index, inserted);
+		}
+
+		@Override
+		public Persistent<E> delete(long index) {
+			Node<E> node = remove(root, 0, index);
+			return with(index != -1 ? shift(node, 0, index + 1, -1) : node);
+		}
+
+		@Override
+		public Persistent<E> setAll(long from, E[] elements) {
+			Node<E> node = root;
+			for (int i = 0; i < elements.length; i++) 
+				node = (elements[i] != null) ? put(node, 0, from + i, elements[i]) : remove(node, 0, from + i);
+			return with(node);
+		}
+
+		@Override
+		public FractalArrayImpl<E> insertAll(long index, E[] elements) {
+			if (root == null) return Array.copyOf(this, elements.length).insertAll(index, elements).persistent();
+			Node<E> node = shift(root, 0, index, elements.length); // Single shift.
+			for (int i = 0; i < elements.length; i++)
+				if (elements[i] != null) node = put(node, 0, index + i, elements[i]);
+			return with(node);
+		}
+
+		@Override
+		public Persistent<E> removeRange(long from, long to) {
+			if (!unsignedLessThan(from, to)) return this;
+			Node<E> node = (get(from) != null) ? remove(root, 0, from) : root;
+			for (long i = next(node, 0, from, null); (i != 0) && unsignedLessThan(i, to); i = next(node, 0, i, null))
+				node = remove(node, 0, i);
+			return with(shift(node, 0, to, from - to)); // Single shift.
+		}
+
+		@Override
+		public long count(long from, long to) {
+			return unsignedLessThan(from, to) ? countBelow(root, to) - countBelow(root, from) : 0;
+		}
+
+		@Override
+		public long select(long rank) {
+			long base = 0;
+			long i = rank;
+			for (Node<E> node = root; (node != null) && (i >= 0);) {
+				long key = base + node.offset;
+				int leftSize = sizeOf(node.left);
+				base = key;
+				if (i == leftSize) return key;
+				if (i < leftSize) {
+					node = node.left;
+				} else {
+					i -= leftSize + 1;
+					node = node.right;
+				}
+			}
+			throw new IndexOutOfBoundsException("rank: " + rank);
+		}
+
+		@Override
+		public long next(long after, Predicate<? super E> matching) {
+			return next(root, 0, after, matching);
+		}
+
+		@Override
+		public long previous(long before, Predicate<? super E> matching) {
+			return previous(root, 0, before, matching);
+		}
+
+		@Override
+		Persistent<E> shiftRight() {
+			if (get(-1) != null) throw new ArithmeticException("Index Overflow");
+			return with(rebase(root, 1));
+		}
+
+		@Override
+		Persistent<E> shiftLeft() {
+			if (get(0) != null) throw new ArithmeticException("Index Underflow");
+			return with(rebase(root, -1));
+		}
+
+		/** Immutable tree node. */
+		private static final class Node<E> implements java.io.Serializable {
+			private static final long serialVersionUID = FractalArrayImpl.serialVersionUID;
+			final long offset; // Index relative to the parent node index.
+			final E element;
+			final Node<E> left;
+			final Node<E> right;
+			final int height;
+			final int size; // Number of nodes in this sub-tree (order statistics).
+
+			Node(long offset, E element, Node<E> left, Node<E> right) {
+				this.offset = offset;
+				this.element = element;
+				this.left = left;
+				this.right = right;
+				this.height = Math.max(heightOf(left), heightOf(right)) + 1;
+				this.size = sizeOf(left) + sizeOf(right) + 1;
+			}
+		}
+
+		private static int heightOf(Node<?> node) {
+			return (node != null) ? node.height : 0;
+		}
+
+		private static int sizeOf(Node<?> node) {
+			return (node != null) ? node.size : 0;
+		}
+
+		/** Returns the number of nodes whose index is lower than the specified index (unsigned). */
+		private static long countBelow(Node<?> node, long index) {
+			long count = 0;
+			for (long base = 0; node != null;) {
+				long key = base + node.offset;
+				base = key;
+				if (unsignedLessThan(key, index)) {
+					count += sizeOf(node.left) + 1;
+					node = node.right;
+				} else {
+					node = node.left;
+				}
+			}
+			return count;
+		}
+
+		/** Returns the specified sub-tree with its indices shifted by the specified amount. */
+		private static <E> Node<E> rebase(Node<E> node, long delta) {
+			if ((node == null) || (delta == 0)) return node;
+			return new Node<E>(node.offset + delta, node.element, node.left, node.right);
+		}
+
+		private static <E> Node<E> build(long[] indices, E[] elements, int from, int to, long base) {
+			if (from >= to) return null;
+			int mid = (from + to) >>> 1;
+			long key = indices[mid];
+			return new Node<E>(key - base, elements[mid], build(indices, elements, from, mid, key), 
+					build(indices, elements, mid + 1, to, key));
+		}
+
+		private static <E> Node<E> rotateLeft(Node<E> node) {
+			Node<E> r = node.right;
+			return new Node<E>(node.offset + r.offset, r.element, 
+					new Node<E>(-r.offset, node.element, node.left, rebase(r.left, r.offset)), r.right);
+		}
+
+		private static <E> Node<E> rotateRight(Node<E> node) {
+			Node<E> l = node.left;
+			return new Node<E>(node.offset + l.offset, l.element, l.left, 
+					new Node<E>(-l.offset, node.element, rebase(l.right, l.offset), node.right));
+		}
+
+		/** Creates a node with the specified children (relative to the node) restoring the AVL balance. */
+		private static <E> Node<E> balance(long offset, E element, Node<E> left, Node<E> right) {
+			int hl = heightOf(left);
+			int hr = heightOf(right);
+			if (hl > hr + 1) {
+				if (heightOf(left.left) < heightOf(left.right)) left = rotateLeft(left);
+				return rotateRight(new Node<E>(offset, element, left, right));
+			} 
+			if (hr > hl + 1) {
+				if (heightOf(right.right) < heightOf(right.left)) right = rotateRight(right);
+				return rotateLeft(new Node<E>(offset, element, left, right));
+			}
+			return new Node<E>(offset, element, left, right);
+		}
+
+		private static <E> Node<E> put(Node<E> node, long base, long index, E element) {
+			if (node == null) return new Node<E>(index - base, element, null, null);
+			long key = base + node.offset;
+			if (index == key) 
+				return (node.element == element) ? node : new Node<E>(node.offset, element, node.left, node.right);
+			if (unsignedLessThan(index, key)) {
+				Node<E> left = put(node.left, key, index, element);
+				return (left == node.left) ? node : balance(node.offset, node.element, left, node.right);
+			} 
+			Node<E> right = put(node.right, key, index, element);
+			return (right == node.right) ? node : balance(node.offset, node.element, node.left, right);
+		}
+
+		private static <E> Node<E> remove(Node<E> node, long base, long index) {
+			if (node == null) return null;
+			long key = base + node.offset;
+			if (index == key) {
+				if (node.left == null) return rebase(node.right, node.offset);
+				if (node.right == null) return rebase(node.left, node.offset);
+				Node<E> min = node.right; // Replaces with the smallest element of the right sub-tree.
+				long minKey = key + min.offset;
+				while (min.left != null) {
+					min = min.left;
+					minKey += min.offset;
+				}
+				long delta = key - minKey;
+				return balance(minKey - base, min.element, rebase(node.left, delta), 
+						rebase(removeMin(node.right), delta));
+			}
+			if (unsignedLessThan(index, key)) {
+				Node<E> left = remove(node.left, key, index);
+				return (left == node.left) ? node : balance(node.offset, node.element, left, node.right);
+			} 
+			Node<E> right = remove(node.right, key, index);
+			return (right == node.right) ? node : balance(node.offset, node.element, node.left, right);
+		}
+
+		private static <E> Node<E> removeMin(Node<E> node) {
+			if (node.left == null) return rebase(node.right, node.offset);
+			return balance(node.offset, node.element, removeMin(node.left), node.right);
+		}
+
+		/** Shifts all the indices greater or equal to the specified index (the tree structure is unchanged). */
+		private static <E> Node<E> shift(Node<E> node, long base, long from, long delta) {
+			if (node == null) return null;
+			long key = base + node.offset;
+			if (unsignedLessThan(key, from)) {
+				Node<E> right = shift(node.right, key, from, delta);
+				return (right == node.right) ? node : new Node<E>(node.offset, node.element, node.left, right);
+			} // Shifts this node and its right sub-tree, the left sub-tree may be partially shifted.
+			Node<E> left = shift(rebase(node.left, -delta), key + delta, from, delta);
+			return new Node<E>(node.offset + delta, node.element, left, node.right);
+		}
+
+		private static <E> long next(Node<E> node, long base, long after, Predicate<? super E> matching) {
+			if (node == null) return 0;
+			long key = base + node.offset;
+			if (unsignedLessThan(after, key)) {
+				long found = next(node.left, key, after, matching);
+				if (found != 0) return found; // Zero cannot be after.
+				if ((matching == null) || matching.test(node.element)) return key;
+			}
+			return next(node.right, key, after, matching);
+		}
+
+		private static <E> long previous(Node<E> node, long base, long before, Predicate<? super E> matching) {
+			if (node == null) return -1;
+			long key = base + node.offset;
+			if (unsignedLessThan(key, before)) {
+				long found = previous(node.right, key, before, matching);
+				if (found != -1) return found; // Max unsigned value cannot be before.
+				if ((matching == null) || matching.test(node.element)) return key;
+			}
+			return previous(node.left, key, before, matching);
+		}
+
+	}
 	
 //	private static final int ARRAY_CAPACITY = 1 << LOG2_CAPACITY;
 //	private static final int MASK = ARRAY_CAPACITY - 1;
@@ -0,0 +1,240 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util.internal;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * A dense array of {@code int} values split into fixed-size rotating blocks.
+ * Access by index is performed in constant time; inserting or deleting an element only shifts the
+ * elements of one block and rotates the following blocks (one move per block). The blocks size is
+ * adjusted (in the order of the square root of the number of elements) as the array grows or shrinks.
+ */
+public final class IntFractalImpl implements Cloneable, Serializable {
+
+    private static final long serialVersionUID = 0x700L; // Version.
+    private static final int MIN_BLOCK_SHIFT = 4;
+    private static final int[][] NO_BLOCKS = new int[0][];
+    private int[][] blocks = NO_BLOCKS; // Circular blocks (all full except the last one).
+    private int[] offsets = new int[0]; // Position of the first element of each block.
+    private int shift = MIN_BLOCK_SHIFT; // Blocks capacity is 2^shift.
+    private int mask = (1 << MIN_BLOCK_SHIFT) - 1;
+    private int length;
+
+    /** Returns the number of elements. */
+    public int size() {
+        return length;
+    }
+
+    /** Returns the element at the specified index (no bound check). */
+    public int get(int index) {
+        int b = index >>> shift;
+        return blocks[b][(offsets[b] + index) & mask];
+    }
+
+    /** Sets the element at the specified index (no bound check) and returns the previous element. */
+    public int set(int index, int value) {
+        int b = index >>> shift;
+        int[] block = blocks[b];
+        int pos = (offsets[b] + index) & mask;
+        int previous = block[pos];
+        block[pos] = value;
+        return previous;
+    }
+
+    /** Appends the specified element. */
+    public void add(int value) {
+        if ((length & mask) == 0) ensureBlockFor(length);
+        int b = length >>> shift;
+        blocks[b][(offsets[b] + length) & mask] = value;
+        if (++length > (2 << shift << shift)) reshape(shift + 1);
+    }
+
+    /** Inserts the specified element at the specified index (in range {@code [0..size()]}). */
+    public void insert(int index, int value) {
+        if (index == length) {
+            add(value);
+            return;
+        }
+        ensureBlockFor(length);
+        int b = index >>> shift;
+        int last = length >>> shift;
+        int[] block = blocks[b];
+        int offset = offsets[b];
+        int end = (b == last) ? length & mask : mask; // Local position of the last element shifted.
+        int carry = block[(offset + mask) & mask]; // Meaningful only if the block is full.
+        for (int i = end, stop = index & mask; i > stop; i--)
+            block[(offset + i) & mask] = block[(offset + i - 1) & mask];
+        block[(offset + index) & mask] = value;
+        for (int c = b + 1; c <= last; c++) { // Rotates the following blocks.
+            int first = offsets[c] = (offsets[c] - 1) & mask;
+            int tmp = blocks[c][first]; // Previous last element (unused slot for the last block).
+            blocks[c][first] = carry;
+            carry = tmp;
+        }
+        if (++length > (2 << shift << shift)) reshape(shift + 1);
+    }
+
+    /** Deletes the element at the specified index (no bound check) and returns it. */
+    public int delete(int index) {
+        int b = index >>> shift;
+        int last = (length - 1) >>> shift;
+        int[] block = blocks[b];
+        int offset = offsets[b];
+        int removed = block[(offset + index) & mask];
+        int end = (b == last) ? (length - 1) & mask : mask;
+        for (int i = index & mask; i < end; i++)
+            block[(offset + i) & mask] = block[(offset + i + 1) & mask];
+        for (int c = b + 1; c <= last; c++) { // Moves the first element of the next block to the end of this one.
+            int first = offsets[c];
+            blocks[c - 1][(offsets[c - 1] + mask) & mask] = blocks[c][first];
+            offsets[c] = (first + 1) & mask;
+        }
+        length--;
+        if ((shift > MIN_BLOCK_SHIFT) && (length < (1 << shift << shift) / 8)) {
+            reshape(shift - 1);
+        } else if (((length >>> shift) + 2 < blocks.length) && (blocks[(length >>> shift) + 2] != null)) {
+            blocks[(length >>> shift) + 2] = null; // Keeps one spare block.
+        }
+        return removed;
+    }
+
+    /** Removes all the elements. */
+    public void clear() {
+        blocks = NO_BLOCKS;
+        offsets = new int[0];
+        shift = MIN_BLOCK_SHIFT;
+        mask = (1 << shift) - 1;
+        length = 0;
+    }
+
+    /** Copies the elements in range {@code [from, to[} into the specified array at the specified position. */
+    public void getElements(int from, int to, int[] dest, int destPos) {
+        while (from < to) {
+            int b = from >>> shift;
+            int pos = (offsets[b] + from) & mask;
+            int n = Math.min(Math.min(to - from, (mask + 1) - (from & mask)), (mask + 1) - pos); // Contiguous.
+            System.arraycopy(blocks[b], pos, dest, destPos, n);
+            from += n;
+            destPos += n;
+        }
+    }
+
+    /** Copies the specified array elements to this array at the specified index (overwriting). */
+    public void setElements(int index, int[] src, int srcPos, int count) {
+        for (int to = index + count; index < to;) {
+            int b = index >>> shift;
+            int pos = (offsets[b] + index) & mask;
+            int n = Math.min(Math.min(to - index, (mask + 1) - (index & mask)), (mask + 1) - pos);
+            System.arraycopy(src, srcPos, blocks[b], pos, n);
+            index += n;
+            srcPos += n;
+        }
+    }
+
+    /** Sorts the elements in ascending order. */
+    public void sort() {
+        int[] tmp = new int[length];
+        getElements(0, length, tmp, 0);
+        Arrays.sort(tmp);
+        setElements(0, tmp, 0, length);
+    }
+
+    /** Returns the sum of the elements in range {@code [from, to[}. */
+    public long sum(int from, int to) {
+        long sum = 0;
+        while (from < to) {
+            int b = from >>> shift;
+            int pos = (offsets[b] + from) & mask;
+            int n = Math.min(Math.min(to - from, (mask + 1) - (from & mask)), (mask + 1) - pos);
+            int[] block = blocks[b];
+            for (int i = pos, end = pos + n; i < end; i++)
+                sum += block[i];
+            from += n;
+        }
+        return sum;
+    }
+
+    /** Returns the smallest element in range {@code [from, to[} (non-empty range). */
+    public int min(int from, int to) {
+        int min = get(from);
+        while (from < to) {
+            int b = from >>> shift;
+            int pos = (offsets[b] + from) & mask;
+            int n = Math.min(Math.min(to - from, (mask + 1) - (from & mask)), (mask + 1) - pos);
+            int[] block = blocks[b];
+            for (int i = pos, end = pos + n; i < end; i++)
+                if (block[i] < min) min = block[i];
+            from += n;
+        }
+        return min;
+    }
+
+    /** Returns the largest element in range {@code [from, to[} (non-empty range). */
+    public int max(int from, int to) {
+        int max = get(from);
+        while (from < to) {
+            int b = from >>> shift;
+            int pos = (offsets[b] + from) & mask;
+            int n = Math.min(Math.min(to - from, (mask + 1) - (from & mask)), (mask + 1) - pos);
+            int[] block = blocks[b];
+            for (int i = pos, end = pos + n; i < end; i++)
+                if (block[i] > max) max = block[i];
+            from += n;
+        }
+        return max;
+    }
+
+    @Override
+    public IntFractalImpl clone() {
+        try {
+            IntFractalImpl copy = (IntFractalImpl) super.clone();
+            copy.blocks = blocks.clone();
+            copy.offsets = offsets.clone();
+            for (int i = 0; i < blocks.length; i++)
+                if (blocks[i] != null) copy.blocks[i] = blocks[i].clone();
+            return copy;
+        } catch (CloneNotSupportedException e) {
+            throw new Error(e); // Cannot happen.
+        }
+    }
+
+    /** Ensures that the block holding the specified index is allocated. */
+    private void ensureBlockFor(int index) {
+        int b = index >>> shift;
+        if (b >= blocks.length) {
+            int capacity = Math.max(b + 1, blocks.length * 2);
+            blocks = Arrays.copyOf(blocks, capacity);
+            offsets = Arrays.copyOf(offsets, capacity);
+        }
+        if (blocks[b] == null) {
+            blocks[b] = new int[mask + 1];
+            offsets[b] = 0;
+        }
+    }
+
+    /** Rebuilds the blocks with the specified capacity (power of two). */
+    private void reshape(int newShift) {
+        int[] tmp = new int[length];
+        getElements(0, length, tmp, 0);
+        int n = length;
+        clear();
+        shift = newShift;
+        mask = (1 << newShift) - 1;
+        int count = (n + mask) >>> newShift;
+        blocks = new int[count + 1][];
+        offsets = new int[count + 1];
+        for (int b = 0; b < count; b++)
+            blocks[b] = new int[mask + 1];
+        length = n;
+        setElements(0, tmp, 0, n);
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util.internal;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * A file of fixed-size slots mapped in memory. The file starts with a header holding the file kind (magic number),
+ * the slots size, the byte order and a few user fields; the slots follow contiguously. Opening an existing file
+ * only maps its header (constant time), the slots are mapped by segments (less than 1 GiB) on demand.
+ * Writes go directly to the page cache; {@link #force} flushes them to the storage device.
+ */
+public final class MappedFileImpl implements Closeable {
+
+    /** The header size in bytes (slots start at this position). */
+    public static final int HEADER_SIZE = 64;
+    private static final int FIELDS_POSITION = 16;
+    private static final int FIELDS_COUNT = (HEADER_SIZE - FIELDS_POSITION) / 8;
+    private static final int MAX_SEGMENT_BYTES = 1 << 30;
+    private static final MappedByteBuffer[] NO_SEGMENTS = new MappedByteBuffer[0];
+    private final File file;
+    private final RandomAccessFile raf;
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final int slotSize;
+    private final ByteOrder order;
+    private final long slotsPerSegment;
+    private MappedByteBuffer[] segments = NO_SEGMENTS;
+    private long capacity; // Number of slots mapped.
+
+    /**
+     * Opens (or creates) the specified file.
+     *
+     * @throws IOException if the file exists but has a different kind, slot size or byte order.
+     */
+    public MappedFileImpl(File file, long magic, int slotSize, ByteOrder order) throws IOException {
+        this.file = file;
+        this.slotSize = slotSize;
+        this.order = order;
+        this.slotsPerSegment = Math.max(1, MAX_SEGMENT_BYTES / slotSize);
+        this.raf = new RandomAccessFile(file, "rw");
+        boolean created = raf.length() == 0;
+        if (!created && raf.length() < HEADER_SIZE) {
+            raf.close();
+            throw new IOException("Invalid file (truncated header): " + file);
+        }
+        channel = raf.getChannel();
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        header.order(ByteOrder.BIG_ENDIAN);
+        if (created) {
+            header.putLong(0, magic);
+            header.putInt(8, slotSize);
+            header.putInt(12, (order == ByteOrder.BIG_ENDIAN) ? 1 : 0);
+        } else if ((header.getLong(0) != magic) || (header.getInt(8) != slotSize)
+                || (header.getInt(12) != ((order == ByteOrder.BIG_ENDIAN) ? 1 : 0))) {
+            raf.close();
+            throw new IOException("Incompatible file (different kind, record size or byte order): " + file);
+        }
+    }
+
+    /** Returns the mapped file. */
+    public File file() {
+        return file;
+    }
+
+    /** Returns the slots size in bytes. */
+    public int slotSize() {
+        return slotSize;
+    }
+
+    /** Returns the value of the specified header field (initially {@code 0}). */
+    public long getField(int field) {
+        if (field < 0 || field >= FIELDS_COUNT) throw new IndexOutOfBoundsException();
+        return header.getLong(FIELDS_POSITION + 8 * field);
+    }
+
+    /** Sets the value of the specified header field. */
+    public void setField(int field, long value) {
+        if (field < 0 || field >= FIELDS_COUNT) throw new IndexOutOfBoundsException();
+        header.putLong(FIELDS_POSITION + 8 * field, value);
+    }
+
+    /**
+     * Ensures that the specified number of slots are mapped (the file grows if necessary).
+     *
+     * @throws UncheckedIOException if the file cannot be mapped.
+     */
+    public void ensureCapacity(long slots) {
+        if (slots <= capacity) return;
+        long newCapacity = Math.max(Math.max(slots, 16), Math.min(capacity * 2, capacity + slotsPerSegment));
+        int count = (int) ((newCapacity + slotsPerSegment - 1) / slotsPerSegment);
+        if (count > segments.length) segments = Arrays.copyOf(segments, count);
+        for (int i = 0; i < count; i++) {
+            long first = i * slotsPerSegment;
+            long size = Math.min(slotsPerSegment, newCapacity - first) * slotSize;
+            if ((segments[i] != null) && (segments[i].capacity() == size)) continue;
+            try {
+                segments[i] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + first * slotSize, size);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            segments[i].order(order);
+        }
+        capacity = newCapacity;
+    }
+
+    /** Returns the segment holding the specified slot (must be within the capacity). */
+    public ByteBuffer segment(long slot) {
+        return segments[(int) (slot / slotsPerSegment)];
+    }
+
+    /** Returns the position of the specified slot in its {@link #segment}. */
+    public int position(long slot) {
+        return (int) (slot % slotsPerSegment) * slotSize;
+    }
+
+    /** Copies a slot content to another slot. */
+    public void move(long from, long to) {
+        StructArrayImpl.copy(segment(from), position(from), segment(to), position(to), slotSize);
+    }
+
+    /** Flushes the content of this file (header and mapped slots) to the storage device. */
+    public void force() {
+        for (MappedByteBuffer segment : segments)
+            if (segment != null) segment.force();
+        header.force();
+    }
+
+    /** Forces and closes this file (mapped buffers are released by the garbage collector). */
+    @Override
+    public void close() throws IOException {
+        force();
+        segments = NO_SEGMENTS;
+        capacity = 0;
+        raf.close();
+    }
+
+}
@@ -2,7 +2,7 @@
  * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
  * Copyright (C) 2012 - Javolution (http://javolution.org/)
  * All rights reserved.
- * 
+ *
  * Permission to use, copy, modify, and distribute this software is
  * freely granted, provided that this notice is preserved.
  */
@@ -13,12 +13,23 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
+
+import org.javolution.util.function.Supplier;
 
 /**
- * Simple and efficient read/write lock implementation giving 
- * preferences to writers. Acquiring a write lock then a read lock is 
- * supported. Writers may acquire a read lock after having the write lock
- * but the reverse would result in deadlock.
+ * Read/write lock implementation based on version stamps ({@link StampedLock}) supporting optimistic reads.
+ * Acquiring a write lock then a read lock (or another write lock) is supported. Writers may acquire a read lock
+ * after having the write lock but the reverse would result in deadlock.
+ *
+ * Optimistic reads should only be used for bounded read-only accessors (e.g. {@code size()}, {@code get(int)},
+ * {@code FastSet} lookups); since the state read may be inconsistent, any other operation could loop indefinitely.
+ *
+ * ```java
+ * public int size() {
+ *     return lock.optimisticRead(() -> inner.size()); // Falls back to read lock on concurrent write.
+ * }
+ * ```
  */
 public final class ReadWriteLockImpl implements ReadWriteLock, Serializable {
 
@@ -28,22 +39,16 @@ public final class ReadWriteLockImpl implements ReadWriteLock, Serializable {
 
         @Override
         public void lock() {
-            try {
-                lockInterruptibly();
-            } catch (java.lang.InterruptedException e) {
-            }
+            if (writerThread == Thread.currentThread())
+                return; // Current thread has the writer lock.
+            stampedLock.readLock();
         }
 
         @Override
         public void lockInterruptibly() throws InterruptedException {
-            synchronized (ReadWriteLockImpl.this) {
-                if (writerThread == Thread.currentThread())
-                    return; // Current thread has the writer lock.
-                while ((writerThread != null) || (waitingWriters != 0)) {
-                    ReadWriteLockImpl.this.wait();
-                }
-                givenLocks++;
-            }
+            if (writerThread == Thread.currentThread())
+                return; // Current thread has the writer lock.
+            stampedLock.readLockInterruptibly();
         }
 
         @Override
@@ -53,23 +58,23 @@ public final class ReadWriteLockImpl implements ReadWriteLock, Serializable {
 
         @Override
         public boolean tryLock() {
-            throw new UnsupportedOperationException();
+            if (writerThread == Thread.currentThread())
+                return true; // Current thread has the writer lock.
+            return stampedLock.tryReadLock() != 0;
         }
 
         @Override
         public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
-            throw new UnsupportedOperationException();
+            if (writerThread == Thread.currentThread())
+                return true; // Current thread has the writer lock.
+            return stampedLock.tryReadLock(time, unit) != 0;
         }
 
         @Override
         public void unlock() {
-            synchronized (ReadWriteLockImpl.this) {
-                if (writerThread == Thread.currentThread())
-                    return; // Itself is the writing thread.
-                assert (givenLocks > 0);
-                givenLocks--;
-                ReadWriteLockImpl.this.notifyAll();
-            }
+            if (writerThread == Thread.currentThread())
+                return; // Itself is the writing thread.
+            stampedLock.asReadLock().unlock();
         }
     }
 
@@ -79,22 +84,14 @@ public final class ReadWriteLockImpl implements ReadWriteLock, Serializable {
 
         @Override
         public void lock() {
-            try {
-                lockInterruptibly();
-            } catch (java.lang.InterruptedException e) {
-            }
+            if (reenter()) return;
+            acquired(stampedLock.writeLock());
         }
 
         @Override
         public void lockInterruptibly() throws InterruptedException {
-            synchronized (ReadWriteLockImpl.this) {
-                waitingWriters++;
-                while (givenLocks != 0) {
-                    ReadWriteLockImpl.this.wait();
-                }
-                waitingWriters--;
-                writerThread = Thread.currentThread();
-            }
+            if (reenter()) return;
+            acquired(stampedLock.writeLockInterruptibly());
         }
 
         @Override
@@ -104,29 +101,51 @@ public final class ReadWriteLockImpl implements ReadWriteLock, Serializable {
 
         @Override
         public boolean tryLock() {
-            throw new UnsupportedOperationException();
+            if (reenter()) return true;
+            long stamp = stampedLock.tryWriteLock();
+            if (stamp == 0) return false;
+            acquired(stamp);
+            return true;
         }
 
         @Override
         public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
-            throw new UnsupportedOperationException();
+            if (reenter()) return true;
+            long stamp = stampedLock.tryWriteLock(time, unit);
+            if (stamp == 0) return false;
+            acquired(stamp);
+            return true;
         }
 
         @Override
         public void unlock() {
-            synchronized (ReadWriteLockImpl.this) {
-                writerThread = null;
-                ReadWriteLockImpl.this.notifyAll();
-            }
+            if (writerThread != Thread.currentThread())
+                throw new IllegalMonitorStateException("Write lock not held by current thread");
+            if (--writeHolds != 0) return; // Reentrant.
+            writerThread = null;
+            stampedLock.unlockWrite(writeStamp);
+        }
+
+        private boolean reenter() {
+            if (writerThread != Thread.currentThread()) return false;
+            writeHolds++;
+            return true;
+        }
+
+        private void acquired(long stamp) {
+            writeStamp = stamp;
+            writeHolds = 1;
+            writerThread = Thread.currentThread();
         }
     }
 
     private static final long serialVersionUID = 0x600L; // Version.
     public final ReadLock readLock = new ReadLock();
     public final WriteLock writeLock = new WriteLock();
-    private transient int givenLocks;
-    private transient int waitingWriters;
-    private transient Thread writerThread;
+    private final StampedLock stampedLock = new StampedLock(); // Serialized unlocked.
+    private transient volatile Thread writerThread;
+    private transient long writeStamp; // Only accessed by the writer thread.
+    private transient int writeHolds; // Only accessed by the writer thread.
 
     @Override
     public ReadLock readLock() {
@@ -137,4 +156,48 @@ public final class ReadWriteLockImpl implements ReadWriteLock, Serializable {
     public WriteLock writeLock() {
         return writeLock;
     }
+
+    /**
+     * Returns a stamp that can later be validated, or zero if exclusively locked.
+     *
+     * @return a non-zero stamp if not write-locked; {@code 0} otherwise.
+     */
+    public long tryOptimisticRead() {
+        return stampedLock.tryOptimisticRead();
+    }
+
+    /**
+     * Returns {@code true} if the lock has not been exclusively acquired since issuance of the given stamp.
+     *
+     * @param stamp the stamp returned by {@link #tryOptimisticRead}.
+     * @return {@code true} if the state read since the stamp issuance is consistent; {@code false} otherwise.
+     */
+    public boolean validate(long stamp) {
+        return stampedLock.validate(stamp);
+    }
+
+    /**
+     * Returns the result of the specified reader executed without locking (single attempt) or under the read lock
+     * if a concurrent write has occurred. Any exception or error raised by an inconsistent read is ignored.
+     *
+     * @param reader the constant-time read-only operation.
+     * @return the reader result for a consistent state.
+     */
+    public <R> R optimisticRead(Supplier<? extends R> reader) {
+        long stamp = stampedLock.tryOptimisticRead(); // Mutex-free attempt.
+        if (stamp != 0) {
+            try {
+                R result = reader.get();
+                if (stampedLock.validate(stamp)) return result;
+            } catch (RuntimeException | Error e) {
+                if (stampedLock.validate(stamp)) throw e; // Not caused by a concurrent write.
+            }
+        }
+        readLock.lock();
+        try {
+            return reader.get();
+        } finally {
+            readLock.unlock();
+        }
+    }
 }
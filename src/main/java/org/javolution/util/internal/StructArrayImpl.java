@@ -0,0 +1,264 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util.internal;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * A dense array of fixed-size records stored off-heap in direct byte buffers (pages).
+ * The pages are rotating blocks (see {@link IntFractalImpl}): access by index is performed in constant time;
+ * inserting or deleting a record only shifts the records of one page and moves one record per following page.
+ * The pages capacity (in records) grows with the square root of the number of records up to
+ * {@link #MAX_PAGE_BYTES}.
+ */
+public final class StructArrayImpl implements Cloneable, Serializable {
+
+    private static final long serialVersionUID = 0x700L; // Version.
+    private static final int MIN_PAGE_SHIFT = 4;
+    private static final int MAX_PAGE_BYTES = 1 << 20;
+    private static final ByteBuffer[] NO_PAGES = new ByteBuffer[0];
+    private final int stride; // Record size in bytes.
+    private final boolean bigEndian;
+    private transient ByteBuffer[] pages = NO_PAGES; // Circular pages (all full except the last one).
+    private int[] offsets = new int[0]; // Slot of the first record of each page.
+    private int shift = MIN_PAGE_SHIFT; // Pages capacity is 2^shift records.
+    private int mask = (1 << MIN_PAGE_SHIFT) - 1;
+    private int length;
+
+    /** Creates an array of records of the specified size and byte order. */
+    public StructArrayImpl(int stride, ByteOrder order) {
+        if (stride <= 0) throw new IllegalArgumentException("Invalid record size: " + stride);
+        this.stride = stride;
+        this.bigEndian = (order == ByteOrder.BIG_ENDIAN);
+    }
+
+    /** Returns the number of records. */
+    public int size() {
+        return length;
+    }
+
+    /** Returns the size of the records in bytes. */
+    public int stride() {
+        return stride;
+    }
+
+    /** Returns the byte order of the pages. */
+    public ByteOrder order() {
+        return bigEndian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+    }
+
+    /** Returns the page holding the record at the specified index (no bound check). */
+    public ByteBuffer page(int index) {
+        return pages[index >>> shift];
+    }
+
+    /** Returns the byte position of the record at the specified index in its {@link #page} (no bound check). */
+    public int position(int index) {
+        return ((offsets[index >>> shift] + index) & mask) * stride;
+    }
+
+    /** Appends a zeroed record and returns its index. */
+    public int add() {
+        if ((length & mask) == 0) ensurePageFor(length);
+        int index = length++;
+        fill(pages[index >>> shift], position(index), stride);
+        if ((length > (2 << shift << shift)) && canGrow()) reshape(shift + 1);
+        return index;
+    }
+
+    /** Inserts a zeroed record at the specified index (in range {@code [0..size()]}). */
+    public void insert(int index) {
+        if (index == length) {
+            add();
+            return;
+        }
+        ensurePageFor(length);
+        int b = index >>> shift;
+        int last = length >>> shift;
+        for (int c = last; c > b; c--) { // Rotates the following pages (moves the last record of the previous page).
+            int first = offsets[c] = (offsets[c] - 1) & mask;
+            copy(pages[c - 1], ((offsets[c - 1] + mask) & mask) * stride, pages[c], first * stride, stride);
+        }
+        ByteBuffer page = pages[b];
+        int offset = offsets[b];
+        int end = (b == last) ? length & mask : mask; // Local position of the last record shifted.
+        for (int i = end, stop = index & mask; i > stop; i--)
+            copy(page, ((offset + i - 1) & mask) * stride, page, ((offset + i) & mask) * stride, stride);
+        fill(page, ((offset + index) & mask) * stride, stride);
+        if ((++length > (2 << shift << shift)) && canGrow()) reshape(shift + 1);
+    }
+
+    /** Deletes the record at the specified index (no bound check). */
+    public void delete(int index) {
+        int b = index >>> shift;
+        int last = (length - 1) >>> shift;
+        ByteBuffer page = pages[b];
+        int offset = offsets[b];
+        int end = (b == last) ? (length - 1) & mask : mask;
+        for (int i = index & mask; i < end; i++)
+            copy(page, ((offset + i + 1) & mask) * stride, page, ((offset + i) & mask) * stride, stride);
+        for (int c = b + 1; c <= last; c++) { // Moves the first record of the next page to the end of this one.
+            int first = offsets[c];
+            copy(pages[c], first * stride, pages[c - 1], ((offsets[c - 1] + mask) & mask) * stride, stride);
+            offsets[c] = (first + 1) & mask;
+        }
+        length--;
+        if ((shift > MIN_PAGE_SHIFT) && (length < (1 << shift << shift) / 8)) {
+            reshape(shift - 1);
+        } else if (((length >>> shift) + 2 < pages.length) && (pages[(length >>> shift) + 2] != null)) {
+            pages[(length >>> shift) + 2] = null; // Keeps one spare page.
+        }
+    }
+
+    /** Removes all the records (pages are released). */
+    public void clear() {
+        pages = NO_PAGES;
+        offsets = new int[0];
+        shift = MIN_PAGE_SHIFT;
+        mask = (1 << shift) - 1;
+        length = 0;
+    }
+
+    /** Copies the record at the specified index into the specified buffer at the specified position. */
+    public void read(int index, ByteBuffer dst, int dstPos) {
+        copy(pages[index >>> shift], position(index), dst, dstPos, stride);
+    }
+
+    /** Overwrites the record at the specified index with the bytes of the specified buffer. */
+    public void write(int index, ByteBuffer src, int srcPos) {
+        copy(src, srcPos, pages[index >>> shift], position(index), stride);
+    }
+
+    /** Overwrites the record at the specified index with the record at the specified source index. */
+    public void move(int from, int to) {
+        copy(pages[from >>> shift], position(from), pages[to >>> shift], position(to), stride);
+    }
+
+    /** Returns a new array holding the records of this array in the specified order (permutation of indices). */
+    public StructArrayImpl permute(int[] indices, int count) {
+        StructArrayImpl result = new StructArrayImpl(stride, order());
+        for (int i = 0; i < count; i++) {
+            int j = result.add();
+            copy(pages[indices[i] >>> shift], position(indices[i]), result.page(j), result.position(j), stride);
+        }
+        return result;
+    }
+
+    @Override
+    public StructArrayImpl clone() {
+        try {
+            StructArrayImpl copy = (StructArrayImpl) super.clone();
+            copy.pages = pages.clone();
+            copy.offsets = offsets.clone();
+            for (int i = 0; i < pages.length; i++)
+                if (pages[i] != null) copy.pages[i] = copyOf(pages[i]);
+            return copy;
+        } catch (CloneNotSupportedException e) {
+            throw new Error(e); // Cannot happen.
+        }
+    }
+
+    /** Indicates if the specified records have the same content. */
+    public static boolean equals(ByteBuffer left, int leftPos, ByteBuffer right, int rightPos, int n) {
+        int i = 0;
+        if (left.order() == right.order())
+            for (; i + 8 <= n; i += 8)
+                if (left.getLong(leftPos + i) != right.getLong(rightPos + i)) return false;
+        for (; i < n; i++)
+            if (left.get(leftPos + i) != right.get(rightPos + i)) return false;
+        return true;
+    }
+
+    /** Copies {@code n} bytes between the specified buffers (absolute positions, no allocation). */
+    public static void copy(ByteBuffer src, int srcPos, ByteBuffer dst, int dstPos, int n) {
+        int i = 0;
+        if (src.order() == dst.order())
+            for (; i + 8 <= n; i += 8)
+                dst.putLong(dstPos + i, src.getLong(srcPos + i));
+        for (; i < n; i++)
+            dst.put(dstPos + i, src.get(srcPos + i));
+    }
+
+    private static void fill(ByteBuffer buffer, int pos, int n) {
+        int i = 0;
+        for (; i + 8 <= n; i += 8)
+            buffer.putLong(pos + i, 0L);
+        for (; i < n; i++)
+            buffer.put(pos + i, (byte) 0);
+    }
+
+    private static ByteBuffer copyOf(ByteBuffer page) {
+        ByteBuffer copy = ByteBuffer.allocateDirect(page.capacity()).order(page.order());
+        copy(page, 0, copy, 0, page.capacity());
+        return copy;
+    }
+
+    private boolean canGrow() {
+        return ((long) stride << (shift + 1)) <= MAX_PAGE_BYTES;
+    }
+
+    /** Ensures that the page holding the specified index is allocated. */
+    private void ensurePageFor(int index) {
+        int b = index >>> shift;
+        if (b >= pages.length) {
+            int capacity = Math.max(b + 1, pages.length * 2);
+            pages = Arrays.copyOf(pages, capacity);
+            offsets = Arrays.copyOf(offsets, capacity);
+        }
+        if (pages[b] == null) {
+            pages[b] = ByteBuffer.allocateDirect(stride << shift).order(order());
+            offsets[b] = 0;
+        }
+    }
+
+    /** Rebuilds the pages with the specified capacity (power of two). */
+    private void reshape(int newShift) {
+        StructArrayImpl tmp = new StructArrayImpl(stride, order());
+        tmp.shift = newShift;
+        tmp.mask = (1 << newShift) - 1;
+        for (int i = 0; i < length; i++) {
+            tmp.ensurePageFor(i);
+            int j = tmp.length++;
+            copy(pages[i >>> shift], position(i), tmp.pages[j >>> newShift], tmp.position(j), stride);
+        }
+        pages = tmp.pages;
+        offsets = tmp.offsets;
+        shift = newShift;
+        mask = tmp.mask;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        byte[] bytes = new byte[stride];
+        ByteBuffer record = ByteBuffer.wrap(bytes).order(order());
+        for (int i = 0; i < length; i++) {
+            read(i, record, 0);
+            out.write(bytes);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int n = length;
+        clear();
+        byte[] bytes = new byte[stride];
+        ByteBuffer record = ByteBuffer.wrap(bytes).order(order());
+        for (int i = 0; i < n; i++) {
+            in.readFully(bytes);
+            write(add(), record, 0);
+        }
+    }
+
+}
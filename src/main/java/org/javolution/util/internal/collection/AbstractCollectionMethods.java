@@ -13,10 +13,12 @@ import java.util.Collection;
 
 import org.javolution.util.AbstractCollection;
 import org.javolution.util.FastIterator;
+import org.javolution.util.function.Accumulator;
 import org.javolution.util.function.BinaryOperator;
 import org.javolution.util.function.Consumer;
 import org.javolution.util.function.Equality;
 import org.javolution.util.function.Predicate;
+import org.javolution.util.function.Supplier;
 
 /** 
  * Holds all AbstractCollection methods which need to be overridden by Atomic / Shared views.
@@ -28,6 +30,8 @@ public interface AbstractCollectionMethods<E> extends Collection<E>, Serializabl
     
     E reduce(BinaryOperator<E> operator);
 
+    <A extends Accumulator<? super E, A>> A accumulate(Supplier<A> supplier);
+
     boolean removeIf(Predicate<? super E> filter);
 
     E findAny();
@@ -12,10 +12,12 @@ import java.util.Collection;
 
 import org.javolution.util.AbstractCollection;
 import org.javolution.util.FastIterator;
+import org.javolution.util.function.Accumulator;
 import org.javolution.util.function.BinaryOperator;
 import org.javolution.util.function.Consumer;
 import org.javolution.util.function.Equality;
 import org.javolution.util.function.Predicate;
+import org.javolution.util.function.Supplier;
 
 /**
  * An atomic view over a collection (copy-on-write).
@@ -132,6 +134,11 @@ public final class AtomicCollectionImpl<E> // implements AbstractCollectionMetho
         return innerConst.reduce(operator);
     }
 
+    @Override
+    public <A extends Accumulator<? super E, A>> A accumulate(Supplier<A> supplier) {
+        return innerConst.accumulate(supplier);
+    }
+
     @Override
     public synchronized boolean remove(Object searched) {
         boolean changed = inner.remove(searched);
@@ -0,0 +1,82 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util.internal.collection;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import org.javolution.util.AbstractCollection;
+import org.javolution.util.FastIterator;
+import org.javolution.util.function.Predicate;
+
+/**
+ * A spliterator over any collection, splitting along {@link AbstractCollection#trySplit(int) trySplit(2)}.
+ * The size of the collection is only estimated (halved at each split) and the sub-views are not prefixes
+ * of the collection (the spliterator is not ordered).
+ */
+public final class CollectionSpliteratorImpl<E> implements Spliterator<E> {
+
+    private AbstractCollection<E> collection;
+    private final int characteristics;
+    private long estimate; // Negative until first needed.
+    private FastIterator<E> itr; // Null until traversal started (no split afterward).
+
+    public CollectionSpliteratorImpl(AbstractCollection<E> collection, int characteristics) {
+        this(collection, characteristics, -1);
+    }
+
+    private CollectionSpliteratorImpl(AbstractCollection<E> collection, int characteristics, long estimate) {
+        this.collection = collection;
+        this.characteristics = characteristics;
+        this.estimate = estimate;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super E> action) {
+        if (itr == null) itr = collection.iterator();
+        if (!itr.hasNext()) return false;
+        action.accept(itr.next());
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(final Consumer<? super E> action) {
+        if (itr == null) itr = collection.iterator();
+        itr.hasNext(new Predicate<E>() { // Closure-based iteration.
+            @Override
+            public boolean test(E param) {
+                action.accept(param);
+                return false;
+            }
+        });
+    }
+
+    @Override
+    public Spliterator<E> trySplit() {
+        if ((itr != null) || (estimateSize() <= 1)) return null;
+        AbstractCollection<E>[] split = collection.trySplit(2);
+        if (split.length != 2) return null;
+        long half = estimate >>> 1;
+        collection = split[1];
+        estimate -= half;
+        return new CollectionSpliteratorImpl<E>(split[0], characteristics, half);
+    }
+
+    @Override
+    public long estimateSize() {
+        if (estimate < 0) estimate = collection.size();
+        return estimate;
+    }
+
+    @Override
+    public int characteristics() {
+        return characteristics;
+    }
+
+}
@@ -11,6 +11,7 @@ package org.javolution.util.internal.collection;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
+import org.javolution.lang.MathLib;
 import org.javolution.util.AbstractCollection;
 import org.javolution.util.FastIterator;
 import org.javolution.util.FastSet;
@@ -91,10 +92,28 @@ public final class DistinctCollectionImpl<E> extends AbstractCollection<E> {
         return count;
     }
 
-    @SuppressWarnings("unchecked")
+    /** 
+     * Splits into distinct views over partitions of the inner collection based on the elements index 
+     * (equal elements always belong to the same partition), the inner collection is partitioned in a single pass.
+     * Distinct views cannot be split if the equality is not an {@link Order}. 
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
     @Override
     public AbstractCollection<E>[] trySplit(int n) {
-        return new AbstractCollection[] { this }; // Does not split.
+        Equality<? super E> equality = inner.equality();
+        if ((n <= 1) || !(equality instanceof Order)) return new AbstractCollection[] { this }; // Does not split.
+        Order<? super E> order = (Order<? super E>) equality;
+        FastTable<E>[] partitions = new FastTable[n];
+        for (int i = 0; i < n; i++)
+            partitions[i] = new FastTable<E>();
+        for (E element : inner) {
+            long index = order.indexOf(element);
+            partitions[(MathLib.hash((int) index ^ (int) (index >>> 32)) & Integer.MAX_VALUE) % n].addLast(element);
+        }
+        AbstractCollection<E>[] split = new AbstractCollection[n];
+        for (int i = 0; i < n; i++)
+            split[i] = new DistinctCollectionImpl<E>(partitions[i].equality(equality)).unmodifiable();
+        return split;
     }
 
     /** Iterator not returning twice the same element. */
@@ -0,0 +1,93 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util.internal.collection;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import org.javolution.annotations.Nullable;
+import org.javolution.util.function.Function;
+
+/**
+ * A spliterator mapping the elements of a source spliterator (e.g. map keys or values from the map entries).
+ * The source splits and sizes are kept, the characteristics are those of the source restricted by a mask.
+ */
+public final class MappedSpliteratorImpl<S, E> implements Spliterator<E> {
+
+    private final Spliterator<S> source;
+    private final Function<? super S, ? extends E> function;
+    private final int mask;
+    private final @Nullable Comparator<? super E> comparator;
+
+    /**
+     * Creates a mapped spliterator.
+     *
+     * @param source the source spliterator.
+     * @param function the function applied to the source elements.
+     * @param mask the source characteristics kept.
+     * @param comparator the comparator of the mapped elements if {@link #SORTED} is kept ({@code null} for
+     *        natural order).
+     */
+    public MappedSpliteratorImpl(Spliterator<S> source, Function<? super S, ? extends E> function, int mask,
+            @Nullable Comparator<? super E> comparator) {
+        this.source = source;
+        this.function = function;
+        this.mask = mask;
+        this.comparator = comparator;
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super E> action) {
+        return source.tryAdvance(new Consumer<S>() {
+            @Override
+            public void accept(S param) {
+                action.accept(function.apply(param));
+            }
+        });
+    }
+
+    @Override
+    public void forEachRemaining(final Consumer<? super E> action) {
+        source.forEachRemaining(new Consumer<S>() {
+            @Override
+            public void accept(S param) {
+                action.accept(function.apply(param));
+            }
+        });
+    }
+
+    @Override
+    public Spliterator<E> trySplit() {
+        Spliterator<S> prefix = source.trySplit();
+        return (prefix != null) ? new MappedSpliteratorImpl<S, E>(prefix, function, mask, comparator) : null;
+    }
+
+    @Override
+    public long estimateSize() {
+        return source.estimateSize();
+    }
+
+    @Override
+    public long getExactSizeIfKnown() {
+        return source.getExactSizeIfKnown();
+    }
+
+    @Override
+    public int characteristics() {
+        return source.characteristics() & mask;
+    }
+
+    @Override
+    public Comparator<? super E> getComparator() {
+        if (!hasCharacteristics(SORTED)) throw new IllegalStateException();
+        return comparator;
+    }
+
+}
@@ -8,7 +8,7 @@
  */
 package org.javolution.util.internal.collection;
 
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.javolution.annotations.Parallel;
 import org.javolution.context.ConcurrentContext;
@@ -16,11 +16,13 @@ import org.javolution.util.AbstractCollection;
 import org.javolution.util.FastIterator;
 import org.javolution.util.FastSet;
 import org.javolution.util.FastTable;
+import org.javolution.util.function.Accumulator;
 import org.javolution.util.function.BinaryOperator;
 import org.javolution.util.function.Consumer;
 import org.javolution.util.function.Equality;
 import org.javolution.util.function.Order;
 import org.javolution.util.function.Predicate;
+import org.javolution.util.function.Supplier;
 
 /**
  * A view to support parallel processing (methods annotated {@link Parallel}).
@@ -35,6 +37,27 @@ public final class ParallelCollectionImpl<E> extends AbstractCollection<E> {
         this.inner = inner;
     }
 
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    @Override
+    @Parallel
+    public <A extends Accumulator<? super E, A>> A accumulate(Supplier<A> supplier) {
+        AccumulateRunnable<E, A>[] results;
+        ConcurrentContext ctx = ConcurrentContext.enter();
+        try {
+            AbstractCollection<E>[] subViews = inner.trySplit(ctx.getConcurrency() + 1);
+            results = new AccumulateRunnable[subViews.length];
+            for (int i = 1; i < subViews.length; i++)
+                ctx.execute(results[i] = new AccumulateRunnable<E, A>(subViews[i], supplier));
+            (results[0] = new AccumulateRunnable<E, A>(subViews[0], supplier)).run(); // Current thread too!
+        } finally {
+            ctx.exit(); // Waits for concurrent completion.
+        }
+        A accumulator = results[0].accumulator;
+        for (int i = 1; i < results.length; i++)
+            accumulator.combine(results[i].accumulator);
+        return accumulator;
+    }
+
     @Override
     public boolean add(E element) {
         return inner.add(element);
@@ -45,13 +68,14 @@ public final class ParallelCollectionImpl<E> extends AbstractCollection<E> {
     @Parallel
     public boolean anyMatch(Predicate<? super E> predicate) {
         AnyMatchRunnable<E>[] results;
+        AtomicBoolean matchFound = new AtomicBoolean(); // Early exit of all sub-views iterations.
         ConcurrentContext ctx = ConcurrentContext.enter();
         try {
             AbstractCollection<E>[] subViews = inner.trySplit(ctx.getConcurrency() + 1);
             results = new AnyMatchRunnable[subViews.length];
             for (int i = 1; i < subViews.length; i++)
-                ctx.execute(results[i] = new AnyMatchRunnable<E>(subViews[i], predicate));
-            (results[0] = new AnyMatchRunnable<E>(subViews[0], predicate)).run(); // Current thread needs to work too!
+                ctx.execute(results[i] = new AnyMatchRunnable<E>(subViews[i], predicate, matchFound));
+            (results[0] = new AnyMatchRunnable<E>(subViews[0], predicate, matchFound)).run(); // Current thread too!
         } finally {
             ctx.exit(); // Waits for concurrent completion.
         }
@@ -176,9 +200,12 @@ public final class ParallelCollectionImpl<E> extends AbstractCollection<E> {
         } finally {
             ctx.exit(); // Waits for concurrent completion.
         }
-        E accumulator = results[0].accumulator;
-        for (int i = 1; i < results.length;)
-            accumulator = operator.apply(accumulator, results[i].accumulator);
+        E accumulator = null;
+        for (int i = 0; i < results.length; i++) { // Empty sub-views have no accumulator.
+            E result = results[i].accumulator;
+            if (result == null) continue;
+            accumulator = (accumulator != null) ? operator.apply(accumulator, result) : result;
+        }
         return accumulator;
     }
 
@@ -217,14 +244,7 @@ public final class ParallelCollectionImpl<E> extends AbstractCollection<E> {
     @Parallel
     @Override
     public int size() {
-        final AtomicInteger count = new AtomicInteger(0);
-        forEach(new Consumer<E>() {
-            @Override
-            public void accept(E param) {
-                count.incrementAndGet();
-            }
-        });
-        return count.get();
+        return (int) count(Predicate.TRUE); // Counts per sub-view (no shared counter).
     }
 
     @Override
@@ -232,19 +252,47 @@ public final class ParallelCollectionImpl<E> extends AbstractCollection<E> {
         return inner.trySplit(n);
     }
 
-    private static final class AnyMatchRunnable<E> implements Runnable {
+    private static final class AccumulateRunnable<E, A extends Accumulator<? super E, A>> implements Runnable {
+        private final AbstractCollection<E> subView;
+        private final Supplier<A> supplier;
+        private A accumulator;
+
+        private AccumulateRunnable(AbstractCollection<E> subView, Supplier<A> supplier) {
+            this.subView = subView;
+            this.supplier = supplier;
+        }
+
+        @Override
+        public void run() {
+            accumulator = subView.accumulate(supplier);
+        }
+    }
+
+    private static final class AnyMatchRunnable<E> implements Runnable, Predicate<E> {
         private final AbstractCollection<E> subView;
         private final Predicate<? super E> predicate;
+        private final AtomicBoolean anyMatchFound;
         private boolean matchFound;
 
-        private AnyMatchRunnable(AbstractCollection<E> subView, Predicate<? super E> predicate) {
+        private AnyMatchRunnable(AbstractCollection<E> subView, Predicate<? super E> predicate, 
+                AtomicBoolean anyMatchFound) {
             this.subView = subView;
             this.predicate = predicate;
+            this.anyMatchFound = anyMatchFound;
         }
 
         @Override
         public void run() {
-            matchFound = subView.anyMatch(predicate);
+            if (anyMatchFound.get()) return; // Another sub-view has a match.
+            matchFound = subView.anyMatch(this);
+        }
+
+        @Override
+        public boolean test(E param) {
+            if (anyMatchFound.get()) return true; // Stops iterating (the result is already known).
+            if (!predicate.test(param)) return false;
+            anyMatchFound.set(true);
+            return true;
         }
     }
 
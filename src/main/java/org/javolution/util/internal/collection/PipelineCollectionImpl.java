@@ -0,0 +1,324 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util.internal.collection;
+
+import java.io.Serializable;
+import java.util.NoSuchElementException;
+
+import org.javolution.util.AbstractCollection;
+import org.javolution.util.FastIterator;
+import org.javolution.util.FastTable;
+import org.javolution.util.function.Accumulator;
+import org.javolution.util.function.BinaryOperator;
+import org.javolution.util.function.Consumer;
+import org.javolution.util.function.Equality;
+import org.javolution.util.function.Function;
+import org.javolution.util.function.Order;
+import org.javolution.util.function.Predicate;
+import org.javolution.util.function.Supplier;
+
+/**
+ * A filtered and/or mapped view over a collection. Chained {@link #filter filter} and {@link #map map} operations
+ * append stages to the pipeline (instead of wrapping views), all the stages are applied within a single closure
+ * over the source elements and the pipeline is split along its source (one pass per split).
+ */
+public final class PipelineCollectionImpl<S, E> extends AbstractCollection<E> {
+
+    private static final long serialVersionUID = 0x700L; // Version.
+    private static final Object SKIP = new Object(); // Element filtered out.
+    private final AbstractCollection<S> source;
+    private final Stage[] stages;
+    private final boolean filtered; // At least one filter stage.
+    private final boolean mapped; // At least one map stage.
+
+    /** Creates a pipeline filtering the elements of the specified collection. */
+    public PipelineCollectionImpl(AbstractCollection<S> source, Predicate<? super S> filter) {
+        this(source, new Stage[] { new Stage(filter, null) });
+    }
+
+    /** Creates a pipeline mapping the elements of the specified collection. */
+    public PipelineCollectionImpl(AbstractCollection<S> source, Function<? super S, ? extends E> function) {
+        this(source, new Stage[] { new Stage(null, function) });
+    }
+
+    private PipelineCollectionImpl(AbstractCollection<S> source, Stage[] stages) {
+        this.source = source;
+        this.stages = stages;
+        boolean filtered = false, mapped = false;
+        for (Stage stage : stages) {
+            filtered |= stage.filter != null;
+            mapped |= stage.function != null;
+        }
+        this.filtered = filtered;
+        this.mapped = mapped;
+    }
+
+    @Override
+    public PipelineCollectionImpl<S, E> filter(Predicate<? super E> filter) {
+        return new PipelineCollectionImpl<S, E>(source, append(new Stage(filter, null)));
+    }
+
+    @Override
+    public <R> PipelineCollectionImpl<S, R> map(Function<? super E, ? extends R> function) {
+        return new PipelineCollectionImpl<S, R>(source, append(new Stage(null, function)));
+    }
+
+    @Override
+    public <A extends Accumulator<? super E, A>> A accumulate(Supplier<A> supplier) {
+        final A accumulator = supplier.get();
+        source.iterator().hasNext(new Predicate<S>() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public boolean test(S param) {
+                Object element = apply(param);
+                if (element != SKIP) accumulator.accept((E) element);
+                return false;
+            }
+        });
+        return accumulator;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public boolean add(E element) {
+        if (mapped) throw new UnsupportedOperationException("New elements cannot be added to mapped views");
+        return (apply(element) != SKIP) && source.add((S) element);
+    }
+
+    @Override
+    public boolean anyMatch(final Predicate<? super E> predicate) {
+        return source.iterator().hasNext(new Predicate<S>() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public boolean test(S param) {
+                Object element = apply(param);
+                return (element != SKIP) && predicate.test((E) element);
+            }
+        });
+    }
+
+    @Override
+    public void clear() {
+        if (filtered) removeIf(Predicate.TRUE);
+        else source.clear();
+    }
+
+    @Override
+    public PipelineCollectionImpl<S, E> clone() {
+        return new PipelineCollectionImpl<S, E>(source.clone(), stages);
+    }
+
+    @Override
+    public AbstractCollection<E> collect() {
+        final FastTable<E> collection = new FastTable<E>();
+        forEach(new Consumer<E>() {
+            @Override
+            public void accept(E param) {
+                collection.add(param);
+            }
+        });
+        return collection;
+    }
+
+    /** Returns the source equality or the standard order if mapped (hash partitioning of distinct views). */
+    @SuppressWarnings("unchecked")
+    @Override
+    public Equality<? super E> equality() {
+        return mapped ? Order.standard() : (Equality<? super E>) source.equality();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public E findAny() {
+        final Object[] found = new Object[1];
+        source.iterator().hasNext(new Predicate<S>() {
+            @Override
+            public boolean test(S param) {
+                Object element = apply(param);
+                if (element == SKIP) return false;
+                found[0] = element;
+                return true;
+            }
+        });
+        return (E) found[0];
+    }
+
+    @Override
+    public void forEach(final Consumer<? super E> consumer) {
+        source.iterator().hasNext(new Predicate<S>() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public boolean test(S param) {
+                Object element = apply(param);
+                if (element != SKIP) consumer.accept((E) element);
+                return false;
+            }
+        });
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return filtered ? !anyMatch(Predicate.TRUE) : source.isEmpty();
+    }
+
+    @Override
+    public FastIterator<E> iterator() {
+        return new IteratorImpl(source.iterator());
+    }
+
+    @Override
+    public FastIterator<E> descendingIterator() {
+        return new IteratorImpl(source.descendingIterator());
+    }
+
+    @Override
+    public E reduce(final BinaryOperator<E> operator) {
+        final Reduction reduction = new Reduction(operator);
+        source.iterator().hasNext(reduction);
+        return reduction.accumulator;
+    }
+
+    @Override
+    public boolean removeIf(final Predicate<? super E> toRemove) {
+        return source.removeIf(new Predicate<S>() {
+            @SuppressWarnings("unchecked")
+            @Override
+            public boolean test(S param) {
+                Object element = apply(param);
+                return (element != SKIP) && toRemove.test((E) element);
+            }
+        });
+    }
+
+    @Override
+    public int size() {
+        if (!filtered) return source.size();
+        final int[] count = new int[1];
+        source.iterator().hasNext(new Predicate<S>() {
+            @Override
+            public boolean test(S param) {
+                if (apply(param) != SKIP) count[0]++;
+                return false;
+            }
+        });
+        return count[0];
+    }
+
+    @Override
+    public AbstractCollection<E>[] trySplit(int n) {
+        AbstractCollection<S>[] sourceSplit = source.trySplit(n);
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        AbstractCollection<E>[] split = new AbstractCollection[sourceSplit.length];
+        for (int i = 0; i < split.length; i++)
+            split[i] = new PipelineCollectionImpl<S, E>(sourceSplit[i], stages);
+        return split;
+    }
+
+    /** Applies all the stages to the specified source element, returns {@link #SKIP} if filtered out. */
+    private Object apply(Object element) {
+        for (Stage stage : stages) {
+            if (stage.function != null) element = stage.function.apply(element);
+            else if (!stage.filter.test(element)) return SKIP;
+        }
+        return element;
+    }
+
+    private Stage[] append(Stage stage) {
+        Stage[] tmp = new Stage[stages.length + 1];
+        System.arraycopy(stages, 0, tmp, 0, stages.length);
+        tmp[stages.length] = stage;
+        return tmp;
+    }
+
+    /** A filter or a map stage. */
+    private static final class Stage implements Serializable {
+        private static final long serialVersionUID = 0x700L; // Version.
+        private final Predicate<Object> filter;
+        private final Function<Object, Object> function;
+
+        @SuppressWarnings("unchecked")
+        private Stage(Predicate<?> filter, Function<?, ?> function) {
+            this.filter = (Predicate<Object>) filter;
+            this.function = (Function<Object, Object>) function;
+        }
+    }
+
+    /** Reduction of the elements out of the pipeline. */
+    private final class Reduction implements Predicate<S> {
+        private final BinaryOperator<E> operator;
+        private E accumulator;
+
+        private Reduction(BinaryOperator<E> operator) {
+            this.operator = operator;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public boolean test(S param) {
+            Object element = apply(param);
+            if (element == SKIP) return false;
+            accumulator = (accumulator != null) ? operator.apply(accumulator, (E) element) : (E) element;
+            return false;
+        }
+    }
+
+    /** Iterator over the pipeline elements (the source iterator is positioned on the source of the next element). */
+    private final class IteratorImpl implements FastIterator<E>, Predicate<S> {
+        private final FastIterator<S> sourceItr;
+        private Predicate<? super E> matching;
+        private E next;
+        private boolean hasNext;
+
+        private IteratorImpl(FastIterator<S> sourceItr) {
+            this.sourceItr = sourceItr;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return hasNext || hasNext(Predicate.TRUE);
+        }
+
+        @Override
+        public boolean hasNext(Predicate<? super E> matching) {
+            if (hasNext) {
+                if (matching.test(next)) return true;
+                hasNext = false;
+                sourceItr.next(); // Skips current.
+            }
+            this.matching = matching;
+            return sourceItr.hasNext(this);
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            hasNext = false;
+            sourceItr.next();
+            E element = next;
+            next = null;
+            return element;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public boolean test(S param) { // Called by the source iterator.
+            Object element = apply(param);
+            if ((element == SKIP) || !matching.test((E) element)) return false;
+            next = (E) element;
+            hasNext = true;
+            return true;
+        }
+    }
+
+}
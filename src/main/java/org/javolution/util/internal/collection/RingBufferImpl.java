@@ -0,0 +1,215 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util.internal.collection;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.javolution.annotations.Nullable;
+import org.javolution.util.FastTable;
+
+/**
+ * A bounded lock-free ring buffer (Vyukov's algorithm). Each slot holds a sequence number indicating whether
+ * the slot is free for the producer at position {@code p} ({@code sequence == p}) or holds the element for the
+ * consumer at position {@code p} ({@code sequence == p + 1}). Positions are claimed by compare-and-set only
+ * if there are multiple producers (resp. consumers); a single producer (resp. consumer) publishes its position
+ * once per batch.
+ *
+ * The head and tail positions are held in the same array, one cache line apart (no false sharing).
+ */
+public final class RingBufferImpl<E> implements Serializable {
+
+    private static final long serialVersionUID = 0x700L; // Version.
+    private static final int PADDING = 16; // 128 bytes (more than a cache line).
+    private static final int TAIL = PADDING; // Next position to be produced.
+    private static final int HEAD = 2 * PADDING; // Next position to be consumed.
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLongArray positions = new AtomicLongArray(3 * PADDING);
+    private final int mask;
+    private final boolean multiProducer;
+    private final boolean multiConsumer;
+    private final boolean volatilePublish; // Full fence on publication (signaling of blocked threads).
+
+    /**
+     * Creates a ring buffer.
+     *
+     * @param capacity the capacity (power of two, at least 2).
+     * @param multiProducer indicates if elements may be offered concurrently.
+     * @param multiConsumer indicates if elements may be polled concurrently.
+     * @param volatilePublish indicates if slots are published using volatile writes (instead of ordered writes).
+     */
+    public RingBufferImpl(int capacity, boolean multiProducer, boolean multiConsumer, boolean volatilePublish) {
+        this.elements = new AtomicReferenceArray<E>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++)
+            sequences.set(i, i);
+        this.mask = capacity - 1;
+        this.multiProducer = multiProducer;
+        this.multiConsumer = multiConsumer;
+        this.volatilePublish = volatilePublish;
+    }
+
+    /** Adds the specified element if there is space available, returns {@code false} otherwise. */
+    public boolean offer(E element) {
+        long position;
+        if (multiProducer) {
+            while (true) {
+                position = positions.get(TAIL);
+                long available = sequences.get((int) position & mask) - position;
+                if (available < 0) return false; // Full.
+                if ((available == 0) && positions.compareAndSet(TAIL, position, position + 1)) break;
+            }
+        } else {
+            position = positions.get(TAIL);
+            if (sequences.get((int) position & mask) != position) return false; // Full.
+            positions.lazySet(TAIL, position + 1);
+        }
+        publish(position, element);
+        return true;
+    }
+
+    /**
+     * Adds the elements of the specified collection as long as there is space available.
+     *
+     * @return the number of elements added (the first ones of the collection).
+     */
+    public int offerAll(Collection<? extends E> collection) {
+        Iterator<? extends E> itr = collection.iterator();
+        if (multiProducer) {
+            int count = 0;
+            while (itr.hasNext() && offer(itr.next()))
+                count++;
+            return count;
+        }
+        long position = positions.get(TAIL);
+        int count = 0;
+        try { // Tail published once.
+            for (; itr.hasNext(); count++) {
+                if (sequences.get((int) (position + count) & mask) != position + count) break; // Full.
+                publish(position + count, itr.next());
+            }
+        } finally {
+            positions.lazySet(TAIL, position + count);
+        }
+        return count;
+    }
+
+    /** Removes and returns the head element or {@code null} if none. */
+    public @Nullable E poll() {
+        long position;
+        if (multiConsumer) {
+            while (true) {
+                position = positions.get(HEAD);
+                long available = sequences.get((int) position & mask) - (position + 1);
+                if (available < 0) return null; // Empty.
+                if ((available == 0) && positions.compareAndSet(HEAD, position, position + 1)) break;
+            }
+        } else {
+            position = positions.get(HEAD);
+            if (sequences.get((int) position & mask) != position + 1) return null; // Empty.
+            positions.lazySet(HEAD, position + 1);
+        }
+        return release(position);
+    }
+
+    /**
+     * Removes at most the specified number of elements and adds them to the specified collection.
+     *
+     * @return the number of elements transferred.
+     */
+    public int drainTo(Collection<? super E> collection, int maxElements) {
+        if (multiConsumer) {
+            int count = 0;
+            for (E element; (count < maxElements) && ((element = poll()) != null); count++)
+                collection.add(element);
+            return count;
+        }
+        long position = positions.get(HEAD);
+        int count = 0;
+        try { // Head published once.
+            while (count < maxElements) {
+                if (sequences.get((int) (position + count) & mask) != position + count + 1) break; // Empty.
+                E element = release(position + count++);
+                collection.add(element);
+            }
+        } finally {
+            positions.lazySet(HEAD, position + count);
+        }
+        return count;
+    }
+
+    /** Returns the head element without removing it or {@code null} if none. */
+    public @Nullable E peek() {
+        while (true) {
+            long position = positions.get(HEAD);
+            int i = (int) position & mask;
+            if (sequences.get(i) != position + 1) return null;
+            E element = elements.get(i);
+            if (positions.get(HEAD) == position) return element; // Not consumed in between.
+        }
+    }
+
+    /** Indicates if the head slot holds an element (the next poll is likely to succeed). */
+    public boolean canPoll() {
+        long position = positions.get(HEAD);
+        return sequences.get((int) position & mask) == position + 1;
+    }
+
+    /** Indicates if the tail slot is free (the next offer is likely to succeed). */
+    public boolean canOffer() {
+        long position = positions.get(TAIL);
+        return sequences.get((int) position & mask) == position;
+    }
+
+    /** Returns the number of elements (approximation if concurrently modified). */
+    public int size() {
+        long head = positions.get(HEAD);
+        long size = positions.get(TAIL) - head;
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /** Returns a copy of the elements from head to tail (weakly consistent). */
+    public FastTable<E> snapshot() {
+        FastTable<E> snapshot = new FastTable<E>();
+        long tail = positions.get(TAIL);
+        for (long position = positions.get(HEAD); position < tail; position++) {
+            int i = (int) position & mask;
+            E element = elements.get(i);
+            if ((element != null) && (sequences.get(i) == position + 1)) snapshot.addLast(element);
+        }
+        return snapshot;
+    }
+
+    /** Writes the element of the claimed position then publishes the slot to the consumers. */
+    private void publish(long position, E element) {
+        int i = (int) position & mask;
+        elements.lazySet(i, element);
+        if (volatilePublish) sequences.set(i, position + 1);
+        else sequences.lazySet(i, position + 1);
+    }
+
+    /** Reads the element of the claimed position then releases the slot to the producers. */
+    private E release(long position) {
+        int i = (int) position & mask;
+        E element = elements.get(i);
+        elements.lazySet(i, null);
+        if (volatilePublish) sequences.set(i, position + mask + 1);
+        else sequences.lazySet(i, position + mask + 1);
+        return element;
+    }
+
+}
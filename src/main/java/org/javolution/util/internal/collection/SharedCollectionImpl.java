@@ -12,10 +12,12 @@ import java.util.Collection;
 
 import org.javolution.util.AbstractCollection;
 import org.javolution.util.FastIterator;
+import org.javolution.util.function.Accumulator;
 import org.javolution.util.function.BinaryOperator;
 import org.javolution.util.function.Consumer;
 import org.javolution.util.function.Equality;
 import org.javolution.util.function.Predicate;
+import org.javolution.util.function.Supplier;
 import org.javolution.util.internal.ReadWriteLockImpl;
 
 /**
@@ -185,29 +187,34 @@ public final class SharedCollectionImpl<E> // implements AbstractCollectionMetho
 
     @Override
     public boolean isEmpty() {
+        return lock.optimisticRead(() -> inner.isEmpty());
+    }
+
+    @Override
+    public FastIterator<E> iterator() {
         lock.readLock.lock();
         try {
-            return inner.isEmpty();
+            return inner.clone().iterator();
         } finally {
             lock.readLock.unlock();
         }
     }
 
     @Override
-    public FastIterator<E> iterator() {
+    public E reduce(BinaryOperator<E> operator) {
         lock.readLock.lock();
         try {
-            return inner.clone().iterator();
+            return inner.reduce(operator);
         } finally {
             lock.readLock.unlock();
         }
     }
 
     @Override
-    public E reduce(BinaryOperator<E> operator) {
+    public <A extends Accumulator<? super E, A>> A accumulate(Supplier<A> supplier) {
         lock.readLock.lock();
         try {
-            return inner.reduce(operator);
+            return inner.accumulate(supplier);
         } finally {
             lock.readLock.unlock();
         }
@@ -255,12 +262,7 @@ public final class SharedCollectionImpl<E> // implements AbstractCollectionMetho
 
     @Override
     public int size() {
-        lock.readLock.lock();
-        try {
-            return inner.size();
-        } finally {
-            lock.readLock.unlock();
-        }
+        return lock.optimisticRead(() -> inner.size());
     }
 
     @Override
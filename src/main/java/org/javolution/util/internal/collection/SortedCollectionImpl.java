@@ -81,9 +81,14 @@ public final class SortedCollectionImpl<E> extends AbstractCollection<E> {
         return inner.size();
     }
 
+    /** Splits the sorted elements into consecutive ranges (sorting performed concurrently). */
     @Override
     public AbstractCollection<E>[] trySplit(int n) {
-        return inner.trySplit(n);
+        FastTable<E> sorted = new FastTable<E>();
+        sorted.addAll(inner);
+        if (n > 1) sorted.parallel().sort(cmp);
+        else sorted.sort(cmp);
+        return sorted.trySplit(n);
     }
 
 }
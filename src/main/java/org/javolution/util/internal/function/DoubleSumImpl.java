@@ -0,0 +1,55 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util.internal.function;
+
+import java.util.function.ToDoubleFunction;
+
+import org.javolution.util.function.Accumulator;
+
+/**
+ * An accumulator of the sum of double values (Kahan compensated summation).
+ */
+public final class DoubleSumImpl<E> implements Accumulator<E, DoubleSumImpl<E>> {
+
+    private final ToDoubleFunction<? super E> function;
+    private double sum;
+    private double compensation; // Low order bits lost.
+    private double simpleSum; // Returned if the compensated sum is NaN (infinite values).
+
+    public DoubleSumImpl(ToDoubleFunction<? super E> function) {
+        this.function = function;
+    }
+
+    @Override
+    public void accept(E param) {
+        double value = function.applyAsDouble(param);
+        simpleSum += value;
+        add(value);
+    }
+
+    @Override
+    public void combine(DoubleSumImpl<E> that) {
+        simpleSum += that.simpleSum;
+        add(that.sum);
+        add(-that.compensation);
+    }
+
+    public double sum() {
+        double total = sum - compensation;
+        return (Double.isNaN(total) && Double.isInfinite(simpleSum)) ? simpleSum : total;
+    }
+
+    private void add(double value) {
+        double y = value - compensation;
+        double t = sum + y;
+        compensation = (t - sum) - y;
+        sum = t;
+    }
+
+}
@@ -0,0 +1,53 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util.internal.function;
+
+import java.util.function.ToDoubleFunction;
+
+import org.javolution.util.function.Accumulator;
+
+/**
+ * An accumulator counting double values into bins of equal width over the range {@code [low, high)}
+ * (values out of range or NaN are not counted).
+ */
+public final class HistogramImpl<E> implements Accumulator<E, HistogramImpl<E>> {
+
+    private final ToDoubleFunction<? super E> function;
+    private final double low;
+    private final double high;
+    private final double binsPerUnit;
+    private final long[] counts;
+
+    public HistogramImpl(ToDoubleFunction<? super E> function, double low, double high, int bins) {
+        this.function = function;
+        this.low = low;
+        this.high = high;
+        this.binsPerUnit = bins / (high - low);
+        this.counts = new long[bins];
+    }
+
+    @Override
+    public void accept(E param) {
+        double value = function.applyAsDouble(param);
+        if (!(value >= low) || !(value < high)) return; // Out of range or NaN.
+        int bin = (int) ((value - low) * binsPerUnit);
+        counts[Math.min(bin, counts.length - 1)]++; // Rounding error may give the last bin + 1.
+    }
+
+    @Override
+    public void combine(HistogramImpl<E> that) {
+        for (int i = 0; i < counts.length; i++)
+            counts[i] += that.counts[i];
+    }
+
+    public long[] counts() {
+        return counts;
+    }
+
+}
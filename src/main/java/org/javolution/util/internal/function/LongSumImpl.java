@@ -0,0 +1,41 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util.internal.function;
+
+import java.util.function.ToLongFunction;
+
+import org.javolution.util.function.Accumulator;
+
+/**
+ * An accumulator of the sum of long values.
+ */
+public final class LongSumImpl<E> implements Accumulator<E, LongSumImpl<E>> {
+
+    private final ToLongFunction<? super E> function;
+    private long sum;
+
+    public LongSumImpl(ToLongFunction<? super E> function) {
+        this.function = function;
+    }
+
+    @Override
+    public void accept(E param) {
+        sum += function.applyAsLong(param);
+    }
+
+    @Override
+    public void combine(LongSumImpl<E> that) {
+        sum += that.sum;
+    }
+
+    public long sum() {
+        return sum;
+    }
+
+}
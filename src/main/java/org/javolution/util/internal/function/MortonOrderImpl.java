@@ -0,0 +1,146 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util.internal.function;
+
+import org.javolution.annotations.Nullable;
+import org.javolution.lang.MathLib;
+import org.javolution.util.function.Indexer;
+import org.javolution.util.function.Order;
+
+/**
+ * The spatial order implementation (Z-order curve) in two (quadtree) or three (octree) dimensions.
+ *
+ * The index of an object is the 64-bits Morton code of its coordinates; a box (hyper-rectangle) is given by the
+ * indices of two opposite corners and the box queries are performed on indices only (bit i of the index belongs
+ * to the dimension {@code i % dimensions}).
+ *
+ * @see <a href="https://en.wikipedia.org/wiki/Z-order_curve">Wikipedia: Z-order curve</a>
+ */
+public final class MortonOrderImpl<T> extends Order<T> {
+    private static final long serialVersionUID = 0x700L; // Version.
+    private final Indexer<? super T>[] coordinates;
+    private final long[] masks; // The index bits of each dimension.
+    private final int bits; // Number of bits of the index (64 for quadtree, 63 for octree).
+
+    @SafeVarargs
+    public MortonOrderImpl(Indexer<? super T>... coordinates) {
+        if ((coordinates.length < 2) || (coordinates.length > 3))
+            throw new IllegalArgumentException("Two or three dimensions only");
+        this.coordinates = coordinates;
+        int n = coordinates.length;
+        bits = (64 / n) * n;
+        masks = new long[n];
+        for (int i = 0; i < bits; i++)
+            masks[i % n] |= 1L << i;
+    }
+
+    @Override
+    public boolean areEqual(@Nullable T left, @Nullable T right) {
+        return (left == right) || (left != null && left.equals(right));
+    }
+
+    @Override
+    public int compare(@Nullable T left, @Nullable T right) {
+        long leftIndex = indexOf(left);
+        long rightIndex = indexOf(right);
+        if (leftIndex == rightIndex) return 0;
+        return MathLib.unsignedLessThan(leftIndex, rightIndex) ? -1 : 1;
+    }
+
+    @Override
+    public long indexOf(@Nullable T obj) {
+        if (obj == null) return 0;
+        long x = coordinates[0].indexOf(obj);
+        long y = coordinates[1].indexOf(obj);
+        return (coordinates.length == 2) ? MathLib.interleave(x, y) :
+            MathLib.interleave(x, y, coordinates[2].indexOf(obj));
+    }
+
+    /** Returns the index of the box corner having the lowest coordinates. */
+    public long lowerCorner(long corner, long oppositeCorner) {
+        long index = 0;
+        for (long mask : masks)
+            index |= MathLib.unsignedMin(corner & mask, oppositeCorner & mask);
+        return index;
+    }
+
+    /** Returns the index of the box corner having the highest coordinates. */
+    public long upperCorner(long corner, long oppositeCorner) {
+        long index = 0;
+        for (long mask : masks)
+            index |= MathLib.unsignedMax(corner & mask, oppositeCorner & mask);
+        return index;
+    }
+
+    /** Indicates if the specified index is within the specified box (lower and upper corners). */
+    public boolean inBox(long index, long min, long max) {
+        for (long mask : masks) {
+            long i = index & mask;
+            if (MathLib.unsignedLessThan(i, min & mask) || MathLib.unsignedLessThan(max & mask, i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the smallest index greater than the specified index (outside the box) which is within the box
+     * (BIGMIN) or the specified index if none.
+     */
+    public long nextInBox(long index, long min, long max) {
+        long next = index;
+        for (int i = bits; --i >= 0;) {
+            long bit = 1L << i;
+            long below = masks[i % masks.length] & (bit - 1); // Lower bits of the same dimension.
+            int state = (((index & bit) != 0) ? 4 : 0) | (((min & bit) != 0) ? 2 : 0) | (((max & bit) != 0) ? 1 : 0);
+            switch (state) {
+            case 1: // 001
+                next = (min & ~below) | bit;
+                max = (max & ~bit) | below;
+                break;
+            case 3: // 011
+                return min;
+            case 4: // 100
+                return next;
+            case 5: // 101
+                min = (min & ~below) | bit;
+                break;
+            default: // 000, 111 (010 and 110 are not possible with min <= max).
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Returns the greatest index less than the specified index (outside the box) which is within the box
+     * (LITMAX) or the specified index if none.
+     */
+    public long previousInBox(long index, long min, long max) {
+        long previous = index;
+        for (int i = bits; --i >= 0;) {
+            long bit = 1L << i;
+            long below = masks[i % masks.length] & (bit - 1); // Lower bits of the same dimension.
+            int state = (((index & bit) != 0) ? 4 : 0) | (((min & bit) != 0) ? 2 : 0) | (((max & bit) != 0) ? 1 : 0);
+            switch (state) {
+            case 1: // 001
+                max = (max & ~bit) | below;
+                break;
+            case 3: // 011
+                return previous;
+            case 4: // 100
+                return max;
+            case 5: // 101
+                previous = (max & ~bit) | below;
+                min = (min & ~below) | bit;
+                break;
+            default: // 000, 111 (010 and 110 are not possible with min <= max).
+            }
+        }
+        return previous;
+    }
+
+}
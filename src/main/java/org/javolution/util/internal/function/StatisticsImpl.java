@@ -0,0 +1,37 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util.internal.function;
+
+import java.util.DoubleSummaryStatistics;
+import java.util.function.ToDoubleFunction;
+
+import org.javolution.util.function.Accumulator;
+
+/**
+ * An accumulator of the count, sum, minimum, maximum and average of double values.
+ */
+public final class StatisticsImpl<E> extends DoubleSummaryStatistics implements Accumulator<E, StatisticsImpl<E>> {
+
+    private final ToDoubleFunction<? super E> function;
+
+    public StatisticsImpl(ToDoubleFunction<? super E> function) {
+        this.function = function;
+    }
+
+    @Override
+    public void accept(E param) {
+        accept(function.applyAsDouble(param));
+    }
+
+    @Override
+    public void combine(StatisticsImpl<E> that) {
+        super.combine(that);
+    }
+
+}
@@ -14,6 +14,7 @@ import org.javolution.util.AbstractMap;
 import org.javolution.util.AbstractSet;
 import org.javolution.util.function.Equality;
 import org.javolution.util.function.Order;
+import org.javolution.util.function.Predicate;
 import org.javolution.util.function.UnaryOperator;
 
 /**
@@ -148,7 +149,9 @@ public final class AtomicMapImpl<K, V> extends AbstractMap<K, V> {
 
     @Override
     public synchronized boolean replace(K key, V oldValue, V newValue) {
-        return inner.replace(key, oldValue, newValue);
+        boolean changed = inner.replace(key, oldValue, newValue);
+        if (changed) innerConst = inner.clone();
+        return changed;
     }
 
     @Override
@@ -171,6 +174,13 @@ public final class AtomicMapImpl<K, V> extends AbstractMap<K, V> {
         return innerConst.entries().unmodifiable();
     }
 
+    /** Removes the entries matching the specified filter (atomically). */
+    public synchronized boolean removeEntries(Predicate<? super Entry<K, V>> filter) {
+        boolean changed = inner.entries().removeIf(filter);
+        if (changed) innerConst = inner.clone();
+        return changed;
+    }
+
     @Override
     public synchronized V put(K key, UnaryOperator<V> update) {
         V previous = inner.put(key, update);
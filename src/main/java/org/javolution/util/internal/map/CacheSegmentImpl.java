@@ -0,0 +1,277 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util.internal.map;
+
+import java.io.Serializable;
+
+import org.javolution.annotations.Nullable;
+import org.javolution.util.AbstractMap;
+import org.javolution.util.AbstractMap.Entry;
+import org.javolution.util.FastMap;
+import org.javolution.util.function.Order;
+
+/**
+ * A bounded cache segment; the entries are kept in access order (doubly-linked queues) and evicted either
+ * in least recently used order (LRU) or using the Window TinyLFU policy (small LRU admission window in front of
+ * a segmented LRU main space, entries leaving the window are admitted only if they are estimated more frequently
+ * accessed than the main space victims).
+ *
+ * This class is not thread-safe, all the calls should be performed while synchronized on the segment.
+ *
+ * @see <a href="https://arxiv.org/abs/1512.00727">TinyLFU: A Highly Efficient Cache Admission Policy</a>
+ */
+public final class CacheSegmentImpl<K, V> implements Serializable {
+
+    private static final long serialVersionUID = 0x700L; // Version.
+    private static final int WINDOW = 0; // Admission window (or whole LRU queue).
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+    private final Order<? super K> keyOrder;
+    private final FastMap<K, Node<K, V>> nodes;
+    private final Node<K, V>[] queues = newSentinels(); // Circular lists, least recently used first.
+    private final long[] weights = new long[3]; // Weight of each queue.
+    private final long maximum;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private final @Nullable FrequencySketchImpl sketch; // Null for LRU.
+    private long expireAfterWrite; // Nanoseconds (zero if none).
+    private long expireAfterAccess; // Nanoseconds (zero if none).
+    private long hits, misses, evictions;
+
+    /** Creates a LRU ({@code tinyLFU == false}) or a Window TinyLFU segment of specified maximum weight. */
+    public CacheSegmentImpl(Order<? super K> keyOrder, long maximum, boolean tinyLFU) {
+        this.keyOrder = keyOrder;
+        this.nodes = new FastMap<K, Node<K, V>>(keyOrder);
+        this.maximum = maximum;
+        if (tinyLFU) {
+            windowMaximum = Math.max(1, maximum / 100);
+            protectedMaximum = (maximum - windowMaximum) * 4 / 5;
+            sketch = new FrequencySketchImpl(maximum);
+        } else {
+            windowMaximum = maximum;
+            protectedMaximum = 0;
+            sketch = null;
+        }
+    }
+
+    /** Sets the expiration delays in nanoseconds (zero for no expiration). */
+    public void setExpiration(long afterWrite, long afterAccess) {
+        this.expireAfterWrite = afterWrite;
+        this.expireAfterAccess = afterAccess;
+    }
+
+    /** Returns the entry for the specified key (recording a hit or a miss) or {@code null} if none. */
+    public @Nullable Entry<K, V> get(K key, long now) {
+        Node<K, V> node = nodes.get(key);
+        if ((node != null) && isExpired(node, now)) {
+            discard(node);
+            node = null;
+        }
+        if (node == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        node.accessedAt = now;
+        onAccess(node);
+        return node;
+    }
+
+    /** Returns the entry for the specified key without recording the access or {@code null} if none. */
+    public @Nullable Entry<K, V> peek(K key, long now) {
+        Node<K, V> node = nodes.get(key);
+        return (node != null) && !isExpired(node, now) ? node : null;
+    }
+
+    /** Associates the specified value to the specified key, returns the previous entry (or {@code null}). */
+    public @Nullable Entry<K, V> put(K key, @Nullable V value, long weight, long now) {
+        Node<K, V> node = new Node<K, V>(key, value, weight, keyOrder.indexOf(key), now);
+        Node<K, V> previous = nodes.put(key, node);
+        if (previous != null) { // Takes the place of the previous node.
+            node.queue = previous.queue;
+            node.previous = previous.previous;
+            node.next = previous.next;
+            node.previous.next = node;
+            node.next.previous = node;
+            weights[node.queue] += weight - previous.weight;
+            onAccess(node);
+        } else {
+            if (sketch != null) sketch.increment(node.hash);
+            append(node, WINDOW);
+        }
+        evict();
+        return (previous != null) && !isExpired(previous, now) ? previous : null;
+    }
+
+    /** Removes the entry for the specified key and returns it (or {@code null} if none). */
+    public @Nullable Entry<K, V> remove(K key, long now) {
+        Node<K, V> node = nodes.remove(key);
+        if (node == null) return null;
+        unlink(node);
+        return !isExpired(node, now) ? node : null;
+    }
+
+    /** Removes all the expired entries. */
+    public void removeExpired(long now) {
+        if ((expireAfterWrite == 0) && (expireAfterAccess == 0)) return;
+        for (Node<K, V> sentinel : queues) {
+            for (Node<K, V> node = sentinel.next; node != sentinel;) {
+                Node<K, V> next = node.next;
+                if (isExpired(node, now)) discard(node);
+                node = next;
+            }
+        }
+    }
+
+    /** Adds the entries of this segment (not expired) to the specified map. */
+    public void copyTo(FastMap<K, V> map, long now) {
+        for (Entry<K, Node<K, V>> entry : nodes.entries()) {
+            Node<K, V> node = entry.getValue();
+            if (!isExpired(node, now)) map.addEntry(node.getKey(), node.getValue());
+        }
+    }
+
+    /** Removes all the entries (statistics are kept). */
+    public void clear() {
+        nodes.clear();
+        for (int i = 0; i < queues.length; i++) {
+            queues[i].next = queues[i].previous = queues[i];
+            weights[i] = 0;
+        }
+    }
+
+    /** Returns the number of entries (including expired entries not removed yet). */
+    public int size() {
+        return nodes.size();
+    }
+
+    /** Returns the total weight of the entries. */
+    public long weight() {
+        return weights[WINDOW] + weights[PROBATION] + weights[PROTECTED];
+    }
+
+    public long hits() {
+        return hits;
+    }
+
+    public long misses() {
+        return misses;
+    }
+
+    /** Returns the number of entries removed due to size or expiration. */
+    public long evictions() {
+        return evictions;
+    }
+
+    private boolean isExpired(Node<K, V> node, long now) {
+        return ((expireAfterWrite != 0) && (now - node.writtenAt >= expireAfterWrite))
+                || ((expireAfterAccess != 0) && (now - node.accessedAt >= expireAfterAccess));
+    }
+
+    /** Moves the node to the back of its queue or promotes it (TinyLFU probation to protected). */
+    private void onAccess(Node<K, V> node) {
+        if (sketch != null) sketch.increment(node.hash);
+        int queue = node.queue;
+        unlink(node);
+        if (queue != PROBATION) {
+            append(node, queue);
+            return;
+        }
+        append(node, PROTECTED);
+        while (weights[PROTECTED] > protectedMaximum) { // Demotes least recently used protected entries.
+            Node<K, V> demoted = queues[PROTECTED].next;
+            unlink(demoted);
+            append(demoted, PROBATION);
+        }
+    }
+
+    /** Evicts entries until the total weight is within bounds. */
+    private void evict() {
+        if (sketch == null) {
+            while (weights[WINDOW] > maximum)
+                discard(queues[WINDOW].next);
+            return;
+        }
+        Node<K, V> candidate = null; // The first entry moved from the window to the main space.
+        while (weights[WINDOW] > windowMaximum) {
+            Node<K, V> node = queues[WINDOW].next;
+            unlink(node);
+            append(node, PROBATION);
+            if (candidate == null) candidate = node;
+        }
+        while (weight() > maximum) {
+            Node<K, V> victim = first(PROBATION);
+            if (victim == null) victim = first(PROTECTED);
+            if (victim == null) victim = first(WINDOW);
+            if ((candidate != null) && (candidate != victim)
+                    && (sketch.frequency(candidate.hash) <= sketch.frequency(victim.hash)))
+                victim = candidate; // Candidate rejected (the victim is more frequently used).
+            if (victim == candidate) candidate = (candidate.next != queues[PROBATION]) ? candidate.next : null;
+            discard(victim);
+        }
+    }
+
+    private @Nullable Node<K, V> first(int queue) {
+        Node<K, V> node = queues[queue].next;
+        return (node != queues[queue]) ? node : null;
+    }
+
+    private void discard(Node<K, V> node) {
+        nodes.remove(node.getKey());
+        unlink(node);
+        evictions++;
+    }
+
+    private void append(Node<K, V> node, int queue) {
+        Node<K, V> sentinel = queues[queue];
+        node.queue = queue;
+        node.next = sentinel;
+        node.previous = sentinel.previous;
+        sentinel.previous.next = node;
+        sentinel.previous = node;
+        weights[queue] += node.weight;
+    }
+
+    private void unlink(Node<K, V> node) {
+        node.previous.next = node.next;
+        node.next.previous = node.previous;
+        weights[node.queue] -= node.weight;
+    }
+
+    private static <K, V> Node<K, V>[] newSentinels() {
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        Node<K, V>[] sentinels = new Node[3];
+        for (int i = 0; i < sentinels.length; i++) {
+            Node<K, V> sentinel = new Node<K, V>(null, null, 0, 0, 0);
+            sentinel.previous = sentinel.next = sentinel;
+            sentinels[i] = sentinel;
+        }
+        return sentinels;
+    }
+
+    /** A cache entry (immutable value, updates replace the node). */
+    private static final class Node<K, V> extends AbstractMap.Entry<K, V> {
+        private static final long serialVersionUID = 0x700L; // Version.
+        private final long weight;
+        private final long hash;
+        private final long writtenAt;
+        private long accessedAt;
+        private int queue;
+        private Node<K, V> previous, next;
+
+        private Node(K key, V value, long weight, long hash, long now) {
+            super(key, value);
+            this.weight = weight;
+            this.hash = hash;
+            this.writtenAt = now;
+            this.accessedAt = now;
+        }
+    }
+
+}
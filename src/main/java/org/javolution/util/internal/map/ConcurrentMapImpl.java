@@ -0,0 +1,379 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util.internal.map;
+
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+
+import org.javolution.lang.MathLib;
+import org.javolution.util.AbstractMap;
+import org.javolution.util.AbstractSet;
+import org.javolution.util.FastIterator;
+import org.javolution.util.FastMap;
+import org.javolution.util.function.Equality;
+import org.javolution.util.function.Order;
+import org.javolution.util.function.Predicate;
+import org.javolution.util.function.UnaryOperator;
+
+/**
+ * A concurrent map split into independent stripes (selected from the hashed key index), each stripe being an
+ * atomic map backed by persistent storage. Reads are mutex-free, updates only lock the stripe of the key.
+ * Iterations merge the stripes snapshots and preserve the key order.
+ */
+public final class ConcurrentMapImpl<K, V> extends AbstractMap<K, V> {
+
+    private static final long serialVersionUID = 0x700L; // Version.
+    private final Order<? super K> keyOrder;
+    private final Equality<? super V> valuesEquality;
+    private final AtomicMapImpl<K, V>[] stripes;
+    private final int mask;
+
+    /** Creates an empty map with a default number of stripes (based on the number of processors). */
+    public ConcurrentMapImpl(Order<? super K> keyOrder, Equality<? super V> valuesEquality) {
+        this(keyOrder, valuesEquality, defaultStripes());
+    }
+
+    /** Creates an empty map with the specified number of stripes (rounded to a power of two). */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    public ConcurrentMapImpl(Order<? super K> keyOrder, Equality<? super V> valuesEquality, int nbrOfStripes) {
+        this.keyOrder = keyOrder;
+        this.valuesEquality = valuesEquality;
+        int n = Integer.highestOneBit(Math.max(nbrOfStripes - 1, 1)) << 1;
+        this.stripes = new AtomicMapImpl[n];
+        this.mask = n - 1;
+        for (int i = 0; i < n; i++)
+            stripes[i] = (AtomicMapImpl<K, V>) new FastMap<K, V>(keyOrder, valuesEquality).atomic();
+    }
+
+    /** Copy constructor (used by clone). */
+    private ConcurrentMapImpl(ConcurrentMapImpl<K, V> that) {
+        this.keyOrder = that.keyOrder;
+        this.valuesEquality = that.valuesEquality;
+        this.stripes = that.stripes.clone();
+        this.mask = that.mask;
+        for (int i = 0; i < stripes.length; i++)
+            stripes[i] = stripes[i].clone();
+    }
+
+    private static int defaultStripes() {
+        return Math.min(4 * Runtime.getRuntime().availableProcessors(), 1024);
+    }
+
+    /** Returns the stripe for the specified key. */
+    private AtomicMapImpl<K, V> stripeOf(K key) {
+        long index = keyOrder.indexOf(key);
+        return stripes[MathLib.hash((int) index ^ (int) (index >>> 32)) & mask];
+    }
+
+    @Override
+    public Entry<K, V> addEntry(K key, V value) {
+        return stripeOf(key).addEntry(key, value);
+    }
+
+    @Override
+    public void clear() {
+        for (AtomicMapImpl<K, V> stripe : stripes)
+            stripe.clear();
+    }
+
+    @Override
+    public ConcurrentMapImpl<K, V> clone() {
+        return new ConcurrentMapImpl<K, V>(this);
+    }
+
+    @Override
+    public AbstractSet<Entry<K, V>> entries() {
+        return new EntriesImpl<K, V>(stripes, 0, stripes.length, stripes[0].entries().order(), valuesEquality);
+    }
+
+    @Override
+    public Entry<K, V> getEntry(K key) {
+        return stripeOf(key).getEntry(key);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (AtomicMapImpl<K, V> stripe : stripes)
+            if (!stripe.isEmpty()) return false;
+        return true;
+    }
+
+    @Override
+    public Order<? super K> keyOrder() {
+        return keyOrder;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        return stripeOf(key).put(key, value);
+    }
+
+    @Override
+    public V put(K key, UnaryOperator<V> update) {
+        return stripeOf(key).put(key, update);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        return stripeOf(key).putIfAbsent(key, value);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V remove(Object key) {
+        return stripeOf((K) key).remove(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public boolean remove(Object key, Object value) {
+        return stripeOf((K) key).remove(key, value);
+    }
+
+    @Override
+    public Entry<K, V> removeEntry(K key) {
+        return stripeOf(key).removeEntry(key);
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        return stripeOf(key).replace(key, value);
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        return stripeOf(key).replace(key, oldValue, newValue);
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (AtomicMapImpl<K, V> stripe : stripes)
+            size += stripe.size();
+        return size;
+    }
+
+    @Override
+    public Equality<? super V> valuesEquality() {
+        return valuesEquality;
+    }
+
+    /** The entries of a range of stripes. */
+    private static final class EntriesImpl<K, V> extends AbstractSet<Entry<K, V>> {
+        private static final long serialVersionUID = 0x700L; // Version.
+        private final AtomicMapImpl<K, V>[] stripes;
+        private final int from, to;
+        private final Order<? super Entry<K, V>> order;
+        private final Equality<? super V> valuesEquality;
+
+        private EntriesImpl(AtomicMapImpl<K, V>[] stripes, int from, int to, Order<? super Entry<K, V>> order,
+                Equality<? super V> valuesEquality) {
+            this.stripes = stripes;
+            this.from = from;
+            this.to = to;
+            this.order = order;
+            this.valuesEquality = valuesEquality;
+        }
+
+        /** Returns the stripe for the specified entry or {@code null} if outside of this range. */
+        private AtomicMapImpl<K, V> stripeOf(Entry<K, V> entry) {
+            long index = order.indexOf(entry);
+            int i = MathLib.hash((int) index ^ (int) (index >>> 32)) & (stripes.length - 1);
+            return (i >= from) && (i < to) ? stripes[i] : null;
+        }
+
+        @Override
+        public boolean add(Entry<K, V> entry, boolean allowDuplicate) {
+            AtomicMapImpl<K, V> stripe = stripeOf(entry);
+            if (stripe == null) throw new UnsupportedOperationException("Entry outside of split range");
+            synchronized (stripe) { // Atomic (stripe lock is reentrant).
+                if (!allowDuplicate && (stripe.getEntry(entry.getKey()) != null)) return false;
+                stripe.addEntry(entry.getKey(), entry.getValue());
+                return true;
+            }
+        }
+
+        @Override
+        public void clear() {
+            for (int i = from; i < to; i++)
+                stripes[i].clear();
+        }
+
+        @Override
+        public Entry<K, V> getAny(Entry<K, V> entry) {
+            AtomicMapImpl<K, V> stripe = stripeOf(entry);
+            if (stripe == null) return null;
+            Entry<K, V> found = stripe.getEntry(entry.getKey());
+            return (found != null) && valuesEquality.areEqual(found.getValue(), entry.getValue()) ? found : null;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            for (int i = from; i < to; i++)
+                if (!stripes[i].isEmpty()) return false;
+            return true;
+        }
+
+        @Override
+        public Order<? super Entry<K, V>> order() {
+            return order;
+        }
+
+        @Override
+        public Entry<K, V> removeAny(Entry<K, V> entry) {
+            AtomicMapImpl<K, V> stripe = stripeOf(entry);
+            if (stripe == null) return null;
+            synchronized (stripe) { // Atomic (stripe lock is reentrant).
+                Entry<K, V> found = stripe.getEntry(entry.getKey());
+                if ((found == null) || !valuesEquality.areEqual(found.getValue(), entry.getValue())) return null;
+                return stripe.removeEntry(entry.getKey());
+            }
+        }
+
+        @Override
+        public boolean removeIf(Predicate<? super Entry<K, V>> filter) {
+            boolean changed = false;
+            for (int i = from; i < to; i++)
+                changed |= stripes[i].removeEntries(filter);
+            return changed;
+        }
+
+        @Override
+        public int size() {
+            int size = 0;
+            for (int i = from; i < to; i++)
+                size += stripes[i].size();
+            return size;
+        }
+
+        @Override
+        public FastIterator<Entry<K, V>> iterator(Entry<K, V> low) {
+            @SuppressWarnings({ "rawtypes", "unchecked" })
+            FastIterator<Entry<K, V>>[] iterators = new FastIterator[to - from];
+            for (int i = from; i < to; i++)
+                iterators[i - from] = stripes[i].entries().iterator(low);
+            return new MergeIterator<Entry<K, V>>(iterators, order);
+        }
+
+        @Override
+        public FastIterator<Entry<K, V>> descendingIterator(Entry<K, V> high) {
+            @SuppressWarnings({ "rawtypes", "unchecked" })
+            FastIterator<Entry<K, V>>[] iterators = new FastIterator[to - from];
+            for (int i = from; i < to; i++)
+                iterators[i - from] = stripes[i].entries().descendingIterator(high);
+            return new MergeIterator<Entry<K, V>>(iterators, new Comparator<Entry<K, V>>() {
+                @Override
+                public int compare(Entry<K, V> left, Entry<K, V> right) {
+                    return order.compare(right, left);
+                }
+            });
+        }
+
+        /** Splits along stripes boundaries (no filtering required). */
+        @Override
+        public AbstractSet<Entry<K, V>>[] trySplit(int n) {
+            int length = to - from;
+            if (n > length) n = length;
+            @SuppressWarnings({ "rawtypes", "unchecked" })
+            AbstractSet<Entry<K, V>>[] split = new AbstractSet[n];
+            for (int i = 0; i < n; i++)
+                split[i] = new EntriesImpl<K, V>(stripes, from + i * length / n, from + (i + 1) * length / n, order,
+                        valuesEquality);
+            return split;
+        }
+    }
+
+    /** Merges sorted iterators (binary heap of the iterators heads). */
+    private static final class MergeIterator<E> implements FastIterator<E> {
+        private final FastIterator<E>[] iterators;
+        private final Object[] heads;
+        private final int[] heap;
+        private int heapSize;
+        private final Comparator<? super E> comparator;
+
+        private MergeIterator(FastIterator<E>[] iterators, Comparator<? super E> comparator) {
+            this.iterators = iterators;
+            this.comparator = comparator;
+            this.heads = new Object[iterators.length];
+            this.heap = new int[iterators.length];
+            for (int i = 0; i < iterators.length; i++) {
+                if (!iterators[i].hasNext()) continue;
+                heads[i] = iterators[i].next();
+                heap[heapSize] = i;
+                siftUp(heapSize++);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return heapSize != 0;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public boolean hasNext(Predicate<? super E> matching) {
+            for (; heapSize != 0; next())
+                if (matching.test((E) heads[heap[0]])) return true;
+            return false;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public E next() {
+            if (heapSize == 0) throw new NoSuchElementException();
+            int i = heap[0];
+            E next = (E) heads[i];
+            if (iterators[i].hasNext()) {
+                heads[i] = iterators[i].next();
+            } else {
+                heads[i] = null;
+                heap[0] = heap[--heapSize];
+            }
+            siftDown(0);
+            return next;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @SuppressWarnings("unchecked")
+        private boolean less(int i, int j) {
+            return comparator.compare((E) heads[heap[i]], (E) heads[heap[j]]) < 0;
+        }
+
+        private void swap(int i, int j) {
+            int tmp = heap[i];
+            heap[i] = heap[j];
+            heap[j] = tmp;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!less(i, parent)) return;
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= heapSize) return;
+                if ((child + 1 < heapSize) && less(child + 1, child)) child++;
+                if (!less(child, i)) return;
+                swap(i, child);
+                i = child;
+            }
+        }
+    }
+
+}
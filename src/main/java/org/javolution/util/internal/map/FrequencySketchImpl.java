@@ -0,0 +1,87 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util.internal.map;
+
+import java.io.Serializable;
+
+/**
+ * A Count-Min sketch estimating the access frequency of keys (4-bits counters, four hashes). The counters are
+ * halved periodically (aging) so that the sketch reflects recent accesses (TinyLFU).
+ *
+ * @see <a href="https://arxiv.org/abs/1512.00727">TinyLFU: A Highly Efficient Cache Admission Policy</a>
+ */
+public final class FrequencySketchImpl implements Serializable {
+
+    private static final long serialVersionUID = 0x700L; // Version.
+    private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL,
+            0xcbf29ce484222325L };
+    private static final long RESET_MASK = 0x7777777777777777L; // Clears the high bit of each counter.
+    private final long[] table; // Sixteen counters per word.
+    private final int sampleSize; // Number of increments before aging.
+    private int additions;
+
+    /** Creates a sketch for the specified (estimated) number of distinct keys. */
+    public FrequencySketchImpl(long capacity) {
+        int length = 16;
+        while ((length < capacity) && (length < (1 << 20))) length <<= 1;
+        table = new long[length];
+        sampleSize = 10 * length;
+    }
+
+    /** Returns the estimated number of occurrences of the specified key hash (maximum 15). */
+    public int frequency(long hash) {
+        int frequency = 15;
+        for (int i = 0; i < 4; i++) {
+            long h = mix(hash ^ SEEDS[i]);
+            int counter = (int) (table[slot(h)] >>> shift(h)) & 15;
+            if (counter < frequency) frequency = counter;
+        }
+        return frequency;
+    }
+
+    /** Increments the number of occurrences of the specified key hash. */
+    public void increment(long hash) {
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            long h = mix(hash ^ SEEDS[i]);
+            int slot = slot(h);
+            int shift = shift(h);
+            if (((table[slot] >>> shift) & 15) == 15) continue; // Saturated.
+            table[slot] += 1L << shift;
+            added = true;
+        }
+        if (added && (++additions >= sampleSize)) reset();
+    }
+
+    /** Halves all the counters. */
+    private void reset() {
+        for (int i = 0; i < table.length; i++)
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        additions >>>= 1;
+    }
+
+    private int slot(long h) {
+        return (int) (h >>> 32) & (table.length - 1);
+    }
+
+    private static int shift(long h) {
+        return ((int) h & 15) << 2;
+    }
+
+    /** Spreads the hash bits (64-bit finalizer of MurmurHash3). */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+}
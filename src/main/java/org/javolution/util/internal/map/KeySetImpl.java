@@ -8,12 +8,16 @@
  */
 package org.javolution.util.internal.map;
 
+import java.util.Spliterator;
+
 import org.javolution.util.AbstractMap;
 import org.javolution.util.AbstractMap.Entry;
 import org.javolution.util.AbstractSet;
 import org.javolution.util.FastIterator;
+import org.javolution.util.function.Function;
 import org.javolution.util.function.Order;
 import org.javolution.util.function.Predicate;
+import org.javolution.util.internal.collection.MappedSpliteratorImpl;
 
 /**
  * A key set view over a map.
@@ -114,6 +118,27 @@ public final class KeySetImpl<K, V> extends AbstractSet<K> {
             new KeyIterator<K,V>(map.entries().descendingIterator(null));
     }
 
+    @Override
+    public int rank(K element, boolean inclusive) {
+        return map.entries().rank(new Entry<K,V>(element, null), inclusive);
+    }
+
+    @Override
+    public K select(int rank) {
+        return map.entries().select(rank).getKey();
+    }
+
+    /** Maps the entries spliterator (keys may be duplicated for multimaps). */
+    @Override
+    public Spliterator<K> spliterator() {
+        return new MappedSpliteratorImpl<Entry<K, V>, K>(map.entries().spliterator(), new Function<Entry<K, V>, K>() {
+            @Override
+            public K apply(Entry<K, V> param) {
+                return param.getKey();
+            }
+        }, ~Spliterator.DISTINCT, map.keyOrder());
+    }
+
     @Override
     public boolean isEmpty() {
         return map.entries().isEmpty();
@@ -136,4 +161,91 @@ public final class KeySetImpl<K, V> extends AbstractSet<K> {
         return entry != null ? entry.getKey() : null;
     }
 
+    /** Splits the map entries, keys sub-views are unmodifiable (see trySplit contract). */
+    @Override
+    public AbstractSet<K>[] trySplit(int n) {
+        AbstractSet<Entry<K,V>>[] entriesSplit = map.entries().trySplit(n);
+        @SuppressWarnings({ "rawtypes", "unchecked" })
+        AbstractSet<K>[] split = new AbstractSet[entriesSplit.length];
+        for (int i=0; i < split.length; i++) split[i] = new SplitImpl<K,V>(map, entriesSplit[i]);
+        return split;
+    }
+
+    /** A read-only key set view over a sub-view of the map entries. */
+    private static final class SplitImpl<K, V> extends AbstractSet<K> {
+        private static final long serialVersionUID = 0x700L; // Version.
+        private final AbstractMap<K, V> map;
+        private final AbstractSet<Entry<K, V>> entries;
+
+        private SplitImpl(AbstractMap<K, V> map, AbstractSet<Entry<K, V>> entries) {
+            this.map = map;
+            this.entries = entries;
+        }
+
+        @Override
+        public boolean add(K element, boolean allowDuplicate) {
+            throw new UnsupportedOperationException("Split views are unmodifiable");
+        }
+
+        @Override
+        public void clear() {
+            throw new UnsupportedOperationException("Split views are unmodifiable");
+        }
+
+        @Override
+        public AbstractSet<K> clone() {
+            return new SplitImpl<K, V>(map, entries.clone());
+        }
+
+        @Override
+        public Order<? super K> order() {
+            return map.keyOrder();
+        }
+
+        @Override
+        public FastIterator<K> iterator(K low) {
+            return new KeyIterator<K,V>(entries.iterator(low != null ? new Entry<K,V>(low, null) : null));
+        }
+
+        @Override
+        public FastIterator<K> descendingIterator(K high) {
+            return new KeyIterator<K,V>(entries.descendingIterator(high != null ? new Entry<K,V>(high, null) : null));
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return entries.isEmpty();
+        }
+
+        @Override
+        public int size() {
+            return entries.size();
+        }
+
+        @Override
+        public K getAny(K key) {
+            Entry<K,V> entry = map.getEntry(key); // Entries equality is based on both key and value.
+            return ((entry != null) && (entries.getAny(entry) != null)) ? entry.getKey() : null;
+        }
+
+        @Override
+        public K removeAny(K key) {
+            throw new UnsupportedOperationException("Split views are unmodifiable");
+        }
+
+        @Override
+        public boolean removeIf(Predicate<? super K> filter) {
+            throw new UnsupportedOperationException("Split views are unmodifiable");
+        }
+
+        @Override
+        public AbstractSet<K>[] trySplit(int n) {
+            AbstractSet<Entry<K,V>>[] entriesSplit = entries.trySplit(n);
+            @SuppressWarnings({ "rawtypes", "unchecked" })
+            AbstractSet<K>[] split = new AbstractSet[entriesSplit.length];
+            for (int i=0; i < split.length; i++) split[i] = new SplitImpl<K,V>(map, entriesSplit[i]);
+            return split;
+        }
+    }
+
 }
@@ -27,15 +27,18 @@ public final class SharedMapImpl<K, V> extends AbstractMap<K, V> {
     private static final long serialVersionUID = 0x700L; // Version.
     private final AbstractMap<K, V> inner;
     private final ReadWriteLockImpl lock;
+    private final boolean optimistic; // Lookups are bounded (FastMap.getEntry is final).
 
     public SharedMapImpl(AbstractMap<K, V> inner) {
         this.inner = inner;
         this.lock = new ReadWriteLockImpl();
+        this.optimistic = inner instanceof FastMap;
     }
 
     public SharedMapImpl(FastMap<K, V> inner, ReadWriteLockImpl lock) {
         this.inner = inner;
         this.lock = lock;
+        this.optimistic = true;
     }
 
  
@@ -64,8 +67,10 @@ public final class SharedMapImpl<K, V> extends AbstractMap<K, V> {
         return inner.keyOrder(); // Immutable.
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public boolean containsKey(Object key) {
+        if (optimistic) return getEntry((K) key) != null; // Cast has no effect here.
         lock.readLock.lock();
         try {
             return inner.containsKey(key);
@@ -104,8 +109,19 @@ public final class SharedMapImpl<K, V> extends AbstractMap<K, V> {
         }
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public V get(Object key) {
+        long stamp = optimistic ? lock.tryOptimisticRead() : 0; // Mutex-free attempt.
+        if (stamp != 0) {
+            try {
+                Entry<K, V> entry = inner.getEntry((K) key); // Cast has no effect here.
+                V value = (entry != null) ? entry.getValue() : null; // Values may be updated in place.
+                if (lock.validate(stamp)) return value;
+            } catch (RuntimeException | Error e) {
+                if (lock.validate(stamp)) throw e; // Not caused by a concurrent write.
+            }
+        }
         lock.readLock.lock();
         try {
             return inner.get(key);
@@ -116,6 +132,15 @@ public final class SharedMapImpl<K, V> extends AbstractMap<K, V> {
 
     @Override
     public Entry<K, V> getEntry(K key) {
+        long stamp = optimistic ? lock.tryOptimisticRead() : 0; // Mutex-free attempt.
+        if (stamp != 0) {
+            try {
+                Entry<K, V> entry = inner.getEntry(key);
+                if (lock.validate(stamp)) return entry;
+            } catch (RuntimeException | Error e) {
+                if (lock.validate(stamp)) throw e; // Not caused by a concurrent write.
+            }
+        }
         lock.readLock.lock();
         try {
             return inner.getEntry(key);
@@ -136,12 +161,7 @@ public final class SharedMapImpl<K, V> extends AbstractMap<K, V> {
 
     @Override
     public boolean isEmpty() {
-        lock.readLock.lock();
-        try {
-            return inner.isEmpty();
-        } finally {
-            lock.readLock.unlock();
-        }
+        return lock.optimisticRead(() -> inner.isEmpty());
     }
 
     @Override
@@ -246,12 +266,7 @@ public final class SharedMapImpl<K, V> extends AbstractMap<K, V> {
 
     @Override
     public int size() {
-        lock.readLock.lock();
-        try {
-            return inner.size();
-        } finally {
-            lock.readLock.unlock();
-        }
+        return lock.optimisticRead(() -> inner.size());
     }
 
     @Override
@@ -8,12 +8,16 @@
  */
 package org.javolution.util.internal.map;
 
+import java.util.Spliterator;
+
 import org.javolution.util.AbstractCollection;
 import org.javolution.util.AbstractMap.Entry;
 import org.javolution.util.AbstractSet;
 import org.javolution.util.FastIterator;
 import org.javolution.util.function.Equality;
+import org.javolution.util.function.Function;
 import org.javolution.util.function.Predicate;
+import org.javolution.util.internal.collection.MappedSpliteratorImpl;
 
 /**
  * A collection view over the map values.
@@ -98,6 +102,17 @@ public final class ValuesImpl<K, V> extends AbstractCollection<V> {
         return new IteratorImpl<K,V>(entries.descendingIterator());
     }
 
+    /** Maps the entries spliterator. */
+    @Override
+    public Spliterator<V> spliterator() {
+        return new MappedSpliteratorImpl<Entry<K, V>, V>(entries.spliterator(), new Function<Entry<K, V>, V>() {
+            @Override
+            public V apply(Entry<K, V> param) {
+                return param.getValue();
+            }
+        }, ~(Spliterator.DISTINCT | Spliterator.SORTED), null);
+    }
+
     @Override
     public boolean isEmpty() {
         return entries.isEmpty();
@@ -34,5 +34,9 @@ public interface AbstractSetMethods<E> extends AbstractCollectionMethods<E>,  So
     FastIterator<E> iterator(@Nullable E from);
  
     FastIterator<E> descendingIterator(@Nullable E from);
+
+    int rank(E element, boolean inclusive);
+
+    E select(int rank);
    
 }
\ No newline at end of file
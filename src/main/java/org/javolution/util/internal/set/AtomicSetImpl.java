@@ -15,11 +15,13 @@ import org.javolution.annotations.Nullable;
 import org.javolution.util.AbstractCollection;
 import org.javolution.util.AbstractSet;
 import org.javolution.util.FastIterator;
+import org.javolution.util.function.Accumulator;
 import org.javolution.util.function.BinaryOperator;
 import org.javolution.util.function.Consumer;
 import org.javolution.util.function.Equality;
 import org.javolution.util.function.Order;
 import org.javolution.util.function.Predicate;
+import org.javolution.util.function.Supplier;
 
 /**
  * An atomic view over a set (copy-on-write).
@@ -184,6 +186,11 @@ public final class AtomicSetImpl<E>  // implements AbstractSetMethods<E> {
         return innerConst.reduce(operator);
     }
 
+    @Override
+    public <A extends Accumulator<? super E, A>> A accumulate(Supplier<A> supplier) {
+        return innerConst.accumulate(supplier);
+    }
+
     @Override
     public synchronized boolean remove(Object searched) {
         boolean changed = inner.remove(searched);
@@ -224,6 +231,16 @@ public final class AtomicSetImpl<E>  // implements AbstractSetMethods<E> {
         return changed;
     }
 
+    @Override
+    public int rank(E element, boolean inclusive) {
+        return innerConst.rank(element, inclusive);
+    }
+
+    @Override
+    public E select(int rank) {
+        return innerConst.select(rank);
+    }
+
     @Override
     public int size() {
         return innerConst.size();
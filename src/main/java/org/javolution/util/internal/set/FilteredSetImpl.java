@@ -9,13 +9,13 @@
 package org.javolution.util.internal.set;
 
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 
 import org.javolution.util.FastIterator;
 import org.javolution.annotations.Nullable;
 import org.javolution.util.AbstractSet;
 import org.javolution.util.function.Order;
 import org.javolution.util.function.Predicate;
-import org.javolution.util.internal.collection.FilteredCollectionImpl;
 
 /**
  * A filtered view over a set.
@@ -53,22 +53,22 @@ public final class FilteredSetImpl<E> extends AbstractSet<E> {
 
     @Override
     public FastIterator<E> iterator() {
-        return new FilteredCollectionImpl.IteratorImpl<E>(inner.iterator(), filter);
+        return new IteratorImpl<E>(inner.iterator(), filter);
     }
     
     @Override
     public FastIterator<E> descendingIterator() {
-        return new FilteredCollectionImpl.IteratorImpl<E>(inner.descendingIterator(), filter);
+        return new IteratorImpl<E>(inner.descendingIterator(), filter);
     }
 
     @Override
     public FastIterator<E> iterator(@Nullable E from) {
-        return new FilteredCollectionImpl.IteratorImpl<E>(inner.iterator(from), filter);
+        return new IteratorImpl<E>(inner.iterator(from), filter);
     }
     
     @Override
     public FastIterator<E> descendingIterator(@Nullable E from) {
-        return new FilteredCollectionImpl.IteratorImpl<E>(inner.descendingIterator(from), filter);
+        return new IteratorImpl<E>(inner.descendingIterator(from), filter);
     }
 
     @Override
@@ -112,5 +112,42 @@ public final class FilteredSetImpl<E> extends AbstractSet<E> {
         return filter.test(element) ? inner.removeAny(element) : null;        
     }
 
+    /** Iterator filtering the elements iterated. */
+    private static final class IteratorImpl<E> implements FastIterator<E> {
+        private final FastIterator<E> innerItr;
+        private final Predicate<? super E> filter;
+        
+        private IteratorImpl(FastIterator<E> innerItr, Predicate<? super E> filter) {
+            this.innerItr = innerItr;
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return innerItr.hasNext(filter);
+        }
+
+        @Override
+        public E next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return innerItr.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean hasNext(final Predicate<? super E> matching) {
+            return innerItr.hasNext(new Predicate<E>() {
+
+                @Override
+                public boolean test(E param) {
+                    return filter.test(param) && matching.test(param);
+                }});
+        }
+
+    }
 
 }
@@ -62,6 +62,16 @@ public final class LinkedSetImpl<E> extends AbstractSet<E> {
         return insertionTable.descendingIterator();
     }
 
+    @Override
+    public int rank(E element, boolean inclusive) {
+        return inner.rank(element, inclusive);
+    }
+
+    @Override
+    public E select(int rank) {
+        return inner.select(rank);
+    }
+
     @Override
     public int size() {
         return inner.size();
@@ -122,4 +132,9 @@ public final class LinkedSetImpl<E> extends AbstractSet<E> {
         return removed;
     }
 
+    @Override
+    public AbstractSet<E>[] trySplit(int n) {
+        return inner.trySplit(n); // Iteration order of sub-views is not specified (see trySplit contract).
+    }
+
 }
@@ -45,6 +45,16 @@ public final class MultiSetImpl<E> extends AbstractSet<E> {
         return new MultiSetImpl<E>(inner.clone());
     }
 
+    @Override
+    public int rank(E element, boolean inclusive) {
+        return inner.rank(element, inclusive);
+    }
+
+    @Override
+    public E select(int rank) {
+        return inner.select(rank);
+    }
+
     @Override
     public int size() {
         return inner.size();
@@ -87,12 +97,17 @@ public final class MultiSetImpl<E> extends AbstractSet<E> {
 
     @Override
     public E getAny(E element) {
-        return inner.removeAny(element);
+        return inner.getAny(element);
     }
 
     @Override
     public E removeAny(E element) {
         return inner.removeAny(element);
     }
-    
+
+    @Override
+    public AbstractSet<E>[] trySplit(int n) {
+        return inner.trySplit(n);
+    }
+
 }
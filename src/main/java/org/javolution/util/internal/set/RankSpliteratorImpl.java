@@ -0,0 +1,95 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util.internal.set;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import org.javolution.util.AbstractSet;
+import org.javolution.util.FastIterator;
+
+/**
+ * A spliterator over a range of ranks of an ordered set (split in halves). The set {@link AbstractSet#select
+ * select} and {@link AbstractSet#rank rank} operations should be fast (e.g. logarithmic), they are called once
+ * when the traversal of a range starts. Duplicate elements (multisets) are supported.
+ */
+public final class RankSpliteratorImpl<E> implements Spliterator<E> {
+
+    private final AbstractSet<E> set;
+    private int from; // Inclusive.
+    private int to; // Exclusive (negative until bound).
+    private FastIterator<E> itr; // Null until traversal started (no split afterward).
+
+    public RankSpliteratorImpl(AbstractSet<E> set) {
+        this(set, 0, -1);
+    }
+
+    private RankSpliteratorImpl(AbstractSet<E> set, int from, int to) {
+        this.set = set;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super E> action) {
+        if (from >= to()) return false;
+        if (itr == null) itr = start();
+        action.accept(itr.next());
+        from++;
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super E> action) {
+        if (from >= to()) return;
+        if (itr == null) itr = start();
+        for (; from < to; from++)
+            action.accept(itr.next());
+    }
+
+    @Override
+    public Spliterator<E> trySplit() {
+        int mid = (from + to()) >>> 1;
+        if ((itr != null) || (mid <= from)) return null;
+        Spliterator<E> prefix = new RankSpliteratorImpl<E>(set, from, mid);
+        from = mid;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return to() - from;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SORTED | SIZED | SUBSIZED;
+    }
+
+    @Override
+    public Comparator<? super E> getComparator() {
+        return set.order();
+    }
+
+    /** Returns an iterator positioned on the element at rank {@code from}. */
+    private FastIterator<E> start() {
+        E first = set.select(from);
+        FastIterator<E> start = set.iterator(first);
+        for (int i = set.rank(first, false); i < from; i++) // Skips duplicates ranked before.
+            start.next();
+        return start;
+    }
+
+    private int to() {
+        if (to < 0) to = set.size();
+        return to;
+    }
+
+}
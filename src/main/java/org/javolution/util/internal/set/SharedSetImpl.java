@@ -14,11 +14,14 @@ import java.util.Comparator;
 import org.javolution.util.AbstractCollection;
 import org.javolution.util.AbstractSet;
 import org.javolution.util.FastIterator;
+import org.javolution.util.FastSet;
+import org.javolution.util.function.Accumulator;
 import org.javolution.util.function.BinaryOperator;
 import org.javolution.util.function.Consumer;
 import org.javolution.util.function.Equality;
 import org.javolution.util.function.Order;
 import org.javolution.util.function.Predicate;
+import org.javolution.util.function.Supplier;
 import org.javolution.util.internal.ReadWriteLockImpl;
 
 /**
@@ -30,15 +33,16 @@ public final class SharedSetImpl<E> // implements AbstractSetMethods<E> {
     private static final long serialVersionUID = 0x700L; // Version.
     private final AbstractSet<E> inner;
     private final ReadWriteLockImpl lock;
+    private final boolean optimistic; // Lookups are bounded (FastSet.getAny is final).
 
     public SharedSetImpl(AbstractSet<E> inner) {
-        this.inner = inner;
-        this.lock = new ReadWriteLockImpl();
+        this(inner, new ReadWriteLockImpl());
     }
 
     public SharedSetImpl(AbstractSet<E> inner, ReadWriteLockImpl lock) {
         this.inner = inner;
         this.lock = lock;
+        this.optimistic = inner instanceof FastSet;
     }
 
     @Override
@@ -121,8 +125,10 @@ public final class SharedSetImpl<E> // implements AbstractSetMethods<E> {
         }
     }
 
+    @SuppressWarnings("unchecked")
     @Override
     public boolean contains(final Object searched) {
+        if (optimistic) return getAny((E) searched) != null; // Cast has no effect here.
         lock.readLock.lock();
         try {
             return inner.contains(searched);
@@ -183,12 +189,7 @@ public final class SharedSetImpl<E> // implements AbstractSetMethods<E> {
 
     @Override
     public boolean isEmpty() {
-        lock.readLock.lock();
-        try {
-            return inner.isEmpty();
-        } finally {
-            lock.readLock.unlock();
-        }
+        return lock.optimisticRead(() -> inner.isEmpty());
     }
 
     @Override
@@ -257,6 +258,16 @@ public final class SharedSetImpl<E> // implements AbstractSetMethods<E> {
         }
     }
 
+    @Override
+    public <A extends Accumulator<? super E, A>> A accumulate(Supplier<A> supplier) {
+        lock.readLock.lock();
+        try {
+            return inner.accumulate(supplier);
+        } finally {
+            lock.readLock.unlock();
+        }
+    }
+
     @Override
     public boolean remove(Object searched) {
         lock.writeLock.lock();
@@ -287,6 +298,16 @@ public final class SharedSetImpl<E> // implements AbstractSetMethods<E> {
         }
     }
 
+    @Override
+    public int rank(E element, boolean inclusive) {
+        lock.readLock.lock();
+        try {
+            return inner.rank(element, inclusive);
+        } finally {
+            lock.readLock.unlock();
+        }
+    }
+
     @Override
     public boolean retainAll(Collection<?> that) {
         lock.writeLock.lock();
@@ -298,15 +319,20 @@ public final class SharedSetImpl<E> // implements AbstractSetMethods<E> {
     }
 
     @Override
-    public int size() {
+    public E select(int rank) {
         lock.readLock.lock();
         try {
-            return inner.size();
+            return inner.select(rank);
         } finally {
             lock.readLock.unlock();
         }
     }
 
+    @Override
+    public int size() {
+        return lock.optimisticRead(() -> inner.size());
+    }
+
     @Override
     public Object[] toArray() {
         lock.readLock.lock();
@@ -419,6 +445,15 @@ public final class SharedSetImpl<E> // implements AbstractSetMethods<E> {
 
     @Override
     public E getAny(E element) {
+        long stamp = optimistic ? lock.tryOptimisticRead() : 0; // Mutex-free attempt.
+        if (stamp != 0) {
+            try {
+                E found = inner.getAny(element);
+                if (lock.validate(stamp)) return found;
+            } catch (RuntimeException | Error e) {
+                if (lock.validate(stamp)) throw e; // Not caused by a concurrent write.
+            }
+        }
         lock.readLock.lock();
         try {
             return inner.getAny(element);
@@ -33,7 +33,7 @@ public final class SortedSetImpl<E> extends AbstractSet<E> {
     public boolean add(E element, boolean allowDuplicate) {
         int i = firstIndex(element, 0, size);
         if (!allowDuplicate && (i < size) && comparator.areEqual(element, sorted.get(i))) return false;
-        sorted.insert(i, element);
+        sorted = sorted.insert(i, element);
         size++;
         return true;
     }
@@ -41,10 +41,13 @@ public final class SortedSetImpl<E> extends AbstractSet<E> {
     @Override
     public boolean removeIf(Predicate<? super E> filter) {
         int initialSize = size;
-        for (FractalArray.Iterator<E> itr = sorted.iterator(); itr.hasNext(filter);) {
-            sorted.set(itr.nextIndex(), null);
-            --size;
+        FractalArray<E> remaining = FractalArray.empty(); // Keeps the elements contiguous.
+        size = 0;
+        for (FractalArray.Iterator<E> itr = sorted.iterator(); itr.hasNext();) {
+            E e = itr.next();
+            if (!filter.test(e)) remaining = remaining.set(size++, e);
         }
+        sorted = remaining;
         return initialSize != size;
     }
 
@@ -79,6 +82,17 @@ public final class SortedSetImpl<E> extends AbstractSet<E> {
         return null;
     }
 
+    @Override
+    public int rank(E element, boolean inclusive) {
+        return inclusive ? lastIndex(element, 0, size) : firstIndex(element, 0, size);
+    }
+
+    @Override
+    public E select(int rank) {
+        if ((rank < 0) || (rank >= size)) throw new IndexOutOfBoundsException("rank: " + rank);
+        return sorted.get(rank);
+    }
+
     @Override
     public Order<? super E> order() {
         return comparator;
@@ -86,17 +100,18 @@ public final class SortedSetImpl<E> extends AbstractSet<E> {
 
     @Override
     public FastIterator<E> iterator(E low) {
-        return sorted.iterator(firstIndex(low, 0, size));
+        return sorted.iterator(low != null ? firstIndex(low, 0, size) : 0);
     }
 
     @Override
     public FastIterator<E> descendingIterator(E high) {
-        return sorted.descendingIterator(lastIndex(high, 0, size));
+        int i = (high != null ? lastIndex(high, 0, size) : size) - 1; // Last position lower or equal.
+        return (i >= 0) ? sorted.descendingIterator(i) : FractalArray.<E>empty().descendingIterator(0);
     }
 
     @Override
     public boolean isEmpty() {
-        return size != 0;
+        return size == 0;
     }
 
     @Override
@@ -104,6 +119,13 @@ public final class SortedSetImpl<E> extends AbstractSet<E> {
         return size;
     }
 
+    @Override
+    public SortedSetImpl<E> clone() {
+        SortedSetImpl<E> copy = (SortedSetImpl<E>) super.clone();
+        copy.sorted = sorted.clone();
+        return copy;
+    }
+
     @Override
     public void clear() {
         sorted = FractalArray.empty();
@@ -8,7 +8,6 @@
  */
 package org.javolution.util.internal.set;
 
-import java.util.Iterator;
 import java.util.NoSuchElementException;
 
 import org.javolution.annotations.Nullable;
@@ -111,14 +110,35 @@ public final class SubSetImpl<E> extends AbstractSet<E> {
             }});
     }       
 
-    @Parallel
+    @Override
+    public int rank(E element, boolean inclusive) {
+        if (tooLow(element)) return 0;
+        if (tooHigh(element)) return size();
+        return inner.rank(element, inclusive) - lowRank();
+    }
+
+    @Override
+    public E select(int rank) {
+        if ((rank < 0) || (rank >= size())) throw new IndexOutOfBoundsException("rank: " + rank);
+        return inner.select(lowRank() + rank);
+    }
+
+    /** Range count (difference of the inner ranks of this sub-set bounds). */
     @Override
     public int size() {
-        int count = 0;
-        for (Iterator<E> itr = iterator(); itr.hasNext(); itr.next()) count++;
-        return count;
+        int high = (toElement != null) ? inner.rank(toElement, toInclusive) : inner.size();
+        return Math.max(0, high - lowRank());
     }
  
+    /** Splits the inner set, each sub-view being restricted to this sub-set range. */
+    @Override
+    public AbstractSet<E>[] trySplit(int n) {
+        AbstractSet<E>[] subViews = inner.trySplit(n);
+        for (int i = 0; i < subViews.length; i++)
+            subViews[i] = new SubSetImpl<E>(subViews[i], fromElement, fromInclusive, toElement, toInclusive);
+        return subViews;
+    }
+
     private E ceiling(E element) {
         FastIterator<E> itr = inner.iterator(element);
         if (!itr.hasNext()) return null;
@@ -146,6 +166,11 @@ public final class SubSetImpl<E> extends AbstractSet<E> {
         return itr.next();       
     }
 
+    /** Returns the number of inner elements before this sub-set. */
+    private int lowRank() {
+        return (fromElement != null) ? inner.rank(fromElement, !fromInclusive) : 0;
+    }
+
     private boolean inRange(E e) {
         return !tooHigh(e) && !tooLow(e);
     }
@@ -41,6 +41,16 @@ public final class UnmodifiableSetImpl<E> extends AbstractSet<E> {
         return new UnmodifiableSetImpl<E>(inner.clone());
     }
 
+    @Override
+    public int rank(E element, boolean inclusive) {
+        return inner.rank(element, inclusive);
+    }
+
+    @Override
+    public E select(int rank) {
+        return inner.select(rank);
+    }
+
     @Override
     public int size() {
         return inner.size();
@@ -95,5 +105,10 @@ public final class UnmodifiableSetImpl<E> extends AbstractSet<E> {
     public E removeAny(E element) {
         throw new UnsupportedOperationException(ERROR_MSG);
     }
-    
+
+    @Override
+    public AbstractSet<E>[] trySplit(int n) {
+        return inner.trySplit(n); // Read-only views (see trySplit contract)
+    }
+
 }
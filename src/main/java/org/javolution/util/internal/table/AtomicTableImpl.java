@@ -16,10 +16,12 @@ import org.javolution.util.AbstractCollection;
 import org.javolution.util.AbstractTable;
 import org.javolution.util.FastIterator;
 import org.javolution.util.FastListIterator;
+import org.javolution.util.function.Accumulator;
 import org.javolution.util.function.BinaryOperator;
 import org.javolution.util.function.Consumer;
 import org.javolution.util.function.Equality;
 import org.javolution.util.function.Predicate;
+import org.javolution.util.function.Supplier;
 
 /**
  * An atomic view over a table. All updates are synchronized, reads are performed on immutable copy.
@@ -203,6 +205,11 @@ public final class AtomicTableImpl<E> // implements AbstractTableMethods<E> {
         return innerConst.reduce(operator);
     }
 
+    @Override
+    public <A extends Accumulator<? super E, A>> A accumulate(Supplier<A> supplier) {
+        return innerConst.accumulate(supplier);
+    }
+
     @Override
     public synchronized E remove(int index) {
         E result = inner.remove(index);
@@ -252,6 +259,12 @@ public final class AtomicTableImpl<E> // implements AbstractTableMethods<E> {
         return false;
     }
 
+    @Override
+    public synchronized void removeRange(int fromIndex, int toIndex) {
+        inner.removeRange(fromIndex, toIndex);
+        innerConst = inner.clone();
+    }
+
     @Override
     public synchronized E removeLast() {
         E result = inner.remove(size() - 1);
@@ -66,6 +66,11 @@ public final class CustomEqualityTableImpl<E> extends AbstractTable<E> {
         return inner.remove(index);
     }
 
+    @Override
+    public void removeRange(int fromIndex, int toIndex) {
+        inner.removeRange(fromIndex, toIndex);
+    }
+
     @Override
     public E set(int index, E element) {
         return inner.set(index, element);
@@ -0,0 +1,152 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util.internal.table;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.javolution.context.ConcurrentContext;
+import org.javolution.util.AbstractTable;
+import org.javolution.util.FastTable;
+
+/**
+ * A stable merge sort utility class. The table elements are copied to a flat array, sorted (TimSort) then written
+ * back to the table. The parallel variant sorts disjoint chunks of the array concurrently and merges them
+ * (pairwise, concurrently) using a {@link ConcurrentContext}.
+ */
+public final class MergeSortImpl<E> {
+
+    /** The minimum number of elements per concurrent chunk. */
+    private static final int MIN_CHUNK_SIZE = 1 << 13;
+    private final AbstractTable<E> table;
+    private final Comparator<? super E> comparator;
+
+    public MergeSortImpl(AbstractTable<E> table, Comparator<? super E> comparator) {
+        this.table = table;
+        this.comparator = comparator;
+    }
+
+    /** Sorts the table using the current thread only. */
+    @SuppressWarnings("unchecked")
+    public void sort() {
+        E[] elements = (E[]) table.toArray();
+        Arrays.sort(elements, comparator);
+        writeBack(elements);
+    }
+
+    /** Sorts the table using concurrent threads (if the table is large enough). */
+    @SuppressWarnings("unchecked")
+    public void parallelSort() {
+        E[] elements = (E[]) table.toArray();
+        int n = elements.length;
+        ConcurrentContext ctx = ConcurrentContext.enter();
+        try {
+            int chunks = Math.max(1, Math.min(ctx.getConcurrency() + 1, n / MIN_CHUNK_SIZE));
+            if (chunks == 1) {
+                Arrays.sort(elements, comparator);
+            } else {
+                E[] sorted = parallelSort(elements, chunks);
+                if (sorted != elements) System.arraycopy(sorted, 0, elements, 0, n);
+            }
+        } finally {
+            ctx.exit();
+        }
+        writeBack(elements);
+    }
+
+    /** Sorts the chunks then merges them; returns the array holding the result. */
+    @SuppressWarnings("unchecked")
+    private E[] parallelSort(E[] elements, int chunks) {
+        int[] bounds = new int[chunks + 1];
+        for (int i = 0; i <= chunks; i++)
+            bounds[i] = (int) ((long) elements.length * i / chunks);
+        Runnable[] sorts = new Runnable[chunks];
+        for (int i = 0; i < chunks; i++)
+            sorts[i] = new ChunkSort(elements, bounds[i], bounds[i + 1]);
+        runAll(sorts);
+        E[] src = elements;
+        E[] dst = (E[]) new Object[elements.length];
+        for (int width = 1; width < chunks; width *= 2) { // Merges pairs of adjacent runs.
+            int merges = (chunks + 2 * width - 1) / (2 * width);
+            Runnable[] tasks = new Runnable[merges];
+            for (int i = 0, c = 0; i < merges; i++, c += 2 * width) {
+                int from = bounds[c];
+                int mid = bounds[Math.min(c + width, chunks)];
+                int to = bounds[Math.min(c + 2 * width, chunks)];
+                tasks[i] = new Merge(src, dst, from, mid, to);
+            }
+            runAll(tasks);
+            E[] tmp = src;
+            src = dst;
+            dst = tmp;
+        }
+        return src;
+    }
+
+    /** Executes the specified logics concurrently (the current thread executes the first one). */
+    private static void runAll(Runnable[] logics) {
+        ConcurrentContext ctx = ConcurrentContext.enter();
+        try {
+            for (int i = 1; i < logics.length; i++)
+                ctx.execute(logics[i]);
+            logics[0].run(); // Current thread needs to work too!
+        } finally {
+            ctx.exit(); // Waits for concurrent completion.
+        }
+    }
+
+    /** Writes the sorted elements back into the table (bulk update for fast tables). */
+    private void writeBack(E[] elements) {
+        if (table instanceof FastTable) {
+            ((FastTable<E>) table).setAll(0, elements);
+            return;
+        }
+        for (int i = 0; i < elements.length; i++)
+            table.set(i, elements[i]);
+    }
+
+    private final class ChunkSort implements Runnable {
+        private final E[] elements;
+        private final int from, to;
+
+        ChunkSort(E[] elements, int from, int to) {
+            this.elements = elements;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public void run() {
+            Arrays.sort(elements, from, to, comparator);
+        }
+    }
+
+    private final class Merge implements Runnable {
+        private final E[] src, dst;
+        private final int from, mid, to;
+
+        Merge(E[] src, E[] dst, int from, int mid, int to) {
+            this.src = src;
+            this.dst = dst;
+            this.from = from;
+            this.mid = mid;
+            this.to = to;
+        }
+
+        @Override
+        public void run() { // Stable (left elements first when equal).
+            int i = from, j = mid, k = from;
+            while ((i < mid) && (j < to))
+                dst[k++] = (comparator.compare(src[j], src[i]) < 0) ? src[j++] : src[i++];
+            System.arraycopy(src, i, dst, k, mid - i);
+            System.arraycopy(src, j, dst, k + mid - i, to - j);
+        }
+    }
+
+}
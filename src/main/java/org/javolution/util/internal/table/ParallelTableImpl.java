@@ -0,0 +1,162 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util.internal.table;
+
+import java.util.Comparator;
+
+import org.javolution.annotations.Parallel;
+import org.javolution.util.AbstractCollection;
+import org.javolution.util.AbstractTable;
+import org.javolution.util.FastListIterator;
+import org.javolution.util.function.Accumulator;
+import org.javolution.util.function.BinaryOperator;
+import org.javolution.util.function.Consumer;
+import org.javolution.util.function.Equality;
+import org.javolution.util.function.Predicate;
+import org.javolution.util.function.Supplier;
+import org.javolution.util.internal.collection.ParallelCollectionImpl;
+
+/**
+ * A parallel view over a table ({@link Parallel} closures and {@link #sort sort} performed concurrently).
+ */
+public final class ParallelTableImpl<E> extends AbstractTable<E> {
+
+    private static final long serialVersionUID = 0x700L; // Version.
+    private final AbstractTable<E> inner;
+    private final ParallelCollectionImpl<E> closures;
+
+    public ParallelTableImpl(AbstractTable<E> inner) {
+        this.inner = inner;
+        this.closures = new ParallelCollectionImpl<E>(inner);
+    }
+
+    @Override
+    public boolean add(E element) {
+        return inner.add(element);
+    }
+
+    @Override
+    public void add(int index, E element) {
+        inner.add(index, element);
+    }
+
+    @Override
+    @Parallel
+    public boolean anyMatch(Predicate<? super E> predicate) {
+        return closures.anyMatch(predicate);
+    }
+
+    @Override
+    public void clear() {
+        inner.clear();
+    }
+
+    @Override
+    public ParallelTableImpl<E> clone() {
+        return new ParallelTableImpl<E>(inner.clone());
+    }
+
+    @Override
+    @Parallel
+    public AbstractCollection<E> collect() {
+        return closures.collect();
+    }
+
+    @Override
+    public Equality<? super E> equality() {
+        return inner.equality();
+    }
+
+    @Override
+    @Parallel
+    public E findAny() {
+        return closures.findAny();
+    }
+
+    @Override
+    @Parallel
+    public void forEach(Consumer<? super E> consumer) {
+        closures.forEach(consumer);
+    }
+
+    @Override
+    public E get(int index) {
+        return inner.get(index);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return inner.isEmpty();
+    }
+
+    @Override
+    public FastListIterator<E> listIterator(int index) {
+        return inner.listIterator(index);
+    }
+
+    @Override
+    public ParallelTableImpl<E> parallel() {
+        return this;
+    }
+
+    @Override
+    @Parallel
+    public E reduce(BinaryOperator<E> operator) {
+        return closures.reduce(operator);
+    }
+
+    @Override
+    @Parallel
+    public <A extends Accumulator<? super E, A>> A accumulate(Supplier<A> supplier) {
+        return closures.accumulate(supplier);
+    }
+
+    @Override
+    public E remove(int index) {
+        return inner.remove(index);
+    }
+
+    @Override
+    public void removeRange(int fromIndex, int toIndex) {
+        inner.removeRange(fromIndex, toIndex);
+    }
+
+    @Override
+    @Parallel
+    public boolean removeIf(Predicate<? super E> filter) {
+        return closures.removeIf(filter);
+    }
+
+    @Override
+    public AbstractTable<E> sequential() {
+        return inner;
+    }
+
+    @Override
+    public E set(int index, E element) {
+        return inner.set(index, element);
+    }
+
+    @Override
+    public int size() {
+        return inner.size();
+    }
+
+    @Override
+    @Parallel
+    public void sort(Comparator<? super E> cmp) {
+        new MergeSortImpl<E>(inner, cmp).parallelSort();
+    }
+
+    @Override
+    public AbstractTable<E>[] trySplit(int n) {
+        return inner.trySplit(n);
+    }
+
+}
@@ -16,10 +16,12 @@ import org.javolution.util.AbstractCollection;
 import org.javolution.util.AbstractTable;
 import org.javolution.util.FastIterator;
 import org.javolution.util.FastListIterator;
+import org.javolution.util.function.Accumulator;
 import org.javolution.util.function.BinaryOperator;
 import org.javolution.util.function.Consumer;
 import org.javolution.util.function.Equality;
 import org.javolution.util.function.Predicate;
+import org.javolution.util.function.Supplier;
 import org.javolution.util.internal.ReadWriteLockImpl;
 
 /**
@@ -209,6 +211,15 @@ public final class SharedTableImpl<E> //implements AbstractTableMethods<E> {
 
     @Override
     public E get(int index) {
+        long stamp = lock.tryOptimisticRead(); // Mutex-free attempt.
+        if (stamp != 0) {
+            try {
+                E result = inner.get(index);
+                if (lock.validate(stamp)) return result;
+            } catch (RuntimeException | Error e) {
+                if (lock.validate(stamp)) throw e; // Not caused by a concurrent write.
+            }
+        }
         lock.readLock.lock();
         try {
             return inner.get(index);
@@ -327,6 +338,16 @@ public final class SharedTableImpl<E> //implements AbstractTableMethods<E> {
         }
     }
 
+    @Override
+    public <A extends Accumulator<? super E, A>> A accumulate(Supplier<A> supplier) {
+        lock.readLock.lock();
+        try {
+            return inner.accumulate(supplier);
+        } finally {
+            lock.readLock.unlock();
+        }
+    }
+
     @Override
     public E remove(int index) {
         lock.writeLock.lock();
@@ -387,6 +408,16 @@ public final class SharedTableImpl<E> //implements AbstractTableMethods<E> {
         }
     }
 
+    @Override
+    public void removeRange(int fromIndex, int toIndex) {
+        lock.writeLock.lock();
+        try {
+            inner.removeRange(fromIndex, toIndex);
+        } finally {
+            lock.writeLock.unlock();
+        }
+    }
+
     @Override
     public E removeLast() {
         lock.writeLock.lock();
@@ -429,12 +460,7 @@ public final class SharedTableImpl<E> //implements AbstractTableMethods<E> {
 
     @Override
     public int size() {
-        lock.readLock.lock();
-        try {
-            return inner.size();
-        } finally {
-            lock.readLock.unlock();
-        }
+        return lock.optimisticRead(() -> inner.size());
     }
 
     @Override
@@ -556,12 +582,7 @@ public final class SharedTableImpl<E> //implements AbstractTableMethods<E> {
 
     @Override
     public boolean isEmpty() {
-        lock.readLock.lock();
-        try {
-            return inner.isEmpty();
-        } finally {
-            lock.readLock.unlock();
-        }
+        return lock.optimisticRead(() -> inner.isEmpty());
     }
 
     @Override
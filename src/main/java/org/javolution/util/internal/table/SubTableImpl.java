@@ -47,7 +47,7 @@ public final class SubTableImpl<E> extends AbstractTable<E> implements List<E> {
 
     @Override
     public void clear() {
-        removeIf(Predicate.TRUE);
+        removeRange(0, size());
     }
 
     @Override
@@ -68,8 +68,8 @@ public final class SubTableImpl<E> extends AbstractTable<E> implements List<E> {
 
     @Override
     public FastListIterator<E> listIterator(int index) {
-        if (index < 0 || index >= size()) throw new IndexOutOfBoundsException();
-        return new IteratorImpl<E>(inner.listIterator(index + fromIndex), fromIndex, toIndex);
+        if (index < 0 || index > size()) throw new IndexOutOfBoundsException();
+        return new IteratorImpl<E>(inner, fromIndex, toIndex, index + fromIndex);
     }
 
     @Override
@@ -79,6 +79,13 @@ public final class SubTableImpl<E> extends AbstractTable<E> implements List<E> {
         return inner.remove(index + fromIndex);
     }
 
+    @Override
+    public void removeRange(int from, int to) {
+        if ((from < 0) || (to > size()) || (from > to)) throw new IndexOutOfBoundsException();
+        inner.removeRange(from + fromIndex, to + fromIndex);
+        toIndex -= to - from;
+    }
+
     @Override
     public E set(int index, E element) {
         if ((index < 0) || (index >= size())) throw new IndexOutOfBoundsException();
@@ -90,16 +97,18 @@ public final class SubTableImpl<E> extends AbstractTable<E> implements List<E> {
         return toIndex - fromIndex;
     }
     
-    /** List Iterator over reversed tables. */
+    /** List Iterator over a portion of a table (cursor tracked, never going past the sub-table bounds). */
     private static final class IteratorImpl<E> implements FastListIterator<E> {
-        private final FastListIterator<E> innerItr;
+        private final AbstractTable<E> inner;
         private final int fromIndex; // Inclusive.
         private final int toIndex; // Exclusive. 
+        private int nextIndex; // Inner index.
  
-        private IteratorImpl(FastListIterator<E> innerItr, int fromIndex, int toIndex) {
-            this.innerItr = innerItr;
+        private IteratorImpl(AbstractTable<E> inner, int fromIndex, int toIndex, int nextIndex) {
+            this.inner = inner;
             this.fromIndex = fromIndex;
             this.toIndex = toIndex;
+            this.nextIndex = nextIndex;
         }
 
         @Override
@@ -109,57 +118,50 @@ public final class SubTableImpl<E> extends AbstractTable<E> implements List<E> {
 
         @Override
         public boolean hasNext() {
-            return innerItr.hasNext() && innerItr.nextIndex() < toIndex;
+            return nextIndex < toIndex;
         }
 
         @Override
-        public boolean hasNext(final Predicate<? super E> matching) {
-            return innerItr.hasNext(new Predicate<E>() {
-
-                @Override
-                public boolean test(E param) {
-                    return innerItr.nextIndex() < toIndex && matching.test(param);
-                }});
+        public boolean hasNext(Predicate<? super E> matching) {
+            for (; nextIndex < toIndex; nextIndex++)
+                if (matching.test(inner.get(nextIndex))) return true;
+            return false;
         }
 
         @Override
         public boolean hasPrevious() {
-            return innerItr.hasPrevious() && innerItr.previousIndex() >= fromIndex;
+            return nextIndex > fromIndex;
         }
 
         @Override
-        public boolean hasPrevious(final Predicate<? super E> matching) {
-            return innerItr.hasPrevious(new Predicate<E>() {
-
-                @Override
-                public boolean test(E param) {
-                    return innerItr.previousIndex() >= fromIndex && matching.test(param);
-                }});
+        public boolean hasPrevious(Predicate<? super E> matching) {
+            for (; nextIndex > fromIndex; nextIndex--)
+                if (matching.test(inner.get(nextIndex - 1))) return true;
+            return false;
         }
 
         @Override
         public E next() {
-            if (innerItr.nextIndex() >= toIndex) throw new NoSuchElementException();
-            return innerItr.next();
+            if (nextIndex >= toIndex) throw new NoSuchElementException();
+            return inner.get(nextIndex++);
         }
 
         @Override
         public int nextIndex() {
-            return innerItr.nextIndex() - fromIndex;
+            return nextIndex - fromIndex;
         }
 
         @Override
         public E previous() {
-            if (innerItr.previousIndex() < fromIndex) throw new NoSuchElementException();
-            return innerItr.previous();
+            if (nextIndex <= fromIndex) throw new NoSuchElementException();
+            return inner.get(--nextIndex);
         }
 
         @Override
         public int previousIndex() {
-            return innerItr.previousIndex() - fromIndex;
+            return nextIndex - 1 - fromIndex;
         }
 
- 
         @Override
         public void remove() {
             throw new UnsupportedOperationException();
@@ -0,0 +1,74 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util.internal.table;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+import org.javolution.util.AbstractTable;
+
+/**
+ * A spliterator over a range of indices of a table (split in halves). The end of the range is bound to the table
+ * size when the spliterator is first used (late-binding).
+ */
+public final class TableSpliteratorImpl<E> implements Spliterator<E> {
+
+    private final AbstractTable<E> table;
+    private int from; // Inclusive.
+    private int to; // Exclusive (negative until bound).
+
+    public TableSpliteratorImpl(AbstractTable<E> table) {
+        this(table, 0, -1);
+    }
+
+    private TableSpliteratorImpl(AbstractTable<E> table, int from, int to) {
+        this.table = table;
+        this.from = from;
+        this.to = to;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super E> action) {
+        if (from >= to()) return false;
+        action.accept(table.get(from++));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super E> action) {
+        for (int i = from, n = to(); i < n; i++)
+            action.accept(table.get(i));
+        from = to;
+    }
+
+    @Override
+    public Spliterator<E> trySplit() {
+        int mid = (from + to()) >>> 1;
+        if (mid <= from) return null;
+        Spliterator<E> prefix = new TableSpliteratorImpl<E>(table, from, mid);
+        from = mid;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return to() - from;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED;
+    }
+
+    private int to() {
+        if (to < 0) to = table.size();
+        return to;
+    }
+
+}
@@ -65,6 +65,11 @@ public final class UnmodifiableTableImpl<E> extends AbstractTable<E> {
         throw new UnsupportedOperationException(ERROR_MSG);
     }
 
+    @Override
+    public void removeRange(int fromIndex, int toIndex) {
+        throw new UnsupportedOperationException(ERROR_MSG);
+    }
+
     @Override
     public E set(int index, E element) {
         throw new UnsupportedOperationException(ERROR_MSG);
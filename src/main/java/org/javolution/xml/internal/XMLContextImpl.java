@@ -34,7 +34,7 @@ public final class XMLContextImpl extends XMLContext {
 
     // Holds class->format mapping. 
     private final Map<Class<?>, XMLFormat<?>> 
-         classToFormat = new FastMap<Class<?>, XMLFormat<?>>().shared();
+         classToFormat = new FastMap<Class<?>, XMLFormat<?>>().concurrent();
 
     // Holds parent (null if root).
     private final XMLContextImpl parent;
@@ -0,0 +1,138 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ * 
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.context;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.javolution.context.internal.ConcurrentContextImpl;
+import org.javolution.context.internal.ForkJoinContextImpl;
+import org.javolution.context.internal.VirtualThreadContextImpl;
+import org.junit.Test;
+
+/**
+ * Validation of the ConcurrentContext implementations.
+ */
+public class ConcurrentContextTest {
+
+	@Test
+	public void testThreads() {
+		checkImplementation(new ConcurrentContextImpl());
+	}
+
+	@Test
+	public void testWorkStealing() {
+		checkImplementation(new ForkJoinContextImpl());
+	}
+
+	@Test
+	public void testVirtualThreads() {
+		if (!VirtualThreadContextImpl.isSupported()) return; // JVM without virtual threads.
+		checkImplementation(new VirtualThreadContextImpl());
+		AbstractContext.inherit(new VirtualThreadContextImpl());
+		try { // Blocking fan-out (not limited by the concurrency).
+			final AtomicLong count = new AtomicLong();
+			ConcurrentContext ctx = ConcurrentContext.enter();
+			try {
+				for (int i = 0; i < 1000; i++) {
+					ctx.execute(new Runnable() {
+						public void run() {
+							try {
+								Thread.sleep(100);
+							} catch (InterruptedException e) {
+								throw new RuntimeException(e);
+							}
+							count.incrementAndGet();
+						}
+					});
+				}
+			} finally {
+				ctx.exit();
+			}
+			assertEquals("All blocking tasks completed", 1000, count.get());
+		} finally {
+			AbstractContext.inherit(null);
+		}
+	}
+
+	private static void checkImplementation(ConcurrentContext root) {
+		AbstractContext.inherit(root);
+		try {
+			AtomicLong sum = new AtomicLong();
+			recursiveSum(0, 100000, sum); // Nested contexts.
+			assertEquals("Recursive sum", 100000L * 99999 / 2, sum.get());
+			checkErrorPropagation();
+			checkContextInheritance();
+		} finally {
+			AbstractContext.inherit(null);
+		}
+	}
+
+	private static void recursiveSum(final int from, final int to, final AtomicLong sum) {
+		if (to - from <= 1000) {
+			long s = 0;
+			for (int i = from; i < to; i++) s += i;
+			sum.addAndGet(s);
+			return;
+		}
+		final int half = (from + to) >>> 1;
+		ConcurrentContext.execute(new Runnable() {
+			public void run() {
+				recursiveSum(from, half, sum);
+			}
+		}, new Runnable() {
+			public void run() {
+				recursiveSum(half, to, sum);
+			}
+		});
+	}
+
+	private static void checkErrorPropagation() {
+		ConcurrentContext ctx = ConcurrentContext.enter();
+		try {
+			ctx.execute(new Runnable() {
+				public void run() {
+					throw new IllegalStateException("Concurrent error");
+				}
+			});
+		} catch (IllegalStateException e) {
+			fail("Error should be propagated upon exit");
+		} finally {
+			try {
+				ctx.exit();
+				fail("Error not propagated");
+			} catch (IllegalStateException e) {
+				assertEquals("Concurrent error", e.getMessage());
+			}
+		}
+	}
+
+	private static void checkContextInheritance() {
+		final ConcurrentContext ctx = ConcurrentContext.enter();
+		final AbstractContext[] current = new AbstractContext[8];
+		try {
+			for (int i = 0; i < current.length; i++) {
+				final int index = i;
+				ctx.execute(new Runnable() {
+					public void run() {
+						current[index] = AbstractContext.current();
+					}
+				});
+			}
+		} finally {
+			ctx.exit();
+		}
+		for (AbstractContext inherited : current) 
+			assertSame("Context stack inherited", ctx, inherited);
+	}
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.context.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+
+import org.javolution.context.LogContext.Backpressure;
+import org.javolution.context.LogContext.Level;
+import org.javolution.text.TextBuilder;
+import org.junit.Test;
+
+/**
+ * Validation of the logging ring buffer and of its backpressure policies.
+ */
+public class LoggingThreadTest {
+
+	@Test
+	public void testRingBuffer() throws InterruptedException {
+		final Recorder recorder = new Recorder(8, Backpressure.BLOCK, true);
+		Thread[] producers = new Thread[4];
+		for (int t = 0; t < producers.length; t++) {
+			final int id = t;
+			producers[t] = new Thread(() -> {
+				for (int i = 0; i < 2000; i++)
+					recorder.log(id, ":", i);
+			});
+			producers[t].start();
+		}
+		for (Thread producer : producers)
+			producer.join();
+		recorder.awaitDelivered(8000);
+		int[] next = new int[producers.length];
+		for (String message : recorder.delivered) { // Per producer order preserved, no event lost or duplicated.
+			int separator = message.indexOf(':');
+			int id = Integer.parseInt(message.substring(0, separator));
+			assertEquals(next[id]++, Integer.parseInt(message.substring(separator + 1)));
+		}
+	}
+
+	@Test
+	public void testBlock() throws InterruptedException {
+		final Recorder recorder = new Recorder(2, Backpressure.BLOCK, false);
+		recorder.log("0");
+		recorder.log("1"); // Full (consumer stalled).
+		Thread producer = new Thread(() -> recorder.log("2"));
+		producer.start();
+		long deadline = System.currentTimeMillis() + 10000;
+		while (producer.getState() != Thread.State.WAITING) { // Parked (no busy-wait).
+			if (System.currentTimeMillis() > deadline) fail("Producer not parked: " + producer.getState());
+			Thread.sleep(1);
+		}
+		assertEquals(0, recorder.delivered.size());
+		recorder.gate.countDown();
+		producer.join(10000);
+		assertFalse(producer.isAlive());
+		recorder.awaitDelivered(3);
+		assertEquals(Arrays.asList("0", "1", "2"), Arrays.asList(recorder.delivered.toArray()));
+	}
+
+	@Test
+	public void testDrop() throws InterruptedException {
+		Recorder recorder = new Recorder(2, Backpressure.DROP, false);
+		for (int i = 0; i < 5; i++)
+			recorder.log(i); // Events 2, 3 and 4 are dropped.
+		recorder.gate.countDown();
+		recorder.awaitDelivered(2);
+		recorder.log("last");
+		recorder.awaitDelivered(3);
+		assertEquals(Arrays.asList("0", "1", "last"), Arrays.asList(recorder.delivered.toArray()));
+	}
+
+	@Test
+	public void testCallerRuns() throws InterruptedException {
+		Recorder recorder = new Recorder(2, Backpressure.CALLER_RUNS, false);
+		recorder.log("0");
+		recorder.log("1");
+		recorder.log("2"); // Delivered synchronously.
+		assertEquals(Arrays.asList("2"), Arrays.asList(recorder.delivered.toArray()));
+		recorder.gate.countDown();
+		recorder.awaitDelivered(3);
+		assertEquals(Arrays.asList("2", "0", "1"), Arrays.asList(recorder.delivered.toArray()));
+	}
+
+	/** Logging thread recording the events delivered (the consumer waits for the gate to be opened). */
+	private static final class Recorder extends LoggingThread {
+		final ConcurrentLinkedQueue<String> delivered = new ConcurrentLinkedQueue<String>();
+		final CountDownLatch gate;
+		private final Backpressure backpressure;
+
+		Recorder(int size, Backpressure backpressure, boolean open) {
+			super(size);
+			this.backpressure = backpressure;
+			this.gate = new CountDownLatch(open ? 0 : 1);
+		}
+
+		@Override
+		Backpressure backpressure() {
+			return backpressure;
+		}
+
+		@Override
+		void deliver(Object[] logServices, Level level, TextBuilder text, Throwable error) {
+			if (Thread.currentThread() == this) {
+				try {
+					gate.await();
+				} catch (InterruptedException e) {
+					throw new AssertionError(e);
+				}
+			}
+			delivered.add(text.toString());
+		}
+
+		void log(Object... messages) {
+			queueEvent(Level.INFO, "", "", messages, null);
+		}
+
+		void awaitDelivered(int count) throws InterruptedException {
+			long deadline = System.currentTimeMillis() + 10000;
+			while (delivered.size() < count) {
+				if (System.currentTimeMillis() > deadline) fail("Delivered: " + delivered.size() + " of " + count);
+				Thread.sleep(1);
+			}
+		}
+	}
+
+}
@@ -225,6 +225,29 @@ public class MathLibTest {
 		assertEquals("Round(1.9) is 2.0", 2.0f, MathLib.round(1.9f), 1.0);
 	}
 	
+	@Test
+	public void testInterleaveWithLong(){
+		assertEquals("Interleave(1, 0) is 1", 1L, MathLib.interleave(1L, 0L));
+		assertEquals("Interleave(0, 1) is 2", 2L, MathLib.interleave(0L, 1L));
+		assertEquals("Interleave(0, 0, 1) is 4", 4L, MathLib.interleave(0L, 0L, 1L));
+		assertEquals("Interleave of max values is -1", -1L, MathLib.interleave(0xFFFFFFFFL, 0xFFFFFFFFL));
+		assertEquals("Deinterleave2D(-1).first is max", Long.valueOf(0xFFFFFFFFL), MathLib.deinterleave2D(-1L).first());
+		long x = 0x12345678L, y = 0x9ABCDEF0L;
+		long xy = MathLib.interleave(x, y);
+		assertEquals("Deinterleave2D First", Long.valueOf(x), MathLib.deinterleave2D(xy).first());
+		assertEquals("Deinterleave2D Second", Long.valueOf(y), MathLib.deinterleave2D(xy).second());
+		long z = 0x1ABCDEL;
+		long xyz = MathLib.interleave(0x12345L, 0x1FFFFFL, z);
+		assertEquals("Deinterleave3D First", Long.valueOf(0x12345L), MathLib.deinterleave3D(xyz).first());
+		assertEquals("Deinterleave3D Second", Long.valueOf(0x1FFFFFL), MathLib.deinterleave3D(xyz).second());
+		assertEquals("Deinterleave3D Third", Long.valueOf(z), MathLib.deinterleave3D(xyz).third());
+	}
+	
+	@Test(expected=IllegalArgumentException.class)
+	public void testInterleaveOverflow(){
+		MathLib.interleave(0L, 0L, 1L << 21);
+	}
+	
 	@Test
 	public void testSqrt(){
 		assertEquals("Sqrt(9) Is 3", 3.0, MathLib.sqrt(9.0), 0.0);
@@ -12,6 +12,9 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.javolution.text.internal.TextInternPoolImpl;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -161,6 +164,47 @@ public class TextTest {
 		assertTrue("Text Instances Are The Same", _text==text);
 	}
 	
+	@Test
+	public void testInternFromCharArray(){
+		Text text = Text.intern("InternedSymbol");
+		CharArray symbol = new CharArray().setArray("<InternedSymbol>".toCharArray(), 1, 14);
+		assertTrue("Text Instances Are The Same", text==Text.intern(symbol));
+		assertTrue("Text Instances Are The Same", text==Text.valueOf("InternedSymbol").intern());
+	}
+	
+	@Test
+	public void testInternConcurrently() throws InterruptedException{
+		final int n = 1000;
+		final AtomicReferenceArray<Text> interned = new AtomicReferenceArray<Text>(n);
+		Thread[] threads = new Thread[4];
+		final boolean[] unique = { true };
+		for (int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread(() -> {
+				for (int i = 0; i < n; i++) {
+					Text text = Text.intern("Concurrent" + i);
+					if (!interned.compareAndSet(i, null, text) && (interned.get(i) != text))
+						unique[0] = false;
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads)
+			thread.join();
+		assertTrue("Text Instances Are The Same", unique[0]);
+	}
+	
+	@Test
+	public void testInternPoolMaximum(){
+		TextInternPoolImpl pool = new TextInternPoolImpl(Text.Retention.STRONG, 1);
+		Text first = Text.valueOf("First");
+		assertTrue("First Text Is Pooled", first==pool.intern(first));
+		assertTrue("Lookup Finds The Pooled Text", first==pool.get("First"));
+		Text second = Text.valueOf("Second");
+		assertTrue("Second Text Is Not Pooled", second==pool.intern(second));
+		assertTrue("Second Text Not Found", pool.get("Second")==null);
+		assertEquals("Pool Size Is 1", 1, pool.size());
+	}
+	
 	@Test
 	public void testIsBlank(){
 		assertFalse("IsBlank() = False", _text.isBlank());
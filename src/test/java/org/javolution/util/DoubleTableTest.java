@@ -0,0 +1,39 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class DoubleTableTest {
+
+	@Test
+	public void testCompensatedSum() {
+		DoubleTable table = new DoubleTable();
+		table.addDouble(1.0);
+		for (int i = 0; i < 10000; i++) table.addDouble(1e-16);
+		assertEquals(1.0 + 1e-12, table.sum(), 1e-16);
+	}
+
+	@Test
+	public void testMinMax() {
+		DoubleTable table = new DoubleTable(new double[] { 3.0, -1.5, 7.25 });
+		assertEquals(-1.5, table.min(), 0.0);
+		assertEquals(7.25, table.max(), 0.0);
+		table.addDouble(1, Double.NaN);
+		assertTrue(Double.isNaN(table.min()));
+		table.removeDouble(1);
+		table.sort();
+		assertEquals(-1.5, table.getDouble(0), 0.0);
+		assertEquals(Double.valueOf(7.25), table.getLast());
+	}
+
+}
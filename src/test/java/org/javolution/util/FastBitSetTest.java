@@ -12,6 +12,13 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.StreamSupport;
+
 import org.javolution.lang.Index;
 import org.javolution.util.FastBitSet;
 import org.junit.Before;
@@ -106,6 +113,13 @@ public class FastBitSetTest {
 		assertEquals("Next Clear Bit Is 0", 0, _fastBitSetNone.nextClearBit(0));
 		assertEquals("Next Clear Bit = 9, From 1", 9, _fastBitSetAll.nextClearBit(1));
 		assertEquals("Next Clear Bit = 4, From 3", 4, _fastBitSet3567.nextClearBit(3));
+		FastBitSet full = new FastBitSet();
+		full.set(0, 65536); // Last chunk fully set.
+		assertEquals("After Full Last Chunk", 65536, full.nextClearBit(0));
+		assertEquals("After Full Last Chunk, From 100", 65536, full.nextClearBit(100));
+		full.set(65536, 131072);
+		full.set(200000);
+		assertEquals("After Full Chunks", 131072, full.nextClearBit(5));
 	}
 	
 	@Test
@@ -199,4 +213,160 @@ public class FastBitSetTest {
 		assertTrue("FastBitSet Is Empty", _fastBitSetAll.isEmpty());
 		assertEquals("FastBitSet Size == 0 ", 0,  _fastBitSetAll.size());
 	}
+
+	@Test
+	public void testSparseHighBit(){
+		FastBitSet bitSet = new FastBitSet();
+		bitSet.set(Integer.MAX_VALUE - 1); // Used to allocate 256 MB.
+		assertEquals(Integer.MAX_VALUE, bitSet.length());
+		assertEquals(Integer.MAX_VALUE - 1, bitSet.nextSetBit(0));
+		assertEquals(-1, bitSet.previousSetBit(Integer.MAX_VALUE - 2));
+		assertEquals(1, bitSet.size());
+	}
+
+	@Test
+	public void testContainers(){
+		Random rnd = new Random(0);
+		for (int n = 0; n < 20; n++) {
+			BitSet expected1 = new BitSet();
+			BitSet expected2 = new BitSet();
+			FastBitSet bitSet1 = random(rnd, expected1);
+			FastBitSet bitSet2 = random(rnd, expected2);
+			check(expected1, bitSet1);
+			assertEquals(expected1.intersects(expected2), bitSet1.intersects(bitSet2));
+			switch (n % 4) {
+			case 0: expected1.and(expected2); bitSet1.and(bitSet2); break;
+			case 1: expected1.or(expected2); bitSet1.or(bitSet2); break;
+			case 2: expected1.xor(expected2); bitSet1.xor(bitSet2); break;
+			default: expected1.andNot(expected2); bitSet1.andNot(bitSet2);
+			}
+			check(expected1, bitSet1);
+			check(expected2, bitSet2); // Unchanged.
+		}
+	}
+
+	/** Random bits: sparse, dense and runs chunks. */
+	private static FastBitSet random(Random rnd, BitSet expected) {
+		FastBitSet bitSet = new FastBitSet();
+		for (int i = 0; i < 2000; i++) {
+			int bit = rnd.nextInt(1 << 20);
+			expected.set(bit);
+			bitSet.set(bit);
+		}
+		for (int i = 0; i < 20000; i++) { // Dense chunk.
+			int bit = (1 << 18) + rnd.nextInt(1 << 16);
+			expected.set(bit);
+			bitSet.set(bit);
+		}
+		for (int i = 0; i < 10; i++) {
+			int from = rnd.nextInt(1 << 20);
+			int to = from + rnd.nextInt(1 << 17);
+			switch (rnd.nextInt(3)) {
+			case 0: expected.set(from, to); bitSet.set(from, to); break;
+			case 1: expected.clear(from, to); bitSet.clear(from, to); break;
+			default: expected.flip(from, to); bitSet.flip(from, to);
+			}
+		}
+		for (int i = 0; i < 1000; i++) {
+			int bit = rnd.nextInt(1 << 20);
+			expected.clear(bit);
+			bitSet.clear(bit);
+		}
+		return bitSet;
+	}
+
+	private static void check(BitSet expected, FastBitSet bitSet) {
+		assertEquals(expected.cardinality(), bitSet.cardinality());
+		assertEquals(expected.length(), bitSet.length());
+		for (int i = expected.nextSetBit(0), j = bitSet.nextSetBit(0); (i >= 0) || (j >= 0); 
+				i = expected.nextSetBit(i + 1), j = bitSet.nextSetBit(j + 1)) 
+			assertEquals(i, j);
+		Random rnd = new Random(1);
+		for (int n = 0; n < 1000; n++) {
+			int bit = rnd.nextInt(1 << 21);
+			assertEquals(expected.get(bit), bitSet.get(bit));
+			assertEquals(expected.nextClearBit(bit), bitSet.nextClearBit(bit));
+			assertEquals(expected.previousSetBit(bit), bitSet.previousSetBit(bit));
+			assertEquals(expected.previousClearBit(bit), bitSet.previousClearBit(bit));
+		}
+		assertTrue(Arrays.equals(expected.toLongArray(), bitSet.toLongArray()));
+		for (int n = 0; n < 1000; n++) {
+			int bit = rnd.nextInt(1 << 21);
+			int rank = expected.get(0, bit).cardinality();
+			assertEquals(rank, bitSet.rank(bit));
+			if (rank < expected.cardinality()) assertEquals(expected.nextSetBit(bit), bitSet.selectInt(rank));
+		}
+		final int[] bits = expected.stream().toArray();
+		final int[] position = new int[1];
+		bitSet.forEachSetBit(bit -> assertEquals(bits[position[0]++], bit));
+		assertEquals(bits.length, position[0]);
+		if (bits.length > 0) {
+			int from = bits[bits.length / 2];
+			assertTrue(Arrays.equals(expected.stream().filter(i -> i >= from).toArray(), 
+					toArray(bitSet.intIterator(from))));
+		}
+		int count = 0;
+		for (Index index : bitSet) 
+			assertTrue(expected.get(index.intValue()) && (++count > 0));
+		assertEquals(expected.cardinality(), count);
+	}
+
+	private static int[] toArray(PrimitiveIterator.OfInt itr) {
+		IntTable table = new IntTable();
+		while (itr.hasNext()) table.addInt(itr.nextInt());
+		return table.toIntArray();
+	}
+
+	@Test
+	public void testSpliterator() {
+		BitSet expected = new BitSet();
+		FastBitSet bitSet = new FastBitSet();
+		Random rnd = new Random(0);
+		for (int n = 0; n < 10000; n++) {
+			int bit = (n < 5000) ? rnd.nextInt(1 << 20) : rnd.nextInt(1 << 16); // Dense first chunk.
+			expected.set(bit);
+			bitSet.set(bit);
+		}
+		Spliterator.OfInt itr = bitSet.intSpliterator();
+		assertTrue(itr.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.SORTED));
+		assertEquals(expected.cardinality(), itr.estimateSize());
+		assertEquals(expected.stream().asLongStream().sum(), 
+				StreamSupport.intStream(bitSet.intSpliterator(), true).asLongStream().sum());
+		assertTrue(Arrays.equals(expected.stream().toArray(), 
+				StreamSupport.intStream(bitSet.intSpliterator(), true).toArray()));
+		int leaves = 0;
+		long size = 0;
+		for (FastTable<Spliterator.OfInt> pending = new FastTable<Spliterator.OfInt>().with(itr); !pending.isEmpty();) {
+			Spliterator.OfInt split = pending.removeLast();
+			Spliterator.OfInt prefix = split.trySplit();
+			if (prefix != null) {
+				pending.addLast(prefix);
+				pending.addLast(split);
+				continue;
+			}
+			long count = split.estimateSize();
+			assertEquals(count, StreamSupport.intStream(split, false).count());
+			size += count;
+			leaves++;
+		}
+		assertEquals(expected.cardinality(), size);
+		assertTrue("Leaves: " + leaves, leaves > 16 * 4); // Splits within the dense chunk.
+		assertEquals(expected.cardinality(), bitSet.stream().parallel().filter(i -> expected.get(i.intValue())).count());
+	}
+
+	@Test
+	public void testSplitReductions() { // Index instances are created during iteration.
+		FastBitSet bitSet = new FastBitSet();
+		for (int i = 0; i < 10000; i++) bitSet.set(i * 3);
+		long count = 0, sum = 0;
+		for (AbstractCollection<Index> split : bitSet.trySplit(4)) {
+			count += split.count(i -> true);
+			sum += split.sumLong(i -> i.longValue());
+		}
+		assertEquals("Disjoint Splits", 10000, count);
+		assertEquals("Split Sums", 149985000, sum);
+		assertEquals("Parallel Count", 10000, bitSet.parallel().count(i -> true));
+		assertEquals("Parallel Sum", 149985000, bitSet.parallel().sumLong(i -> i.longValue()));
+	}
+
 }
@@ -0,0 +1,159 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.javolution.util.FastCache.Policy;
+import org.javolution.util.function.Order;
+import org.junit.Test;
+
+public class FastCacheTest {
+
+	@Test
+	public void testLRUEviction() {
+		FastCache<Integer, String> cache = new FastCache<Integer, String>(Order.standard(), 3, Policy.LRU);
+		cache.put(1, "one");
+		cache.put(2, "two");
+		cache.put(3, "three");
+		assertEquals("one", cache.get(1)); // 2 is now the least recently used.
+		cache.put(4, "four");
+		assertEquals(3, cache.size());
+		assertFalse(cache.containsKey(2));
+		assertTrue(cache.containsKey(1));
+		assertTrue(cache.containsKey(3));
+		assertTrue(cache.containsKey(4));
+		assertEquals(1, cache.evictionCount());
+	}
+
+	@Test
+	public void testTinyLFUScanResistance() {
+		// The reuse distance of hot keys exceeds the cache size (LRU always misses).
+		long lruHits = hotHits(new FastCache<Integer, Integer>(Order.standard(), 100, Policy.LRU));
+		long tinyLFUHits = hotHits(new FastCache<Integer, Integer>(Order.standard(), 100, Policy.TINY_LFU));
+		assertEquals(0, lruHits);
+		assertTrue("TinyLFU hits: " + tinyLFUHits, tinyLFUHits > 6000);
+	}
+
+	/** Accesses 60 hot keys interleaved with a scan of one-time keys, returns the number of hot keys hits. */
+	private static long hotHits(FastCache<Integer, Integer> cache) {
+		long hits = 0;
+		for (int i = 0; i < 10000; i++) {
+			int hot = i % 60;
+			if (cache.get(hot) != null) hits++;
+			else cache.put(hot, hot);
+			for (int j = 0; j < 2; j++) {
+				int scan = 1000 + 2 * i + j;
+				if (cache.get(scan) == null) cache.put(scan, scan);
+			}
+			assertTrue(cache.size() <= 100);
+		}
+		return hits;
+	}
+
+	@Test
+	public void testWeight() {
+		FastCache<Integer, String> cache = new FastCache<Integer, String>(Order.standard(), 100, Policy.TINY_LFU)
+				.weigher(s -> s.length());
+		Random random = new Random(0);
+		for (int i = 0; i < 1000; i++) {
+			cache.put(i, new String(new char[random.nextInt(20)]));
+			assertTrue(cache.weightedSize() <= 100);
+		}
+		long weight = 0;
+		for (AbstractMap.Entry<Integer, String> entry : cache.entries())
+			weight += entry.getValue().length();
+		assertEquals(cache.weightedSize(), weight);
+	}
+
+	@Test
+	public void testWeightBoundIsGlobal() {
+		for (Policy policy : Policy.values()) {
+			FastCache<Integer, String> cache = new FastCache<Integer, String>(Order.standard(), 1000, policy)
+					.weigher(s -> s.length());
+			cache.put(1, new String(new char[400])); // Heavier than a share of the maximum.
+			assertTrue(policy.toString(), cache.containsKey(1));
+			assertEquals(400, cache.weightedSize());
+			cache.put(2, new String(new char[500]));
+			assertEquals(900, cache.weightedSize());
+			cache.put(3, new String(new char[300])); // Evicts one entry.
+			assertTrue(cache.weightedSize() <= 1000);
+			assertEquals(2, cache.size());
+			assertEquals(cache.weightedSize(), cache.clone().weightedSize());
+			cache.put(4, new String(new char[1001])); // Too heavy.
+			assertFalse(cache.containsKey(4));
+		}
+	}
+
+	@Test
+	public void testExpireAfterWrite() throws InterruptedException {
+		FastCache<String, String> cache = new FastCache<String, String>(10).expireAfterWrite(50, TimeUnit.MILLISECONDS);
+		cache.put("key", "value");
+		assertEquals("value", cache.get("key"));
+		Thread.sleep(100);
+		assertNull(cache.get("key"));
+		assertFalse(cache.containsKey("key"));
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void testStatistics() {
+		FastCache<String, String> cache = new FastCache<String, String>(10);
+		cache.put("a", "A");
+		cache.get("a");
+		cache.get("a");
+		cache.get("b");
+		cache.containsKey("b"); // Not recorded.
+		assertEquals(2, cache.hitCount());
+		assertEquals(1, cache.missCount());
+		assertEquals(0, cache.evictionCount());
+	}
+
+	@Test
+	public void testMapOperations() {
+		FastCache<String, String> cache = new FastCache<String, String>(10);
+		assertNull(cache.putIfAbsent("a", "A"));
+		assertEquals("A", cache.putIfAbsent("a", "B"));
+		assertTrue(cache.replace("a", "A", "C"));
+		assertEquals("C", cache.replace("a", "D"));
+		assertFalse(cache.remove("a", "C"));
+		assertTrue(cache.remove("a", "D"));
+		assertTrue(cache.isEmpty());
+	}
+
+	@Test
+	public void testConcurrentAccess() throws InterruptedException {
+		final FastCache<Integer, Integer> cache = new FastCache<Integer, Integer>(1000);
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			final int seed = t;
+			threads[t] = new Thread(() -> {
+				Random random = new Random(seed);
+				for (int i = 0; i < 20000; i++) {
+					int key = random.nextInt(5000);
+					Integer value = cache.get(key);
+					if (value == null) cache.put(key, key);
+					else assertEquals(key, value.intValue());
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads)
+			thread.join();
+		assertTrue(cache.size() <= 1000);
+		assertEquals(80000, cache.hitCount() + cache.missCount());
+	}
+
+}
@@ -13,12 +13,16 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 
 import org.javolution.util.FastMap;
+import org.javolution.util.function.Order;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -152,4 +156,158 @@ public class FastMapTest {
 		assertEquals("Size Equals 3", _fastMap.size(), 3);
 	}
 	
+	@Test
+	public void testAtomicViewSnapshots(){
+		FastMap<String,String> map = new FastMap<String,String>();
+		AbstractMap<String,String> atomic = map.atomic();
+		for (int i=0; i < 1000; i++) atomic.put("TestKey" + i, "TestValue" + i);
+		AbstractMap<String,String> snapshot = map.clone();
+		atomic.put("TestKey1", "NewValue1");
+		atomic.remove("TestKey2");
+		assertEquals("Snapshot Value Unchanged", "TestValue1", snapshot.get("TestKey1"));
+		assertEquals("Snapshot Entry Still Present", "TestValue2", snapshot.get("TestKey2"));
+		assertEquals("Atomic View Updated", "NewValue1", atomic.get("TestKey1"));
+		assertNull("Atomic View Entry Removed", atomic.get("TestKey2"));
+		assertEquals("Snapshot Size", 1000, snapshot.size());
+		assertEquals("Atomic View Size", 999, atomic.size());
+	}
+	
+	@Test
+	public void testEntrySetContract(){
+		FastMap<String,Integer> map = new FastMap<String,Integer>().with("a", 1);
+		Set<Entry<String,Integer>> entrySet = map.entrySet();
+		assertFalse("Different Value", entrySet.contains(new AbstractMap.Entry<String,Integer>("a", 99)));
+		assertTrue("Same Value", entrySet.contains(new AbstractMap.Entry<String,Integer>("a", 1)));
+		assertFalse("Remove Different Value", entrySet.remove(new AbstractMap.Entry<String,Integer>("a", 99)));
+		assertEquals("Entry Kept", (Integer) 1, map.get("a"));
+		assertTrue("Remove Same Value", entrySet.remove(new AbstractMap.Entry<String,Integer>("a", 1)));
+		assertTrue("Removed", map.isEmpty());
+	}
+
+	@Test
+	public void testConcurrentEntrySetContract(){
+		AbstractMap<String,Integer> map = new FastMap<String,Integer>().with("a", 1).concurrent();
+		Set<Entry<String,Integer>> entrySet = map.entrySet();
+		assertFalse("Different Value", entrySet.contains(new AbstractMap.Entry<String,Integer>("a", 99)));
+		assertTrue("Same Value", entrySet.contains(new AbstractMap.Entry<String,Integer>("a", 1)));
+		assertFalse("Remove Different Value", entrySet.remove(new AbstractMap.Entry<String,Integer>("a", 99)));
+		assertEquals("Entry Kept", (Integer) 1, map.get("a"));
+		assertTrue("Remove Same Value", entrySet.remove(new AbstractMap.Entry<String,Integer>("a", 1)));
+		assertTrue("Removed", map.isEmpty());
+	}
+
+	@Test
+	public void testKeyLookupWithCollisions(){
+		FastMap<String,Integer> map = new FastMap<String,Integer>(s -> s.length()); // All keys collide.
+		for (String key : new String[] { "a", "b", "c" }) map.put(key, 0);
+		map.put("b", 2);
+		assertEquals("Size", 3, map.size());
+		assertEquals("Updated", (Integer) 2, map.get("b"));
+		assertEquals("Removed", (Integer) 0, map.remove("c"));
+		assertFalse("Key Removed", map.containsKey("c"));
+		assertFalse("Entry Value", map.entrySet().contains(new AbstractMap.Entry<String,Integer>("b", 0)));
+		assertTrue("Entry Value", map.entrySet().contains(new AbstractMap.Entry<String,Integer>("b", 2)));
+	}
+
+	@Test
+	public void testConcurrentMap() throws InterruptedException {
+		final AbstractMap<Integer,Integer> map = new FastMap<Integer,Integer>(
+				Order.valueOf((Integer i) -> i.longValue())).concurrent();
+		Thread[] threads = new Thread[4];
+		for (int t=0; t < threads.length; t++) {
+			final int offset = t;
+			threads[t] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int i=offset; i < 10000; i += 4) map.put(i, i);
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) thread.join();
+		assertEquals("Size Equals 10000", 10000, map.size());
+		int expected = 0;
+		for (Integer key : map.keySet()) assertEquals("Key Order", expected++, key.intValue());
+		assertEquals("First Key", Integer.valueOf(0), map.firstKey());
+		assertEquals("Last Key", Integer.valueOf(9999), map.lastKey());
+		map.keySet().removeIf(i -> i % 2 == 0);
+		assertEquals("Size Equals 5000", 5000, map.size());
+		assertNull("Even Keys Removed", map.get(10));
+		assertEquals("Odd Keys Present", Integer.valueOf(11), map.get(11));
+	}
+
+	@Test
+	public void testSharedLookupsDuringWrites() throws InterruptedException {
+		final AbstractMap<Integer,Integer> map = new FastMap<Integer,Integer>(
+				Order.valueOf((Integer i) -> i.longValue() % 64)).shared(); // Collisions.
+		for (int i=0; i < 1000; i++) map.put(i, i);
+		Thread writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				for (int i=1000; i < 20000; i++) {
+					map.put(i, i);
+					map.put(i % 1000, i % 1000); // In-place updates.
+					map.remove(i);
+				}
+			}
+		});
+		writer.start();
+		while (writer.isAlive()) {
+			for (int i=0; i < 1000; i += 7) {
+				assertEquals("Stable Key", Integer.valueOf(i), map.get(i));
+				assertTrue("Contains Key", map.containsKey(i));
+				assertTrue("Contains Entry", map.entries().contains(new AbstractMap.Entry<Integer,Integer>(i, i)));
+			}
+		}
+		writer.join();
+		assertEquals("Size Equals 1000", 1000, map.size());
+		assertNull("Removed Key", map.getEntry(1000));
+	}
+
+	@Test
+	public void testWithin(){
+		FastMap<long[], String> map = new FastMap<long[], String>(Order.quadtree(p -> p[0], p -> p[1]));
+		for (int x=0; x < 100; x++)
+			for (int y=0; y < 100; y++) map.put(new long[] { x, y }, x + "," + y);
+		int count = 0;
+		for (Map.Entry<long[], String> entry : map.within(new long[] { 60, 10 }, new long[] { 40, 19 })) {
+			long[] key = entry.getKey();
+			assertTrue("Key Within Box", key[0] >= 40 && key[0] <= 60 && key[1] >= 10 && key[1] <= 19);
+			assertEquals("Value", key[0] + "," + key[1], entry.getValue());
+			count++;
+		}
+		assertEquals("Box Size", 21 * 10, count);
+	}
+	
+	@Test
+	public void testRankSelect(){
+		FastMap<String, Integer> scores = new FastMap<String, Integer>(Order.lexical());
+		for (int i=0; i < 1000; i++) scores.put("player" + (1000 + i), i);
+		assertEquals("Rank", 10, scores.rank("player1010"));
+		assertEquals("Select", "player1500", scores.select(500).getKey());
+		assertEquals("Sub-Map Size", 100, scores.subMap("player1100", "player1200").size());
+		assertEquals("Key-Set Rank", 999, scores.keySet().rank("player1999"));
+	}
+
+	@Test
+	public void testSpliterator(){
+		FastMap<String, Integer> scores = new FastMap<String, Integer>(Order.lexical());
+		for (int i=0; i < 1000; i++) scores.put("player" + (1000 + i), i);
+		assertTrue("Sized", scores.keySet().spliterator().hasCharacteristics(Spliterator.SIZED | Spliterator.SORTED));
+		assertEquals("Key Order", Order.lexical(), scores.keySet().spliterator().getComparator());
+		assertEquals("Keys", new ArrayList<String>(scores.keySet()), 
+				scores.keySet().stream().parallel().collect(Collectors.toList()));
+		assertEquals("Values Sum", 499500, scores.values().stream().parallel().mapToInt(i -> i).sum());
+		assertFalse("Values Unsorted", scores.values().spliterator().hasCharacteristics(Spliterator.SORTED));
+	}
+
+	@Test
+	public void testValuesReductions(){
+		FastMap<String, Integer> scores = new FastMap<String, Integer>(Order.lexical());
+		for (int i=0; i < 1000; i++) scores.put("player" + (1000 + i), i);
+		assertEquals("Values Sum", 499500, scores.values().parallel().sumLong(i -> i));
+		assertEquals("Values Average", 499.5, scores.values().parallel().summaryStatistics(i -> i).getAverage(), 0.0);
+		assertEquals("Keys Count", 100, scores.keySet().parallel().count(k -> k.startsWith("player10")));
+	}
+
 }
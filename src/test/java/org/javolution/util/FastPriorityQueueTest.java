@@ -0,0 +1,106 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.javolution.util.FastPriorityQueue.Handle;
+import org.javolution.util.function.Predicate;
+import org.junit.Test;
+
+public class FastPriorityQueueTest {
+
+	@Test
+	public void testPollOrder() {
+		FastPriorityQueue<Integer> queue = new FastPriorityQueue<Integer>();
+		Random random = new Random(123);
+		for (int i = 0; i < 1000; i++)
+			queue.offer(random.nextInt(100));
+		assertEquals(1000, queue.size());
+		int previous = Integer.MIN_VALUE;
+		for (Integer next; (next = queue.poll()) != null; previous = next)
+			assertTrue(next >= previous);
+		assertTrue(queue.isEmpty());
+		assertNull(queue.peek());
+	}
+
+	@Test
+	public void testComparator() {
+		FastPriorityQueue<Integer> queue = new FastPriorityQueue<Integer>((a, b) -> b - a).with(3, 1, 4, 1, 5);
+		assertEquals(Integer.valueOf(5), queue.peek());
+		assertEquals(Integer.valueOf(5), queue.poll());
+		assertEquals(Integer.valueOf(4), queue.poll());
+		assertEquals(Integer.valueOf(3), queue.poll());
+	}
+
+	@Test
+	public void testHandles() {
+		FastPriorityQueue<Integer> queue = new FastPriorityQueue<Integer>();
+		FastTable<Handle<Integer>> handles = new FastTable<Handle<Integer>>();
+		for (int i = 0; i < 100; i++)
+			handles.add(queue.insert(i * 10));
+		queue.update(handles.get(50), -1); // Decrease key.
+		assertEquals(Integer.valueOf(-1), queue.peek());
+		assertEquals(handles.get(50), queue.peekHandle());
+		queue.update(handles.get(50), 10000); // Increase key.
+		assertEquals(Integer.valueOf(0), queue.peek());
+		assertTrue(queue.remove(handles.get(0)));
+		assertFalse(handles.get(0).isQueued());
+		assertFalse(queue.remove(handles.get(0)));
+		assertEquals(99, queue.size());
+		assertEquals(Integer.valueOf(10), queue.poll());
+		assertFalse(handles.get(1).isQueued());
+		int previous = Integer.MIN_VALUE;
+		for (Integer next; (next = queue.poll()) != null; previous = next)
+			assertTrue(next >= previous);
+		assertEquals(10000, previous);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testForeignHandle() {
+		Handle<Integer> handle = new FastPriorityQueue<Integer>().insert(1);
+		new FastPriorityQueue<Integer>().with(2).update(handle, 0);
+	}
+
+	@Test
+	public void testRemoveIf() {
+		FastPriorityQueue<Integer> queue = new FastPriorityQueue<Integer>();
+		Handle<Integer> odd = null;
+		for (int i = 0; i < 100; i++) {
+			Handle<Integer> handle = queue.insert(99 - i);
+			if (i == 10) odd = handle;
+		}
+		assertTrue(queue.removeIf(new Predicate<Integer>() {
+			public boolean test(Integer param) {
+				return (param & 1) != 0;
+			}
+		}));
+		assertFalse(odd.isQueued());
+		assertEquals(50, queue.size());
+		assertEquals(2450, queue.sumLong(i -> i));
+		for (int i = 0; i < 100; i += 2)
+			assertEquals(Integer.valueOf(i), queue.poll());
+	}
+
+	@Test
+	public void testClone() {
+		FastPriorityQueue<Integer> queue = new FastPriorityQueue<Integer>().with(5, 2, 8);
+		FastPriorityQueue<Integer> copy = queue.clone();
+		assertEquals(Integer.valueOf(2), copy.poll());
+		assertEquals(3, queue.size());
+		assertEquals(Integer.valueOf(2), queue.peek());
+		assertEquals(Integer.valueOf(5), copy.poll());
+	}
+
+}
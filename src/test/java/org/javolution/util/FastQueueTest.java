@@ -0,0 +1,130 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.javolution.util.FastQueue.Mode;
+import org.javolution.util.FastQueue.WaitStrategy;
+import org.junit.Test;
+
+public class FastQueueTest {
+
+	@Test
+	public void testCapacity() {
+		FastQueue<Integer> queue = new FastQueue<Integer>(5, Mode.SPSC, WaitStrategy.SPINNING);
+		assertEquals(8, queue.capacity());
+		for (int i = 0; i < 8; i++)
+			assertTrue(queue.offer(i));
+		assertFalse(queue.offer(8));
+		assertEquals(0, queue.remainingCapacity());
+		assertEquals(Integer.valueOf(0), queue.poll());
+		assertTrue(queue.offer(8)); // Wraps around.
+		for (int i = 1; i <= 8; i++)
+			assertEquals(Integer.valueOf(i), queue.poll());
+		assertNull(queue.poll());
+		assertTrue(queue.isEmpty());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testAddWhenFull() {
+		FastQueue<Integer> queue = new FastQueue<Integer>(2);
+		queue.add(1);
+		queue.add(2);
+		queue.add(3);
+	}
+
+	@Test
+	public void testBatchOperations() {
+		FastQueue<Integer> queue = new FastQueue<Integer>(16, Mode.SPSC, WaitStrategy.YIELDING);
+		FastTable<Integer> source = new FastTable<Integer>();
+		for (int i = 0; i < 20; i++)
+			source.add(i);
+		assertEquals(16, queue.offerAll(source));
+		FastTable<Integer> target = new FastTable<Integer>();
+		assertEquals(10, queue.drainTo(target, 10));
+		assertEquals(6, queue.drainTo(target));
+		assertEquals(source.subTable(0, 16), target);
+		assertTrue(queue.isEmpty());
+	}
+
+	@Test
+	public void testSnapshotClosures() {
+		FastQueue<Integer> queue = new FastQueue<Integer>(8, Mode.MPSC, WaitStrategy.PARKING);
+		queue.with(1, 2, 3, 4);
+		assertEquals(4, queue.size());
+		assertEquals(Integer.valueOf(1), queue.peek());
+		assertEquals(10, queue.sumLong(i -> i));
+		assertTrue(queue.contains(3));
+		assertEquals(Integer.valueOf(4), queue.descendingIterator().next());
+		assertEquals(queue.snapshot(), queue.clone().snapshot());
+		assertEquals(4, queue.size()); // Closures do not consume elements.
+	}
+
+	@Test
+	public void testMultipleProducersConsumers() throws InterruptedException {
+		for (Mode mode : new Mode[] { Mode.MPSC, Mode.MPMC })
+			for (WaitStrategy waitStrategy : WaitStrategy.values())
+				transfer(new FastQueue<Long>(64, mode, waitStrategy), mode == Mode.MPMC ? 3 : 1);
+	}
+
+	@Test
+	public void testTimedOperations() throws InterruptedException {
+		FastQueue<Integer> queue = new FastQueue<Integer>(1, Mode.SPSC, WaitStrategy.BLOCKING);
+		assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+		assertEquals(2, queue.capacity());
+		assertTrue(queue.offer(1, 10, TimeUnit.MILLISECONDS));
+		assertTrue(queue.offer(2, 10, TimeUnit.MILLISECONDS));
+		assertFalse(queue.offer(3, 10, TimeUnit.MILLISECONDS));
+		assertEquals(Integer.valueOf(1), queue.poll(10, TimeUnit.MILLISECONDS));
+	}
+
+	private static void transfer(final FastQueue<Long> queue, int consumers) throws InterruptedException {
+		final int producers = 3;
+		final long n = 10000;
+		final AtomicLong sum = new AtomicLong();
+		Thread[] threads = new Thread[producers + consumers];
+		for (int i = 0; i < producers; i++)
+			threads[i] = new Thread() {
+				public void run() {
+					try {
+						for (long j = 1; j <= n; j++)
+							queue.put(j);
+					} catch (InterruptedException e) {
+						throw new RuntimeException(e);
+					}
+				}
+			};
+		final long count = producers * n / consumers;
+		for (int i = producers; i < threads.length; i++)
+			threads[i] = new Thread() {
+				public void run() {
+					try {
+						for (long j = 0; j < count; j++)
+							sum.addAndGet(queue.take());
+					} catch (InterruptedException e) {
+						throw new RuntimeException(e);
+					}
+				}
+			};
+		for (Thread thread : threads)
+			thread.start();
+		for (Thread thread : threads)
+			thread.join();
+		assertEquals(queue.waitStrategy().toString(), producers * n * (n + 1) / 2, sum.get());
+		assertTrue(queue.isEmpty());
+	}
+
+}
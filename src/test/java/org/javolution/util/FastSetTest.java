@@ -13,10 +13,19 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 
+import org.javolution.util.function.Order;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -132,9 +141,208 @@ public class FastSetTest {
 		assertEquals("Set Size Is 0 After Clear", 3, _fastSet.size());
 	}
 	
+	@Test
+	public void testBalancedSplit(){
+		FastSet<String> set = new FastSet<String>();
+		Random random = new Random(0);
+		while (set.size() < 100000) set.add(Long.toString(random.nextLong(), 36)); // Negative and positive hashes.
+		checkBalanced(set.trySplit(8), 8, 100000);
+		checkBalanced(set.trySplit(8)[3].trySplit(4), 4, 12500);
+		FastMap<String, Integer> map = new FastMap<String, Integer>();
+		for (String key : set) map.put(key, key.length());
+		checkBalanced(map.keySet().trySplit(8), 8, 100000);
+	}
+
+	private static void checkBalanced(AbstractCollection<String>[] split, int views, int size) {
+		assertEquals("Sub-Views", views, split.length);
+		int total = 0;
+		for (AbstractCollection<String> view : split) {
+			int viewSize = view.size();
+			assertTrue("Sub-View Size " + viewSize, Math.abs(viewSize - size / split.length) <= 1);
+			total += viewSize;
+		}
+		assertEquals("Total Size", size, total);
+	}
+
 	@Test(expected=UnsupportedOperationException.class)
 	public void testUnmodifiableView(){
 		Set<String> unmodifiableSet = _fastSet.unmodifiable();
 		unmodifiableSet.add("Test");
 	}
+	
+	@Test
+	public void testTrySplit(){
+		FastSet<Integer> set = new FastSet<Integer>();
+		for (int i=0; i < 10000; i++) set.add(i);
+		checkSplit(set, 8, 10000);
+		FastSet<Integer> collisions = new FastSet<Integer>((Integer i) -> i / 10); // Multiples.
+		for (int i=0; i < 1000; i++) collisions.add(i);
+		checkSplit(collisions, 8, 1000);
+		checkSplit(collisions.subSet(100, 200), 4, 100);
+		FastMap<Integer, Integer> map = new FastMap<Integer, Integer>();
+		for (int i=0; i < 1000; i++) map.put(i, -i);
+		checkSplit(map.keySet(), 4, 1000);
+		AbstractCollection<Integer>[] values = map.values().trySplit(4);
+		int count = 0;
+		for (AbstractCollection<Integer> value : values) count += value.size();
+		assertEquals("Values split cover all values", 1000, count);
+	}
+	
+	@Test
+	public void testIteratorOverCollisions(){
+		FastSet<Integer> set = new FastSet<Integer>((Integer i) -> i < 3 ? 5L : (long) i);
+		set.addAll(java.util.Arrays.asList(1, 2, 3, 4, 6)); // Indices 5 (collision), 5, 3, 4, 6
+		FastTable<Integer> ascending = new FastTable<Integer>();
+		for (Integer i : set) ascending.add(i);
+		assertEquals("Ascending size", 5, ascending.size());
+		assertEquals("Lowest index first", Integer.valueOf(3), ascending.get(0));
+		assertEquals("Colliding elements in the middle", 3, ascending.get(2) + ascending.get(3));
+		assertEquals("Highest index last", Integer.valueOf(6), ascending.get(4));
+		FastTable<Integer> descending = new FastTable<Integer>();
+		for (Iterator<Integer> itr = set.descendingIterator(); itr.hasNext();) descending.addFirst(itr.next());
+		assertEquals("Descending is reversed ascending", ascending, descending);
+		assertTrue("Contains colliding elements", set.contains(1) && set.contains(2));
+		assertEquals("Remove colliding element", Integer.valueOf(1), set.removeAny(1));
+		assertEquals("Size after removal", 4, set.size());
+	}
+	
+	private static void checkSplit(AbstractSet<Integer> set, int n, int expectedSize){
+		AbstractSet<Integer>[] split = set.trySplit(n);
+		assertTrue("Number of sub-views", (split.length >= 1) && (split.length <= n));
+		FastSet<Integer> all = new FastSet<Integer>();
+		int count = 0;
+		for (AbstractSet<Integer> subView : split) {
+			for (Integer i : subView) {
+				assertTrue("Disjoint sub-views", all.add(i));
+				assertTrue("Sub-view contains its elements", subView.contains(i));
+			}
+			count += subView.size();
+		}
+		assertEquals("Split covers the whole set", expectedSize, count);
+		assertEquals("Split covers the whole set", set.size(), all.size());
+	}
+	
+	@Test
+	public void testWithin(){
+		Random random = new Random(17);
+		for (int range : new int[] { 64, 1 << 20 }) {
+			FastSet<long[]> quadtree = new FastSet<long[]>(Order.quadtree(p -> p[0], p -> p[1]));
+			FastSet<long[]> octree = new FastSet<long[]>(Order.octree(p -> p[0], p -> p[1], p -> p[2]));
+			for (int i=0; i < 2000; i++) { // Distinct arrays may have the same coordinates (collisions).
+				quadtree.add(new long[] { random.nextInt(range), random.nextInt(range) });
+				octree.add(new long[] { random.nextInt(range), random.nextInt(range), random.nextInt(range) });
+			}
+			for (int q=0; q < 50; q++) {
+				checkWithin(quadtree, randomPoint(random, range, 2), randomPoint(random, range, 2));
+				checkWithin(octree, randomPoint(random, range, 3), randomPoint(random, range, 3));
+			}
+		}
+	}
+	
+	private static long[] randomPoint(Random random, int range, int dimensions) {
+		long[] point = new long[dimensions];
+		for (int i=0; i < dimensions; i++) point[i] = random.nextInt(range);
+		return point;
+	}
+	
+	private static void checkWithin(FastSet<long[]> set, long[] corner, long[] oppositeCorner) {
+		List<long[]> expected = new ArrayList<long[]>();
+		for (long[] point : set) { // Ascending (Z-order).
+			boolean inside = true;
+			for (int i=0; i < point.length; i++) 
+				inside &= (point[i] >= Math.min(corner[i], oppositeCorner[i])) 
+					&& (point[i] <= Math.max(corner[i], oppositeCorner[i]));
+			if (inside) expected.add(point);
+		}
+		AbstractSet<long[]> box = set.within(corner, oppositeCorner);
+		List<long[]> actual = new ArrayList<long[]>();
+		for (long[] point : box) actual.add(point);
+		assertEquals("Box Elements", expected, actual);
+		List<long[]> descending = new ArrayList<long[]>();
+		for (Iterator<long[]> itr = box.descendingIterator(); itr.hasNext();) descending.add(0, itr.next());
+		assertEquals("Box Elements (Descending)", expected, descending);
+		assertEquals("Box Size", expected.size(), box.size());
+	}
+	
+	@Test
+	public void testRankSelect(){
+		Random random = new Random(18);
+		FastSet<String> set = new FastSet<String>(Order.lexical());
+		TreeSet<String> expected = new TreeSet<String>();
+		for (int i=0; i < 5000; i++) {
+			String str = "P" + random.nextInt(1000) + (random.nextBoolean() ? "-" + random.nextInt(100) : "");
+			set.add(str); // Collisions on the first four characters.
+			expected.add(str);
+		}
+		List<String> sorted = new ArrayList<String>(expected);
+		assertEquals("Size", sorted.size(), set.size());
+		for (int k=0; k < sorted.size(); k++) {
+			assertEquals("Select", sorted.get(k), set.select(k));
+			assertEquals("Rank", k, set.rank(sorted.get(k)));
+			assertEquals("Rank Inclusive", k + 1, set.rank(sorted.get(k), true));
+		}
+		for (int i=0; i < 200; i++) {
+			String from = "P" + random.nextInt(1000);
+			String to = "P" + random.nextInt(1000);
+			if (from.compareTo(to) > 0) continue;
+			assertEquals("Rank (not in set)", expected.headSet(from + "!").size(), set.rank(from + "!"));
+			AbstractSet<String> subSet = set.subSet(from, to);
+			assertEquals("Range Count", expected.subSet(from, to).size(), subSet.size());
+			if (!subSet.isEmpty()) assertEquals("Sub-Set Select", expected.ceiling(from), subSet.select(0));
+		}
+	}
+
+	@Test
+	public void testRankSelectAfterUpdates(){
+		Random random = new Random(0);
+		FastSet<String> set = new FastSet<String>(Order.lexical());
+		TreeSet<String> expected = new TreeSet<String>();
+		for (int round=0; round < 300; round++) {
+			String str = "P" + random.nextInt(200) + (random.nextBoolean() ? "-" + random.nextInt(10) : "");
+			if (random.nextInt(3) == 0) assertEquals("Remove", expected.remove(str), set.remove(str));
+			else assertEquals("Add", expected.add(str), set.add(str)); // Collisions on the first four characters.
+			if (round % 100 == 99) {
+				set.removeIf(s -> s.endsWith("7"));
+				expected.removeIf(s -> s.endsWith("7"));
+			}
+			List<String> sorted = new ArrayList<String>(expected);
+			for (int k=0; k < sorted.size(); k += 1 + random.nextInt(5)) {
+				assertEquals("Select", sorted.get(k), set.select(k));
+				assertEquals("Rank", k, set.rank(sorted.get(k)));
+			}
+			assertEquals("Rank (not in set)", expected.headSet("P5!").size(), set.rank("P5!"));
+		}
+		set.clear();
+		set.add("P0");
+		assertEquals("Select After Clear", "P0", set.select(0));
+	}
+
+	@Test
+	public void testSpliterator(){
+		FastSet<String> set = new FastSet<String>(Order.lexical());
+		TreeSet<String> expected = new TreeSet<String>();
+		Random random = new Random(0);
+		for (int i=0; i < 5000; i++) {
+			String str = "P" + random.nextInt(1000) + (random.nextBoolean() ? "-" + random.nextInt(100) : "");
+			set.add(str);
+			expected.add(str);
+		}
+		Spliterator<String> itr = set.spliterator();
+		assertTrue("Sized", itr.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.SORTED));
+		Spliterator<String> prefix = itr.trySplit();
+		assertEquals("Split Sizes", expected.size(), prefix.estimateSize() + itr.estimateSize());
+		String[] first = new String[1];
+		itr.tryAdvance(str -> first[0] = str);
+		assertEquals("Suffix Start", new ArrayList<String>(expected).get((int) prefix.estimateSize()), first[0]);
+		assertEquals("Ordered", new ArrayList<String>(expected), 
+				set.stream().parallel().collect(Collectors.toList()));
+		FastSet<String> multiset = new FastSet<String>(Order.lexical()).with("a", "b", "c");
+		multiset.add("b", true);
+		multiset.add("b", true);
+		Spliterator<String> suffix = multiset.spliterator();
+		suffix.trySplit(); // Ranks [2, 5) starting with the second "b".
+		assertEquals("Multiset", Arrays.asList("b", "b", "c"), StreamSupport.stream(suffix, false)
+				.collect(Collectors.toList()));
+	}
+
 }
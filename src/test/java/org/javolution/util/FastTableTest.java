@@ -13,7 +13,13 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.DoubleSummaryStatistics;
 import java.util.Random;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 import org.javolution.util.FastTable;
 import org.javolution.util.FractalArray;
@@ -217,4 +223,198 @@ public class FastTableTest {
 		_fastTable.remove(1);
 		assertFalse("No Longer Contains Test2", _fastTable.contains("Test2"));
 	}
+
+	@Test
+	public void testSort(){
+		FastTable<Integer> table = new FastTable<Integer>();
+		for (int i = 0; i < 100000; i++) table.add(i); // Already sorted (was quadratic).
+		table.sort((x, y) -> y - x);
+		assertEquals("First Is Max", 99999, (int) table.getFirst());
+		assertEquals("Last Is Min", 0, (int) table.getLast());
+	}
+
+	@Test
+	public void testBulkOperations(){
+		Integer[] batch = new Integer[1000000];
+		for (int i = 0; i < batch.length; i++) batch[i] = i;
+		FastTable<Integer> table = new FastTable<Integer>();
+		table.addAll(batch);
+		table.insertAll(0, batch); // Would be quadratic element by element.
+		assertEquals(2000000, table.size());
+		assertEquals(999999, (int) table.get(999999));
+		assertEquals(0, (int) table.get(1000000));
+		table.subTable(10, 1000010).clear();
+		assertEquals(1000000, table.size());
+		assertEquals(9, (int) table.get(9));
+		assertEquals(10, (int) table.get(10));
+		table.setAll(0, new Integer[] { -1, null, -3 });
+		assertEquals(Arrays.asList(-1, null, -3, 3), Arrays.asList(table.toArray(0, 4, new Integer[4])));
+		assertEquals(table, Arrays.asList(table.toArray(new Integer[0])));
+	}
+
+	@Test
+	public void testParallelSortIsStable(){
+		Random rnd = new Random(0);
+		ArrayList<Long> al = new ArrayList<>();
+		FastTable<Long> table = new FastTable<Long>();
+		for (int i = 0; i < 100000; i++) {
+			long value = ((long) rnd.nextInt(100) << 32) | i; // Key in high bits, insertion order in low bits.
+			al.add(value);
+			table.add(value);
+		}
+		Collections.sort(al);
+		table.parallel().sort((x, y) -> (int) (x >> 32) - (int) (y >> 32)); // Compares keys only.
+		assertEquals("Stable Parallel Sort", al, table);
+	}
+
+	@Test
+	public void testFusedPipeline(){
+		FastTable<Integer> table = new FastTable<Integer>();
+		for (int i = 0; i < 1000; i++) table.add(i);
+		AbstractCollection<String> pipeline = table.filter(i -> i % 2 == 0).map(i -> i * 3).filter(i -> i % 5 != 0)
+				.map(i -> "#" + i);
+		ArrayList<String> expected = new ArrayList<String>();
+		for (int i = 0; i < 1000; i++) 
+			if ((i % 2 == 0) && ((i * 3) % 5 != 0)) expected.add("#" + (i * 3));
+		assertEquals("Iteration", expected, new ArrayList<String>(pipeline));
+		assertEquals("Size", expected.size(), pipeline.size());
+		assertEquals("Find Any", "#6", pipeline.findAny());
+		assertTrue("Any Match", pipeline.anyMatch(s -> s.equals("#1494")));
+		assertFalse("Any Match", pipeline.anyMatch(s -> s.equals("#1500")));
+		assertEquals("Collect", expected, new ArrayList<String>(pipeline.parallel().collect()));
+		assertEquals("Parallel Reduce", (Integer) 249500, table.filter(i -> i % 2 == 0).parallel()
+				.reduce((x, y) -> x + y));
+		assertTrue("Remove If", table.filter(i -> i < 10).removeIf(i -> i % 2 == 1));
+		assertEquals("Remaining", 995, table.size());
+	}
+
+	@Test
+	public void testSplitPipeline(){ // Independent of the concurrency of the test machine.
+		FastTable<Integer> table = new FastTable<Integer>();
+		for (int i = 0; i < 1000; i++) table.add(i);
+		ArrayList<Integer> visited = new ArrayList<Integer>();
+		table.subTable(100, 150).forEach(i -> visited.add(i));
+		assertEquals("Sub-Table Closure", new ArrayList<Integer>(table.subTable(100, 150)), visited);
+		assertTrue("Sub-Table Match", table.subTable(100, 150).anyMatch(i -> i == 149));
+		assertFalse("Sub-Table Bounded", table.subTable(100, 150).anyMatch(i -> i == 150));
+		assertEquals("Sub-Table Descending", (Integer) 149, table.subTable(100, 150).descendingIterator().next());
+		AbstractCollection<Integer>[] splits = table.filter(i -> i % 3 == 0).map(i -> i * 2).trySplit(4);
+		assertEquals("Splits", 4, splits.length);
+		ArrayList<Integer> collected = new ArrayList<Integer>();
+		long sum = 0;
+		for (AbstractCollection<Integer> split : splits) {
+			collected.addAll(split.collect());
+			sum += split.reduce((x, y) -> x + y);
+		}
+		ArrayList<Integer> expected = new ArrayList<Integer>();
+		for (int i = 0; i < 1000; i += 3) expected.add(i * 2);
+		assertEquals("Disjoint Splits", expected, collected);
+		assertEquals("Split Sums", 333666, sum);
+	}
+
+	@Test
+	public void testParallelDistinct(){
+		FastTable<Integer> table = new FastTable<Integer>();
+		for (int i = 0; i < 10000; i++) table.add(i);
+		AbstractCollection<Integer> distinct = table.filter(i -> i >= 0).map(i -> i % 1000).distinct();
+		assertTrue("Partitioned", distinct.trySplit(4).length == 4);
+		assertEquals("Distinct Count", 1000, distinct.parallel().collect().size());
+		assertEquals("Distinct Sum", (Integer) 499500, distinct.parallel().reduce((x, y) -> x + y));
+	}
+
+	@Test
+	public void testParallelDistinctTable(){
+		FastTable<Integer> table = new FastTable<Integer>();
+		for (int i = 0; i < 10000; i++) table.add(i % 1000);
+		assertTrue("Partitioned", table.distinct().trySplit(4).length == 4);
+		assertEquals("Distinct Count", 1000, table.distinct().parallel().collect().size());
+		assertEquals("Distinct Sum", (Integer) 499500, table.distinct().parallel().reduce((x, y) -> x + y));
+		final AtomicInteger mapped = new AtomicInteger();
+		table.map(i -> { mapped.incrementAndGet(); return i; }).distinct().trySplit(4);
+		assertEquals("Single Pass", 10000, mapped.get());
+	}
+
+	@Test
+	public void testParallelSortedReduce(){
+		FastTable<String> table = new FastTable<String>();
+		Random random = new Random(0);
+		for (int i = 0; i < 1000; i++) table.add(Integer.toString(random.nextInt(100000), 36));
+		String sequential = table.sorted().reduce((x, y) -> x + "," + y);
+		assertEquals("Ordered Reduction", sequential, table.sorted().parallel().reduce((x, y) -> x + "," + y));
+	}
+
+	@Test
+	public void testSpliterator(){
+		FastTable<Integer> table = new FastTable<Integer>();
+		for (int i = 0; i < 10000; i++) table.add(i);
+		Spliterator<Integer> itr = table.spliterator();
+		assertTrue("Sized", itr.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED));
+		Spliterator<Integer> prefix = itr.trySplit();
+		assertEquals("Prefix Size", 5000, prefix.estimateSize());
+		assertEquals("Suffix Size", 5000, itr.estimateSize());
+		assertEquals("Parallel Sum", 49995000, table.stream().parallel().mapToLong(i -> i).sum());
+		assertEquals("Ordered", table, table.stream().parallel().map(i -> i).collect(Collectors.toList()));
+	}
+
+	@Test
+	public void testViewSpliterator(){
+		FastTable<Integer> table = new FastTable<Integer>();
+		for (int i = 0; i < 10000; i++) table.add(i);
+		AbstractCollection<Integer> filtered = table.filter(i -> i % 3 == 0);
+		assertEquals("Filtered Count", 3334, filtered.stream().parallel().count());
+		assertEquals("Mapped Sum", 99990000, table.map(i -> 2 * i).stream().parallel().mapToLong(i -> i).sum());
+		assertEquals("Chained Sum", 5556111, filtered.map(i -> i / 3).stream().parallel().mapToLong(i -> i).sum());
+		long count = 0;
+		int leaves = 0;
+		for (FastTable<Spliterator<Integer>> pending = new FastTable<Spliterator<Integer>>()
+				.with(filtered.spliterator()); !pending.isEmpty();) {
+			Spliterator<Integer> split = pending.removeLast();
+			Spliterator<Integer> prefix = (leaves + pending.size() < 16) ? split.trySplit() : null;
+			if (prefix != null) {
+				pending.addLast(prefix);
+				pending.addLast(split);
+				continue;
+			}
+			long[] visited = new long[1];
+			split.forEachRemaining(i -> visited[0]++);
+			count += visited[0];
+			leaves++;
+		}
+		assertTrue("Leaves: " + leaves, leaves > 1);
+		assertEquals("Disjoint Splits", 3334, count);
+	}
+
+	@Test
+	public void testPrimitiveReductions(){
+		FastTable<Double> table = new FastTable<Double>();
+		for (int i = 0; i < 10000; i++) table.add(i * 0.1);
+		assertEquals("Sum", 49995000, table.parallel().sumLong(d -> Math.round(d * 10)));
+		assertEquals("Sum Double", 4999500.0, table.parallel().sumDouble(d -> d), 1e-6);
+		assertEquals("Count", 5000, table.parallel().count(d -> d < 500));
+		DoubleSummaryStatistics statistics = table.parallel().summaryStatistics(d -> d);
+		assertEquals("Statistics Count", 10000, statistics.getCount());
+		assertEquals("Statistics Min", 0.0, statistics.getMin(), 0.0);
+		assertEquals("Statistics Max", 999.9, statistics.getMax(), 1e-9);
+		assertEquals("Statistics Average", 499.95, statistics.getAverage(), 1e-9);
+		long[] histogram = table.filter(d -> d >= 0).parallel().histogram(d -> d, 0, 1000, 10);
+		for (long count : histogram) assertEquals("Bin", 1000, count);
+		assertEquals("Sequential", statistics.getSum(), table.summaryStatistics(d -> d).getSum(), 1e-6);
+		assertEquals("Parallel Size", 10000, table.filter(d -> true).parallel().size());
+	}
+
+	@Test
+	public void testSplitReductions(){ // Independent of the concurrency of the test machine.
+		FastTable<Integer> table = new FastTable<Integer>();
+		for (int i = 0; i < 10000; i++) table.add(i);
+		long count = 0, sum = 0;
+		for (AbstractCollection<Integer> split : table.filter(i -> i % 2 == 0).trySplit(4)) {
+			count += split.count(i -> true);
+			sum += split.sumLong(i -> i);
+		}
+		assertEquals("Split Counts", 5000, count);
+		assertEquals("Split Sums", 24995000, sum);
+		assertEquals("Parallel Sum", 49995000, table.parallel().sumLong(i -> i));
+		assertEquals("Parallel Count", 10000, table.parallel().count(i -> true));
+	}
+
 }
@@ -0,0 +1,175 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class FractalArrayTest {
+
+	private static final int SIZE = 10000;
+
+	@Test
+	public void testInsertDelete() {
+		checkInsertDelete(FractalArray.<Integer>empty());
+	}
+
+	@Test
+	public void testPersistentInsertDelete() {
+		checkInsertDelete(FractalArray.<Integer>empty().persistent());
+	}
+
+	private static void checkInsertDelete(FractalArray<Integer> array) {
+		Random rnd = new Random(0);
+		ArrayList<Integer> al = new ArrayList<Integer>();
+		for (int i = 0; i < SIZE; i++) {
+			if (al.isEmpty() || rnd.nextInt(3) != 0) {
+				int j = rnd.nextInt(al.size() + 1);
+				int n = rnd.nextInt(1000000);
+				al.add(j, n);
+				array = array.insert(j, n);
+			} else {
+				int j = rnd.nextInt(al.size());
+				al.remove(j);
+				array = array.delete(j);
+			}
+		}
+		assertEquals(al.size(), count(array));
+		for (int i = 0; i < al.size(); i++) assertEquals(al.get(i), array.get(i));
+	}
+
+	@Test
+	public void testPersistentSnapshots() {
+		FractalArray<Integer> array = FractalArray.<Integer>empty().persistent();
+		for (int i = 0; i < 100; i++) array = array.set(i * 3, i);
+		FractalArray<Integer> snapshot = array.clone();
+		assertSame("Constant time clone", array, snapshot);
+		assertTrue(array.isPersistent());
+		FractalArray<Integer> updated = array.insert(0, -1).delete(31).set(1000, 1000).clear(4);
+		for (int i = 0; i < 100; i++) assertEquals(Integer.valueOf(i), snapshot.get(i * 3));
+		assertEquals(100, count(snapshot));
+		assertEquals(Integer.valueOf(-1), updated.get(0));
+		assertEquals(Integer.valueOf(0), updated.get(1));
+		assertNull(updated.get(4));
+		assertEquals(Integer.valueOf(11), updated.get(33));
+		assertEquals(Integer.valueOf(1000), updated.get(1000));
+		assertEquals(100, count(updated));
+	}
+
+	@Test
+	public void testNextPrevious() {
+		FractalArray<Integer> array = FractalArray.<Integer>empty().persistent();
+		array = array.set(5, 5).set(10, 10).set(-2, -2);
+		assertEquals(5, array.next(0, null));
+		assertEquals(10, array.next(5, null));
+		assertEquals(-2, array.next(10, null));
+		assertEquals(0, array.next(-2, null));
+		assertEquals(10, array.previous(-2, null));
+		assertEquals(-1, array.previous(5, null));
+		assertFalse(array.isEmpty());
+		assertTrue(array.clear(5).clear(10).clear(-2).isEmpty());
+	}
+
+	@Test
+	public void testCountSelect() {
+		checkCountSelect(FractalArray.<Integer>empty());
+	}
+
+	@Test
+	public void testPersistentCountSelect() {
+		checkCountSelect(FractalArray.<Integer>empty().persistent());
+	}
+
+	private static void checkCountSelect(FractalArray<Integer> array) {
+		Random random = new Random(18);
+		long[] indices = new long[SIZE];
+		for (int i = 0; i < SIZE; i++) {
+			long index = (i == 0) ? -1 : random.nextInt(SIZE * 10);
+			indices[i] = index;
+			array = array.set(index, i);
+		}
+		long[] sorted = new long[SIZE];
+		int n = 0;
+		for (FractalArray.Iterator<Integer> itr = array.iterator(); itr.hasNext(); itr.next())
+			sorted[n++] = itr.nextIndex();
+		for (int k = 0; k < n; k++) 
+			assertEquals("Select", sorted[k], array.select(k));
+		for (int i = 0; i < 1000; i++) {
+			long from = random.nextInt(SIZE * 10);
+			long to = from + random.nextInt(SIZE);
+			long expected = 0;
+			for (int k = 0; k < n; k++) 
+				if ((sorted[k] >= from) && (sorted[k] < to)) expected++;
+			assertEquals("Count", expected, array.count(from, to));
+		}
+		assertEquals("Count All", n - 1, array.count(0, -1)); // Excludes the last index.
+		assertEquals("Count Empty Range", 0, array.count(10, 10));
+		try {
+			array.select(n);
+			assertTrue("IndexOutOfBoundsException expected", false);
+		} catch (IndexOutOfBoundsException e) {
+		}
+	}
+
+	@Test
+	public void testBulkOperations() {
+		checkBulkOperations(FractalArray.<Integer>empty());
+	}
+
+	@Test
+	public void testPersistentBulkOperations() {
+		checkBulkOperations(FractalArray.<Integer>empty().persistent());
+	}
+
+	private static void checkBulkOperations(FractalArray<Integer> array) {
+		Random rnd = new Random(0);
+		ArrayList<Integer> al = new ArrayList<Integer>();
+		for (int i = 0; i < 300; i++) {
+			Integer[] values = new Integer[rnd.nextInt(50)];
+			for (int j = 0; j < values.length; j++) values[j] = (rnd.nextInt(4) != 0) ? rnd.nextInt(1000) : null;
+			switch (rnd.nextInt(3)) {
+			case 0:
+				int index = rnd.nextInt(al.size() + 1);
+				al.addAll(index, Arrays.asList(values));
+				array = array.insertAll(index, values);
+				break;
+			case 1:
+				int from = rnd.nextInt(al.size() + 1);
+				for (int j = 0; j < values.length; j++) 
+					if (from + j < al.size()) al.set(from + j, values[j]); else al.add(values[j]);
+				array = array.setAll(from, values);
+				break;
+			default:
+				int to = rnd.nextInt(al.size() + 1);
+				from = rnd.nextInt(to + 1);
+				al.subList(from, to).clear();
+				array = array.removeRange(from, to);
+			}
+			Integer[] copy = array.toArray(0, al.size(), new Integer[al.size()]);
+			assertEquals(al, Arrays.asList(copy));
+			assertEquals(0, array.next(al.size() - 1, null)); // Nothing beyond.
+		}
+	}
+
+	private static int count(FractalArray<?> array) {
+		int count = 0;
+		for (FractalArray.Iterator<?> itr = array.iterator(); itr.hasNext(); itr.next()) count++;
+		return count;
+	}
+
+}
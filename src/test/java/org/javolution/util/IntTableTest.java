@@ -0,0 +1,90 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class IntTableTest {
+
+	private static final int SIZE = 20000;
+
+	@Test
+	public void testInsertDelete() {
+		Random rnd = new Random(0);
+		ArrayList<Integer> al = new ArrayList<Integer>();
+		IntTable table = new IntTable();
+		for (int i = 0; i < 2 * SIZE; i++) { // Grows then shrinks (blocks reshaped).
+			boolean grow = (i < SIZE) ? rnd.nextInt(4) != 0 : rnd.nextInt(4) == 0;
+			if (grow || al.isEmpty()) {
+				int j = rnd.nextInt(al.size() + 1);
+				int n = rnd.nextInt();
+				al.add(j, n);
+				table.addInt(j, n);
+			} else {
+				int j = rnd.nextInt(al.size());
+				assertEquals((int) al.remove(j), table.removeInt(j));
+			}
+		}
+		assertEquals(al.size(), table.size());
+		for (int i = 0; i < al.size(); i++) assertEquals((int) al.get(i), table.getInt(i));
+		assertEquals(al, table);
+	}
+
+	@Test
+	public void testAppendRemoveFirst() {
+		IntTable table = new IntTable();
+		for (int i = 0; i < SIZE; i++) table.addInt(i);
+		for (int i = 0; i < SIZE / 2; i++) assertEquals(i, table.removeInt(0));
+		for (int i = 0; i < SIZE / 2; i++) assertEquals(SIZE / 2 + i, table.getInt(i));
+		table.clear();
+		assertTrue(table.isEmpty());
+	}
+
+	@Test
+	public void testReduceAndSort() {
+		int[] values = new int[SIZE];
+		Random rnd = new Random(1);
+		long sum = 0;
+		for (int i = 0; i < SIZE; i++) sum += values[i] = rnd.nextInt();
+		IntTable table = new IntTable(values);
+		assertEquals(sum, table.sum());
+		int[] sorted = values.clone();
+		Arrays.sort(sorted);
+		assertEquals(sorted[0], table.min());
+		assertEquals(sorted[SIZE - 1], table.max());
+		IntTable copy = table.clone();
+		table.sort();
+		assertArrayEquals(sorted, table.toIntArray());
+		assertArrayEquals(values, copy.toIntArray()); // Clone not impacted.
+	}
+
+	@Test
+	public void testIterators() {
+		IntTable table = new IntTable(new int[] { 1, 2, 3, 4, 5 });
+		int sum = 0;
+		for (PrimitiveIterator.OfInt itr = table.intIterator(); itr.hasNext();) sum += itr.nextInt();
+		assertEquals(15, sum);
+		assertEquals(Integer.valueOf(4), table.filter(i -> i > 3).findAny());
+		assertEquals(Arrays.asList(5, 4, 3, 2, 1), new ArrayList<Integer>(table.reversed()));
+		table.subTable(1, 3).clear();
+		assertEquals(Arrays.asList(1, 4, 5), table);
+		assertFalse(table.contains(2));
+	}
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+public class LongMapTest {
+
+	private static final int SIZE = 10000;
+
+	@Test
+	public void testPutGetRemove() {
+		Random rnd = new Random(0);
+		TreeMap<Long, String> tm = new TreeMap<Long, String>();
+		LongMap<String> map = new LongMap<String>();
+		for (int i = 0; i < SIZE; i++) {
+			long key = rnd.nextLong() >> rnd.nextInt(64);
+			String value = Long.toString(key);
+			assertEquals(tm.put(key, value), map.put(key, value));
+		}
+		for (Long key : tm.keySet().toArray(new Long[0])) {
+			if (rnd.nextBoolean()) continue;
+			assertEquals(tm.remove(key), map.remove(key.longValue()));
+			assertFalse(map.containsKey(key.longValue()));
+		}
+		assertEquals(tm.size(), map.size());
+		for (Map.Entry<Long, String> entry : tm.entrySet())
+			assertEquals(entry.getValue(), map.get(entry.getKey().longValue()));
+		assertEquals(tm, map);
+	}
+
+	@Test
+	public void testOrderedIteration() {
+		LongMap<String> map = new LongMap<String>();
+		long[] keys = { Long.MAX_VALUE, -1, 0, Long.MIN_VALUE, 42, -42 };
+		for (long key : keys) map.put(key, null); // Null values supported.
+		PrimitiveIterator.OfLong itr = map.keyIterator();
+		long[] expected = { Long.MIN_VALUE, -42, -1, 0, 42, Long.MAX_VALUE };
+		for (long key : expected) assertEquals(key, itr.nextLong());
+		assertFalse(itr.hasNext());
+		assertEquals(Long.MIN_VALUE, map.firstLongKey());
+		assertEquals(Long.MAX_VALUE, map.lastLongKey());
+		assertTrue(map.containsKey(-42));
+		assertNull(map.get(-42));
+		assertEquals(Long.valueOf(-42), map.keySet().descendingIterator(-10L).next());
+	}
+
+	@Test
+	public void testSubMap() {
+		LongMap<Long> map = new LongMap<Long>();
+		for (long i = -100; i <= 100; i++) map.put(i, Long.valueOf(i));
+		LongMap<Long> sub = map.subMap(-10, 10);
+		assertEquals(20, sub.size());
+		assertEquals(-10, sub.firstLongKey());
+		assertEquals(9, sub.lastLongKey());
+		assertNull(sub.get(10));
+		assertEquals(Long.valueOf(5), sub.get(5));
+		assertEquals(0, map.subMap(5, false, 6, false).size());
+		assertEquals(0, map.subMap(Long.MAX_VALUE, false, Long.MAX_VALUE, true).size());
+		try {
+			sub.put(50, Long.valueOf(50));
+			assertTrue(false);
+		} catch (IllegalArgumentException e) {
+			// Expected.
+		}
+		sub.clear();
+		assertEquals(181, map.size());
+		assertFalse(map.containsKey(0));
+		assertTrue(map.containsKey(10));
+		assertEquals(Long.valueOf(-100), map.headMap(-10L).firstKey());
+	}
+
+	@Test
+	public void testViews() {
+		LongMap<String> shared = new LongMap<String>().shared();
+		LongMap<String> atomic = new LongMap<String>().atomic();
+		for (long i = 0; i < SIZE; i++) {
+			shared.put(i * 31, "x");
+			atomic.put(i * 31, "x");
+		}
+		assertEquals(SIZE, shared.size());
+		assertEquals(shared, atomic);
+		LongMap<String> copy = atomic.clone();
+		atomic.remove(0);
+		assertTrue(copy.containsKey(0));
+		assertEquals(SIZE - 1, atomic.subMap(0, Long.MAX_VALUE).size());
+	}
+
+	@Test
+	public void testSets() {
+		LongSet longs = new LongSet();
+		IntSet ints = new IntSet();
+		for (int i = -SIZE; i < SIZE; i += 3) {
+			longs.add((long) i);
+			ints.add(i);
+		}
+		assertEquals(longs.size(), ints.size());
+		assertTrue(ints.contains(Integer.valueOf(-SIZE)));
+		assertFalse(ints.contains(Long.valueOf(-SIZE)));
+		assertEquals(-SIZE, ints.firstInt());
+		assertEquals(ints.lastInt(), longs.lastLong());
+		assertEquals(0, ints.subSet(3, 5).size());
+		ints.removeIf(i -> i < 0);
+		assertTrue(ints.firstInt() >= 0);
+		assertEquals(Integer.valueOf(ints.firstInt()), ints.iterator().next());
+	}
+
+}
@@ -0,0 +1,149 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.javolution.io.Struct;
+import org.junit.Test;
+
+public class MappedMapTest {
+
+	static class Counter extends Struct {
+		final Signed64 key = new Signed64();
+		final Signed32 count = new Signed32();
+	}
+
+	@Test
+	public void testPutGetRemove() throws IOException {
+		File file = File.createTempFile("map", ".dat");
+		try {
+			try (MappedMap<Long, Counter> map = open(file)) {
+				assertTrue(map.isEmpty());
+				Counter value = new Counter();
+				value.key.set(1);
+				value.count.set(10);
+				assertTrue("New Key", map.put(1L, value));
+				value.count.set(11);
+				assertFalse("Overwritten", map.put(1L, value));
+				assertEquals(11, map.get(1L).count.get());
+				map.getOrAdd(2L).count.set(20);
+				assertEquals("Zeroed Value", 0, map.getOrAdd(3L).count.get());
+				assertEquals(3, map.size());
+				assertTrue(map.remove(1L));
+				assertFalse(map.remove(1L));
+				assertNull(map.get(1L));
+				assertFalse(map.containsKey(1L));
+				assertEquals(20, map.get(2L).count.get());
+				map.clear();
+				assertTrue(map.isEmpty());
+				assertNull(map.get(2L));
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testBackwardShiftDeletion() throws IOException {
+		File file = File.createTempFile("map", ".dat");
+		try {
+			Random random = new Random(0);
+			try (MappedMap<Long, Counter> map = open(file)) {
+				for (int round = 0; round < 200; round++) { // Dense table (initial capacity) with collision chains.
+					ArrayList<Long> keys = new ArrayList<Long>();
+					for (int i = 0; i < 8; i++) {
+						long key = random.nextInt(1000);
+						if (keys.contains(key)) continue;
+						keys.add(key);
+						map.getOrAdd(key).count.set((int) key);
+					}
+					Collections.shuffle(keys, random);
+					while (!keys.isEmpty()) {
+						long removed = keys.remove(keys.size() - 1);
+						assertTrue(map.remove(removed));
+						assertFalse(map.containsKey(removed));
+						for (long key : keys)
+							assertEquals("Key Reachable After Shift", key, map.get(key).count.get());
+						assertEquals(keys.size(), map.size());
+					}
+				}
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testGrowthAndReopen() throws IOException {
+		File file = File.createTempFile("map", ".dat");
+		try {
+			Random random = new Random(0);
+			Map<Long, Integer> expected = new HashMap<Long, Integer>();
+			try (MappedMap<Long, Counter> map = open(file)) {
+				for (int i = 0; i < 10000; i++) { // Grows well past the initial capacity.
+					long key = random.nextLong();
+					expected.put(key, i);
+					Counter counter = map.getOrAdd(key);
+					counter.key.set(key);
+					counter.count.set(i);
+				}
+				for (int i = 0; i < 1000; i++) {
+					long key = expected.keySet().iterator().next();
+					expected.remove(key);
+					assertTrue(map.remove(key));
+				}
+				check(map, expected);
+				map.force();
+			}
+			try (MappedMap<Long, Counter> map = open(file)) { // Existing data (no rehash).
+				check(map, expected);
+				for (int i = 0; i < 1000; i++) {
+					long key = random.nextLong();
+					expected.put(key, -i);
+					Counter counter = map.getOrAdd(key);
+					counter.key.set(key);
+					counter.count.set(-i);
+				}
+				check(map, expected);
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	private static MappedMap<Long, Counter> open(File file) throws IOException {
+		return new MappedMap<Long, Counter>(file, LongMap.KEY_ORDER, Counter::new);
+	}
+
+	private static void check(MappedMap<Long, Counter> map, Map<Long, Integer> expected) {
+		assertEquals(expected.size(), map.size());
+		Counter flyweight = new Counter();
+		for (Map.Entry<Long, Integer> entry : expected.entrySet())
+			assertEquals((int) entry.getValue(), map.get(entry.getKey(), flyweight).count.get());
+		int count = 0;
+		for (Counter counter : map) {
+			assertTrue(expected.containsKey(counter.key.get()));
+			count++;
+		}
+		assertEquals(expected.size(), count);
+	}
+
+}
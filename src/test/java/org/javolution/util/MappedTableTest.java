@@ -0,0 +1,109 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.javolution.io.Struct;
+import org.junit.Test;
+
+public class MappedTableTest {
+
+	private static final int SIZE = 10000;
+
+	static class Position extends Struct {
+		final Signed64 account = new Signed64();
+		final Signed32 quantity = new Signed32();
+	}
+
+	@Test
+	public void testTableReopen() throws IOException {
+		File file = File.createTempFile("table", ".dat");
+		try {
+			try (MappedTable<Position> table = new MappedTable<Position>(file, Position::new)) {
+				for (int i = 0; i < SIZE; i++) {
+					Position position = table.addNew();
+					position.account.set(i);
+					position.quantity.set(-i);
+				}
+				table.remove(0);
+				table.add(0, table.get(SIZE - 3)); // View over a moved record (account SIZE - 2).
+				table.removeIf(p -> p.account.get() % 2 == 1);
+				table.force();
+			}
+			try (MappedTable<Position> table = new MappedTable<Position>(file, Position::new)) {
+				assertEquals(SIZE / 2, table.size());
+				assertEquals(SIZE - 2, table.get(0).account.get());
+				assertEquals(2, table.get(1).account.get());
+				assertEquals(-2, table.get(1).quantity.get());
+				table.sort((a, b) -> Long.compare(a.account.get(), b.account.get()));
+				assertEquals(2, table.getFirst().account.get());
+				assertEquals(SIZE - 2, table.getLast().account.get());
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testMapReopen() throws IOException {
+		File file = File.createTempFile("map", ".dat");
+		try {
+			Random rnd = new Random(0);
+			Map<Long, Integer> hm = new HashMap<Long, Integer>();
+			try (MappedMap<Long, Position> map = new MappedMap<Long, Position>(file, LongMap.KEY_ORDER,
+					Position::new)) {
+				for (int i = 0; i < SIZE; i++) {
+					long key = rnd.nextInt(SIZE);
+					if (rnd.nextInt(4) == 0) {
+						assertEquals(hm.remove(key) != null, map.remove(key));
+					} else {
+						hm.put(key, i);
+						Position position = map.getOrAdd(key);
+						position.account.set(key);
+						position.quantity.set(i);
+					}
+				}
+				assertEquals(hm.size(), map.size());
+			}
+			try (MappedMap<Long, Position> map = new MappedMap<Long, Position>(file, LongMap.KEY_ORDER,
+					Position::new)) {
+				assertEquals(hm.size(), map.size());
+				Position flyweight = new Position();
+				for (long key = 0; key < SIZE; key++) {
+					Integer expected = hm.get(key);
+					if (expected == null) {
+						assertNull(map.get(key, flyweight));
+						assertFalse(map.containsKey(key));
+					} else {
+						assertEquals((int) expected, map.get(key, flyweight).quantity.get());
+					}
+				}
+				int count = 0;
+				for (Position position : map) {
+					assertTrue(hm.containsKey(position.account.get()));
+					count++;
+				}
+				assertEquals(hm.size(), count);
+			}
+		} finally {
+			file.delete();
+		}
+	}
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+
+import org.javolution.io.Struct;
+import org.junit.Test;
+
+public class StructTableTest {
+
+	private static final int SIZE = 20000;
+
+	static class Quote extends Struct {
+		final Signed64 id = new Signed64();
+		final Float64 price = new Float64();
+		final Unsigned8 flag = new Unsigned8(); // Odd size (padded).
+	}
+
+	private static Quote newQuote(long id) {
+		Quote quote = new Quote();
+		quote.id.set(id);
+		quote.price.set(id / 2.0);
+		quote.flag.set((short) (id & 0xFF));
+		return quote;
+	}
+
+	@Test
+	public void testInsertDelete() {
+		Random rnd = new Random(0);
+		ArrayList<Long> al = new ArrayList<Long>();
+		StructTable<Quote> table = new StructTable<Quote>(Quote::new);
+		for (int i = 0; i < 2 * SIZE; i++) { // Grows then shrinks (pages reshaped).
+			boolean grow = (i < SIZE) ? rnd.nextInt(4) != 0 : rnd.nextInt(4) == 0;
+			if (grow || al.isEmpty()) {
+				int j = rnd.nextInt(al.size() + 1);
+				long id = rnd.nextLong();
+				al.add(j, id);
+				table.add(j, newQuote(id));
+			} else {
+				int j = rnd.nextInt(al.size());
+				assertEquals((long) al.remove(j), table.remove(j).id.get());
+			}
+		}
+		assertEquals(al.size(), table.size());
+		Quote flyweight = new Quote();
+		for (int i = 0; i < al.size(); i++) {
+			assertEquals((long) al.get(i), table.get(i, flyweight).id.get());
+			assertEquals(al.get(i) / 2.0, flyweight.price.get(), 0.0);
+			assertEquals((short) (al.get(i) & 0xFF), flyweight.flag.get());
+		}
+	}
+
+	@Test
+	public void testFlyweights() {
+		StructTable<Quote> table = new StructTable<Quote>(Quote::new);
+		for (int i = 0; i < 100; i++) table.addNew().id.set(i);
+		FastIterator<Quote> itr = table.iterator();
+		Quote first = itr.next();
+		for (int count = 1; itr.hasNext(); count++) {
+			Quote quote = itr.next();
+			assertSame(first, quote); // Same flyweight.
+			assertEquals(count, quote.id.get());
+		}
+		table.add(0, table.get(99)); // Views over moved records are copied.
+		assertEquals(99, table.get(0).id.get());
+		assertEquals(99, table.get(100).id.get());
+		Quote searched = new Quote();
+		searched.id.set(49);
+		assertTrue(table.contains(searched)); // Content equality.
+		assertEquals(50, table.indexOf(searched));
+	}
+
+	@Test
+	public void testRemoveIfAndSort() {
+		Random rnd = new Random(1);
+		ArrayList<Long> al = new ArrayList<Long>();
+		StructTable<Quote> table = new StructTable<Quote>(Quote::new);
+		for (int i = 0; i < SIZE; i++) {
+			long id = rnd.nextInt(1000);
+			al.add(id);
+			table.add(newQuote(id));
+		}
+		al.removeIf(id -> (id % 3) == 0);
+		table.removeIf(quote -> (quote.id.get() % 3) == 0);
+		assertEquals(al.size(), table.size());
+		Collections.sort(al);
+		table.sort((a, b) -> Long.compare(a.id.get(), b.id.get()));
+		for (int i = 0; i < al.size(); i++)
+			assertEquals((long) al.get(i), table.get(i).id.get());
+		StructTable<Quote> copy = table.clone();
+		table.clear();
+		assertEquals(al.size(), copy.size());
+		assertEquals((long) al.get(0), copy.getFirst().id.get());
+	}
+
+}
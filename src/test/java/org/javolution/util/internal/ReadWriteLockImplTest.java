@@ -0,0 +1,139 @@
+/*
+ * Javolution - Java(TM) Solution for Real-Time and Embedded Systems
+ * Copyright (C) 2012 - Javolution (http://javolution.org/)
+ * All rights reserved.
+ *
+ * Permission to use, copy, modify, and distribute this software is
+ * freely granted, provided that this notice is preserved.
+ */
+package org.javolution.util.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+public class ReadWriteLockImplTest {
+
+	@Test
+	public void testReentrantWrite() throws InterruptedException {
+		ReadWriteLockImpl lock = new ReadWriteLockImpl();
+		lock.writeLock.lock();
+		lock.writeLock.lock();
+		lock.writeLock.unlock();
+		assertFalse(tryLockFromOtherThread(lock, false)); // Still held once.
+		lock.writeLock.unlock();
+		assertTrue(tryLockFromOtherThread(lock, false));
+	}
+
+	@Test
+	public void testReadInsideWrite() throws InterruptedException {
+		ReadWriteLockImpl lock = new ReadWriteLockImpl();
+		lock.writeLock.lock();
+		lock.readLock.lock(); // Does not deadlock.
+		assertTrue(lock.readLock.tryLock());
+		lock.readLock.unlock();
+		lock.readLock.unlock();
+		assertEquals("value", lock.optimisticRead(() -> "value"));
+		assertFalse(tryLockFromOtherThread(lock, true));
+		lock.writeLock.unlock();
+		assertTrue(tryLockFromOtherThread(lock, true));
+	}
+
+	@Test
+	public void testTryLock() throws InterruptedException {
+		ReadWriteLockImpl lock = new ReadWriteLockImpl();
+		lock.readLock.lock();
+		assertTrue(tryLockFromOtherThread(lock, true)); // Shared.
+		assertFalse(tryLockFromOtherThread(lock, false));
+		lock.readLock.unlock();
+		assertTrue(lock.writeLock.tryLock());
+		assertTrue(lock.writeLock.tryLock()); // Reentrant.
+		lock.writeLock.unlock();
+		lock.writeLock.unlock();
+		assertTrue(tryLockFromOtherThread(lock, false));
+	}
+
+	@Test(expected = IllegalMonitorStateException.class)
+	public void testWriteUnlockNotHeld() {
+		new ReadWriteLockImpl().writeLock.unlock();
+	}
+
+	@Test(expected = IllegalMonitorStateException.class)
+	public void testWriteUnlockFromOtherThread() throws Throwable {
+		final ReadWriteLockImpl lock = new ReadWriteLockImpl();
+		lock.writeLock.lock();
+		final Throwable[] thrown = new Throwable[1];
+		Thread thread = new Thread(() -> {
+			try {
+				lock.writeLock.unlock();
+			} catch (Throwable error) {
+				thrown[0] = error;
+			}
+		});
+		thread.start();
+		thread.join();
+		lock.writeLock.unlock();
+		throw thrown[0];
+	}
+
+	@Test(expected = IllegalMonitorStateException.class)
+	public void testReadUnlockNotHeld() {
+		new ReadWriteLockImpl().readLock.unlock();
+	}
+
+	@Test
+	public void testOptimisticRead() {
+		final ReadWriteLockImpl lock = new ReadWriteLockImpl();
+		assertEquals(Integer.valueOf(1), lock.optimisticRead(() -> 1));
+		final AtomicBoolean first = new AtomicBoolean(true);
+		Integer result = lock.optimisticRead(() -> { // Concurrent write during the first attempt.
+			if (first.getAndSet(false)) {
+				writeFromOtherThread(lock);
+				throw new StackOverflowError(); // Inconsistent read.
+			}
+			return 2;
+		});
+		assertEquals(Integer.valueOf(2), result);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testOptimisticReadFailure() {
+		new ReadWriteLockImpl().optimisticRead(() -> {
+			throw new IllegalStateException(); // Consistent read.
+		});
+	}
+
+	/** Returns the result of tryLock (read or write) performed by another thread. */
+	private static boolean tryLockFromOtherThread(final ReadWriteLockImpl lock, final boolean read)
+			throws InterruptedException {
+		final AtomicBoolean locked = new AtomicBoolean();
+		Thread thread = new Thread(() -> {
+			if (read ? lock.readLock.tryLock() : lock.writeLock.tryLock()) {
+				locked.set(true);
+				if (read) lock.readLock.unlock();
+				else lock.writeLock.unlock();
+			}
+		});
+		thread.start();
+		thread.join();
+		return locked.get();
+	}
+
+	private static void writeFromOtherThread(final ReadWriteLockImpl lock) {
+		Thread thread = new Thread(() -> {
+			lock.writeLock.lock();
+			lock.writeLock.unlock();
+		});
+		thread.start();
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+}